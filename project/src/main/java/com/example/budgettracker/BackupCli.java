@@ -0,0 +1,86 @@
+package com.example.budgettracker;
+
+import com.example.budgettracker.service.BackupService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backup and restore from the command line, against the database the application is configured for:
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.example.budgettracker.BackupCli \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher backup --file=/backups/all.osb [--user=42]
+ * java ... restore --file=/backups/all.osb [--spring.datasource.url=...]
+ * </pre>
+ * Scheduled jobs, recurring postings and the mock data seed are switched off; any other --option is
+ * passed to Spring as a property.
+ */
+public class BackupCli {
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !(args[0].equals("backup") || args[0].equals("restore"))) {
+            usage();
+            return;
+        }
+        String command = args[0];
+        String file = null;
+        Long userId = null;
+        List<String> springArgs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--file=")) {
+                file = arg.substring("--file=".length());
+            } else if (arg.startsWith("--user=")) {
+                userId = Long.valueOf(arg.substring("--user=".length()));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+        if (file == null || (command.equals("restore") && userId != null)) {
+            usage();
+            return;
+        }
+        Path path = Paths.get(file);
+        if (command.equals("restore") && !Files.isRegularFile(path)) {
+            System.err.println("No such file: " + path);
+            System.exit(2);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BudgetTrackerApplication.class)
+                // The web stack stays up (security is configured against it) on a random port
+                .properties("server.port=0",
+                        "app.scheduling.enabled=false",
+                        "app.subscriptions.recurrence.enabled=false",
+                        "app.mock-data.enabled=false")
+                .run(springArgs.toArray(String[]::new));
+        int exitCode = 0;
+        try {
+            BackupService backupService = context.getBean(BackupService.class);
+            if (command.equals("backup") && userId != null && !backupService.userExists(userId)) {
+                System.err.println("No such user: " + userId);
+                exitCode = 2;
+            } else {
+                BackupService.Summary summary = command.equals("backup")
+                        ? backupService.backup(userId, path)
+                        : backupService.restore(path);
+                System.out.println(command + " " + path + ": " + summary.rows() + " in " + summary.millis() + " ms");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(command + " failed: " + e.getMessage());
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private static void usage() {
+        System.err.println("usage: BackupCli backup --file=<path> [--user=<id>] | restore --file=<path> [--spring.*=...]");
+        System.exit(64);
+    }
+}
@@ -2,10 +2,8 @@ package com.example.budgettracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableScheduling
 public class BudgetTrackerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,166 @@
+package com.example.budgettracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds /api/** load with an {@link AdaptiveLimiter} before a request reaches the session check,
+ * the controllers or the connection pool. Requests over the current limit get 503 with Retry-After
+ * straight away instead of queueing for a Tomcat thread or a connection.
+ * Paths under app.limiter.batch-paths and NDJSON streams are BATCH and are shed first; everything
+ * else is INTERACTIVE. Async requests hold their slot until they complete but are not sampled.
+ * Only INTERACTIVE requests that ran a handler and were not refused feed the latency window: batch
+ * work is slow by nature and one export would halve the limit for everyone, while 401s, 429s and
+ * bulkhead refusals are fast by nature and would drag the baseline down.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "app.limiter.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdaptiveConcurrencyFilter implements Filter {
+
+    private final AdaptiveLimiter limiter;
+    private final List<String> batchPaths;
+    private final Counter interactiveRejected;
+    private final Counter batchRejected;
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry,
+                                     @Value("${app.limiter.initial-limit:20}") int initialLimit,
+                                     @Value("${app.limiter.min-limit:4}") int minLimit,
+                                     @Value("${app.limiter.max-limit:200}") int maxLimit,
+                                     @Value("${app.limiter.tolerance:1.5}") double tolerance,
+                                     @Value("${app.limiter.smoothing:0.2}") double smoothing,
+                                     @Value("${app.limiter.window-size:50}") int windowSize,
+                                     @Value("${app.limiter.baseline-rate:0.05}") double baselineRate,
+                                     @Value("${app.limiter.batch-share:0.5}") double batchShare,
+                                     @Value("${app.limiter.batch-paths:/api/export/,/api/reports/}") List<String> batchPaths) {
+        this.limiter = new AdaptiveLimiter(initialLimit, minLimit, maxLimit, tolerance, smoothing,
+                windowSize, baselineRate, batchShare);
+        this.batchPaths = batchPaths;
+
+        Gauge.builder("limiter.limit", limiter, AdaptiveLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("limiter.inflight", limiter, AdaptiveLimiter::getInflight).register(meterRegistry);
+        Gauge.builder("limiter.rtt.baseline", limiter, AdaptiveLimiter::getBaselineMillis).baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("limiter.rtt.window", limiter, AdaptiveLimiter::getLastWindowMillis).baseUnit("milliseconds").register(meterRegistry);
+        this.interactiveRejected = Counter.builder("limiter.rejected").tag("priority", "interactive").register(meterRegistry);
+        this.batchRejected = Counter.builder("limiter.rejected").tag("priority", "batch").register(meterRegistry);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        if (httpRequest.getDispatcherType() != DispatcherType.REQUEST || !httpRequest.getRequestURI().startsWith("/api/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveLimiter.Priority priority = priority(httpRequest);
+        if (!limiter.tryAcquire(priority)) {
+            (priority == AdaptiveLimiter.Priority.BATCH ? batchRejected : interactiveRejected).increment();
+            sendOverloaded((HttpServletResponse) response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                releaseOnCompletion(request.getAsyncContext());
+            }
+        } finally {
+            if (!async) {
+                if (sampled(priority, httpRequest, (HttpServletResponse) response)) {
+                    limiter.release(System.nanoTime() - start);
+                } else {
+                    limiter.releaseWithoutSample();
+                }
+            }
+        }
+    }
+
+    private static boolean sampled(AdaptiveLimiter.Priority priority, HttpServletRequest request,
+                                   HttpServletResponse response) {
+        int status = response.getStatus();
+        return priority == AdaptiveLimiter.Priority.INTERACTIVE
+                && request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) != null
+                && status != HttpServletResponse.SC_UNAUTHORIZED
+                && status != 429
+                && status != HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+    }
+
+    AdaptiveLimiter.Priority priority(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return AdaptiveLimiter.Priority.BATCH;
+        }
+        String path = request.getRequestURI();
+        for (String prefix : batchPaths) {
+            if (path.startsWith(prefix.trim())) {
+                return AdaptiveLimiter.Priority.BATCH;
+            }
+        }
+        return AdaptiveLimiter.Priority.INTERACTIVE;
+    }
+
+    AdaptiveLimiter getLimiter() {
+        return limiter;
+    }
+
+    private void releaseOnCompletion(AsyncContext asyncContext) {
+        AtomicBoolean released = new AtomicBoolean();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                release();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                release();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                release();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                event.getAsyncContext().addListener(this);
+            }
+
+            private void release() {
+                if (released.compareAndSet(false, true)) {
+                    limiter.releaseWithoutSample();
+                }
+            }
+        });
+    }
+
+    private void sendOverloaded(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType("application/json");
+        response.getWriter().write("{\"message\": \"Server is busy, try again shortly\"}");
+    }
+}
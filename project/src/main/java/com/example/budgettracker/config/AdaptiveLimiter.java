@@ -0,0 +1,158 @@
+package com.example.budgettracker.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient-style adaptive concurrency limit (see {@link AdaptiveConcurrencyFilter}).
+ * Latency samples are averaged over windows of windowSize requests. Each window compares its
+ * average against a no-load baseline and moves the limit:
+ * <pre>
+ *   gradient = clamp(tolerance * baseline / windowRtt, 0.5, 1.0)
+ *   target   = limit * gradient + sqrt(limit)
+ *   limit    = limit + smoothing * (target - limit)
+ * </pre>
+ * While latency stays within tolerance of the baseline the limit creeps up by sqrt(limit);
+ * once requests queue and latency inflates, the gradient pulls it back down.
+ * The baseline drifts down towards faster windows but only rises while the limit is pinned at
+ * minLimit and latency is still inflated, i.e. when the backend itself has become slower rather
+ * than overloaded. Letting it follow every window would let queueing delay become the new normal.
+ * Not thread-safe to configure; tryAcquire/release are safe from any thread.
+ */
+public class AdaptiveLimiter {
+
+    public enum Priority {
+        // Dashboard, session and other user-facing reads; may use the whole limit
+        INTERACTIVE,
+        // Exports, report rendering, bulk operations; only admitted below batchShare of the limit
+        BATCH
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int windowSize;
+    private final double baselineRate;
+    private final double batchShare;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // Window state, guarded by windowLock. Every /api request ends here, so this is a j.u.c. lock
+    // rather than a monitor: a virtual thread blocked on a monitor keeps its carrier thread.
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInflight;
+    private double baselineNanos;
+    private double lastWindowNanos;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                           double smoothing, int windowSize, double baselineRate, double batchShare) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.01, smoothing));
+        this.windowSize = Math.max(1, windowSize);
+        this.baselineRate = Math.min(1.0, Math.max(0.001, baselineRate));
+        this.batchShare = Math.min(1.0, Math.max(0.0, batchShare));
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Take an in-flight slot; false means the request should be rejected
+     */
+    public boolean tryAcquire(Priority priority) {
+        double allowed = priority == Priority.BATCH ? Math.max(1, limit * batchShare) : limit;
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give the slot back, recording how long the request held it
+     */
+    public void release(long rttNanos) {
+        int inflightAtFinish = inflight.getAndDecrement();
+        onSample(rttNanos, inflightAtFinish);
+    }
+
+    /**
+     * Give the slot back without a sample (async requests, whose handler time says nothing about load)
+     */
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    void onSample(long rttNanos, int inflightAtFinish) {
+        windowLock.lock();
+        try {
+            sample(rttNanos, inflightAtFinish);
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private void sample(long rttNanos, int inflightAtFinish) {
+        windowRttSum += rttNanos;
+        windowCount++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtFinish);
+        if (windowCount < windowSize) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowCount;
+        int maxInflight = windowMaxInflight;
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInflight = 0;
+        lastWindowNanos = shortRtt;
+
+        double current = limit;
+        if (baselineNanos == 0 || shortRtt < baselineNanos) {
+            baselineNanos = baselineNanos == 0 ? shortRtt : baselineNanos + baselineRate * (shortRtt - baselineNanos);
+        } else if (current <= minLimit && shortRtt > baselineNanos * tolerance) {
+            baselineNanos *= 1 + baselineRate;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / shortRtt));
+        if (gradient >= 1.0 && maxInflight < current / 2) {
+            // Not using the limit we have; latency says nothing about whether a higher one would be safe
+            return;
+        }
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.min(maxLimit, Math.max(minLimit, current + smoothing * (target - current)));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public double getBaselineMillis() {
+        windowLock.lock();
+        try {
+            return baselineNanos / 1_000_000.0;
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    public double getLastWindowMillis() {
+        windowLock.lock();
+        try {
+            return lastWindowNanos / 1_000_000.0;
+        } finally {
+            windowLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.BackupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * backup endpoint: list snapshots in the backup directory, write one (userId for a single user or
+ * none for the whole instance) or restore one by file name.
+ * Exposed over JMX only (management.endpoints.jmx.exposure.include); snapshots carry password
+ * hashes and restore writes into the live database, so it must not be added to the web exposure.
+ */
+@Component
+@Endpoint(id = "backup")
+@RequiredArgsConstructor
+public class BackupEndpoint {
+
+    private final BackupService backupService;
+
+    @ReadOperation
+    public List<Map<String, Object>> backups() {
+        return backupService.list();
+    }
+
+    @WriteOperation
+    public BackupService.Summary backup(@OptionalParameter Long userId) {
+        if (userId != null && !backupService.userExists(userId)) {
+            return null;
+        }
+        return backupService.backup(userId, backupService.newFile(userId));
+    }
+
+    @WriteOperation
+    public BackupService.Summary restore(@Selector String file) {
+        Path path = backupService.resolve(file);
+        if (path == null) {
+            return null;
+        }
+        return backupService.restore(path);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.BudgetCoinReconciler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetCoinReconcileScheduler {
+
+    private final BudgetCoinReconciler reconciler;
+
+    /**
+     * Verify BudgetCoin balances against the reward ledger every night at 03:30.
+     * Partitions run on the reconciler's own fork-join pool, so cancellation is captured here
+     * on the job thread and polled by the workers.
+     */
+    @Scheduled(cron = "${app.budgetcoin.reconcile.cron:0 30 3 * * *}")
+    @ManagedJob(name = "budgetcoin-reconcile", timeoutSeconds = 3600)
+    @ClusterLocked(name = "budgetcoin-reconcile", leaseSeconds = 600)
+    public void reconcile() {
+        JobContext ctx = JobContext.current().orElse(null);
+        BudgetCoinReconciler.Result result = reconciler.reconcile(() -> ctx != null && ctx.isCancelled());
+        JobContext.recordProcessed(result.usersScanned());
+        if (result.drifted() > 0) {
+            log.warn("BudgetCoin reconciliation: {} of {} users drifted by {} coins in total, {} repaired",
+                    result.drifted(), result.usersScanned(), result.driftCoins(), result.repaired());
+        } else {
+            log.info("BudgetCoin reconciliation: {} users checked, no drift", result.usersScanned());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.budgettracker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Give an expensive endpoint its own concurrency limit (see {@link BulkheadAspect}), so a burst of
+ * exports or renders cannot take every request thread and pooled connection from cheap endpoints.
+ * Methods sharing a name share one compartment. Every limit can be overridden with
+ * app.bulkheads.&lt;name&gt;.max-concurrent, max-waiting, max-wait-ms and retry-after-seconds.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    /**
+     * Compartment name, used for configuration and metrics
+     */
+    String value();
+
+    /**
+     * Calls running at once
+     */
+    int maxConcurrent() default 4;
+
+    /**
+     * Calls allowed to wait for a slot; any more are turned away immediately
+     */
+    int maxWaiting() default 4;
+
+    /**
+     * How long a waiting call waits for a slot before it is turned away
+     */
+    long maxWaitMillis() default 500;
+
+    /**
+     * Sent as Retry-After on the 429
+     */
+    long retryAfterSeconds() default 2;
+}
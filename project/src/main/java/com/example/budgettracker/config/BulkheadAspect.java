@@ -0,0 +1,130 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.errors.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enforces {@link Bulkhead} limits. A call takes a free slot straight away, or waits up to
+ * max-wait-ms behind at most max-waiting others; otherwise it fails fast with
+ * {@link BulkheadFullException} (429) before any work is done.
+ * Publishes bulkhead.active, bulkhead.waiting, bulkhead.limit and bulkhead.saturation gauges,
+ * a bulkhead.wait timer and a bulkhead.rejected counter, all tagged with the compartment name.
+ * Ordered first so a rejected call never opens a transaction or touches the connection pool.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class BulkheadAspect {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Compartment> compartments = new ConcurrentHashMap<>();
+
+    public BulkheadAspect(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object limit(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        Compartment compartment = compartment(bulkhead);
+        compartment.acquire();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            compartment.permits.release();
+        }
+    }
+
+    Compartment compartment(Bulkhead bulkhead) {
+        return compartments.computeIfAbsent(bulkhead.value(), name -> {
+            String prefix = "app.bulkheads." + name + ".";
+            Compartment c = new Compartment(name,
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, bulkhead.maxConcurrent()),
+                    environment.getProperty(prefix + "max-waiting", Integer.class, bulkhead.maxWaiting()),
+                    environment.getProperty(prefix + "max-wait-ms", Long.class, bulkhead.maxWaitMillis()),
+                    environment.getProperty(prefix + "retry-after-seconds", Long.class, bulkhead.retryAfterSeconds()));
+            log.info("Bulkhead {}: {} concurrent, {} waiting for up to {} ms", name, c.limit, c.maxWaiting, c.maxWaitMillis);
+            return c;
+        });
+    }
+
+    final class Compartment {
+
+        final String name;
+        final int limit;
+        final int maxWaiting;
+        final long maxWaitMillis;
+        final long retryAfterSeconds;
+        final Semaphore permits;
+        final AtomicInteger waiting = new AtomicInteger();
+        private final Timer waitTimer;
+        private final Counter queueFull;
+        private final Counter timedOut;
+
+        Compartment(String name, int limit, int maxWaiting, long maxWaitMillis, long retryAfterSeconds) {
+            this.name = name;
+            this.limit = Math.max(1, limit);
+            this.maxWaiting = Math.max(0, maxWaiting);
+            this.maxWaitMillis = Math.max(0, maxWaitMillis);
+            this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+            // Fair, so callers that waited are served in arrival order
+            this.permits = new Semaphore(this.limit, true);
+
+            Gauge.builder("bulkhead.active", this, Compartment::active).tag("name", name).register(meterRegistry);
+            Gauge.builder("bulkhead.waiting", waiting, AtomicInteger::get).tag("name", name).register(meterRegistry);
+            Gauge.builder("bulkhead.limit", this, c -> c.limit).tag("name", name).register(meterRegistry);
+            Gauge.builder("bulkhead.saturation", this, c -> (double) c.active() / c.limit).tag("name", name).register(meterRegistry);
+            this.waitTimer = Timer.builder("bulkhead.wait").tag("name", name).register(meterRegistry);
+            this.queueFull = Counter.builder("bulkhead.rejected").tag("name", name).tag("reason", "queue_full").register(meterRegistry);
+            this.timedOut = Counter.builder("bulkhead.rejected").tag("name", name).tag("reason", "timeout").register(meterRegistry);
+        }
+
+        int active() {
+            return limit - permits.availablePermits();
+        }
+
+        void acquire() {
+            if (permits.tryAcquire()) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                queueFull.increment();
+                throw new BulkheadFullException(name, retryAfterSeconds);
+            }
+            long start = System.nanoTime();
+            boolean acquired = false;
+            try {
+                acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiting.decrementAndGet();
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                timedOut.increment();
+                throw new BulkheadFullException(name, retryAfterSeconds);
+            }
+        }
+    }
+}
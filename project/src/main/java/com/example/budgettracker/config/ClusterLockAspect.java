@@ -0,0 +1,104 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.model.enums.JobRunStatus;
+import com.example.budgettracker.service.SchedulerLockService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ClusterLocked} methods only on the node holding the job's lease, heartbeats the
+ * lease while the method runs and records the run in scheduler_run_history.
+ * Inside a {@link ManagedJob} run, a lost lease skips or cancels the run and history is left to the job registry.
+ * Ordered ahead of the transaction interceptor so the lease is held across the whole transaction.
+ * The annotation is looked up rather than bound as an advice argument: under {@link ManagedJobAspect}
+ * this advice runs on the job's worker thread, where Spring cannot bind pointcut arguments.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class ClusterLockAspect {
+
+    private final SchedulerLockService lockService;
+    private final ScheduledExecutorService heartbeats;
+
+    public ClusterLockAspect(SchedulerLockService lockService) {
+        this.lockService = lockService;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scheduler-lease-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Around("@annotation(com.example.budgettracker.config.ClusterLocked)")
+    public Object runWithLease(ProceedingJoinPoint joinPoint) throws Throwable {
+        ClusterLocked clusterLocked = AnnotationUtils.findAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), ClusterLocked.class);
+        if (clusterLocked == null) {
+            return joinPoint.proceed();
+        }
+        String name = clusterLocked.name();
+        Duration lease = Duration.ofSeconds(clusterLocked.leaseSeconds());
+
+        Optional<JobContext> jobContext = JobContext.current();
+        if (!lockService.tryAcquire(name, lease)) {
+            jobContext.ifPresent(JobContext::markSkipped);
+            return null;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long heartbeatSeconds = Math.max(1, clusterLocked.leaseSeconds() / 3);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                () -> heartbeat(name, lease, jobContext), heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        JobRunStatus status = JobRunStatus.SUCCEEDED;
+        String error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            status = JobRunStatus.FAILED;
+            error = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            heartbeat.cancel(false);
+            lockService.release(name, Duration.ofSeconds(clusterLocked.lockAtLeastSeconds()));
+            // Managed jobs record their own run, including item counters
+            if (jobContext.isEmpty()) {
+                lockService.recordRun(name, startedAt, LocalDateTime.now(), status, error);
+            }
+        }
+    }
+
+    private void heartbeat(String name, Duration lease, Optional<JobContext> jobContext) {
+        try {
+            if (!lockService.extend(name, lease)) {
+                // Another node has taken over; stop work we no longer own
+                jobContext.ifPresent(ctx -> ctx.cancel(JobRunStatus.CANCELLED));
+            }
+        } catch (Exception e) {
+            log.warn("Heartbeat for scheduler lease {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.budgettracker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opt a @Scheduled method into the cluster-wide lease (see {@link ClusterLockAspect}).
+ * Only the node that wins the scheduler_lock row runs the method; the others skip the run.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterLocked {
+
+    /**
+     * Lock name, unique per job
+     */
+    String name();
+
+    /**
+     * Lease length. The owning node heartbeats at a third of this, so a dead leader's
+     * lease is taken over by another node within this many seconds.
+     */
+    long leaseSeconds() default 30;
+
+    /**
+     * Keep the lease for at least this long after the run started, so nodes whose
+     * clocks are slightly behind do not run the same trigger again after we finish.
+     */
+    long lockAtLeastSeconds() default 0;
+}
@@ -0,0 +1,30 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.CoinRuleEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CoinRuleGrantScheduler {
+
+    private final CoinRuleEngine coinRuleEngine;
+
+    /**
+     * Close the previous month: 2am on the first, before the summary emails go out at 9am
+     */
+    @Scheduled(cron = "${app.budgetcoin.rules.cron:0 0 2 1 * *}")
+    @ManagedJob(name = "budgetcoin-rule-grants", timeoutSeconds = 2 * 60 * 60)
+    @ClusterLocked(name = "budgetcoin-rule-grants", leaseSeconds = 300, lockAtLeastSeconds = 3600)
+    public void grantPreviousMonth() {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        CoinRuleEngine.Result result = coinRuleEngine.grantForMonth(month);
+        log.info("BudgetCoin rules for {}: {} grants, {} coins, {} of {} chunks failed",
+                month, result.granted(), result.coins(), result.failedChunks(), result.chunks());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.budgettracker.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many threads can hold or be acquiring a pooled connection at once (see {@link VirtualThreadConfig}).
+ * With request handling on virtual threads there is no worker pool in front of the database any
+ * more: thousands of requests can reach Hikari together and queue inside it, each one holding a
+ * Hikari wait slot until connection-timeout. A fair semaphore sized to the pool parks the excess
+ * in front of Hikari instead, where waiting costs a virtual thread nothing and callers are served
+ * in arrival order. A permit is held from getConnection until the connection is closed, and a
+ * caller that cannot get one within acquireTimeout fails the way Hikari would, with
+ * SQLTransientConnectionException.
+ */
+public class ConnectionAcquisitionGuard extends DelegatingDataSource {
+
+    private final int permits;
+    private final long acquireTimeoutMillis;
+    private final Semaphore semaphore;
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public ConnectionAcquisitionGuard(DataSource target, int permits, long acquireTimeoutMillis) {
+        super(target);
+        this.permits = Math.max(1, permits);
+        this.acquireTimeoutMillis = Math.max(0, acquireTimeoutMillis);
+        this.semaphore = new Semaphore(this.permits, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guarded(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guarded(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public int getActive() {
+        return permits - semaphore.availablePermits();
+    }
+
+    public int getWaiting() {
+        return semaphore.getQueueLength();
+    }
+
+    public double getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public double getWaitSeconds() {
+        return waitNanos.sum() / 1_000_000_000.0;
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("Connection not available, " + getWaiting()
+                    + " waiting for " + permits + " connections after " + acquireTimeoutMillis + "ms");
+        }
+    }
+
+    // The permit goes back on the first close(); later closes and every other call pass straight through
+    private Connection guarded(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionAcquisitionGuard.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    semaphore.release();
+                                }
+                            }
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "unwrap":
+                            return ((Class<?>) args[0]).isInstance(proxy) ? proxy : connection.unwrap((Class<?>) args[0]);
+                        case "isWrapperFor":
+                            return ((Class<?>) args[0]).isInstance(proxy) || connection.isWrapperFor((Class<?>) args[0]);
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+}
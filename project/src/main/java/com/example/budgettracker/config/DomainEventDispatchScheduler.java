@@ -0,0 +1,42 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.DomainEventDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DomainEventDispatchScheduler {
+
+    private final DomainEventDispatcher dispatcher;
+
+    /**
+     * Drain the domain event log batch by batch until every consumer is caught up.
+     * The cluster lock keeps a single dispatcher, which is what keeps per-user delivery ordered.
+     */
+    @Scheduled(fixedDelayString = "${app.events.poll-ms:1000}", initialDelay = 10000)
+    @ManagedJob(name = "domain-event-dispatch", timeoutSeconds = 300, idleHistorySeconds = 600)
+    @ClusterLocked(name = "domain-event-dispatch", leaseSeconds = 30)
+    public void dispatch() {
+        int handled;
+        do {
+            if (JobContext.isCancellationRequested()) {
+                return;
+            }
+            handled = dispatcher.dispatchBatch();
+            JobContext.recordProcessed(handled);
+        } while (handled >= dispatcher.getBatchSize());
+    }
+
+    @Scheduled(cron = "0 45 3 * * *") // 3:45am daily
+    @ManagedJob(name = "domain-event-purge", timeoutSeconds = 600)
+    @ClusterLocked(name = "domain-event-purge", lockAtLeastSeconds = 600)
+    public void purge() {
+        int deleted = dispatcher.purgeDelivered();
+        JobContext.recordProcessed(deleted);
+        log.info("Purged {} delivered domain events", deleted);
+    }
+}
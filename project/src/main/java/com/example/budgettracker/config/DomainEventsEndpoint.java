@@ -0,0 +1,43 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.DomainEventDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/domain-events: consumer checkpoints and lag, and replay (POST {"fromEventId": n},
+ * or no body for the whole log) to rebuild a consumer's projection.
+ * Like every actuator endpoint except health, info and metrics it needs the ADMIN login (see {@link SecurityConfig}).
+ */
+@Component
+@Endpoint(id = "domain-events")
+@RequiredArgsConstructor
+public class DomainEventsEndpoint {
+
+    private final DomainEventDispatcher dispatcher;
+
+    @ReadOperation
+    public List<DomainEventDispatcher.ConsumerStatus> consumers() {
+        return dispatcher.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Selector String name, @OptionalParameter Long fromEventId) {
+        if (!dispatcher.replay(name, fromEventId)) {
+            return null;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("consumer", name);
+        body.put("fromEventId", fromEventId == null ? 1 : fromEventId);
+        return body;
+    }
+}
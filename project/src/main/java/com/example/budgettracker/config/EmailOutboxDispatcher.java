@@ -0,0 +1,47 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.EmailOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService outboxService;
+    private final int batchSize;
+
+    public EmailOutboxDispatcher(EmailOutboxService outboxService,
+                                 @Value("${app.email.outbox.batch-size:50}") int batchSize) {
+        this.outboxService = outboxService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Drain due messages batch by batch until the outbox is caught up.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-ms:5000}", initialDelay = 10000)
+    @ManagedJob(name = "email-outbox-dispatch", timeoutSeconds = 300, idleHistorySeconds = 600)
+    @ClusterLocked(name = "email-outbox-dispatch", leaseSeconds = 30)
+    public void dispatch() {
+        int pickedUp;
+        do {
+            if (JobContext.isCancellationRequested()) {
+                return;
+            }
+            pickedUp = outboxService.dispatchBatch();
+            JobContext.recordProcessed(pickedUp);
+        } while (pickedUp >= batchSize);
+    }
+
+    @Scheduled(cron = "0 30 3 * * *") // 3:30am daily
+    @ManagedJob(name = "email-outbox-purge", timeoutSeconds = 600)
+    @ClusterLocked(name = "email-outbox-purge", lockAtLeastSeconds = 600)
+    public void purge() {
+        int deleted = outboxService.purgeSent();
+        JobContext.recordProcessed(deleted);
+        log.info("Purged {} delivered emails from the outbox", deleted);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.GoalStatsBackfill;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GoalStatsBackfillScheduler {
+
+    private final GoalStatsBackfill backfill;
+
+    /**
+     * Seed goal contribution statistics page by page. Runs shortly after startup and then
+     * hourly; once every goal is seeded a run is a single empty query.
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 3600000)
+    @ManagedJob(name = "goal-stats-backfill", timeoutSeconds = 1800)
+    @ClusterLocked(name = "goal-stats-backfill", leaseSeconds = 300)
+    public void backfill() {
+        int total = 0;
+        int seeded;
+        do {
+            if (JobContext.isCancellationRequested()) {
+                break;
+            }
+            seeded = backfill.backfillPage();
+            JobContext.recordProcessed(seeded);
+            total += seeded;
+        } while (seeded > 0);
+        if (total > 0) {
+            log.info("Seeded contribution statistics for {} goals", total);
+        }
+    }
+}
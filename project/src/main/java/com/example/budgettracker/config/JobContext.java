@@ -0,0 +1,114 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.model.enums.JobRunStatus;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-run state of a {@link ManagedJob}, bound to the worker thread while the job runs.
+ * Job code reports progress through the static helpers, which are no-ops outside a managed run.
+ */
+public final class JobContext {
+
+    private static final ThreadLocal<JobContext> CURRENT = new ThreadLocal<>();
+
+    private final String runId = UUID.randomUUID().toString();
+    private final String jobName;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicLong itemsProcessed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile JobRunStatus cancelStatus;
+    private volatile boolean skipped;
+
+    JobContext(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public static Optional<JobContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static void recordProcessed(long count) {
+        JobContext ctx = CURRENT.get();
+        if (ctx != null) {
+            ctx.itemsProcessed.addAndGet(count);
+        }
+    }
+
+    public static void recordFailure() {
+        JobContext ctx = CURRENT.get();
+        if (ctx != null) {
+            ctx.failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Long-running loops should check this between items and stop early when true
+     */
+    public static boolean isCancellationRequested() {
+        JobContext ctx = CURRENT.get();
+        return ctx != null && ctx.cancelStatus != null;
+    }
+
+    void bind() {
+        startedAt = LocalDateTime.now();
+        CURRENT.set(this);
+    }
+
+    void unbind() {
+        CURRENT.remove();
+    }
+
+    void cancel(JobRunStatus reason) {
+        if (cancelStatus == null) {
+            cancelStatus = reason;
+        }
+    }
+
+    /**
+     * Mark the run as not executed on this node (e.g. another node holds the cluster lease)
+     */
+    void markSkipped() {
+        skipped = true;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public long getItemsProcessed() {
+        return itemsProcessed.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelStatus != null;
+    }
+
+    JobRunStatus getCancelStatus() {
+        return cancelStatus;
+    }
+
+    boolean isSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.SchedulerLockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/jobs: list managed jobs, inspect one (active runs + recent history),
+ * trigger a run (POST) or cancel running ones (DELETE).
+ */
+@Component
+@Endpoint(id = "jobs")
+@RequiredArgsConstructor
+public class JobsEndpoint {
+
+    private final ManagedJobRegistry registry;
+    private final SchedulerLockService lockService;
+
+    @ReadOperation
+    public List<Map<String, Object>> jobs() {
+        return registry.getJobNames().stream()
+                .sorted()
+                .map(this::summary)
+                .toList();
+    }
+
+    @ReadOperation
+    public Map<String, Object> job(@Selector String name) {
+        if (registry.getDefinition(name).isEmpty()) {
+            return null;
+        }
+        Map<String, Object> body = summary(name);
+        body.put("recentRuns", lockService.recentRuns(name));
+        return body;
+    }
+
+    @WriteOperation
+    public Map<String, Object> trigger(@Selector String name) {
+        if (registry.getDefinition(name).isEmpty()) {
+            return null;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("job", name);
+        registry.trigger(name).ifPresentOrElse(
+                runId -> {
+                    body.put("submitted", true);
+                    body.put("runId", runId);
+                },
+                () -> body.put("submitted", false));
+        return body;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> cancel(@Selector String name) {
+        if (registry.getDefinition(name).isEmpty()) {
+            return null;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("job", name);
+        body.put("cancelled", registry.cancel(name));
+        return body;
+    }
+
+    private Map<String, Object> summary(String name) {
+        ManagedJob definition = registry.getDefinition(name).orElseThrow();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", name);
+        body.put("concurrency", definition.concurrency());
+        body.put("overlap", definition.overlap());
+        body.put("timeoutSeconds", definition.timeoutSeconds());
+        body.put("skippedRuns", registry.getSkippedCount(name));
+        body.put("activeRuns", registry.getActiveRuns(name).stream()
+                .map(run -> {
+                    Map<String, Object> active = new LinkedHashMap<>();
+                    active.put("runId", run.getRunId());
+                    active.put("submittedAt", run.getSubmittedAt());
+                    active.put("startedAt", run.getStartedAt());
+                    active.put("itemsProcessed", run.getItemsProcessed());
+                    active.put("failures", run.getFailures());
+                    active.put("cancelled", run.isCancelled());
+                    return active;
+                })
+                .toList());
+        return body;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.budgettracker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a @Scheduled (or manually triggered) method on its own bounded executor instead of
+ * Spring's shared scheduler thread. See {@link ManagedJobRegistry}.
+ * The annotated method must return void; it is dispatched asynchronously.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ManagedJob {
+
+    /**
+     * Job name used for metrics, run history and the /actuator/jobs endpoint
+     */
+    String name();
+
+    /**
+     * Worker threads dedicated to this job
+     */
+    int concurrency() default 1;
+
+    /**
+     * Runs waiting for a worker, only used with {@link OverlapPolicy#QUEUE}
+     */
+    int queueCapacity() default 1;
+
+    OverlapPolicy overlap() default OverlapPolicy.SKIP;
+
+    /**
+     * Cancel the run after this many seconds, 0 for no timeout
+     */
+    long timeoutSeconds() default 0;
+
+    /**
+     * For frequent pollers: record an idle run (succeeded, nothing processed, no failures) in the
+     * run history at most once per this many seconds on each node; 0 records every run.
+     * Runs that did work, failed or were cancelled are always recorded.
+     */
+    long idleHistorySeconds() default 0;
+
+    enum OverlapPolicy {
+        /** Drop a trigger while a previous run is still in progress */
+        SKIP,
+        /** Queue the trigger behind the running one, up to queueCapacity */
+        QUEUE,
+        /** Allow up to concurrency runs side by side */
+        PARALLEL
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.budgettracker.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands {@link ManagedJob} invocations to the job's own executor and returns immediately,
+ * so the calling scheduler thread is free for the next trigger.
+ * Runs before {@link ClusterLockAspect}, so the lease is taken on the job's worker thread. The rest
+ * of the advice chain runs there too, so advice after this one must not bind pointcut arguments.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ManagedJobAspect {
+
+    private final ManagedJobRegistry registry;
+
+    @Around("@annotation(managedJob)")
+    public Object dispatch(ProceedingJoinPoint joinPoint, ManagedJob managedJob) throws Throwable {
+        boolean alreadyOnJobThread = JobContext.current()
+                .map(ctx -> ctx.getJobName().equals(managedJob.name()))
+                .orElse(false);
+        if (alreadyOnJobThread) {
+            return joinPoint.proceed();
+        }
+        registry.submit(managedJob, joinPoint::proceed);
+        return null;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.model.enums.JobRunStatus;
+import com.example.budgettracker.service.SchedulerLockService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small job framework for {@link ManagedJob} methods.
+ * Each job gets its own bounded executor so a slow job (e.g. the monthly summary email run)
+ * cannot hold up the others on Spring's single scheduler thread. Runs are timed with Micrometer,
+ * can time out or be cancelled, and are persisted to scheduler_run_history (idle runs of jobs with
+ * {@link ManagedJob#idleHistorySeconds()} are throttled per node).
+ */
+@Component
+@Slf4j
+public class ManagedJobRegistry implements SmartInitializingSingleton {
+
+    private static final String BASE_PACKAGE = "com.example.budgettracker";
+
+    private final ApplicationContext applicationContext;
+    private final SchedulerLockService lockService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, JobHandle> jobs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timeouts;
+
+    public ManagedJobRegistry(ApplicationContext applicationContext,
+                              SchedulerLockService lockService,
+                              MeterRegistry meterRegistry) {
+        this.applicationContext = applicationContext;
+        this.lockService = lockService;
+        this.meterRegistry = meterRegistry;
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-timeouts");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Discover @ManagedJob methods so they can be listed and triggered before their first scheduled run
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(type);
+            if (!userClass.getName().startsWith(BASE_PACKAGE)) {
+                continue;
+            }
+            Map<Method, ManagedJob> methods = MethodIntrospector.selectMethods(userClass,
+                    (MethodIntrospector.MetadataLookup<ManagedJob>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, ManagedJob.class));
+            if (methods.isEmpty()) {
+                continue;
+            }
+            Object bean = applicationContext.getBean(beanName);
+            methods.forEach((method, definition) -> {
+                JobHandle handle = handle(definition);
+                handle.bean = bean;
+                handle.method = AopUtils.selectInvocableMethod(method, bean.getClass());
+            });
+        }
+        log.info("Registered managed jobs: {}", jobs.keySet());
+    }
+
+    /**
+     * Dispatch a run onto the job's executor
+     * @return the run id, or empty if the run was skipped by the overlap policy
+     */
+    public Optional<String> submit(ManagedJob definition, JobBody body) {
+        JobHandle handle = handle(definition);
+        JobContext context = new JobContext(definition.name());
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            execute(handle, context, body);
+            return null;
+        });
+
+        // Scheduler threads may be virtual; the executor takes its own lock inside, which would pin under a monitor
+        handle.submitLock.lock();
+        try {
+            if (definition.overlap() == ManagedJob.OverlapPolicy.SKIP && !handle.active.isEmpty()) {
+                return skip(handle, "previous run still in progress");
+            }
+            handle.active.put(context.getRunId(), new ActiveRun(context, task));
+            try {
+                handle.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                handle.active.remove(context.getRunId());
+                return skip(handle, "executor saturated");
+            }
+        } finally {
+            handle.submitLock.unlock();
+        }
+        return Optional.of(context.getRunId());
+    }
+
+    /**
+     * Manually trigger a discovered job (used by the actuator endpoint)
+     * @return the run id, or empty if skipped
+     * @throws IllegalArgumentException if no such job exists
+     */
+    public Optional<String> trigger(String jobName) {
+        JobHandle handle = jobs.get(jobName);
+        if (handle == null || handle.method == null) {
+            throw new IllegalArgumentException("Unknown job: " + jobName);
+        }
+        return submit(handle.definition, () -> invoke(handle));
+    }
+
+    /**
+     * Request cancellation of all queued and running runs of a job
+     * @return number of runs cancelled
+     */
+    public int cancel(String jobName) {
+        JobHandle handle = jobs.get(jobName);
+        if (handle == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (ActiveRun run : handle.active.values()) {
+            run.context().cancel(JobRunStatus.CANCELLED);
+            run.task().cancel(true);
+            if (run.context().getStartedAt() == null) {
+                // Never started, so execute() will not clean it up
+                handle.executor.remove(run.task());
+                handle.active.remove(run.context().getRunId());
+            }
+            cancelled++;
+        }
+        if (cancelled > 0) {
+            log.info("Cancelled {} run(s) of job {}", cancelled, jobName);
+        }
+        return cancelled;
+    }
+
+    public Collection<String> getJobNames() {
+        return List.copyOf(jobs.keySet());
+    }
+
+    public Optional<ManagedJob> getDefinition(String jobName) {
+        return Optional.ofNullable(jobs.get(jobName)).map(h -> h.definition);
+    }
+
+    public List<JobContext> getActiveRuns(String jobName) {
+        JobHandle handle = jobs.get(jobName);
+        if (handle == null) {
+            return List.of();
+        }
+        List<JobContext> runs = new ArrayList<>();
+        handle.active.values().forEach(run -> runs.add(run.context()));
+        return runs;
+    }
+
+    public long getSkippedCount(String jobName) {
+        JobHandle handle = jobs.get(jobName);
+        return handle == null ? 0 : handle.skipped.get();
+    }
+
+    private void execute(JobHandle handle, JobContext context, JobBody body) {
+        String name = handle.definition.name();
+        context.bind();
+        LocalDateTime startedAt = context.getStartedAt();
+        ScheduledFuture<?> timeout = null;
+        if (handle.definition.timeoutSeconds() > 0) {
+            timeout = timeouts.schedule(() -> expire(handle, context),
+                    handle.definition.timeoutSeconds(), TimeUnit.SECONDS);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        JobRunStatus status = JobRunStatus.SUCCEEDED;
+        String error = null;
+        try {
+            body.run();
+            if (context.isCancelled()) {
+                status = context.getCancelStatus();
+            }
+        } catch (Throwable t) {
+            if (context.isCancelled()) {
+                status = context.getCancelStatus();
+            } else {
+                status = JobRunStatus.FAILED;
+                log.error("Job {} failed: {}", name, t.getMessage(), t);
+            }
+            error = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            handle.active.remove(context.getRunId());
+            context.unbind();
+            // Clear any interrupt from cancellation before the worker thread is reused
+            Thread.interrupted();
+        }
+
+        if (context.isSkipped()) {
+            return;
+        }
+        sample.stop(meterRegistry.timer("jobs.run", "job", name, "status", status.name()));
+        meterRegistry.counter("jobs.items.processed", "job", name).increment(context.getItemsProcessed());
+        meterRegistry.counter("jobs.items.failed", "job", name).increment(context.getFailures());
+        boolean idle = status == JobRunStatus.SUCCEEDED && context.getItemsProcessed() == 0 && context.getFailures() == 0;
+        if (!idle || recordIdleRun(handle)) {
+            lockService.recordRun(name, startedAt, LocalDateTime.now(), status,
+                    context.getItemsProcessed(), context.getFailures(), error);
+        }
+        log.debug("Job {} finished with status {} (processed={}, failures={})",
+                name, status, context.getItemsProcessed(), context.getFailures());
+    }
+
+    private static boolean recordIdleRun(JobHandle handle) {
+        long interval = TimeUnit.SECONDS.toNanos(handle.definition.idleHistorySeconds());
+        if (interval <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long last = handle.lastIdleRecorded.get();
+        return (last == 0 || now - last >= interval) && handle.lastIdleRecorded.compareAndSet(last, now);
+    }
+
+    private void expire(JobHandle handle, JobContext context) {
+        ActiveRun run = handle.active.get(context.getRunId());
+        if (run == null) {
+            return;
+        }
+        log.warn("Job {} exceeded its {}s timeout, cancelling run {}",
+                handle.definition.name(), handle.definition.timeoutSeconds(), context.getRunId());
+        context.cancel(JobRunStatus.TIMED_OUT);
+        run.task().cancel(true);
+    }
+
+    private Optional<String> skip(JobHandle handle, String reason) {
+        handle.skipped.incrementAndGet();
+        meterRegistry.counter("jobs.skipped", "job", handle.definition.name()).increment();
+        log.info("Skipping run of job {}: {}", handle.definition.name(), reason);
+        return Optional.empty();
+    }
+
+    private void invoke(JobHandle handle) throws Throwable {
+        try {
+            handle.method.invoke(handle.bean);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private JobHandle handle(ManagedJob definition) {
+        return jobs.computeIfAbsent(definition.name(), name -> {
+            JobHandle handle = new JobHandle(definition, newExecutor(definition));
+            Gauge.builder("jobs.active", handle.active, Map::size)
+                    .tag("job", name)
+                    .register(meterRegistry);
+            return handle;
+        });
+    }
+
+    private ThreadPoolExecutor newExecutor(ManagedJob definition) {
+        int threads = Math.max(1, definition.concurrency());
+        BlockingQueue<Runnable> queue = definition.overlap() == ManagedJob.OverlapPolicy.QUEUE
+                ? new ArrayBlockingQueue<>(Math.max(1, definition.queueCapacity()))
+                : new SynchronousQueue<>();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue, r -> {
+            Thread t = new Thread(r, "job-" + definition.name() + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeouts.shutdownNow();
+        jobs.values().forEach(handle -> handle.executor.shutdownNow());
+    }
+
+    /**
+     * Body of a job run; may throw anything the underlying method throws
+     */
+    @FunctionalInterface
+    public interface JobBody {
+        void run() throws Throwable;
+    }
+
+    private record ActiveRun(JobContext context, FutureTask<Void> task) {
+    }
+
+    private static final class JobHandle {
+        private final ManagedJob definition;
+        private final ThreadPoolExecutor executor;
+        private final Map<String, ActiveRun> active = new ConcurrentHashMap<>();
+        private final AtomicLong skipped = new AtomicLong();
+        // System.nanoTime() of the last idle run written to the history, 0 for none yet
+        private final AtomicLong lastIdleRecorded = new AtomicLong();
+        private final ReentrantLock submitLock = new ReentrantLock();
+        private volatile Object bean;
+        private volatile Method method;
+
+        private JobHandle(ManagedJob definition, ThreadPoolExecutor executor) {
+            this.definition = definition;
+            this.executor = executor;
+        }
+    }
+}
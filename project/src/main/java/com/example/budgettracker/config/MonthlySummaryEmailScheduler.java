@@ -1,31 +1,28 @@
 package com.example.budgettracker.config;
 
-import com.example.budgettracker.repository.UserRepository;
-import com.example.budgettracker.service.EmailService;
+import com.example.budgettracker.service.MonthlySummaryService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.YearMonth;
+
 @Service
+@Slf4j
 public class MonthlySummaryEmailScheduler {
 
-    private final UserRepository userRepository;
-    private final EmailService emailService;
+    private final MonthlySummaryService monthlySummaryService;
 
-    public MonthlySummaryEmailScheduler(UserRepository userRepository, EmailService emailService) {
-        this.userRepository = userRepository;
-        this.emailService = emailService;
+    public MonthlySummaryEmailScheduler(MonthlySummaryService monthlySummaryService) {
+        this.monthlySummaryService = monthlySummaryService;
     }
 
     @Scheduled(cron = "0 0 9 1 * *") // 9am, first of every month
+    @ManagedJob(name = "monthly-summary-email", timeoutSeconds = 4 * 60 * 60)
+    @ClusterLocked(name = "monthly-summary-email", leaseSeconds = 60, lockAtLeastSeconds = 3600)
     public void sendMonthlySummaries() {
-        userRepository.findAll().forEach(user -> {
-            if (Boolean.TRUE.equals(user.getAllowNotificationEmail())) {
-                emailService.sendMonthlySummaryEmail(
-                        user.getEmail(),
-                        user.getFirstName(),
-                        null // you can later pass an HTML report summary here
-                );
-            }
-        });
+        YearMonth month = YearMonth.now().minusMonths(1);
+        int queued = monthlySummaryService.sendMonthlySummaries(month);
+        log.info("Monthly summary run for {} queued {} emails", month, queued);
     }
 }
@@ -22,15 +22,19 @@ public class PasswordResetCleanupScheduler {
      * Runs at the top of every hour (0 minutes, 0 seconds)
      */
     @Scheduled(cron = "0 0 * * * *")
+    @ManagedJob(name = "password-reset-cleanup", timeoutSeconds = 300)
+    @ClusterLocked(name = "password-reset-cleanup", lockAtLeastSeconds = 600)
     public void cleanupExpiredTokens() {
         try {
             int deletedCount = passwordResetService.cleanupExpiredTokens();
+            JobContext.recordProcessed(deletedCount);
             if (deletedCount > 0) {
                 log.info("Password reset cleanup: Removed {} expired tokens", deletedCount);
             } else {
                 log.debug("Password reset cleanup: No expired tokens to remove");
             }
         } catch (Exception e) {
+            JobContext.recordFailure();
             log.error("Error during password reset token cleanup", e);
         }
     }
@@ -40,11 +44,15 @@ public class PasswordResetCleanupScheduler {
      * Runs 30 seconds after application starts
      */
     @Scheduled(initialDelay = 30000, fixedDelay = Long.MAX_VALUE)
+    @ManagedJob(name = "password-reset-initial-cleanup", timeoutSeconds = 300)
+    @ClusterLocked(name = "password-reset-initial-cleanup", lockAtLeastSeconds = 600)
     public void initialCleanup() {
         try {
             int deletedCount = passwordResetService.cleanupExpiredTokens();
+            JobContext.recordProcessed(deletedCount);
             log.info("Initial password reset cleanup: Removed {} expired tokens", deletedCount);
         } catch (Exception e) {
+            JobContext.recordFailure();
             log.error("Error during initial password reset token cleanup", e);
         }
     }
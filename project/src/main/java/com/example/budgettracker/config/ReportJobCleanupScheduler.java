@@ -0,0 +1,41 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails abandoned report jobs and removes expired report artifacts and their jobs. Jobs and
+ * artifacts are in the database, so one node cleans up for the whole cluster.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobCleanupScheduler {
+
+    private final ReportJobService reportJobService;
+
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-ms:300000}", initialDelay = 60000)
+    @ManagedJob(name = "report-job-cleanup", timeoutSeconds = 300)
+    @ClusterLocked(name = "report-job-cleanup", lockAtLeastSeconds = 60)
+    public void cleanupExpiredReports() {
+        try {
+            int staleCount = reportJobService.failStale();
+            if (staleCount > 0) {
+                log.warn("Report cleanup: Failed {} abandoned report jobs", staleCount);
+            }
+            int deletedCount = reportJobService.purgeExpired();
+            JobContext.recordProcessed(staleCount + deletedCount);
+            if (deletedCount > 0) {
+                log.info("Report cleanup: Removed {} expired reports", deletedCount);
+            } else {
+                log.debug("Report cleanup: No expired reports to remove");
+            }
+        } catch (Exception e) {
+            JobContext.recordFailure();
+            log.error("Error during report cleanup", e);
+        }
+    }
+}
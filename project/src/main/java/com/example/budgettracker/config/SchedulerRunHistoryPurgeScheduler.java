@@ -0,0 +1,36 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.SchedulerLockService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps scheduler_run_history bounded: every managed run on every node appends a row, so rows
+ * older than app.scheduler.history-retention-days are deleted once a day.
+ */
+@Component
+@Slf4j
+public class SchedulerRunHistoryPurgeScheduler {
+
+    private final SchedulerLockService lockService;
+    private final long retentionDays;
+
+    public SchedulerRunHistoryPurgeScheduler(SchedulerLockService lockService,
+                                             @Value("${app.scheduler.history-retention-days:30}") long retentionDays) {
+        this.lockService = lockService;
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+
+    @Scheduled(cron = "0 45 3 * * *") // 3:45am daily
+    @ManagedJob(name = "scheduler-history-purge", timeoutSeconds = 600)
+    @ClusterLocked(name = "scheduler-history-purge", lockAtLeastSeconds = 600)
+    public void purge() {
+        int deleted = lockService.purgeRunHistory(LocalDateTime.now().minusDays(retentionDays));
+        JobContext.recordProcessed(deleted);
+        log.info("Purged {} scheduler runs older than {} days", deleted, retentionDays);
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.budgettracker.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -17,6 +25,42 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Actuator endpoints other than health, info and metrics (jobs, domain-events) trigger work and
+     * expose run history, so they need HTTP Basic as an ADMIN. The admin account comes from
+     * app.actuator.admin.*; with no password configured there is none and those endpoints answer 401.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/actuator/**")
+            .csrf(csrf -> csrf.disable())
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**", "/actuator/info",
+                        "/actuator/metrics", "/actuator/metrics/**").permitAll()
+                .anyRequest().hasRole("ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+
+    @Bean
+    public UserDetailsService actuatorAdmins(PasswordEncoder passwordEncoder,
+                                             @Value("${app.actuator.admin.username:admin}") String username,
+                                             @Value("${app.actuator.admin.password:}") String password) {
+        InMemoryUserDetailsManager admins = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            admins.createUser(User.withUsername(username)
+                    .password(passwordEncoder.encode(password))
+                    .roles("ADMIN")
+                    .build());
+        }
+        return admins;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
                                           OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler) throws Exception {
@@ -27,7 +71,6 @@ public class SecurityConfig {
                 .requestMatchers("/login.html", "/signup.html", "/forgot-password.html", "/reset-password.html", "/").permitAll()
                 .requestMatchers("/html/**", "/css/**", "/js/**", "/images/**", "/fonts/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/oauth2/**").permitAll()
                 .requestMatchers("/login/oauth2/**").permitAll()
                 .anyRequest().permitAll() // Temporarily allow all for testing
@@ -1,5 +1,6 @@
 package com.example.budgettracker.config;
 
+import com.example.budgettracker.model.Session;
 import com.example.budgettracker.service.SessionManagementService;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +11,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * FR-6: Session Activity Filter
@@ -21,6 +23,9 @@ import java.io.IOException;
 @Slf4j
 public class SessionActivityFilter implements Filter {
 
+    // Request attribute holding the user id of a valid session, for the other filters (UserRateLimitFilter reads it on the way back)
+    public static final String SESSION_USER_ID = SessionActivityFilter.class.getName() + ".userId";
+
     private final SessionManagementService sessionManagementService;
 
     @Override
@@ -48,7 +53,8 @@ public class SessionActivityFilter implements Filter {
         }
 
         // Validate and renew session
-        boolean sessionValid = sessionManagementService.isSessionValid(sessionToken);
+        Optional<Session> session = sessionManagementService.validateSession(sessionToken);
+        boolean sessionValid = session.isPresent();
 
         if (sessionValid) {
             // Renew session activity on valid requests
@@ -58,6 +64,8 @@ public class SessionActivityFilter implements Filter {
                 sendUnauthorizedResponse(httpResponse, "Session renewal failed");
                 return;
             }
+            // The user association is lazy; reading its id does not load the user
+            httpRequest.setAttribute(SESSION_USER_ID, session.get().getUser().getUserId());
         } else {
             // Session invalid - send 401 for API endpoints
             if (requestPath.startsWith("/api/")) {
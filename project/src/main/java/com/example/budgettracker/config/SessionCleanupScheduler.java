@@ -22,12 +22,15 @@ public class SessionCleanupScheduler {
      * This ensures the 5-minute idle timeout is enforced
      */
     @Scheduled(fixedRate = 5 * 60 * 1000) // 5 minutes in milliseconds
+    @ManagedJob(name = "session-cleanup", timeoutSeconds = 120)
+    @ClusterLocked(name = "session-cleanup", lockAtLeastSeconds = 4 * 60)
     public void cleanupExpiredSessions() {
         try {
             log.debug("Starting scheduled session cleanup");
             sessionManagementService.cleanupExpiredSessions();
             log.debug("Completed scheduled session cleanup");
         } catch (Exception e) {
+            JobContext.recordFailure();
             log.error("Failed to cleanup expired sessions: {}", e.getMessage(), e);
         }
     }
@@ -36,12 +39,15 @@ public class SessionCleanupScheduler {
      * More aggressive cleanup every hour to remove old inactive sessions
      */
     @Scheduled(fixedRate = 60 * 60 * 1000) // 1 hour in milliseconds
+    @ManagedJob(name = "session-cleanup-hourly", timeoutSeconds = 300)
+    @ClusterLocked(name = "session-cleanup-hourly", lockAtLeastSeconds = 50 * 60)
     public void hourlySessionCleanup() {
         try {
             log.info("Starting hourly session cleanup");
             sessionManagementService.cleanupExpiredSessions();
             log.info("Completed hourly session cleanup");
         } catch (Exception e) {
+            JobContext.recordFailure();
             log.error("Failed to perform hourly session cleanup: {}", e.getMessage(), e);
         }
     }
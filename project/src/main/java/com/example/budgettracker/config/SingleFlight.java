@@ -0,0 +1,23 @@
+package com.example.budgettracker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Share one in-flight call among concurrent identical calls (see {@link SingleFlightAspect}).
+ * Calls are identical when the operation name and all arguments are equal; the first argument
+ * must be the user id. Only for reads whose result callers do not modify.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /**
+     * Operation name, used in the key and for metrics
+     */
+    String value();
+}
@@ -0,0 +1,34 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.service.SingleFlightGroup;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Runs {@link SingleFlight} methods through the {@link SingleFlightGroup}.
+ * Ordered ahead of the transaction interceptor, so callers that join another call wait without
+ * holding a transaction or a pooled connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class SingleFlightAspect {
+
+    private final SingleFlightGroup singleFlightGroup;
+
+    public SingleFlightAspect(SingleFlightGroup singleFlightGroup) {
+        this.singleFlightGroup = singleFlightGroup;
+    }
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        SingleFlightGroup.Key key = new SingleFlightGroup.Key(singleFlight.value(), Arrays.asList(joinPoint.getArgs()));
+        return singleFlightGroup.execute(key, joinPoint::proceed);
+    }
+}
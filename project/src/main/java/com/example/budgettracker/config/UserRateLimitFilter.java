@@ -0,0 +1,152 @@
+package com.example.budgettracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user token-bucket rate limit on /api/** (see {@link UserRateLimiter}).
+ * Runs first, ahead of the adaptive limiter and of {@link SessionActivityFilter}'s session lookup
+ * and renewal, so a refused request costs no database work. The bucket is picked from the bearer
+ * token: once a token has passed session validation (seen through the
+ * {@link SessionActivityFilter#SESSION_USER_ID} attribute on the way back) it is charged to its
+ * user; a token not yet seen, a bogus one, or none at all is charged to the client address.
+ * Each request costs the weight of the longest matching prefix in app.ratelimit.costs (default 1).
+ * Every response carries RateLimit-Limit, RateLimit-Remaining and RateLimit-Reset; a refused one
+ * gets 429 with Retry-After.
+ */
+@Component
+@Order(-1)
+@ConditionalOnProperty(name = "app.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class UserRateLimitFilter implements Filter {
+
+    private record Cost(String prefix, int weight) {
+    }
+
+    private final UserRateLimiter limiter;
+    private final List<Cost> costs;
+    private final Counter throttled;
+    // SHA-256 of a validated bearer token -> its user id; keyed by digest so tokens are not kept in memory
+    private final Map<String, Long> tokenUsers = new ConcurrentHashMap<>();
+    private final int maxTokens;
+
+    public UserRateLimitFilter(MeterRegistry meterRegistry,
+                               @Value("${app.ratelimit.capacity:120}") long capacity,
+                               @Value("${app.ratelimit.refill-per-second:2}") double refillPerSecond,
+                               @Value("${app.ratelimit.max-keys:100000}") int maxKeys,
+                               @Value("${app.ratelimit.costs:}") List<String> costs) {
+        this(new UserRateLimiter(capacity, refillPerSecond, maxKeys), costs, maxKeys, meterRegistry);
+    }
+
+    UserRateLimitFilter(UserRateLimiter limiter, List<String> costs, int maxTokens, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.costs = parseCosts(costs);
+        this.maxTokens = Math.max(1, maxTokens);
+        Gauge.builder("ratelimit.buckets", limiter, UserRateLimiter::size).register(meterRegistry);
+        this.throttled = Counter.builder("ratelimit.throttled").register(meterRegistry);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String path = httpRequest.getRequestURI();
+        // Login and signup have their own attempt limits
+        if (httpRequest.getDispatcherType() != DispatcherType.REQUEST
+                || !path.startsWith("/api/") || path.startsWith("/api/auth/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String tokenDigest = tokenDigest(httpRequest.getHeader(HttpHeaders.AUTHORIZATION));
+        Long knownUser = tokenDigest == null ? null : tokenUsers.get(tokenDigest);
+        String key = knownUser != null ? "user:" + knownUser : "ip:" + httpRequest.getRemoteAddr();
+        UserRateLimiter.Decision decision = limiter.tryConsume(key, cost(path));
+
+        httpResponse.setHeader("RateLimit-Limit", String.valueOf(limiter.getCapacity()));
+        httpResponse.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        httpResponse.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+        httpResponse.setHeader("RateLimit-Policy", limiter.getCapacity() + ";w=" + limiter.getWindowSeconds());
+        if (!decision.allowed()) {
+            throttled.increment();
+            log.debug("Rate limited {} on {}", key, path);
+            httpResponse.setStatus(429);
+            httpResponse.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            httpResponse.setContentType("application/json");
+            httpResponse.getWriter().write("{\"message\": \"Too many requests, slow down\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+
+        if (knownUser == null && tokenDigest != null
+                && httpRequest.getAttribute(SessionActivityFilter.SESSION_USER_ID) instanceof Long userId) {
+            if (tokenUsers.size() >= maxTokens) {
+                tokenUsers.clear();
+            }
+            tokenUsers.put(tokenDigest, userId);
+        }
+    }
+
+    private static String tokenDigest(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(authorization.substring(7).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    int cost(String path) {
+        for (Cost cost : costs) {
+            if (path.startsWith(cost.prefix())) {
+                return cost.weight();
+            }
+        }
+        return 1;
+    }
+
+    // "/api/dashboard:4,/api/export:10" -> longest prefix first
+    private static List<Cost> parseCosts(List<String> entries) {
+        List<Cost> parsed = new ArrayList<>();
+        for (String entry : entries) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("app.ratelimit.costs entry must be <path-prefix>:<weight>: " + trimmed);
+            }
+            parsed.add(new Cost(trimmed.substring(0, colon), Integer.parseInt(trimmed.substring(colon + 1))));
+        }
+        parsed.sort(Comparator.comparingInt((Cost c) -> c.prefix().length()).reversed());
+        return parsed;
+    }
+}
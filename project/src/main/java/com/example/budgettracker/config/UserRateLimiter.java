@@ -0,0 +1,109 @@
+package com.example.budgettracker.config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets (see {@link UserRateLimitFilter}). A bucket holds up to capacity tokens and
+ * refills at refillPerSecond; a request takes as many tokens as it costs or is refused.
+ * Each bucket is a single AtomicLong holding the time at which it will be full again (GCRA), so
+ * refill is implied by the clock and a take is one compare-and-set, with no lock and no refill timer.
+ * A bucket that has refilled completely carries no state, which is what lets the map stay bounded:
+ * past maxKeys, full buckets are dropped first, then arbitrary ones.
+ */
+public class UserRateLimiter {
+
+    /**
+     * @param allowed          whether the request may proceed
+     * @param remaining        whole tokens left after this request
+     * @param resetSeconds     seconds until the bucket is full again
+     * @param retryAfterSeconds when refused, seconds until there are enough tokens for this request
+     */
+    public record Decision(boolean allowed, long remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public UserRateLimiter(long capacity, double refillPerSecond, int maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    UserRateLimiter(long capacity, double refillPerSecond, int maxKeys, LongSupplier clock) {
+        this.capacity = Math.max(1, capacity);
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = this.capacity * nanosPerToken;
+        this.maxKeys = Math.max(1, maxKeys);
+        this.clock = clock;
+    }
+
+    public Decision tryConsume(String key, int cost) {
+        long now = clock.getAsLong();
+        long costNanos = Math.min(cost, capacity) * nanosPerToken;
+        AtomicLong fullAt = buckets.get(key);
+        if (fullAt == null) {
+            fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            if (buckets.size() > maxKeys) {
+                evict(now);
+            }
+        }
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, now);
+            long next = base + costNanos;
+            long debt = next - now;
+            if (debt > burstNanos) {
+                long wait = debt - burstNanos;
+                return new Decision(false, tokensLeft(base - now), seconds(base - now), Math.max(1, seconds(wait)));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Decision(true, tokensLeft(debt), seconds(debt), 0);
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getWindowSeconds() {
+        return seconds(burstNanos);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private long tokensLeft(long debtNanos) {
+        return Math.max(0, (burstNanos - debtNanos) / nanosPerToken);
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(fullAt -> fullAt.get() <= now);
+            Iterator<String> it = buckets.keySet().iterator();
+            while (buckets.size() > maxKeys && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
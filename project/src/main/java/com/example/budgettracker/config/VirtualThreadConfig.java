@@ -0,0 +1,81 @@
+package com.example.budgettracker.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Virtual-thread execution mode, opted into with the virtual-threads profile on a Java 21 runtime.
+ * spring.threads.virtual.enabled moves Tomcat's request handling, the application task executor
+ * (@Async and StreamingResponseBody) and the @Scheduled triggers onto virtual threads; on an older
+ * runtime Spring Boot ignores it and everything stays on platform threads.
+ * Tomcat's worker pool no longer caps concurrency in that mode, so the database is guarded
+ * explicitly: with app.datasource.guard.enabled=true the DataSource is wrapped in a
+ * {@link ConnectionAcquisitionGuard} sized to the Hikari pool. The adaptive limiter, bulkheads and
+ * the bounded service pools (report jobs, event lanes, managed jobs) keep their limits either way.
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    private final Environment environment;
+
+    public VirtualThreadConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.guard.enabled", havingValue = "true")
+    static BeanPostProcessor connectionAcquisitionGuardPostProcessor(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        long connectionTimeout = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30_000L);
+        int permits = environment.getProperty("app.datasource.guard.permits", Integer.class, poolSize);
+        long acquireTimeout = environment.getProperty("app.datasource.guard.acquire-timeout-ms", Long.class, connectionTimeout);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionAcquisitionGuard)) {
+                    log.info("Guarding connection acquisition on {}: {} permits, {}ms timeout", beanName, permits, acquireTimeout);
+                    return new ConnectionAcquisitionGuard(dataSource, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.guard.enabled", havingValue = "true")
+    MeterBinder connectionAcquisitionGuardMetrics(DataSource dataSource) throws SQLException {
+        ConnectionAcquisitionGuard guard = dataSource.unwrap(ConnectionAcquisitionGuard.class);
+        return registry -> {
+            Gauge.builder("datasource.guard.permits", guard, ConnectionAcquisitionGuard::getPermits).register(registry);
+            Gauge.builder("datasource.guard.active", guard, ConnectionAcquisitionGuard::getActive).register(registry);
+            Gauge.builder("datasource.guard.waiting", guard, ConnectionAcquisitionGuard::getWaiting).register(registry);
+            FunctionCounter.builder("datasource.guard.timeouts", guard, ConnectionAcquisitionGuard::getTimeouts).register(registry);
+            FunctionCounter.builder("datasource.guard.wait", guard, ConnectionAcquisitionGuard::getWaitSeconds)
+                    .baseUnit("seconds").register(registry);
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int runtime = Runtime.version().feature();
+        if (requested && runtime < 21) {
+            log.warn("spring.threads.virtual.enabled is set but the runtime is Java {}; requests and jobs stay on platform threads", runtime);
+        } else {
+            log.info("Request handling and scheduled jobs run on {} threads", requested ? "virtual" : "platform");
+        }
+    }
+}
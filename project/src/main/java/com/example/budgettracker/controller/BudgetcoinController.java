@@ -1,11 +1,14 @@
 package com.example.budgettracker.controller;
 
+import com.example.budgettracker.dto.Budgetcoin.LeaderboardEntryResponse;
+import com.example.budgettracker.dto.Budgetcoin.LeaderboardRankResponse;
 import com.example.budgettracker.dto.Budgetcoin.RewardBalanceResponse;
 import com.example.budgettracker.dto.Budgetcoin.RewardGrantRequest;
 import com.example.budgettracker.dto.Budgetcoin.RewardGrantResponse;
+import com.example.budgettracker.dto.Budgetcoin.RewardHistoryPage;
 import com.example.budgettracker.dto.Budgetcoin.RewardRedeemRequest;
 import com.example.budgettracker.dto.Budgetcoin.RewardRedeemResponse;
-import com.example.budgettracker.dto.Budgetcoin.RewardTransactionResponse;
+import com.example.budgettracker.service.CoinLeaderboard;
 import com.example.budgettracker.service.RewardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +17,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
@@ -26,6 +30,7 @@ import java.util.UUID;
 public class BudgetcoinController extends BaseController {
 
     private final RewardService rewardService;
+    private final CoinLeaderboard coinLeaderboard;
 
     @GetMapping("/balance")
     public ResponseEntity<RewardBalanceResponse> getBalance(@RequestHeader("Authorization") String authHeader) {
@@ -72,8 +77,25 @@ public class BudgetcoinController extends BaseController {
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<RewardTransactionResponse>> getHistory(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<RewardHistoryPage> getHistory(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Long userId = getUserIdFromToken(authHeader);
+        return ResponseEntity.ok(rewardService.getTransactionHistory(userId, cursor, limit));
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryResponse>> getLeaderboard(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "10") int limit) {
+        getUserIdFromToken(authHeader);
+        return ResponseEntity.ok(coinLeaderboard.top(limit));
+    }
+
+    @GetMapping("/leaderboard/me")
+    public ResponseEntity<LeaderboardRankResponse> getMyRank(@RequestHeader("Authorization") String authHeader) {
         Long userId = getUserIdFromToken(authHeader);
-        return ResponseEntity.ok(rewardService.getTransactionHistory(userId));
+        return ResponseEntity.ok(coinLeaderboard.rankOf(userId));
     }
 }
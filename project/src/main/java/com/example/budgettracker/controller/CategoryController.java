@@ -1,12 +1,16 @@
 package com.example.budgettracker.controller;
 
+import com.example.budgettracker.config.Bulkhead;
 import com.example.budgettracker.dto.Category.*;
 import com.example.budgettracker.model.CategoryBudget;
 import com.example.budgettracker.repository.CategoryBudgetRepository;
 import com.example.budgettracker.service.CategoryService;
+import com.example.budgettracker.service.LedgerStreamService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -17,10 +21,13 @@ public class CategoryController extends BaseController {
 
     private final CategoryService service;
     private final CategoryBudgetRepository categoryBudgetRepository;
+    private final LedgerStreamService ledgerStreamService;
 
-    public CategoryController(CategoryService service, CategoryBudgetRepository categoryBudgetRepository) {
+    public CategoryController(CategoryService service, CategoryBudgetRepository categoryBudgetRepository,
+                              LedgerStreamService ledgerStreamService) {
         this.service = service;
         this.categoryBudgetRepository = categoryBudgetRepository;
+        this.ledgerStreamService = ledgerStreamService;
     }
 
     @GetMapping
@@ -44,21 +51,30 @@ public class CategoryController extends BaseController {
         return ResponseEntity.ok(service.rename(userId, id, req));
     }
 
+    // Runs in the background; poll GET /api/categories/operations/{operationId} for progress
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@RequestHeader("Authorization") String authHeader,
-                                    @PathVariable Long id) {
+    @Bulkhead(value = "category-operations", maxConcurrent = 2)
+    public ResponseEntity<CategoryOperationResponse> delete(@RequestHeader("Authorization") String authHeader,
+                                                            @PathVariable Long id) {
         Long userId = getUserIdFromToken(authHeader);
-        service.delete(userId, id);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.accepted().body(service.delete(userId, id));
     }
 
+    // Runs in the background; poll GET /api/categories/operations/{operationId} for progress
     @PostMapping("/merge")
-    public ResponseEntity<?> merge(@RequestHeader("Authorization") String authHeader,
-                                   @Valid @RequestBody CategoryMergeRequest req,
-                                   @RequestParam(required = false) Boolean mergeBudgets) {
+    @Bulkhead(value = "category-operations", maxConcurrent = 2)
+    public ResponseEntity<CategoryOperationResponse> merge(@RequestHeader("Authorization") String authHeader,
+                                                           @Valid @RequestBody CategoryMergeRequest req,
+                                                           @RequestParam(required = false) Boolean mergeBudgets) {
         Long userId = getUserIdFromToken(authHeader);
-        int affected = service.merge(userId, req, mergeBudgets);
-        return ResponseEntity.ok().body(new Object(){ public final int reassigned = affected; });
+        return ResponseEntity.accepted().body(service.merge(userId, req, mergeBudgets));
+    }
+
+    @GetMapping("/operations/{operationId}")
+    public CategoryOperationResponse operationStatus(@RequestHeader("Authorization") String authHeader,
+                                                     @PathVariable Long operationId) {
+        Long userId = getUserIdFromToken(authHeader);
+        return service.getOperation(userId, operationId);
     }
 
     @GetMapping("/{id}/summary")
@@ -80,6 +96,20 @@ public class CategoryController extends BaseController {
         return service.listCategoryRecords(userId, id, month, type);
     }
 
+    // Accept: application/x-ndjson streams the same records one object per line while they are read
+    @GetMapping(value = "/{id}/records", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCategoryRecords(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long id,
+            @RequestParam(required = false) String month,
+            @RequestParam(required = false) String type
+    ) {
+        Long userId = getUserIdFromToken(authHeader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ledgerStreamService.categoryRecords(userId, id, month, type));
+    }
+
     @GetMapping("/{id}/budgets")
     public List<CategoryBudgetInfo> listBudgets(
             @RequestHeader("Authorization") String authHeader,
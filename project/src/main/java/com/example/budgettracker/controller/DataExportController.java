@@ -1,5 +1,6 @@
 package com.example.budgettracker.controller;
 
+import com.example.budgettracker.config.Bulkhead;
 import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.repository.CashFlowRepository;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,6 +22,7 @@ public class DataExportController {
     private CashFlowRepository cashFlowRepository;
 
     @GetMapping(value = "/transactions", produces = "text/csv")
+    @Bulkhead("export")
     public void exportTransactions(HttpServletResponse response,
             @RequestParam Long userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
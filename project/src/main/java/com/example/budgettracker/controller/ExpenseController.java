@@ -3,10 +3,13 @@ package com.example.budgettracker.controller;
 import com.example.budgettracker.dto.ExpenseRequest;
 import com.example.budgettracker.dto.ExpenseResponse;
 import com.example.budgettracker.service.ExpenseService;
+import com.example.budgettracker.service.LedgerStreamService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 /**
@@ -18,9 +21,11 @@ import java.util.List;
 public class ExpenseController extends BaseController {
 
     private final ExpenseService expenseService;
+    private final LedgerStreamService ledgerStreamService;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, LedgerStreamService ledgerStreamService) {
         this.expenseService = expenseService;
+        this.ledgerStreamService = ledgerStreamService;
     }
 
     /**
@@ -75,4 +80,23 @@ public class ExpenseController extends BaseController {
           return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
        }
     }
+
+    /**
+     * GET /api/expenses with Accept: application/x-ndjson
+     * Streams the same expenses one JSON object per line while they are read
+     * @param authHeader Authorization header with Bearer token
+     * @return streaming body of user's expenses
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllExpenses(
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            Long userId = getUserIdFromToken(authHeader);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(ledgerStreamService.expenses(userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
 }
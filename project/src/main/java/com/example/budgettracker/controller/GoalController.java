@@ -6,14 +6,17 @@ import com.example.budgettracker.dto.Goal.ContributionRequest;
 import com.example.budgettracker.dto.Goal.ContributionResponse;
 import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.service.GoalService;
+import com.example.budgettracker.service.LedgerStreamService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import org.slf4j.Logger;
@@ -37,9 +40,11 @@ public class GoalController extends BaseController {
     private static final Logger logger = LoggerFactory.getLogger(GoalController.class);
 
     private final GoalService goalService;
+    private final LedgerStreamService ledgerStreamService;
 
-    public GoalController(GoalService goalService) {
+    public GoalController(GoalService goalService, LedgerStreamService ledgerStreamService) {
         this.goalService = goalService;
+        this.ledgerStreamService = ledgerStreamService;
     }
 
     // Helper for extracting user ID from Authorization header
@@ -161,6 +166,20 @@ public class GoalController extends BaseController {
         return ResponseEntity.ok(goalService.getContributions(userId, id, from, to));
     }
 
+    // ===== Stream Contributions (Accept: application/x-ndjson) =====
+    @GetMapping(value = "/{id}/contributions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamContributions(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long id,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to) {
+
+        Long userId = getUserId(authHeader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ledgerStreamService.goalContributions(userId, id, from, to));
+    }
+
     // ---------- Temporary debug endpoint (local use only) ----------
     // Remove this before deploying to prod
     @GetMapping("/debug/session-info")
@@ -8,9 +8,12 @@ import com.example.budgettracker.model.enums.AccountType;
 import com.example.budgettracker.repository.AccountRepository;
 import com.example.budgettracker.repository.UserRepository;
 import com.example.budgettracker.service.IncomeService;
+import com.example.budgettracker.service.LedgerStreamService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,13 +26,16 @@ public class IncomeController extends BaseController {
     private final IncomeService incomeService;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final LedgerStreamService ledgerStreamService;
 
     public IncomeController(IncomeService incomeService,
                             AccountRepository accountRepository,
-                            UserRepository userRepository) {
+                            UserRepository userRepository,
+                            LedgerStreamService ledgerStreamService) {
         this.incomeService = incomeService;
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.ledgerStreamService = ledgerStreamService;
     }
 
     @PostMapping
@@ -47,6 +53,15 @@ public class IncomeController extends BaseController {
         return ResponseEntity.ok(incomeList);
     }
 
+    // Accept: application/x-ndjson streams the same list one object per line while it is read
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllIncome(@RequestHeader("Authorization") String authHeader) {
+        Long userId = getUserIdFromToken(authHeader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ledgerStreamService.income(userId));
+    }
+
     /**
      * Resolve the default account for the authenticated user.
      * If the user has no accounts yet, provision a zero-balance cash account.
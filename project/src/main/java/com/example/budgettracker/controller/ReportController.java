@@ -2,35 +2,37 @@ package com.example.budgettracker.controller;
 
 
 
+import com.example.budgettracker.config.Bulkhead;
+import com.example.budgettracker.dto.Report.ReportJobResponse;
+import com.example.budgettracker.model.enums.ReportFormat;
+import com.example.budgettracker.service.ReportJobService;
+import com.example.budgettracker.service.ReportRenderer;
 import com.example.budgettracker.service.ReportService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.jfree.chart.*;
-import org.jfree.chart.plot.PiePlot;
-import org.jfree.data.general.DefaultPieDataset;
-
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Map;
-
-import javax.imageio.ImageIO;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/reports")
-public class ReportController {
+public class ReportController extends BaseController {
 
     private final ReportService reportService;
+    private final ReportRenderer reportRenderer;
+    private final ReportJobService reportJobService;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportRenderer reportRenderer, ReportJobService reportJobService) {
         this.reportService = reportService;
+        this.reportRenderer = reportRenderer;
+        this.reportJobService = reportJobService;
     }
 
     @GetMapping("/data")
+    @Bulkhead("report")
     public Map<String, Object> getReportData(
             @RequestParam Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime startDate,
@@ -47,87 +49,52 @@ public class ReportController {
     }
 
     @GetMapping(value = "/chart", produces = MediaType.IMAGE_PNG_VALUE)
+    @Bulkhead(value = "chart", maxConcurrent = 2)
     public ResponseEntity<byte[]> getReportChart(
             @RequestParam Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime endDate) throws Exception {
 
         Map<String, Object> report = reportService.generateReport(userId, startDate, endDate);
-        Map<String, BigDecimal> expenseByCategory = (Map<String, BigDecimal>) report.get("expenseByCategory");
-
-        BigDecimal totalIncome = (BigDecimal) report.get("totalIncome");
-        BigDecimal totalExpense = (BigDecimal) report.get("totalExpense");
-        BigDecimal balance = (BigDecimal) report.get("balance");
-
-
-        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
-        expenseByCategory.forEach((category, amount) -> {
-            if (amount != null && amount.compareTo(BigDecimal.ZERO) > 0) {
-                dataset.setValue(category, amount);
-            }
-        });
-
-
-        JFreeChart chart = ChartFactory.createPieChart(
-                "Expense Breakdown",
-                dataset,
-                false, false, false
-        );
-
-        PiePlot plot = (PiePlot) chart.getPlot();
-        plot.setLabelFont(new Font("SansSerif", Font.PLAIN, 12));
-        plot.setCircular(true);
-        plot.setLabelGap(0.02);
-        plot.setBackgroundPaint(Color.WHITE);
-        chart.setBackgroundPaint(Color.WHITE);
-
-
-        int width = 800;
-        int height = 500;
-        BufferedImage combinedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = combinedImage.createGraphics();
-
-
-        g2.setPaint(Color.WHITE);
-        g2.fillRect(0, 0, width, height);
 
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .body(reportRenderer.png(report, startDate + " to " + endDate));
+    }
 
-        g2.setPaint(Color.BLACK);
-        g2.setFont(new Font("SansSerif", Font.BOLD, 20));
-        g2.drawString("Budget Report", 20, 30);
-        g2.setFont(new Font("SansSerif", Font.PLAIN, 16));
-        g2.drawString("Period: " + startDate + " to " + endDate, 20, 55);
-
-
-        BufferedImage chartImage = chart.createBufferedImage(400, 400);
-        g2.drawImage(chartImage, 20, 80, null);
-
+    // Renders in the background; poll GET /api/reports/jobs/{jobId} until DONE, then download the artifact
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobResponse> submitJob(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam ReportFormat format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Long userId = getUserIdFromToken(authHeader);
+        return ResponseEntity.accepted().body(reportJobService.submit(userId, format, startDate, endDate));
+    }
 
-        g2.setPaint(Color.BLACK);
-        g2.setFont(new Font("SansSerif", Font.BOLD, 16));
-        int x = 440;
-        int y = 100;
-        g2.drawString("Total Income: $" + totalIncome.setScale(2, RoundingMode.HALF_UP), x, y);
-        g2.drawString("Total Expense: $" + totalExpense.setScale(2, RoundingMode.HALF_UP), x, y + 30);
-        g2.drawString("Balance: $" + balance.setScale(2, RoundingMode.HALF_UP), x, y + 60);
+    @GetMapping("/jobs/{jobId}")
+    public ReportJobResponse jobStatus(@RequestHeader("Authorization") String authHeader,
+                                       @PathVariable String jobId) {
+        return reportJobService.get(getUserIdFromToken(authHeader), jobId);
+    }
 
-        g2.setFont(new Font("SansSerif", Font.PLAIN, 14));
-        y += 100;
-        g2.drawString("Expense Details:", x, y);
-        for (Map.Entry<String, BigDecimal> entry : expenseByCategory.entrySet()) {
-            y += 25;
-            g2.drawString("- " + entry.getKey() + ": $" + entry.getValue().setScale(2, RoundingMode.HALF_UP), x, y);
+    @GetMapping("/jobs/{jobId}/artifact")
+    public ResponseEntity<?> jobArtifact(@RequestHeader("Authorization") String authHeader,
+                                         @PathVariable String jobId) {
+        Long userId = getUserIdFromToken(authHeader);
+        Optional<ReportJobService.Artifact> artifact = reportJobService.artifact(userId, jobId);
+        if (artifact.isEmpty()) {
+            // Not ready yet
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(reportJobService.get(userId, jobId));
         }
-
-        g2.dispose();
-
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(combinedImage, "png", baos);
-
+        ReportJobService.Artifact a = artifact.get();
         return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_PNG)
-                .body(baos.toByteArray());
+                .contentType(MediaType.parseMediaType(a.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(a.fileName()).build().toString())
+                .contentLength(a.content().length)
+                .body(a.content());
     }
 
 
@@ -0,0 +1,30 @@
+package com.example.budgettracker.controller;
+
+import com.example.budgettracker.dto.Sync.SyncResponse;
+import com.example.budgettracker.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController extends BaseController {
+
+    private final SyncService syncService;
+
+    /**
+     * Accounts, categories, goals, subscriptions, transactions and budgets changed since the cursor,
+     * with tombstones for deletions. Omit since on first use; keep calling while hasMore is true.
+     */
+    @GetMapping
+    public SyncResponse sync(@RequestHeader("Authorization") String authHeader,
+                             @RequestParam(required = false) String since,
+                             @RequestParam(defaultValue = "500") int limit) {
+        Long userId = getUserIdFromToken(authHeader);
+        return syncService.changesSince(userId, since, limit);
+    }
+}
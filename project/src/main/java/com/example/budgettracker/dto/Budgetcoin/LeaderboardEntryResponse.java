@@ -0,0 +1,17 @@
+package com.example.budgettracker.dto.Budgetcoin;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    private int rank;
+    private Long userId;
+    private String firstName;
+    private long budgetCoin;
+}
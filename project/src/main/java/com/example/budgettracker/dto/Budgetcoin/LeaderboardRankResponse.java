@@ -0,0 +1,17 @@
+package com.example.budgettracker.dto.Budgetcoin;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRankResponse {
+    private Long userId;
+    private int rank;
+    private long budgetCoin;
+    private int totalUsers;
+}
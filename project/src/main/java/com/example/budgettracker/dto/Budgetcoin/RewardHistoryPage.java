@@ -0,0 +1,17 @@
+package com.example.budgettracker.dto.Budgetcoin;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardHistoryPage {
+    private List<RewardTransactionResponse> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,29 @@
+package com.example.budgettracker.dto.Category;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryOperationResponse {
+
+    private Long operationId;
+    private String type;
+    private String status;
+    private String phase;
+    private List<Long> sourceIds;
+    private Long targetId;
+    private long totalRows;
+    private long processedRows;
+    private long budgetsAffected;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -22,4 +22,10 @@ public class GoalResponse {
     private Integer progressPercent;
     private Long accountId;
     private Long categoryId;
+
+    // Forecast from the running contribution statistics (null when there is not enough history)
+    private BigDecimal monthlyContributionRate;
+    private LocalDate projectedCompletionDate;
+    private BigDecimal requiredMonthlyContribution;
+    private Boolean onTrack;
 }
@@ -0,0 +1,52 @@
+package com.example.budgettracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Previous-month figures for one user, assembled from the set-based page queries.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySummary {
+
+    private Long userId;
+    private String email;
+    private String firstName;
+    private YearMonth month;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private List<CategoryTotal> topCategories;
+    private List<BudgetOverrun> overruns;
+
+    public BigDecimal getNet() {
+        return totalIncome.subtract(totalExpense);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CategoryTotal {
+        private String name;
+        private BigDecimal amount;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BudgetOverrun {
+        private String name;
+        private BigDecimal budget;
+        private BigDecimal spent;
+
+        public BigDecimal getOver() {
+            return spent.subtract(budget);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.budgettracker.dto.Report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+
+    private String jobId;
+    private String format;
+    private String status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long sizeBytes;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+    // Set once the artifact can be downloaded
+    private String downloadUrl;
+}
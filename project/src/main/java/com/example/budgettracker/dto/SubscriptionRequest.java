@@ -1,5 +1,6 @@
 package com.example.budgettracker.dto;
 
+import com.example.budgettracker.model.enums.CashFlowType;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
@@ -27,4 +28,7 @@ public class SubscriptionRequest {
 
     private Boolean isActive;
 
+    // Optional: Expense (default) or Income for recurring income
+    private CashFlowType type;
+
 }
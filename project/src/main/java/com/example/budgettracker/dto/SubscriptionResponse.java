@@ -1,5 +1,6 @@
 package com.example.budgettracker.dto;
 
+import com.example.budgettracker.model.enums.CashFlowType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,5 +23,6 @@ public class SubscriptionResponse {
     private Boolean isActive;
     private LocalDateTime nextPostAt;
     private BigDecimal monthlyEquivalent;
+    private CashFlowType type;
 
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.budgettracker.dto.Sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Current state of one changed entity, or a tombstone (deleted = true, data = null).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncChangeResponse {
+    private String entityType;
+    private Long entityId;
+    private Long version;
+    private boolean deleted;
+    private Object data;
+
+    public record AccountData(Long accountId, String name, String accountType, BigDecimal balance) {}
+
+    public record CategoryData(Long categoryId, String name, boolean system) {}
+
+    public record GoalData(Long goalId, String name, BigDecimal targetAmount, BigDecimal currentAmount,
+                           LocalDate dueDate, String status, Long accountId) {}
+
+    public record SubscriptionData(Long subscriptionId, String merchant, BigDecimal amount, String frequency,
+                                   String type, Boolean active, LocalDateTime nextPostAt) {}
+
+    public record CashFlowData(Long cashFlowId, String type, BigDecimal amount, LocalDateTime occurredAt,
+                               String description, Long accountId, Long categoryId, Long subscriptionId) {}
+
+    public record BudgetData(Long budgetId, Long categoryId, String yearMonth, BigDecimal amount, String customName) {}
+}
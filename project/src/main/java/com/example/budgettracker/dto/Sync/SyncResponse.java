@@ -0,0 +1,19 @@
+package com.example.budgettracker.dto.Sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    private String cursor;          // pass back as ?since= on the next call
+    private boolean hasMore;        // more changes are waiting; call again straight away
+    private boolean resetRequired;  // reload the full lists, then sync from cursor
+    private List<SyncChangeResponse> changes;
+}
@@ -0,0 +1,19 @@
+package com.example.budgettracker.errors;
+
+import lombok.Getter;
+
+/**
+ * A bulkhead compartment had no free slot; mapped to 429 Too Many Requests with Retry-After
+ */
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkhead;
+    private final long retryAfterSeconds;
+
+    public BulkheadFullException(String bulkhead, long retryAfterSeconds) {
+        super("Too many concurrent " + bulkhead + " requests, try again shortly");
+        this.bulkhead = bulkhead;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
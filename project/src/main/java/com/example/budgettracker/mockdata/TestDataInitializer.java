@@ -5,6 +5,7 @@ import com.example.budgettracker.model.enums.AccountType;
 import com.example.budgettracker.model.enums.CashFlowType;
 import com.example.budgettracker.repository.*;
 import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -15,6 +16,8 @@ import java.time.YearMonth;
 import java.util.List;
 
 @Component
+// Off for the backup CLI, so a restore target holds only what the snapshot brings
+@ConditionalOnProperty(name = "app.mock-data.enabled", havingValue = "true", matchIfMissing = true)
 public class TestDataInitializer {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
@@ -8,7 +8,12 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "cash_flow")
+@Table(name = "cash_flow", indexes = {
+    // Per-user monthly aggregates (dashboard, monthly summary) filter by account and date range
+    @Index(name = "idx_cash_flow_account_occurred", columnList = "account_id, occurred_at"),
+    // Keyset chunks when a category is deleted or merged
+    @Index(name = "idx_cash_flow_category_id", columnList = "category_id, cash_flow_id")
+})
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class CashFlow {
 
@@ -2,6 +2,8 @@ package com.example.budgettracker.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter @Setter
@@ -13,6 +15,9 @@ import lombok.*;
         }
 )
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
+// Read on nearly every request (budgets, expenses, summaries); renamed rarely
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Category {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,91 @@
+package com.example.budgettracker.model;
+
+import com.example.budgettracker.model.enums.CategoryOperationPhase;
+import com.example.budgettracker.model.enums.CategoryOperationStatus;
+import com.example.budgettracker.model.enums.CategoryOperationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A background category delete or merge. Progress (phase, keyset cursor, row counts) is
+ * committed with every chunk so the status endpoint is live and a restart resumes where it left off.
+ */
+@Entity
+@Table(name = "category_operation", indexes = {
+    @Index(name = "idx_category_operation_status", columnList = "status")
+})
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class CategoryOperation {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private CategoryOperationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    @Builder.Default
+    private CategoryOperationStatus status = CategoryOperationStatus.PENDING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    @Builder.Default
+    private CategoryOperationPhase phase = CategoryOperationPhase.BUDGETS;
+
+    // Comma-separated category ids being deleted or merged away
+    @Column(name = "source_ids", nullable = false, length = 1000)
+    private String sourceIds;
+
+    // Merge target; null for deletes
+    private Long targetId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean mergeBudgets = false;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long totalRows = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long processedRows = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long budgetsAffected = 0L;
+
+    // Highest cash_flow_id handled so far (keyset cursor)
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastCursor = 0L;
+
+    @Column(length = 500)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    public List<Long> sourceIdList() {
+        return Arrays.stream(sourceIds.split(",")).map(Long::valueOf).toList();
+    }
+
+    public static String joinIds(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.budgettracker.model;
+
+import com.example.budgettracker.model.enums.DomainEventType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a ledger change, written in the same transaction as the change itself.
+ * Consumers read it in id order from their own checkpoint; rows are never updated.
+ */
+@Entity
+@Table(name = "domain_event")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class DomainEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private DomainEventType type;
+
+    // JSON object; field names are part of the event contract
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,24 @@
+package com.example.budgettracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * How far a domain event consumer has got: every event with id <= lastEventId has been handled.
+ */
+@Entity
+@Table(name = "domain_event_checkpoint")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class DomainEventCheckpoint {
+
+    @Id
+    @Column(name = "consumer_name", length = 64)
+    private String consumerName;
+
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
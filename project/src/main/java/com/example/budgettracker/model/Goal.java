@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -44,10 +45,25 @@ public class Goal {
     @JoinColumn(name = "account_id")
     private Account linkedAccount;
 
+    // Running contribution statistics, maintained by each contribution (null until backfilled)
+    @Column(name = "contribution_count")
+    private Long contributionCount;
+
+    @Column(name = "contributed_total", precision = 19, scale = 2)
+    private BigDecimal contributedTotal;
+
+    @Column(name = "first_contribution_at")
+    private LocalDateTime firstContributionAt;
+
+    @Column(name = "last_contribution_at")
+    private LocalDateTime lastContributionAt;
+
     @PrePersist
     public void prePersist() {
         if (currentAmount == null) currentAmount = BigDecimal.ZERO;
         if (status == null) status = GoalStatus.IN_PROGRESS;
+        if (contributionCount == null) contributionCount = 0L;
+        if (contributedTotal == null) contributedTotal = BigDecimal.ZERO;
     }
 
     // Alias methods for compatibility with DashboardServiceImpl
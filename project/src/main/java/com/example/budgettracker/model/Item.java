@@ -9,6 +9,8 @@ import java.util.List;
 @Entity
 @Table(name = "item")
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
+// Shop catalogue. Not in the second-level cache: stockQty is changed by a bulk UPDATE on every
+// redemption (ItemRepository.takeOneFromStock), which would evict the whole region
 public class Item {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,25 @@
+package com.example.budgettracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Length;
+
+/**
+ * Rendered content of a finished {@link ReportJob}, stored in the database so that any node can
+ * serve the download. Kept apart from report_job so that polling a job never loads the content;
+ * it is deleted together with the job once the job's expiresAt has passed.
+ */
+@Entity
+@Table(name = "report_artifact")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReportArtifact {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    // Length.LONG32 maps to bytea on PostgreSQL rather than a large object
+    @Column(nullable = false, length = Length.LONG32)
+    @ToString.Exclude
+    private byte[] content;
+}
@@ -0,0 +1,69 @@
+package com.example.budgettracker.model;
+
+import com.example.budgettracker.model.enums.ReportFormat;
+import com.example.budgettracker.model.enums.ReportJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A report rendered in the background on the node that accepted it (nodeId). The rendered content
+ * is a {@link ReportArtifact} row; both go away together once expiresAt has passed.
+ */
+@Entity
+@Table(name = "report_job", indexes = {
+    @Index(name = "idx_report_job_dedup", columnList = "dedup_key, status"),
+    @Index(name = "idx_report_job_node_status", columnList = "node_id, status"),
+    @Index(name = "idx_report_job_expires", columnList = "status, expires_at")
+})
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReportJob {
+
+    // Random UUID, so a job id cannot be guessed from another
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ReportFormat format;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    // userId:format:start:end; identical requests share one job
+    @Column(name = "dedup_key", nullable = false, length = 100)
+    private String dedupKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @Builder.Default
+    private ReportJobStatus status = ReportJobStatus.PENDING;
+
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    private Long sizeBytes;
+
+    @Column(length = 500)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    // Set when the job finishes
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor @Builder
-@Table(name = "reward_grant")
+@Table(name = "reward_grant", indexes = {
+    // Coin history keyset
+    @Index(name = "idx_reward_grant_user_created", columnList = "user_id, created_at, grant_id")
+})
 
 public class RewardGrant {
 
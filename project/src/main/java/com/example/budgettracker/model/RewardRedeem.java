@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "reward_redeem")
+@Table(name = "reward_redeem", indexes = {
+    // Coin history keyset
+    @Index(name = "idx_reward_redeem_user_redeemed", columnList = "user_id, redeemed_at, order_id")
+})
 public class RewardRedeem {
 
     @Id
@@ -0,0 +1,30 @@
+package com.example.budgettracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cluster-wide lease for a scheduled job.
+ * A node may run the job only while it holds the row (lockedBy) and lockUntil is in the future.
+ */
+@Entity
+@Table(name = "scheduler_lock")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class SchedulerLock {
+
+    @Id
+    @Column(name = "lock_name", length = 64)
+    private String lockName;
+
+    @Column(nullable = false, length = 128)
+    private String lockedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lockUntil;
+
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,46 @@
+package com.example.budgettracker.model;
+
+import com.example.budgettracker.model.enums.JobRunStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduler_run_history", indexes = {
+    @Index(name = "idx_run_history_job_started", columnList = "job_name, started_at"),
+    @Index(name = "idx_run_history_started", columnList = "started_at")
+})
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class SchedulerRunHistory {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Column(nullable = false, length = 128)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private Long durationMs;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long itemsProcessed = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long failures = 0L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobRunStatus status;
+
+    @Column(length = 500)
+    private String errorMessage;
+}
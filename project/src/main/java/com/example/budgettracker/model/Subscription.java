@@ -1,5 +1,6 @@
 package com.example.budgettracker.model;
 
+import com.example.budgettracker.model.enums.CashFlowType;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -32,6 +33,13 @@ public class Subscription {
     @Column(nullable = false)
     private LocalDateTime nextPostAt;
 
+    // Expense (default) for subscriptions/bills, Income for recurring income such as salary.
+    // Nullable so existing rows are treated as Expense without a data migration.
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    @Builder.Default
+    private CashFlowType type = CashFlowType.Expense;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id",
             foreignKey = @ForeignKey(name = "fk_subscription_user"))
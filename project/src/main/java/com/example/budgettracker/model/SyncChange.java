@@ -0,0 +1,45 @@
+package com.example.budgettracker.model;
+
+import com.example.budgettracker.model.enums.SyncEntityType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Latest change to one entity in a user's change log. There is a single row per entity, moved to
+ * the user's next version on every write, so catching up costs one row per changed entity no matter
+ * how often it changed; deletes stay behind as tombstones.
+ */
+@Entity
+@Table(name = "sync_change",
+    uniqueConstraints = @UniqueConstraint(name = "uk_sync_change_entity", columnNames = {"user_id", "entity_type", "entity_id"}),
+    indexes = {
+        // Delta reads: a user's changes after a version, in version order
+        @Index(name = "idx_sync_change_user_version", columnList = "user_id, version")
+    })
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class SyncChange {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Per user, strictly increasing in commit order
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -7,6 +7,7 @@ import lombok.*;
 @Table(name = "users",
         uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"))
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
+// Not in the second-level cache: budgetCoin is changed by bulk UPDATEs (grants, redemptions)
 public class User {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +34,10 @@ public class User {
 
     private Long budgetCoin;
 
+    // Set once the default system categories exist, so category listing stays a pure read
+    @Column(name = "system_categories_ensured")
+    private Boolean systemCategoriesEnsured;
+
     @Column(length = 500)
     private String profilePictureUrl;
 
@@ -0,0 +1,12 @@
+package com.example.budgettracker.model.enums;
+
+/**
+ * Steps of a category delete/merge, in order. Each phase transition commits together with
+ * the data change that completes the previous phase, so an interrupted run resumes cleanly.
+ */
+public enum CategoryOperationPhase {
+    BUDGETS,
+    CASH_FLOWS,
+    CATEGORIES,
+    DONE
+}
@@ -0,0 +1,6 @@
+package com.example.budgettracker.model.enums;
+
+public enum CategoryOperationType {
+    DELETE,
+    MERGE
+}
@@ -0,0 +1,10 @@
+package com.example.budgettracker.model.enums;
+
+public enum DomainEventType {
+    CASH_FLOW_RECORDED,
+    // Cash flows moved to targetCategoryId by a merge, or deleted with their category (target null)
+    CATEGORY_REASSIGNED,
+    BUDGET_CHANGED,
+    GOAL_CONTRIBUTED,
+    SUBSCRIPTION_POSTED
+}
@@ -0,0 +1,7 @@
+package com.example.budgettracker.model.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
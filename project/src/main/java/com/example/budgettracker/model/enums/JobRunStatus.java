@@ -0,0 +1,8 @@
+package com.example.budgettracker.model.enums;
+
+public enum JobRunStatus {
+    SUCCEEDED,
+    FAILED,
+    TIMED_OUT,
+    CANCELLED
+}
@@ -0,0 +1,26 @@
+package com.example.budgettracker.model.enums;
+
+import org.springframework.http.MediaType;
+
+public enum ReportFormat {
+    JSON(MediaType.APPLICATION_JSON_VALUE, "json"),
+    PNG(MediaType.IMAGE_PNG_VALUE, "png"),
+    // Plain text, one page per month separated by form feeds
+    SUMMARY("text/plain;charset=UTF-8", "txt");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.budgettracker.model.enums;
+
+public enum ReportJobStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
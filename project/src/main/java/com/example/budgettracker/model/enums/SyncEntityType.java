@@ -0,0 +1,10 @@
+package com.example.budgettracker.model.enums;
+
+public enum SyncEntityType {
+    ACCOUNT,
+    CATEGORY,
+    GOAL,
+    SUBSCRIPTION,
+    CASH_FLOW,
+    BUDGET
+}
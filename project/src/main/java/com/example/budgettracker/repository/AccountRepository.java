@@ -4,7 +4,12 @@ package com.example.budgettracker.repository;
 import com.example.budgettracker.model.Account;
 import com.example.budgettracker.model.enums.AccountType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +21,34 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findFirstByUser_UserIdAndAccountType(Long userId, AccountType accountType);
 
     boolean existsByUser_UserIdAndNameIgnoreCase(Long userId, String name);
+
+    /**
+     * Atomically debit an account the user owns, only if the balance covers the amount.
+     * @return 1 if debited; 0 if the account is missing, not owned, or short of funds
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update Account a set a.balance = a.balance - :amount
+            where a.accountId = :accountId and a.user.userId = :userId and a.balance >= :amount
+            """)
+    int debitIfSufficient(@Param("accountId") Long accountId,
+                          @Param("userId") Long userId,
+                          @Param("amount") BigDecimal amount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :amount where a.accountId = :accountId")
+    int credit(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
+    // Post-update balances and names, read as scalars so nothing stale from the persistence context leaks in
+    @Query("select a.accountId as accountId, a.name as name, a.balance as balance from Account a where a.accountId in :ids")
+    List<AccountBalance> findBalances(@Param("ids") Collection<Long> ids);
+
+    // Sync lookups: only rows that still exist and belong to the user come back
+    List<Account> findByUser_UserIdAndAccountIdIn(Long userId, Collection<Long> accountIds);
+
+    interface AccountBalance {
+        Long getAccountId();
+        String getName();
+        BigDecimal getBalance();
+    }
 }
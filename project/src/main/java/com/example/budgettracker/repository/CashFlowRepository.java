@@ -3,14 +3,19 @@ package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.model.enums.CashFlowType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CashFlowRepository extends JpaRepository<CashFlow, Long> {
@@ -94,6 +99,13 @@ public interface CashFlowRepository extends JpaRepository<CashFlow, Long> {
     int deleteByUserAndCategory(@Param("userId") Long userId,
                                 @Param("categoryId") Long categoryId);
 
+    /**
+     * Keep posted cash flows when their subscription is deleted; they just stop pointing at it
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update CashFlow c set c.subscription = null where c.subscription.subscriptionId = :subscriptionId")
+    int detachFromSubscription(@Param("subscriptionId") Long subscriptionId);
+
 
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("""
@@ -245,4 +257,171 @@ public interface CashFlowRepository extends JpaRepository<CashFlow, Long> {
     );
 
     List<CashFlow> findByAccount_User_UserIdAndOccurredAtBetween(Long userId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // ---- Keyset chunks for background category delete/merge ----
+
+    long countByCategory_CategoryIdIn(List<Long> categoryIds);
+
+    @Query("""
+        select c.cashFlowId from CashFlow c
+        where c.category.categoryId in :categoryIds
+          and c.cashFlowId > :afterId
+        order by c.cashFlowId asc
+        """)
+    List<Long> findIdsByCategoryInAfter(@Param("categoryIds") List<Long> categoryIds,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update CashFlow c set c.category.categoryId = :toId where c.cashFlowId in :ids")
+    int reassignCategoryForIds(@Param("ids") List<Long> ids, @Param("toId") Long toId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from CashFlow c where c.cashFlowId in :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    // ---- Set-based monthly summary aggregates (one query per page of users) ----
+
+    @Query("""
+        select c.account.user.userId as userId, c.type as type, coalesce(sum(c.amount), 0) as total
+        from CashFlow c
+        where c.account.user.userId in :userIds
+          and c.occurredAt >= :start and c.occurredAt < :end
+        group by c.account.user.userId, c.type
+        """)
+    List<UserTypeTotal> sumByUserAndTypeForUsers(@Param("userIds") List<Long> userIds,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    @Query("""
+        select c.account.user.userId as userId, cat.categoryId as categoryId,
+               cat.name as categoryName, coalesce(sum(c.amount), 0) as total
+        from CashFlow c
+        join c.category cat
+        where c.account.user.userId in :userIds
+          and c.type = com.example.budgettracker.model.enums.CashFlowType.Expense
+          and c.occurredAt >= :start and c.occurredAt < :end
+        group by c.account.user.userId, cat.categoryId, cat.name
+        """)
+    List<UserCategoryTotal> sumExpenseByUserAndCategoryForUsers(@Param("userIds") List<Long> userIds,
+                                                                @Param("start") LocalDateTime start,
+                                                                @Param("end") LocalDateTime end);
+
+    // Contribution history per goal account, used once to seed the running statistics on goal
+    @Query("""
+        select c.account.accountId as accountId, count(c) as contributions, coalesce(sum(c.amount), 0) as total,
+               min(c.occurredAt) as firstAt, max(c.occurredAt) as lastAt
+        from CashFlow c
+        where c.account.accountId in :accountIds
+          and c.type = com.example.budgettracker.model.enums.CashFlowType.Income
+        group by c.account.accountId
+        """)
+    List<AccountInflowStats> inflowStatsForAccounts(@Param("accountIds") List<Long> accountIds);
+
+    List<CashFlow> findByAccount_User_UserIdAndCashFlowIdIn(Long userId, Collection<Long> cashFlowIds);
+
+    // Keyset pages for the NDJSON list variants: each page continues after the last row of the previous
+    // one (afterId null for the first page), so a stream needs a connection only while a page is read.
+    // Rows are projections, not managed entities.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+        select c.cashFlowId as cashFlowId, c.type as type, c.amount as amount, c.occurredAt as occurredAt,
+               c.createdAt as createdAt, c.description as description, a.accountId as accountId,
+               a.balance as accountBalance, cat.categoryId as categoryId, cat.name as categoryName
+        from CashFlow c
+        join c.account a
+        left join c.category cat
+        where a.user.userId = :userId
+          and c.type = :type
+          and (:afterId is null
+               or c.occurredAt < :afterAt
+               or (c.occurredAt = :afterAt and c.cashFlowId < :afterId))
+        order by c.occurredAt desc, c.cashFlowId desc
+        """)
+    List<LedgerRow> pageByUserAndTypeOrderByOccurredAtDesc(@Param("userId") Long userId,
+                                                           @Param("type") CashFlowType type,
+                                                           @Param("afterAt") LocalDateTime afterAt,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+        select c.cashFlowId as cashFlowId, c.type as type, c.amount as amount, c.occurredAt as occurredAt,
+               c.createdAt as createdAt, c.description as description, a.accountId as accountId,
+               a.balance as accountBalance, cat.categoryId as categoryId, cat.name as categoryName
+        from CashFlow c
+        join c.account a
+        left join c.category cat
+        where a.user.userId = :userId
+          and c.type = :type
+          and (:afterId is null
+               or c.createdAt < :afterAt
+               or (c.createdAt = :afterAt and c.cashFlowId < :afterId))
+        order by c.createdAt desc, c.cashFlowId desc
+        """)
+    List<LedgerRow> pageByUserAndTypeOrderByCreatedAtDesc(@Param("userId") Long userId,
+                                                          @Param("type") CashFlowType type,
+                                                          @Param("afterAt") LocalDateTime afterAt,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+        select c.cashFlowId as cashFlowId, c.type as type, c.amount as amount, c.occurredAt as occurredAt,
+               c.createdAt as createdAt, c.description as description, a.accountId as accountId,
+               a.balance as accountBalance, cat.categoryId as categoryId, cat.name as categoryName
+        from CashFlow c
+        join c.account a
+        join c.category cat
+        where a.user.userId = :userId
+          and cat.categoryId = :categoryId
+          and c.occurredAt between :start and :end
+          and (:type is null or c.type = :type)
+          and (:afterId is null
+               or c.occurredAt < :afterAt
+               or (c.occurredAt = :afterAt and c.cashFlowId < :afterId))
+        order by c.occurredAt desc, c.cashFlowId desc
+        """)
+    List<LedgerRow> pageByUserCategoryPeriodAndOptionalType(@Param("userId") Long userId,
+                                                            @Param("categoryId") Long categoryId,
+                                                            @Param("start") LocalDateTime start,
+                                                            @Param("end") LocalDateTime end,
+                                                            @Param("type") CashFlowType type,
+                                                            @Param("afterAt") LocalDateTime afterAt,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+
+    interface UserTypeTotal {
+        Long getUserId();
+        CashFlowType getType();
+        BigDecimal getTotal();
+    }
+
+    interface UserCategoryTotal {
+        Long getUserId();
+        Long getCategoryId();
+        String getCategoryName();
+        BigDecimal getTotal();
+    }
+
+    interface AccountInflowStats {
+        Long getAccountId();
+        Long getContributions();
+        BigDecimal getTotal();
+        LocalDateTime getFirstAt();
+        LocalDateTime getLastAt();
+    }
+
+    interface LedgerRow {
+        Long getCashFlowId();
+        CashFlowType getType();
+        BigDecimal getAmount();
+        LocalDateTime getOccurredAt();
+        LocalDateTime getCreatedAt();
+        String getDescription();
+        Long getAccountId();
+        BigDecimal getAccountBalance();
+        Long getCategoryId();
+        String getCategoryName();
+    }
 }
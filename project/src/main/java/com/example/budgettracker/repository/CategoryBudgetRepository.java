@@ -6,6 +6,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +29,107 @@ public interface CategoryBudgetRepository extends JpaRepository<CategoryBudget,
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("update CategoryBudget cb set cb.category.categoryId = :toId where cb.user.userId = :userId and cb.category.categoryId = :fromId")
     int reassignCategoryBudgets(@Param("userId") Long userId, @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("select cb.id from CategoryBudget cb where cb.user.userId = :userId and cb.category.categoryId in :categoryIds")
+    List<Long> findIdsByUserAndCategoryIn(@Param("userId") Long userId, @Param("categoryIds") List<Long> categoryIds);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from CategoryBudget cb where cb.user.userId = :userId and cb.category.categoryId in :categoryIds")
+    int deleteByUserAndCategoryIn(@Param("userId") Long userId, @Param("categoryIds") List<Long> categoryIds);
+
+    /*
+     * Set-based budget merge, step 1: add the summed source amounts onto target months that already have a budget.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+           update category_budget t
+              set amount = t.amount + (select sum(s.amount) from category_budget s
+                                        where s.user_id = :userId
+                                          and s.category_id in (:sourceIds)
+                                          and s.year_month = t.year_month)
+            where t.user_id = :userId
+              and t.category_id = :targetId
+              and exists (select 1 from category_budget s
+                           where s.user_id = :userId
+                             and s.category_id in (:sourceIds)
+                             and s.year_month = t.year_month)
+           """, nativeQuery = true)
+    int addSourceBudgetsToTarget(@Param("userId") Long userId,
+                                 @Param("sourceIds") List<Long> sourceIds,
+                                 @Param("targetId") Long targetId);
+
+    /*
+     * Set-based budget merge, step 2: create target budgets for months only the sources had. The new budget
+     * keeps the sources' custom name for that month (the first alphabetically if they differ).
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+           insert into category_budget (user_id, category_id, year_month, amount, custom_name)
+           select s.user_id, :targetId, s.year_month, sum(s.amount), min(s.custom_name)
+             from category_budget s
+            where s.user_id = :userId
+              and s.category_id in (:sourceIds)
+              and not exists (select 1 from category_budget t
+                               where t.user_id = :userId
+                                 and t.category_id = :targetId
+                                 and t.year_month = s.year_month)
+            group by s.user_id, s.year_month
+           """, nativeQuery = true)
+    int insertMissingTargetBudgets(@Param("userId") Long userId,
+                                   @Param("sourceIds") List<Long> sourceIds,
+                                   @Param("targetId") Long targetId);
+
+    // All budgets for a page of users in one month (monthly summary)
+    @Query("""
+           select cb.user.userId as userId, cb.category.categoryId as categoryId,
+                  coalesce(cb.customName, cb.category.name) as categoryName, cb.amount as amount
+             from CategoryBudget cb
+            where cb.user.userId in :userIds
+              and cb.yearMonth = :yearMonth
+           """)
+    List<UserCategoryBudget> findBudgetsForUsers(@Param("userIds") List<Long> userIds,
+                                                 @Param("yearMonth") String yearMonth);
+
+    /**
+     * Budgets of a user id range that were not exceeded in a month: one join of the month's budgets against
+     * expense sums grouped by (user, category). A budget with no spending at all also counts.
+     */
+    @Query(value = """
+           select cb.user_id as "userId", cb.category_id as "categoryId",
+                  coalesce(cb.custom_name, cat.name) as "categoryName"
+             from category_budget cb
+             join category cat on cat.category_id = cb.category_id
+             left join (select a.user_id as user_id, c.category_id as category_id, sum(c.amount) as spent
+                          from cash_flow c
+                          join account a on a.account_id = c.account_id
+                         where c.type = 'Expense'
+                           and c.occurred_at >= :start and c.occurred_at < :end
+                           and a.user_id between :fromId and :toId
+                         group by a.user_id, c.category_id) s
+               on s.user_id = cb.user_id and s.category_id = cb.category_id
+            where cb.year_month = :yearMonth
+              and cb.user_id between :fromId and :toId
+              and cb.amount > 0
+              and coalesce(s.spent, 0) <= cb.amount
+           """, nativeQuery = true)
+    List<UnderBudget> findUnderBudget(@Param("yearMonth") String yearMonth,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end,
+                                      @Param("fromId") Long fromId,
+                                      @Param("toId") Long toId);
+
+    List<CategoryBudget> findByUser_UserIdAndIdIn(Long userId, Collection<Long> budgetIds);
+
+    interface UserCategoryBudget {
+        Long getUserId();
+        Long getCategoryId();
+        String getCategoryName();
+        BigDecimal getAmount();
+    }
+
+    interface UnderBudget {
+        Long getUserId();
+        Long getCategoryId();
+        String getCategoryName();
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.CategoryOperation;
+import com.example.budgettracker.model.enums.CategoryOperationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryOperationRepository extends JpaRepository<CategoryOperation, Long> {
+
+    Optional<CategoryOperation> findByIdAndUser_UserId(Long id, Long userId);
+
+    List<CategoryOperation> findByStatusIn(Collection<CategoryOperationStatus> statuses);
+
+    boolean existsByUser_UserIdAndStatusIn(Long userId, Collection<CategoryOperationStatus> statuses);
+}
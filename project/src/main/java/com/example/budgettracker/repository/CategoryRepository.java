@@ -2,12 +2,22 @@ package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    // Query-cached: the category list is read on every page load and changes rarely
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByUser_UserIdOrderByNameAsc(Long userId);
 
     boolean existsByUser_UserIdAndNameIgnoreCase(Long userId, String name);
@@ -18,5 +28,21 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByCategoryIdAndUser_UserId(Long categoryId, Long userId);
 
+    // Name -> id pairs for the per-user category dictionary (no entities loaded)
+    @Query("select c.categoryId as categoryId, c.name as name from Category c where c.user.userId = :userId")
+    List<CategoryName> findNamesByUserId(@Param("userId") Long userId);
+
+    List<Category> findByUser_UserIdAndCategoryIdIn(Long userId, Collection<Long> categoryIds);
+
+    interface CategoryName {
+        Long getCategoryId();
+        String getName();
+    }
+
+    // Blocks concurrent inserts referencing these categories until the deleting transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Category c where c.categoryId in :ids")
+    List<Category> lockAllById(@Param("ids") List<Long> ids);
+
 }
 
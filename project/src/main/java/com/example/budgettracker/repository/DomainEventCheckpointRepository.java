@@ -0,0 +1,28 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.DomainEventCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface DomainEventCheckpointRepository extends JpaRepository<DomainEventCheckpoint, String> {
+
+    /**
+     * Move a checkpoint only if nobody else (a replay) moved it since it was read.
+     * @return 1 when advanced
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           update DomainEventCheckpoint c
+              set c.lastEventId = :to, c.updatedAt = :now
+            where c.consumerName = :name
+              and c.lastEventId = :from
+           """)
+    int advance(@Param("name") String name,
+                @Param("from") Long from,
+                @Param("to") Long to,
+                @Param("now") LocalDateTime now);
+}
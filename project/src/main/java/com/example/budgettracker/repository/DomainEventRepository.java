@@ -0,0 +1,46 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.DomainEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DomainEventRepository extends JpaRepository<DomainEvent, Long> {
+
+    /**
+     * Next committed events after a checkpoint in id order (a primary key range scan). Ids are taken at
+     * insert, not at commit, so the result can skip ids whose transactions are still open; the
+     * dispatcher decides how long to wait for them.
+     */
+    @Query("""
+           select e from DomainEvent e
+            where e.id > :afterId
+            order by e.id asc
+           """)
+    List<DomainEvent> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select max(e.id) from DomainEvent e")
+    Long findMaxId();
+
+    /**
+     * The database clock, so that waiting on a gap does not depend on which node's clock is asked
+     */
+    @Query(value = "select localtimestamp", nativeQuery = true)
+    LocalDateTime findDatabaseTime();
+
+    /**
+     * Delete events every consumer is past (id up to upToId) that were recorded before the retention cut-off
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           delete from DomainEvent e
+            where e.id <= :upToId
+              and e.recordedAt < :before
+           """)
+    int purgeDeliveredBefore(@Param("upToId") Long upToId, @Param("before") LocalDateTime before);
+}
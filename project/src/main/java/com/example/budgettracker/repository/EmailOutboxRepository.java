@@ -0,0 +1,36 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.EmailOutbox;
+import com.example.budgettracker.model.enums.EmailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Oldest pending messages whose next attempt is due, served by idx_email_outbox_status_next.
+     */
+    @Query("""
+           select o from EmailOutbox o
+            where o.status = com.example.budgettracker.model.enums.EmailOutboxStatus.PENDING
+              and o.nextAttemptAt <= :now
+            order by o.nextAttemptAt asc, o.id asc
+           """)
+    List<EmailOutbox> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           delete from EmailOutbox o
+            where o.status = com.example.budgettracker.model.enums.EmailOutboxStatus.SENT
+              and o.sentAt < :before
+           """)
+    int purgeSentBefore(@Param("before") LocalDateTime before);
+}
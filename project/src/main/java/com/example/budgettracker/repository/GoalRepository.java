@@ -2,8 +2,18 @@ package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.Goal;
 import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.GoalStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     List<Goal> findByUser(User user);
@@ -12,4 +22,85 @@ public interface GoalRepository extends JpaRepository<Goal, Long> {
 
 
     List<Goal> findAllByUser_UserIdOrderByIdDesc(Long userId);
+
+    // What a contribution needs from the goal, without loading the goal, its user and its account
+    @Query("""
+            select g.id as goalId, g.name as name, g.linkedAccount.accountId as accountId
+            from Goal g where g.id = :goalId and g.user.userId = :userId
+            """)
+    Optional<ContributionTarget> findContributionTarget(@Param("goalId") Long goalId, @Param("userId") Long userId);
+
+    /**
+     * Add to the saved amount and complete the goal once it reaches its target, in one statement.
+     * All assignments see the pre-update row. The running statistics move along with it; while they
+     * are still null (not yet backfilled) null + n stays null and the backfill picks the contribution up.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update Goal g set g.currentAmount = g.currentAmount + :amount,
+                g.status = case when g.currentAmount + :amount >= g.targetAmount then :completed else g.status end,
+                g.contributionCount = g.contributionCount + 1,
+                g.contributedTotal = g.contributedTotal + :amount,
+                g.firstContributionAt = coalesce(g.firstContributionAt, :at),
+                g.lastContributionAt = :at
+            where g.id = :goalId
+            """)
+    int addContribution(@Param("goalId") Long goalId,
+                        @Param("amount") BigDecimal amount,
+                        @Param("completed") GoalStatus completed,
+                        @Param("at") LocalDateTime at);
+
+    @Query("select g.id from Goal g where g.contributionCount is null order by g.id")
+    List<Long> findIdsMissingStats(Pageable pageable);
+
+    // Row locks in id order; a contribution also locks the goal row, so none can slip past the backfill
+    @Query(value = "select g.id from goal g where g.id in (:ids) order by g.id for update", nativeQuery = true)
+    List<Long> lockIds(@Param("ids") List<Long> ids);
+
+    @Query("select g.id as goalId, g.linkedAccount.accountId as accountId from Goal g where g.id in :ids")
+    List<GoalAccount> findLinkedAccounts(@Param("ids") List<Long> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update Goal g set g.contributionCount = :count, g.contributedTotal = :total,
+                g.firstContributionAt = :firstAt, g.lastContributionAt = :lastAt
+            where g.id = :goalId and g.contributionCount is null
+            """)
+    int initContributionStats(@Param("goalId") Long goalId,
+                              @Param("count") Long count,
+                              @Param("total") BigDecimal total,
+                              @Param("firstAt") LocalDateTime firstAt,
+                              @Param("lastAt") LocalDateTime lastAt);
+
+    // Goals of a user id range completed in [start, end): the completing contribution is the last one
+    @Query("""
+            select g.id as goalId, g.user.userId as userId, g.name as name
+              from Goal g
+             where g.status = com.example.budgettracker.model.enums.GoalStatus.COMPLETED
+               and g.lastContributionAt >= :start and g.lastContributionAt < :end
+               and g.user.userId between :fromId and :toId
+            """)
+    List<CompletedGoal> findCompletedBetween(@Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end,
+                                             @Param("fromId") Long fromId,
+                                             @Param("toId") Long toId);
+
+    List<Goal> findByUser_UserIdAndIdIn(Long userId, Collection<Long> goalIds);
+
+    interface GoalAccount {
+        Long getGoalId();
+        Long getAccountId();
+    }
+
+    interface ContributionTarget {
+        Long getGoalId();
+        String getName();
+        Long getAccountId();
+    }
+
+    interface CompletedGoal {
+        Long getGoalId();
+        Long getUserId();
+        String getName();
+    }
 }
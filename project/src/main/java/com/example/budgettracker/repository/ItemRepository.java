@@ -1,12 +1,41 @@
 package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     Optional<Item> findByItemNameIgnoreCase(String itemName);
+
+    // The shop catalogue is listed on every visit; query-cached (full rows) until an item row changes
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Item> findAll();
+
+    @Query("select i.itemId as itemId, i.itemName as itemName, i.price as price from Item i where i.itemId = :itemId")
+    Optional<ItemPrice> findPriceById(@Param("itemId") Long itemId);
+
+    /**
+     * Take one unit of stock if any is left, in one statement; the row lock lasts only until commit.
+     * @return 1 if taken, 0 if sold out or missing
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Item i set i.stockQty = i.stockQty - 1 where i.itemId = :itemId and i.stockQty > 0")
+    int takeOneFromStock(@Param("itemId") Long itemId);
+
+    interface ItemPrice {
+        Long getItemId();
+        String getItemName();
+        Long getPrice();
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.ReportArtifact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface ReportArtifactRepository extends JpaRepository<ReportArtifact, String> {
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from ReportArtifact a where a.jobId in :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<String> jobIds);
+}
@@ -0,0 +1,57 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.ReportJob;
+import com.example.budgettracker.model.enums.ReportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    /**
+     * Jobs an identical request can share: queued or running since after staleBefore, or done and not yet expired
+     */
+    @Query("""
+        select j from ReportJob j
+        where j.dedupKey = :dedupKey
+          and ((j.status = com.example.budgettracker.model.enums.ReportJobStatus.PENDING and j.createdAt > :staleBefore)
+               or (j.status = com.example.budgettracker.model.enums.ReportJobStatus.RUNNING and j.startedAt > :staleBefore)
+               or (j.status = com.example.budgettracker.model.enums.ReportJobStatus.DONE and j.expiresAt > :now))
+        order by j.createdAt desc
+        """)
+    List<ReportJob> findReusable(@Param("dedupKey") String dedupKey, @Param("now") LocalDateTime now,
+                                 @Param("staleBefore") LocalDateTime staleBefore);
+
+    List<ReportJob> findByNodeIdAndStatusIn(String nodeId, Collection<ReportJobStatus> statuses);
+
+    List<ReportJob> findByStatusInAndExpiresAtBefore(Collection<ReportJobStatus> statuses, LocalDateTime now);
+
+    /**
+     * PENDING -> RUNNING; 0 if another worker (or the startup resume) already claimed the job
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update ReportJob j set j.status = com.example.budgettracker.model.enums.ReportJobStatus.RUNNING,
+               j.startedAt = :now
+        where j.id = :id and j.status = com.example.budgettracker.model.enums.ReportJobStatus.PENDING
+        """)
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Fail jobs queued or running since before staleBefore, on any node; their worker died or lost them
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update ReportJob j set j.status = com.example.budgettracker.model.enums.ReportJobStatus.FAILED,
+               j.errorMessage = :reason, j.finishedAt = :now, j.expiresAt = :expiresAt
+        where (j.status = com.example.budgettracker.model.enums.ReportJobStatus.PENDING and j.createdAt < :staleBefore)
+           or (j.status = com.example.budgettracker.model.enums.ReportJobStatus.RUNNING and j.startedAt < :staleBefore)
+        """)
+    int failStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now,
+                  @Param("expiresAt") LocalDateTime expiresAt, @Param("reason") String reason);
+}
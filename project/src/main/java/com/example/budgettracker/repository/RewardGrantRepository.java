@@ -2,11 +2,64 @@ package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.RewardGrant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RewardGrantRepository extends JpaRepository<RewardGrant, Long> {
     List<RewardGrant> findByUserUserId(Long userId);
+
+    @Query("select g.rewardEventId from RewardGrant g where g.rewardEventId in :eventIds")
+    List<String> findExistingEventIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * One page of a user's coin history: grants and redeems merged newest first, in one statement.
+     * Keyset on (occurredAt, type, rowId): each side reads at most :limit rows from its
+     * (user_id, time, id) index starting below the cursor, so the cost does not grow with history.
+     * A tie bound is the id below which rows at exactly :beforeAt still belong to the next page
+     * (Long.MAX_VALUE for all of them, 0 for none).
+     */
+    @Query(value = """
+           select * from (
+               select 'EARN' as "type", g.source_type as "title", g.reward_event_id as "reference",
+                      g.amount as "amount", g.created_at as "occurredAt", g.grant_id as "rowId"
+                 from reward_grant g
+                where g.user_id = :userId
+                  and (g.created_at < :beforeAt or (g.created_at = :beforeAt and g.grant_id < :grantTieBefore))
+                order by g.created_at desc, g.grant_id desc
+                limit :limit
+           ) earned
+           union all
+           select * from (
+               select 'SPEND' as "type", r.item_name as "title", cast(r.order_id as varchar(20)) as "reference",
+                      r.amount as "amount", r.redeemed_at as "occurredAt", r.order_id as "rowId"
+                 from reward_redeem r
+                where r.user_id = :userId
+                  and (r.redeemed_at < :beforeAt or (r.redeemed_at = :beforeAt and r.order_id < :redeemTieBefore))
+                order by r.redeemed_at desc, r.order_id desc
+                limit :limit
+           ) spent
+           order by "occurredAt" desc, "type" desc, "rowId" desc
+           limit :limit
+           """, nativeQuery = true)
+    List<CoinTransaction> findHistoryPage(@Param("userId") Long userId,
+                                          @Param("beforeAt") LocalDateTime beforeAt,
+                                          @Param("grantTieBefore") Long grantTieBefore,
+                                          @Param("redeemTieBefore") Long redeemTieBefore,
+                                          @Param("limit") int limit);
+
+    interface CoinTransaction {
+        String getType();
+        String getTitle();
+        String getReference();
+        BigDecimal getAmount();
+        LocalDateTime getOccurredAt();
+        Long getRowId();
+    }
 }
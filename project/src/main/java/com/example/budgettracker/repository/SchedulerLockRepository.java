@@ -0,0 +1,72 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * The database clock; every node computes lease times from it instead of its own clock
+     */
+    @Query(value = "select localtimestamp", nativeQuery = true)
+    LocalDateTime findDatabaseTime();
+
+    /**
+     * Take over the lease if it has expired. Returns 1 only for the single node whose update wins.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           update SchedulerLock l
+              set l.lockedBy = :nodeId,
+                  l.lockedAt = :now,
+                  l.lockUntil = :until,
+                  l.heartbeatAt = :now
+            where l.lockName = :name
+              and l.lockUntil <= :now
+           """)
+    int tryAcquire(@Param("name") String name,
+                   @Param("nodeId") String nodeId,
+                   @Param("now") LocalDateTime now,
+                   @Param("until") LocalDateTime until);
+
+    /**
+     * Heartbeat: push lockUntil forward while this node still owns the lease.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           update SchedulerLock l
+              set l.lockUntil = :until,
+                  l.heartbeatAt = :now
+            where l.lockName = :name
+              and l.lockedBy = :nodeId
+              and l.lockUntil > :now
+           """)
+    int extend(@Param("name") String name,
+               @Param("nodeId") String nodeId,
+               @Param("now") LocalDateTime now,
+               @Param("until") LocalDateTime until);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           update SchedulerLock l
+              set l.lockUntil = :until
+            where l.lockName = :name
+              and l.lockedBy = :nodeId
+           """)
+    int release(@Param("name") String name,
+                @Param("nodeId") String nodeId,
+                @Param("until") LocalDateTime until);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           delete from SchedulerLock l
+            where l.lockName = :name
+              and l.lockedBy = :nodeId
+           """)
+    int deleteOwned(@Param("name") String name, @Param("nodeId") String nodeId);
+}
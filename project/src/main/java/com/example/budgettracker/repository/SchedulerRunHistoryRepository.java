@@ -0,0 +1,19 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.SchedulerRunHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SchedulerRunHistoryRepository extends JpaRepository<SchedulerRunHistory, Long> {
+
+    List<SchedulerRunHistory> findTop20ByJobNameOrderByStartedAtDesc(String jobName);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from SchedulerRunHistory h where h.startedAt < :before")
+    int purgeStartedBefore(@Param("before") LocalDateTime before);
+}
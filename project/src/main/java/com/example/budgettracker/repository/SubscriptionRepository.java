@@ -1,10 +1,16 @@
 package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.Subscription;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
 
@@ -25,4 +31,32 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
 
     List<Subscription> findByIsActiveTrueAndNextPostAtLessThanEqual(LocalDateTime date);
 
+    /**
+     * Lock a subscription row while posting it, so that concurrent posters
+     * (recurrence engine, daily sweep, other nodes) cannot post the same due date twice
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Subscription s where s.subscriptionId = :id")
+    Optional<Subscription> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * (id, nextPostAt) of every active subscription, used to seed the in-memory recurrence index
+     */
+    @Query("select s.subscriptionId as subscriptionId, s.nextPostAt as nextPostAt from Subscription s where s.isActive = true")
+    List<ScheduleEntry> findActiveSchedule();
+
+    @Query("""
+           select s.subscriptionId as subscriptionId, s.nextPostAt as nextPostAt
+             from Subscription s
+            where s.isActive = true
+              and s.nextPostAt <= :date
+           """)
+    List<ScheduleEntry> findDueSchedule(@Param("date") LocalDateTime date);
+
+    List<Subscription> findByUser_UserIdAndSubscriptionIdIn(Long userId, Collection<Long> subscriptionIds);
+
+    interface ScheduleEntry {
+        Long getSubscriptionId();
+        LocalDateTime getNextPostAt();
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.budgettracker.repository;
+
+import com.example.budgettracker.model.SyncChange;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SyncChangeRepository extends JpaRepository<SyncChange, Long> {
+
+    @Query("select max(c.version) from SyncChange c where c.userId = :userId")
+    Long findMaxVersion(@Param("userId") Long userId);
+
+    @Query("""
+           select c from SyncChange c
+            where c.userId = :userId
+              and c.entityType = :type
+              and c.entityId in :entityIds
+           """)
+    List<SyncChange> findEntries(@Param("userId") Long userId,
+                                 @Param("type") SyncEntityType type,
+                                 @Param("entityIds") Collection<Long> entityIds);
+
+    /**
+     * A user's changes after a version, oldest first, served by idx_sync_change_user_version.
+     */
+    @Query("""
+           select c from SyncChange c
+            where c.userId = :userId
+              and c.version > :since
+            order by c.version asc
+           """)
+    List<SyncChange> findChangesSince(@Param("userId") Long userId, @Param("since") Long since, Pageable pageable);
+}
@@ -1,11 +1,17 @@
 package com.example.budgettracker.repository;
 
 import com.example.budgettracker.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -17,4 +23,107 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("select u.allowNotificationEmail from User u where u.userId = :userId")
     Boolean getNotificationEmailStatus(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Spend BudgetCoin only if the balance covers it, in one statement.
+     * @return 1 if spent; 0 if the user is missing or short of coins
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update User u set u.budgetCoin = u.budgetCoin - :amount where u.userId = :userId and u.budgetCoin >= :amount")
+    int spendBudgetCoin(@Param("userId") Long userId, @Param("amount") long amount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update User u set u.budgetCoin = coalesce(u.budgetCoin, 0) + :amount where u.userId = :userId")
+    int creditBudgetCoin(@Param("userId") Long userId, @Param("amount") long amount);
+
+    @Query("select u.budgetCoin from User u where u.userId = :userId")
+    Long getBudgetCoin(@Param("userId") Long userId);
+
+    // Row lock used to serialise per-user get-or-create across nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.userId = :userId")
+    Optional<User> findByIdForUpdate(@Param("userId") Long userId);
+
+    @Query("select u.systemCategoriesEnsured from User u where u.userId = :userId")
+    Boolean getSystemCategoriesEnsured(@Param("userId") Long userId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update User u set u.systemCategoriesEnsured = true where u.userId = :userId")
+    int markSystemCategoriesEnsured(@Param("userId") Long userId);
+
+    @Query("select min(u.userId) as minId, max(u.userId) as maxId from User u")
+    IdRange findIdRange();
+
+    /**
+     * Recorded BudgetCoin next to the balance implied by the ledger (grants minus redeems) for an id range.
+     * A plain read: no row locks, each sum is served by the (user_id, ...) history indexes.
+     */
+    @Query("""
+           select u.userId as userId, u.budgetCoin as recorded,
+                  (select coalesce(sum(g.amount), 0) from RewardGrant g where g.user.userId = u.userId)
+                - (select coalesce(sum(r.amount), 0) from RewardRedeem r where r.user.userId = u.userId) as expected
+             from User u
+            where u.userId between :fromId and :toId
+           """)
+    List<CoinLedgerBalance> findCoinLedgerBalances(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Compare-and-set repair: only overwrites the balance that was read, so a grant or redeem
+     * committed since the read wins and the user is simply re-checked on the next run.
+     * @return 1 if repaired, 0 if the balance moved in the meantime
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+           update User u set u.budgetCoin = :expected
+            where u.userId = :userId and coalesce(u.budgetCoin, 0) = :observed
+           """)
+    int repairBudgetCoin(@Param("userId") Long userId,
+                         @Param("observed") long observed,
+                         @Param("expected") long expected);
+
+    /**
+     * Keyset page of users who opted in to notification emails; projection only, no entities loaded.
+     */
+    @Query("""
+           select u.userId as userId, u.email as email, u.firstName as firstName
+             from User u
+            where u.allowNotificationEmail = true
+              and u.userId > :afterId
+            order by u.userId asc
+           """)
+    List<NotificationRecipient> findNotificationRecipientsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Keyset page of balances for seeding and checking the in-memory leaderboard
+    @Query("""
+           select u.userId as userId, u.budgetCoin as budgetCoin
+             from User u
+            where u.userId > :afterId
+            order by u.userId asc
+           """)
+    List<UserCoins> findCoinBalancesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select u.userId as userId, u.budgetCoin as budgetCoin from User u where u.userId in :userIds")
+    List<UserCoins> findCoinBalances(@Param("userIds") Collection<Long> userIds);
+
+    interface NotificationRecipient {
+        Long getUserId();
+        String getEmail();
+        String getFirstName();
+    }
+
+    interface UserCoins {
+        Long getUserId();
+        Long getBudgetCoin();
+    }
+
+    interface IdRange {
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    interface CoinLedgerBalance {
+        Long getUserId();
+        Long getRecorded();
+        BigDecimal getExpected();
+    }
+}
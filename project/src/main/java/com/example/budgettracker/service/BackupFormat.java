@@ -0,0 +1,521 @@
+package com.example.budgettracker.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Snapshot file format of {@link BackupService}, version 1:
+ * <pre>
+ * header   "OSBK", u16 version, u8 scope (0 instance, 1 user), i64 user id (0 for instance), i64 created at
+ *          (epoch millis), u16 table count
+ * table    utf name, u16 column count, utf name + u8 type per column, i64 highest id in the table,
+ *          then blocks of i32 rows, i32 raw length, i32 compressed length, i32 CRC-32 of the raw bytes
+ *          and the deflated rows; a block of 0 rows ends the table
+ * trailer  "OSBE", i64 total rows
+ * row      i64 null bitmap, then every non-null value: LONG i64 | STRING i32 length + UTF-8 |
+ *          DECIMAL i32 scale + u16 length + unscaled two's complement | TIMESTAMP i64 epoch second + i32 nano
+ *          (zone-less, as stored) | DATE i64 epoch day | BOOLEAN u8
+ * </pre>
+ * Rows are buffered into blocks of about 1 MiB raw, so both sides hold one block at a time.
+ */
+final class BackupFormat {
+
+    static final int MAGIC = 0x4F53424B;      // "OSBK"
+    static final int END_MAGIC = 0x4F534245;  // "OSBE"
+    static final int VERSION = 1;
+    static final int BLOCK_BYTES = 1 << 20;
+
+    private BackupFormat() {}
+
+    enum Type {
+        LONG(Types.BIGINT),
+        STRING(Types.VARCHAR),
+        DECIMAL(Types.NUMERIC),
+        TIMESTAMP(Types.TIMESTAMP),
+        DATE(Types.DATE),
+        BOOLEAN(Types.BOOLEAN);
+
+        final int sqlType;
+
+        Type(int sqlType) {
+            this.sqlType = sqlType;
+        }
+
+        Object read(ResultSet rs, int index) throws SQLException {
+            return switch (this) {
+                case LONG -> {
+                    long v = rs.getLong(index);
+                    yield rs.wasNull() ? null : v;
+                }
+                case STRING -> rs.getString(index);
+                case DECIMAL -> rs.getBigDecimal(index);
+                case TIMESTAMP -> rs.getObject(index, LocalDateTime.class);
+                case DATE -> rs.getObject(index, LocalDate.class);
+                case BOOLEAN -> {
+                    boolean v = rs.getBoolean(index);
+                    yield rs.wasNull() ? null : v;
+                }
+            };
+        }
+    }
+
+    /**
+     * @param references table whose ids this column holds (its own table for the primary key), or null
+     */
+    record Column(String name, Type type, String references) {
+        static Column of(String name, Type type) {
+            return new Column(name, type, null);
+        }
+
+        static Column ref(String name, String table) {
+            return new Column(name, Type.LONG, table);
+        }
+    }
+
+    /**
+     * @param userFilter where clause selecting one user's rows, every ? bound to the user id
+     * @param naturalKey column matched against the target on restore instead of inserting duplicates
+     *                   (catalogue tables), or null
+     */
+    record Table(String name, List<Column> columns, String userFilter, String naturalKey) {
+        Column pk() {
+            return columns.get(0);
+        }
+    }
+
+    private static final String USER_ACCOUNTS = "(select a.account_id from account a where a.user_id = ?)";
+
+    /** Every table in the snapshot, parents before children: the restore order. */
+    static final List<Table> TABLES = List.of(
+            new Table("users", List.of(
+                    Column.ref("user_id", "users"),
+                    Column.of("email", Type.STRING),
+                    Column.of("hashed_password", Type.STRING),
+                    Column.of("first_name", Type.STRING),
+                    Column.of("middle_name", Type.STRING),
+                    Column.of("last_name", Type.STRING),
+                    Column.of("allow_notification_email", Type.BOOLEAN),
+                    Column.of("budget_coin", Type.LONG),
+                    Column.of("system_categories_ensured", Type.BOOLEAN),
+                    Column.of("profile_picture_url", Type.STRING),
+                    Column.of("google_id", Type.STRING)),
+                    "user_id = ?", null),
+            new Table("item", List.of(
+                    Column.ref("item_id", "item"),
+                    Column.of("price", Type.LONG),
+                    Column.of("stock_qty", Type.LONG),
+                    Column.of("item_name", Type.STRING),
+                    Column.of("description", Type.STRING),
+                    Column.of("emoji", Type.STRING)),
+                    "item_id in (select r.item_id from reward_redeem r where r.user_id = ?)", "item_name"),
+            new Table("account", List.of(
+                    Column.ref("account_id", "account"),
+                    Column.of("name", Type.STRING),
+                    Column.of("account_type", Type.STRING),
+                    Column.of("balance", Type.DECIMAL),
+                    Column.ref("user_id", "users")),
+                    "user_id = ?", null),
+            new Table("category", List.of(
+                    Column.ref("category_id", "category"),
+                    Column.ref("user_id", "users"),
+                    Column.of("name", Type.STRING),
+                    Column.of("system", Type.BOOLEAN)),
+                    "user_id = ?", null),
+            new Table("category_budget", List.of(
+                    Column.ref("id", "category_budget"),
+                    Column.ref("user_id", "users"),
+                    Column.ref("category_id", "category"),
+                    Column.of("year_month", Type.STRING),
+                    Column.of("amount", Type.DECIMAL),
+                    Column.of("custom_name", Type.STRING)),
+                    "user_id = ?", null),
+            new Table("subscription", List.of(
+                    Column.ref("subscription_id", "subscription"),
+                    Column.of("merchant", Type.STRING),
+                    Column.of("amount", Type.DECIMAL),
+                    Column.of("frequency", Type.STRING),
+                    Column.of("start_date", Type.TIMESTAMP),
+                    Column.of("is_active", Type.BOOLEAN),
+                    Column.of("next_post_at", Type.TIMESTAMP),
+                    Column.of("type", Type.STRING),
+                    Column.ref("user_id", "users")),
+                    "user_id = ?", null),
+            new Table("goal", List.of(
+                    Column.ref("id", "goal"),
+                    Column.of("name", Type.STRING),
+                    Column.of("target_amount", Type.DECIMAL),
+                    Column.of("saved_amount", Type.DECIMAL),
+                    Column.of("due_date", Type.DATE),
+                    Column.of("status", Type.STRING),
+                    Column.ref("user_id", "users"),
+                    Column.ref("account_id", "account"),
+                    Column.of("contribution_count", Type.LONG),
+                    Column.of("contributed_total", Type.DECIMAL),
+                    Column.of("first_contribution_at", Type.TIMESTAMP),
+                    Column.of("last_contribution_at", Type.TIMESTAMP)),
+                    "user_id = ?", null),
+            new Table("cash_flow", List.of(
+                    Column.ref("cash_flow_id", "cash_flow"),
+                    Column.of("type", Type.STRING),
+                    Column.of("amount", Type.DECIMAL),
+                    Column.of("created_at", Type.TIMESTAMP),
+                    Column.of("occurred_at", Type.TIMESTAMP),
+                    Column.of("description", Type.STRING),
+                    Column.ref("account_id", "account"),
+                    Column.ref("category_id", "category"),
+                    Column.ref("subscription_id", "subscription")),
+                    "account_id in " + USER_ACCOUNTS, null),
+            // Only transfers between the user's own accounts, so every reference resolves on restore
+            new Table("transfer", List.of(
+                    Column.ref("transfer_id", "transfer"),
+                    Column.of("amount", Type.DECIMAL),
+                    Column.of("created_at", Type.TIMESTAMP),
+                    Column.ref("account_to", "account"),
+                    Column.ref("account_from", "account")),
+                    "(account_from is null or account_from in " + USER_ACCOUNTS + ")"
+                            + " and (account_to is null or account_to in " + USER_ACCOUNTS + ")", null),
+            new Table("reward_grant", List.of(
+                    Column.ref("grant_id", "reward_grant"),
+                    Column.of("amount", Type.DECIMAL),
+                    Column.of("created_at", Type.TIMESTAMP),
+                    Column.of("source_type", Type.STRING),
+                    Column.of("reward_event_id", Type.STRING),
+                    Column.ref("user_id", "users")),
+                    "user_id = ?", null),
+            new Table("reward_redeem", List.of(
+                    Column.ref("order_id", "reward_redeem"),
+                    Column.of("item_name", Type.STRING),
+                    Column.of("amount", Type.DECIMAL),
+                    Column.ref("user_id", "users"),
+                    Column.ref("item_id", "item"),
+                    Column.of("redeemed_at", Type.TIMESTAMP)),
+                    "user_id = ?", null)
+    );
+
+    record Header(int version, boolean userScope, Long userId, Instant createdAt) {}
+
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES + (BLOCK_BYTES >> 3));
+        private final DataOutputStream rowOut = new DataOutputStream(block);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32 crc = new CRC32();
+        private byte[] compressed = new byte[BLOCK_BYTES];
+        private Table table;
+        private int blockRows;
+        private long tableRows;
+        private long totalRows;
+
+        Writer(OutputStream target, Long userId) throws IOException {
+            this.out = new DataOutputStream(target);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(userId == null ? 0 : 1);
+            out.writeLong(userId == null ? 0 : userId);
+            out.writeLong(System.currentTimeMillis());
+            out.writeShort(TABLES.size());
+        }
+
+        void beginTable(Table table, long maxId) throws IOException {
+            this.table = table;
+            this.tableRows = 0;
+            out.writeUTF(table.name());
+            out.writeShort(table.columns().size());
+            for (Column column : table.columns()) {
+                out.writeUTF(column.name());
+                out.writeByte(column.type().ordinal());
+            }
+            out.writeLong(maxId);
+        }
+
+        void writeRow(Object[] row) throws IOException {
+            List<Column> columns = table.columns();
+            long nulls = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                if (row[i] == null) {
+                    nulls |= 1L << i;
+                }
+            }
+            rowOut.writeLong(nulls);
+            for (int i = 0; i < columns.size(); i++) {
+                if (row[i] != null) {
+                    writeValue(columns.get(i).type(), row[i]);
+                }
+            }
+            blockRows++;
+            tableRows++;
+            if (block.size() >= BLOCK_BYTES) {
+                flushBlock();
+            }
+        }
+
+        /** @return rows written for the table */
+        long endTable() throws IOException {
+            flushBlock();
+            out.writeInt(0);
+            totalRows += tableRows;
+            return tableRows;
+        }
+
+        void finish() throws IOException {
+            out.writeInt(END_MAGIC);
+            out.writeLong(totalRows);
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+        }
+
+        private void writeValue(Type type, Object value) throws IOException {
+            switch (type) {
+                case LONG -> rowOut.writeLong(((Number) value).longValue());
+                case STRING -> {
+                    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    rowOut.writeInt(bytes.length);
+                    rowOut.write(bytes);
+                }
+                case DECIMAL -> {
+                    BigDecimal decimal = (BigDecimal) value;
+                    byte[] unscaled = decimal.unscaledValue().toByteArray();
+                    rowOut.writeInt(decimal.scale());
+                    rowOut.writeShort(unscaled.length);
+                    rowOut.write(unscaled);
+                }
+                case TIMESTAMP -> {
+                    LocalDateTime ts = (LocalDateTime) value;
+                    rowOut.writeLong(ts.toEpochSecond(ZoneOffset.UTC));
+                    rowOut.writeInt(ts.getNano());
+                }
+                case DATE -> rowOut.writeLong(((LocalDate) value).toEpochDay());
+                case BOOLEAN -> rowOut.writeByte((Boolean) value ? 1 : 0);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockRows == 0) {
+                return;
+            }
+            byte[] raw = block.toByteArray();
+            crc.reset();
+            crc.update(raw);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            out.writeInt(blockRows);
+            out.writeInt(raw.length);
+            out.writeInt(length);
+            out.writeInt((int) crc.getValue());
+            out.write(compressed, 0, length);
+            block.reset();
+            blockRows = 0;
+        }
+    }
+
+    static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final Header header;
+        private final Inflater inflater = new Inflater();
+        private final CRC32 crc = new CRC32();
+        private int tablesLeft;
+        private int tableIndex;
+        private Table table;
+        private long maxId;
+        private DataInputStream rows;
+        private int rowsLeftInBlock;
+        private boolean tableDone;
+        private long totalRows;
+
+        Reader(InputStream source) throws IOException {
+            this.in = new DataInputStream(source);
+            this.header = readHeader(in);
+            this.tablesLeft = in.readUnsignedShort();
+            if (tablesLeft != TABLES.size()) {
+                throw new IllegalArgumentException("Backup has " + tablesLeft + " tables, expected " + TABLES.size());
+            }
+        }
+
+        Header header() {
+            return header;
+        }
+
+        /** Next table section, checked against {@link #TABLES}; null after the last one. */
+        Table nextTable() throws IOException {
+            if (table != null && !tableDone) {
+                throw new IllegalStateException("Table " + table.name() + " not fully read");
+            }
+            if (tablesLeft == 0) {
+                return null;
+            }
+            Table expected = TABLES.get(tableIndex++);
+            String name = in.readUTF();
+            int columnCount = in.readUnsignedShort();
+            boolean matches = name.equals(expected.name()) && columnCount == expected.columns().size();
+            for (int i = 0; i < columnCount; i++) {
+                String column = in.readUTF();
+                int type = in.readUnsignedByte();
+                matches &= i < expected.columns().size()
+                        && column.equals(expected.columns().get(i).name())
+                        && type == expected.columns().get(i).type().ordinal();
+            }
+            if (!matches) {
+                throw new IllegalArgumentException("Backup table " + name + " does not match this version's " + expected.name());
+            }
+            tablesLeft--;
+            table = expected;
+            maxId = in.readLong();
+            tableDone = false;
+            rowsLeftInBlock = 0;
+            return table;
+        }
+
+        /** Highest id of the current table in the snapshot. */
+        long maxId() {
+            return maxId;
+        }
+
+        /** Next row of the current table; null at its end. */
+        Object[] nextRow() throws IOException {
+            if (tableDone) {
+                return null;
+            }
+            if (rowsLeftInBlock == 0 && !readBlock()) {
+                tableDone = true;
+                return null;
+            }
+            rowsLeftInBlock--;
+            List<Column> columns = table.columns();
+            Object[] row = new Object[columns.size()];
+            long nulls = rows.readLong();
+            for (int i = 0; i < columns.size(); i++) {
+                if ((nulls & (1L << i)) == 0) {
+                    row[i] = readValue(columns.get(i).type());
+                }
+            }
+            totalRows++;
+            return row;
+        }
+
+        /** Verifies the trailer, which catches truncated files. */
+        void finish() throws IOException {
+            if (in.readInt() != END_MAGIC) {
+                throw new IllegalArgumentException("Backup trailer missing");
+            }
+            long expected = in.readLong();
+            if (expected != totalRows) {
+                throw new IllegalArgumentException("Backup holds " + expected + " rows but " + totalRows + " were read");
+            }
+        }
+
+        @Override
+        public void close() {
+            inflater.end();
+        }
+
+        private boolean readBlock() throws IOException {
+            int count = in.readInt();
+            if (count == 0) {
+                return false;
+            }
+            int rawLength = in.readInt();
+            int compressedLength = in.readInt();
+            int checksum = in.readInt();
+            byte[] compressed = new byte[compressedLength];
+            in.readFully(compressed);
+            byte[] raw = new byte[rawLength];
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                int length = 0;
+                while (length < rawLength && !inflater.finished()) {
+                    int n = inflater.inflate(raw, length, rawLength - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += n;
+                }
+                if (length != rawLength) {
+                    throw new EOFException("Short block in table " + table.name());
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Corrupt block in table " + table.name(), e);
+            }
+            crc.reset();
+            crc.update(raw);
+            if ((int) crc.getValue() != checksum) {
+                throw new IllegalArgumentException("Checksum mismatch in table " + table.name());
+            }
+            rows = new DataInputStream(new ByteArrayInputStream(raw));
+            rowsLeftInBlock = count;
+            return true;
+        }
+
+        private Object readValue(Type type) throws IOException {
+            return switch (type) {
+                case LONG -> rows.readLong();
+                case STRING -> {
+                    byte[] bytes = new byte[rows.readInt()];
+                    rows.readFully(bytes);
+                    yield new String(bytes, StandardCharsets.UTF_8);
+                }
+                case DECIMAL -> {
+                    int scale = rows.readInt();
+                    byte[] unscaled = new byte[rows.readUnsignedShort()];
+                    rows.readFully(unscaled);
+                    yield new BigDecimal(new BigInteger(unscaled), scale);
+                }
+                case TIMESTAMP -> LocalDateTime.ofEpochSecond(rows.readLong(), rows.readInt(), ZoneOffset.UTC);
+                case DATE -> LocalDate.ofEpochDay(rows.readLong());
+                case BOOLEAN -> rows.readUnsignedByte() == 1;
+            };
+        }
+    }
+
+    static Header readHeader(InputStream source) throws IOException {
+        DataInputStream in = source instanceof DataInputStream d ? d : new DataInputStream(source);
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a backup file");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported backup format version " + version);
+        }
+        boolean userScope = in.readUnsignedByte() == 1;
+        long userId = in.readLong();
+        Instant createdAt = Instant.ofEpochMilli(in.readLong());
+        return new Header(version, userScope, userScope ? userId : null, createdAt);
+    }
+}
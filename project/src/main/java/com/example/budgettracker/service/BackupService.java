@@ -0,0 +1,397 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.service.BackupFormat.Column;
+import com.example.budgettracker.service.BackupFormat.Table;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Whole-instance and per-user snapshots in {@link BackupFormat}, written and restored over plain JDBC.
+ * A backup reads every table through a forward-only cursor inside one read-only repeatable-read
+ * transaction, so the snapshot is consistent across tables. A restore runs as a single transaction of
+ * JDBC batch inserts, without entity mapping, bean validation or lifecycle callbacks. Ids are shifted past
+ * the target's existing rows, so a snapshot restores onto a freshly started instance (which already holds
+ * the seed data) or next to other users. Catalogue items are matched by name instead of copied.
+ */
+@Service
+@Slf4j
+public class BackupService {
+
+    public record Summary(String scope, Long userId, String file, Map<String, Long> rows, long bytes, long millis) {}
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*\\.osb");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CoinLeaderboard coinLeaderboard;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate restoreTransaction;
+    private final Path directory;
+    private final int fetchSize;
+    private final int batchSize;
+    private volatile Boolean postgres;
+
+    public BackupService(JdbcTemplate jdbcTemplate,
+                         EntityManagerFactory entityManagerFactory,
+                         CoinLeaderboard coinLeaderboard,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.backup.dir:backups}") String directory,
+                         @Value("${app.backup.fetch-size:2000}") int fetchSize,
+                         @Value("${app.backup.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.coinLeaderboard = coinLeaderboard;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.restoreTransaction = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.fetchSize = Math.max(1, fetchSize);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /* ---------------- files in the backup directory ---------------- */
+
+    public Path newFile(Long userId) {
+        String scope = userId == null ? "instance" : "user-" + userId;
+        return directory.resolve("over-save-" + scope + "-" + LocalDateTime.now().format(STAMP) + ".osb");
+    }
+
+    /** A snapshot in the backup directory by bare file name; null if the name is not one. */
+    public Path resolve(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path file = directory.resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    public List<Map<String, Object>> list() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(f -> FILE_NAME.matcher(f.getFileName().toString()).matches())
+                    .sorted(Collections.reverseOrder())
+                    .map(this::describe)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean userExists(Long userId) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from users where user_id = ?", Long.class, userId);
+        return count != null && count > 0;
+    }
+
+    /* ---------------- backup ---------------- */
+
+    /**
+     * Write a snapshot to a file, via a temporary file moved into place once complete.
+     *
+     * @param userId the user to back up, or null for the whole instance
+     */
+    public Summary backup(Long userId, Path file) {
+        long started = System.nanoTime();
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Map<String, Long> rows;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16)) {
+                rows = write(userId, out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Summary summary = new Summary(scope(userId), userId, file.getFileName().toString(), rows,
+                    Files.size(file), (System.nanoTime() - started) / 1_000_000);
+            log.info("Backup {} written: {} rows, {} bytes in {} ms", summary.file(), total(rows), summary.bytes(), summary.millis());
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Could not remove partial backup {}: {}", partial, e.getMessage());
+            }
+        }
+    }
+
+    /** @return rows written per table */
+    Map<String, Long> write(Long userId, OutputStream out) {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        snapshotTransaction.executeWithoutResult(status -> {
+            try (BackupFormat.Writer writer = new BackupFormat.Writer(out, userId)) {
+                for (Table table : BackupFormat.TABLES) {
+                    String where = userId == null ? "" : " where " + table.userFilter();
+                    Object[] args = userId == null ? new Object[0] : filterArgs(table, userId);
+                    Long maxId = jdbcTemplate.queryForObject(
+                            "select coalesce(max(" + table.pk().name() + "), 0) from " + table.name() + where, Long.class, args);
+                    writer.beginTable(table, maxId == null ? 0 : maxId);
+                    String sql = "select " + columnList(table) + " from " + table.name() + where
+                            + " order by " + table.pk().name();
+                    List<Column> columns = table.columns();
+                    Object[] row = new Object[columns.size()];
+                    jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        // Cursor reads; PostgreSQL only honours the fetch size inside a transaction
+                        ps.setFetchSize(fetchSize);
+                        for (int i = 0; i < args.length; i++) {
+                            ps.setObject(i + 1, args[i]);
+                        }
+                        return ps;
+                    }, (RowCallbackHandler) rs -> {
+                        for (int i = 0; i < columns.size(); i++) {
+                            row[i] = columns.get(i).type().read(rs, i + 1);
+                        }
+                        try {
+                            writer.writeRow(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    rows.put(table.name(), writer.endTable());
+                }
+                writer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows;
+    }
+
+    /* ---------------- restore ---------------- */
+
+    public Summary restore(Path file) {
+        long started = System.nanoTime();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            Summary restored = restore(in);
+            Summary summary = new Summary(restored.scope(), restored.userId(), file.getFileName().toString(),
+                    restored.rows(), Files.size(file), (System.nanoTime() - started) / 1_000_000);
+            log.info("Backup {} restored: {} rows in {} ms", summary.file(), total(summary.rows()), summary.millis());
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Insert a snapshot in one transaction: a conflict (e.g. an email that already exists) rolls back
+     * the whole restore.
+     */
+    public Summary restore(InputStream in) {
+        long started = System.nanoTime();
+        boolean reserveSequences = isPostgres();
+        Map<String, Long> rows = new LinkedHashMap<>();
+        Map<String, Long> restoredMax = new LinkedHashMap<>();
+        BackupFormat.Header header;
+        try (BackupFormat.Reader reader = new BackupFormat.Reader(in)) {
+            header = reader.header();
+            restoreTransaction.executeWithoutResult(status -> {
+                try {
+                    Map<String, Long> offsets = new HashMap<>();
+                    Map<String, Map<Long, Long>> matched = new HashMap<>();
+                    Table table;
+                    while ((table = reader.nextTable()) != null) {
+                        long offset = maxId(table);
+                        offsets.put(table.name(), offset);
+                        long highest = offset + reader.maxId();
+                        restoredMax.put(table.name(), highest);
+                        if (reserveSequences && reader.maxId() > 0) {
+                            // Move the identity past the restored range now, so concurrent inserts cannot collide
+                            jdbcTemplate.queryForObject("select setval(pg_get_serial_sequence(?, ?), ?, true)",
+                                    Long.class, table.name(), table.pk().name(), highest);
+                        }
+                        long count = table.naturalKey() != null
+                                ? restoreMatched(reader, table, offset, matched.computeIfAbsent(table.name(), k -> new HashMap<>()))
+                                : restoreRows(reader, table, offsets, matched);
+                        rows.put(table.name(), count);
+                    }
+                    reader.finish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!reserveSequences) {
+            restartIdentities(restoredMax);
+        }
+        // Rows were written behind Hibernate's back: drop cached entities and queries, rebuild the board
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        coinLeaderboard.seed();
+        return new Summary(header.userScope() ? "user" : "instance", header.userId(), null, rows, 0,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private long restoreRows(BackupFormat.Reader reader, Table table, Map<String, Long> offsets,
+                             Map<String, Map<Long, Long>> matched) throws IOException {
+        String sql = insertSql(table);
+        int[] types = table.columns().stream().mapToInt(c -> c.type().sqlType).toArray();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        Object[] row;
+        while ((row = reader.nextRow()) != null) {
+            remap(table, row, offsets, matched);
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, batch, types);
+                batch.clear();
+            }
+            count++;
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch, types);
+        }
+        return count;
+    }
+
+    /** Catalogue rows: reuse the target's row with the same natural key, insert the rest. */
+    private long restoreMatched(BackupFormat.Reader reader, Table table, long offset, Map<Long, Long> ids) throws IOException {
+        String sql = insertSql(table);
+        int[] types = table.columns().stream().mapToInt(c -> c.type().sqlType).toArray();
+        int keyIndex = indexOf(table, table.naturalKey());
+        String lookup = "select " + table.pk().name() + " from " + table.name() + " where " + table.naturalKey() + " = ?";
+        long inserted = 0;
+        Object[] row;
+        while ((row = reader.nextRow()) != null) {
+            Long oldId = (Long) row[0];
+            List<Long> existing = jdbcTemplate.queryForList(lookup, Long.class, row[keyIndex]);
+            if (!existing.isEmpty()) {
+                ids.put(oldId, existing.get(0));
+                continue;
+            }
+            row[0] = oldId + offset;
+            jdbcTemplate.update(sql, row, types);
+            ids.put(oldId, (Long) row[0]);
+            inserted++;
+        }
+        return inserted;
+    }
+
+    private static void remap(Table table, Object[] row, Map<String, Long> offsets, Map<String, Map<Long, Long>> matched) {
+        List<Column> columns = table.columns();
+        for (int i = 0; i < columns.size(); i++) {
+            String references = columns.get(i).references();
+            if (references == null || row[i] == null) {
+                continue;
+            }
+            Map<Long, Long> byKey = matched.get(references);
+            row[i] = byKey != null ? byKey.get((Long) row[i]) : (Long) row[i] + offsets.get(references);
+        }
+    }
+
+    private void restartIdentities(Map<String, Long> restoredMax) {
+        for (Table table : BackupFormat.TABLES) {
+            Long highest = restoredMax.get(table.name());
+            if (highest == null) {
+                continue;
+            }
+            long next = Math.max(highest, maxId(table)) + 1;
+            jdbcTemplate.execute("alter table " + table.name() + " alter column " + table.pk().name() + " restart with " + next);
+        }
+    }
+
+    /* ---------------- helpers ---------------- */
+
+    private long maxId(Table table) {
+        Long max = jdbcTemplate.queryForObject(
+                "select coalesce(max(" + table.pk().name() + "), 0) from " + table.name(), Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+
+    private Map<String, Object> describe(Path file) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("file", file.getFileName().toString());
+        try (InputStream in = Files.newInputStream(file)) {
+            body.put("bytes", Files.size(file));
+            BackupFormat.Header header = BackupFormat.readHeader(in);
+            body.put("scope", header.userScope() ? "user" : "instance");
+            body.put("userId", header.userId());
+            body.put("createdAt", header.createdAt());
+        } catch (IOException | IllegalArgumentException e) {
+            body.put("error", e.getMessage());
+        }
+        return body;
+    }
+
+    private static String insertSql(Table table) {
+        String placeholders = table.columns().stream().map(c -> "?").collect(Collectors.joining(", "));
+        return "insert into " + table.name() + " (" + columnList(table) + ") values (" + placeholders + ")";
+    }
+
+    private static String columnList(Table table) {
+        return table.columns().stream().map(Column::name).collect(Collectors.joining(", "));
+    }
+
+    private static Object[] filterArgs(Table table, Long userId) {
+        int params = (int) table.userFilter().chars().filter(c -> c == '?').count();
+        Object[] args = new Object[params];
+        Arrays.fill(args, userId);
+        return args;
+    }
+
+    private static int indexOf(Table table, String column) {
+        for (int i = 0; i < table.columns().size(); i++) {
+            if (table.columns().get(i).name().equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No column " + column + " in " + table.name());
+    }
+
+    private static String scope(Long userId) {
+        return userId == null ? "instance" : "user";
+    }
+
+    private static long total(Map<String, Long> rows) {
+        return rows.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.repository.UserRepository;
+import com.example.budgettracker.repository.UserRepository.CoinLedgerBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Checks every user's denormalised BudgetCoin balance against the reward ledger
+ * (sum of grants minus sum of redeems) and optionally repairs drift.
+ * The user id space is cut into fixed-size ranges that a fork-join pool works through in parallel.
+ * Each range is one set-based read without row locks; a repair is a compare-and-set UPDATE of a single
+ * user in its own short transaction, so concurrent grants and redeems are never blocked for long.
+ */
+@Component
+@Slf4j
+public class BudgetCoinReconciler {
+
+    public record Result(long usersScanned, long drifted, long repaired, long driftCoins) {}
+
+    private final UserRepository userRepository;
+    private final CoinLeaderboard coinLeaderboard;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitionSize;
+    private final int parallelism;
+    private final boolean repair;
+
+    private final Counter driftedCounter;
+    private final Counter repairedCounter;
+    private final AtomicLong partitionsTotal = new AtomicLong();
+    private final AtomicLong partitionsDone = new AtomicLong();
+    private final AtomicLong lastDriftedUsers = new AtomicLong();
+    private final AtomicLong lastDriftCoins = new AtomicLong();
+
+    public BudgetCoinReconciler(UserRepository userRepository,
+                                CoinLeaderboard coinLeaderboard,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.budgetcoin.reconcile.partition-size:1000}") int partitionSize,
+                                @Value("${app.budgetcoin.reconcile.parallelism:4}") int parallelism,
+                                @Value("${app.budgetcoin.reconcile.repair:false}") boolean repair) {
+        this.userRepository = userRepository;
+        this.coinLeaderboard = coinLeaderboard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionSize = Math.max(1, partitionSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.repair = repair;
+        this.driftedCounter = Counter.builder("budgetcoin.reconcile.drifted").register(meterRegistry);
+        this.repairedCounter = Counter.builder("budgetcoin.reconcile.repaired").register(meterRegistry);
+        meterRegistry.gauge("budgetcoin.reconcile.partitions.total", partitionsTotal);
+        meterRegistry.gauge("budgetcoin.reconcile.partitions.done", partitionsDone);
+        meterRegistry.gauge("budgetcoin.reconcile.last.drifted.users", lastDriftedUsers);
+        meterRegistry.gauge("budgetcoin.reconcile.last.drift.coins", lastDriftCoins);
+    }
+
+    /**
+     * Reconcile all users
+     * @param cancelled polled before each partition; a cancelled run stops early with partial totals
+     */
+    public Result reconcile(BooleanSupplier cancelled) {
+        UserRepository.IdRange range = userRepository.findIdRange();
+        if (range == null || range.getMinId() == null) {
+            partitionsTotal.set(0);
+            partitionsDone.set(0);
+            return new Result(0, 0, 0, 0);
+        }
+        long minId = range.getMinId();
+        long partitions = (range.getMaxId() - minId) / partitionSize + 1;
+        partitionsTotal.set(partitions);
+        partitionsDone.set(0);
+
+        Totals totals = new Totals();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new PartitionTask(minId, 0, partitions, totals, cancelled));
+        } finally {
+            pool.shutdown();
+        }
+
+        Result result = new Result(totals.scanned.get(), totals.drifted.get(), totals.repaired.get(), totals.driftCoins.get());
+        lastDriftedUsers.set(result.drifted());
+        lastDriftCoins.set(result.driftCoins());
+        return result;
+    }
+
+    private static final class Totals {
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong drifted = new AtomicLong();
+        final AtomicLong repaired = new AtomicLong();
+        final AtomicLong driftCoins = new AtomicLong();
+    }
+
+    /**
+     * Partitions [from, to) of the id space starting at baseId; splits in half until one partition is left
+     */
+    private final class PartitionTask extends RecursiveAction {
+
+        private final long baseId;
+        private final long from;
+        private final long to;
+        private final Totals totals;
+        private final BooleanSupplier cancelled;
+
+        PartitionTask(long baseId, long from, long to, Totals totals, BooleanSupplier cancelled) {
+            this.baseId = baseId;
+            this.from = from;
+            this.to = to;
+            this.totals = totals;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                long mid = (from + to) >>> 1;
+                invokeAll(new PartitionTask(baseId, from, mid, totals, cancelled),
+                        new PartitionTask(baseId, mid, to, totals, cancelled));
+                return;
+            }
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            long fromId = baseId + from * partitionSize;
+            reconcilePartition(fromId, fromId + partitionSize - 1, totals);
+            partitionsDone.incrementAndGet();
+        }
+    }
+
+    private void reconcilePartition(long fromId, long toId, Totals totals) {
+        List<CoinLedgerBalance> balances = userRepository.findCoinLedgerBalances(fromId, toId);
+        totals.scanned.addAndGet(balances.size());
+        for (CoinLedgerBalance balance : balances) {
+            long recorded = balance.getRecorded() == null ? 0L : balance.getRecorded();
+            // Grants are credited as whole coins
+            long expected = (balance.getExpected() == null ? BigDecimal.ZERO : balance.getExpected()).longValue();
+            if (recorded == expected) {
+                continue;
+            }
+            totals.drifted.incrementAndGet();
+            totals.driftCoins.addAndGet(Math.abs(expected - recorded));
+            driftedCounter.increment();
+            log.warn("BudgetCoin drift for user {}: recorded {}, ledger {}", balance.getUserId(), recorded, expected);
+
+            if (repair) {
+                Integer updated = transactionTemplate.execute(status -> {
+                    int repaired = userRepository.repairBudgetCoin(balance.getUserId(), recorded, expected);
+                    if (repaired > 0) {
+                        // Reported under the row lock, applied after commit
+                        coinLeaderboard.recordBalance(balance.getUserId(), expected);
+                    }
+                    return repaired;
+                });
+                if (updated != null && updated > 0) {
+                    totals.repaired.incrementAndGet();
+                    repairedCounter.increment();
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.budgettracker.service;
 
+import com.example.budgettracker.config.SingleFlight;
 import com.example.budgettracker.dto.BudgetSummaryResponse;
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.model.CategoryBudget;
 import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.model.enums.SyncEntityType;
 import com.example.budgettracker.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
@@ -22,12 +25,16 @@ public class BudgetServiceImpl implements BudgetService {
     private final UserRepository userRepository;
     private final CategoryBudgetRepository categoryBudgetRepository;
     private final CashFlowRepository cashFlowRepository;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SyncChangeLog syncChangeLog;
 
-    public BudgetServiceImpl(CategoryRepository categoryRepository, UserRepository userRepository, CategoryBudgetRepository categoryBudgetRepository, CashFlowRepository cashFlowRepository) {
+    public BudgetServiceImpl(CategoryRepository categoryRepository, UserRepository userRepository, CategoryBudgetRepository categoryBudgetRepository, CashFlowRepository cashFlowRepository, DomainEventPublisher domainEventPublisher, SyncChangeLog syncChangeLog) {
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.categoryBudgetRepository = categoryBudgetRepository;
         this.cashFlowRepository = cashFlowRepository;
+        this.domainEventPublisher = domainEventPublisher;
+        this.syncChangeLog = syncChangeLog;
     }
 
     @Override
@@ -63,12 +70,19 @@ public class BudgetServiceImpl implements BudgetService {
         cb.setAmount(budget);
         cb.setCustomName(customName);
         categoryBudgetRepository.save(cb);
+        domainEventPublisher.publish(userId, DomainEventType.BUDGET_CHANGED, DomainEventPublisher.payload(
+                "categoryId", categoryId,
+                "yearMonth", targetYm.toString(),
+                "amount", budget,
+                "customName", customName));
+        syncChangeLog.changed(userId, SyncEntityType.BUDGET, cb.getId());
 
         return buildSummary(userId, categoryId, targetYm, cb.getAmount(), cb.getCustomName());
     }
 
     @Override
     @Transactional(readOnly = true)
+    @SingleFlight("budget-summary")
     public BudgetSummaryResponse getUserCategoryBudgetSummary(Long userId, Long categoryId, YearMonth ym) {
         YearMonth targetYm = (ym == null) ? YearMonth.now() : ym;
 
@@ -102,6 +116,13 @@ public class BudgetServiceImpl implements BudgetService {
                 .findByUser_UserIdAndCategory_CategoryIdAndYearMonth(userId, categoryId, targetYm.toString())
                 .map(categoryBudget -> {
                     categoryBudgetRepository.delete(categoryBudget);
+                    // A null amount means the budget was removed
+                    domainEventPublisher.publish(userId, DomainEventType.BUDGET_CHANGED, DomainEventPublisher.payload(
+                            "categoryId", categoryId,
+                            "yearMonth", targetYm.toString(),
+                            "amount", null,
+                            "customName", null));
+                    syncChangeLog.deleted(userId, SyncEntityType.BUDGET, categoryBudget.getId());
                     return true;
                 })
                 .orElse(false); // Budget doesn't exist, nothing to delete
@@ -0,0 +1,168 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user, case-insensitive category name -> id cache.
+ * The first lookup for a user loads all of their category names in one projection query; later
+ * lookups are in-memory. Creation goes through {@link #getOrCreate}, which serialises on a
+ * local lock and the user's row lock, so concurrent callers on any node agree on a single row
+ * and never hit the unique constraint. Entries are evicted on change (after commit), after
+ * app.categories.dictionary.ttl-seconds, and least-recently-used beyond max-users.
+ */
+@Component
+@Slf4j
+public class CategoryDictionary {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final SyncChangeLog syncChangeLog;
+    private final long ttlNanos;
+    private final Map<Long, Entry> cache;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public CategoryDictionary(CategoryRepository categoryRepository,
+                              UserRepository userRepository,
+                              SyncChangeLog syncChangeLog,
+                              @Value("${app.categories.dictionary.ttl-seconds:600}") long ttlSeconds,
+                              @Value("${app.categories.dictionary.max-users:10000}") int maxUsers) {
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+        this.syncChangeLog = syncChangeLog;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        });
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Look up a category by name, ignoring case
+     * @return a reference to the category, or empty if the user has none by that name
+     */
+    public Optional<Category> find(Long userId, String name) {
+        Long id = entry(userId).idsByName().get(key(name));
+        return Optional.ofNullable(id).map(categoryRepository::getReferenceById);
+    }
+
+    /**
+     * Return the user's category with this name, creating it as a system category if missing.
+     * Must run in a transaction: the user row stays locked until it ends, which is what makes
+     * creation race-free across nodes.
+     */
+    @Transactional
+    public Category getOrCreate(Long userId, String name) {
+        Optional<Category> cached = find(userId, name);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        ReentrantLock lock = locks[Math.floorMod(Long.hashCode(userId), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            User user = userRepository.findByIdForUpdate(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+            // Re-read under the lock: another transaction may have created it since the cache was loaded
+            Category category = categoryRepository.findByUser_UserIdAndNameIgnoreCase(userId, name)
+                    .orElseGet(() -> {
+                        log.debug("Creating system category '{}' for user {}", name, userId);
+                        Category created = categoryRepository.saveAndFlush(Category.builder()
+                                .user(user)
+                                .name(name)
+                                .system(true)
+                                .build());
+                        syncChangeLog.changed(userId, SyncEntityType.CATEGORY, created.getCategoryId());
+                        return created;
+                    });
+            Long id = category.getCategoryId();
+            afterCommit(() -> cache.computeIfPresent(userId, (k, e) -> e.with(key(name), id)));
+            return category;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean systemCategoriesEnsured(Long userId) {
+        return entry(userId).systemEnsured();
+    }
+
+    public void markSystemCategoriesEnsured(Long userId) {
+        userRepository.markSystemCategoriesEnsured(userId);
+        invalidate(userId);
+    }
+
+    /**
+     * Drop the user's cached names once the surrounding transaction commits
+     * (immediately when there is none). Call after any create, rename, merge or delete.
+     */
+    public void invalidate(Long userId) {
+        afterCommit(() -> cache.remove(userId));
+    }
+
+    private Entry entry(Long userId) {
+        Entry e = cache.get(userId);
+        if (e != null && System.nanoTime() - e.loadedAt() < ttlNanos) {
+            return e;
+        }
+        Map<String, Long> ids = new HashMap<>();
+        for (CategoryRepository.CategoryName c : categoryRepository.findNamesByUserId(userId)) {
+            ids.putIfAbsent(key(c.getName()), c.getCategoryId());
+        }
+        Entry loaded = new Entry(Map.copyOf(ids),
+                Boolean.TRUE.equals(userRepository.getSystemCategoriesEnsured(userId)),
+                System.nanoTime());
+        cache.put(userId, loaded);
+        return loaded;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(Map<String, Long> idsByName, boolean systemEnsured, long loadedAt) {
+        Entry with(String name, Long id) {
+            Map<String, Long> copy = new HashMap<>(idsByName);
+            copy.put(name, id);
+            return new Entry(Map.copyOf(copy), systemEnsured, loadedAt);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.config.ManagedJob;
+import com.example.budgettracker.model.CategoryOperation;
+import com.example.budgettracker.model.enums.CategoryOperationPhase;
+import com.example.budgettracker.model.enums.CategoryOperationStatus;
+import com.example.budgettracker.model.enums.CategoryOperationType;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryOperationRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs category deletes and merges in the background.
+ * Budgets are handled with set-based statements in one step; cash flows are then reassigned or
+ * deleted in keyset chunks of app.categories.operations.chunk-size rows, each chunk in its own
+ * short transaction that also commits the operation's progress. A per-operation lease in
+ * scheduler_lock keeps two nodes from running the same operation; its row is deleted once the
+ * operation has completed or failed. Unfinished operations are picked up again at startup and by
+ * a periodic sweep.
+ */
+@Component
+@Slf4j
+public class CategoryOperationExecutor {
+
+    static final String LOCK_PREFIX = "category-op-";
+    static final Set<CategoryOperationStatus> UNFINISHED =
+            EnumSet.of(CategoryOperationStatus.PENDING, CategoryOperationStatus.RUNNING);
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final CategoryOperationRepository operationRepository;
+    private final CashFlowRepository cashFlowRepository;
+    private final CategoryBudgetRepository categoryBudgetRepository;
+    private final CategoryRepository categoryRepository;
+    private final SchedulerLockService lockService;
+    private final CategoryDictionary categoryDictionary;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SyncChangeLog syncChangeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ExecutorService pool;
+
+    public CategoryOperationExecutor(CategoryOperationRepository operationRepository,
+                                     CashFlowRepository cashFlowRepository,
+                                     CategoryBudgetRepository categoryBudgetRepository,
+                                     CategoryRepository categoryRepository,
+                                     SchedulerLockService lockService,
+                                     CategoryDictionary categoryDictionary,
+                                     DomainEventPublisher domainEventPublisher,
+                                     SyncChangeLog syncChangeLog,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.categories.operations.chunk-size:2000}") int chunkSize,
+                                     @Value("${app.categories.operations.concurrency:2}") int concurrency) {
+        this.operationRepository = operationRepository;
+        this.cashFlowRepository = cashFlowRepository;
+        this.categoryBudgetRepository = categoryBudgetRepository;
+        this.categoryRepository = categoryRepository;
+        this.lockService = lockService;
+        this.categoryDictionary = categoryDictionary;
+        this.domainEventPublisher = domainEventPublisher;
+        this.syncChangeLog = syncChangeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "category-op-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Start an operation once the transaction that created it has committed
+     */
+    public void submit(Long operationId) {
+        Runnable start = () -> pool.execute(() -> run(operationId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    start.run();
+                }
+            });
+        } else {
+            start.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        resumeUnfinished();
+    }
+
+    /**
+     * Safety net for operations whose node died mid-run: their lease expires and this picks them up
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 5 * 60 * 1000)
+    @ManagedJob(name = "category-operation-resume", timeoutSeconds = 60)
+    public void resumeUnfinished() {
+        List<CategoryOperation> unfinished = operationRepository.findByStatusIn(UNFINISHED);
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished category operations", unfinished.size());
+        }
+        unfinished.forEach(op -> pool.execute(() -> run(op.getId())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    void run(Long operationId) {
+        String lockName = LOCK_PREFIX + operationId;
+        if (!lockService.tryAcquire(lockName, LEASE)) {
+            return; // running elsewhere (or already here)
+        }
+        // Completed, failed or gone: nothing will take this lease again
+        boolean finished = false;
+        try {
+            Boolean started = transactionTemplate.execute(status -> markRunning(operationId));
+            if (!Boolean.TRUE.equals(started)) {
+                finished = true;
+                return;
+            }
+            boolean more = true;
+            while (more) {
+                if (Thread.currentThread().isInterrupted() || !lockService.extend(lockName, LEASE)) {
+                    // Progress is committed per chunk; the next owner continues from the cursor
+                    log.warn("Category operation {} stopped before completion; it will be resumed", operationId);
+                    return;
+                }
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> step(operationId)));
+            }
+            finished = true;
+            log.info("Category operation {} completed", operationId);
+        } catch (Exception e) {
+            log.error("Category operation {} failed", operationId, e);
+            transactionTemplate.executeWithoutResult(status -> markFailed(operationId, e));
+            finished = true;
+        } finally {
+            if (finished) {
+                lockService.remove(lockName);
+            } else {
+                lockService.release(lockName, Duration.ZERO);
+            }
+        }
+    }
+
+    private boolean markRunning(Long operationId) {
+        CategoryOperation op = operationRepository.findById(operationId).orElse(null);
+        if (op == null || !UNFINISHED.contains(op.getStatus())) {
+            return false;
+        }
+        op.setStatus(CategoryOperationStatus.RUNNING);
+        if (op.getStartedAt() == null) {
+            op.setStartedAt(LocalDateTime.now());
+        }
+        operationRepository.save(op);
+        return true;
+    }
+
+    /**
+     * Advance the operation by one bounded unit of work, in the caller's transaction
+     * @return true while there is more to do
+     */
+    boolean step(Long operationId) {
+        CategoryOperation op = operationRepository.findById(operationId).orElseThrow();
+        Long userId = op.getUser().getUserId();
+        List<Long> sources = op.sourceIdList();
+        boolean merge = op.getType() == CategoryOperationType.MERGE;
+
+        switch (op.getPhase()) {
+            case BUDGETS -> {
+                long affected = 0;
+                List<Long> removed = categoryBudgetRepository.findIdsByUserAndCategoryIn(userId, sources);
+                if (merge && op.isMergeBudgets()) {
+                    affected += categoryBudgetRepository.addSourceBudgetsToTarget(userId, sources, op.getTargetId());
+                    affected += categoryBudgetRepository.insertMissingTargetBudgets(userId, sources, op.getTargetId());
+                    syncChangeLog.changed(userId, SyncEntityType.BUDGET,
+                            categoryBudgetRepository.findIdsByUserAndCategoryIn(userId, List.of(op.getTargetId())));
+                }
+                int deleted = categoryBudgetRepository.deleteByUserAndCategoryIn(userId, sources);
+                syncChangeLog.deleted(userId, SyncEntityType.BUDGET, removed);
+                op.setBudgetsAffected(merge && op.isMergeBudgets() ? affected : deleted);
+                op.setPhase(CategoryOperationPhase.CASH_FLOWS);
+            }
+            case CASH_FLOWS -> {
+                int handled = processChunk(sources, op.getLastCursor(), merge, op.getTargetId(), op);
+                if (handled == 0) {
+                    op.setPhase(CategoryOperationPhase.CATEGORIES);
+                }
+            }
+            case CATEGORIES -> {
+                // Lock first so no new cash flow can reference a source category, then sweep stragglers
+                categoryRepository.lockAllById(sources);
+                if (processChunk(sources, 0L, merge, op.getTargetId(), op) == 0) {
+                    categoryRepository.deleteAllByIdInBatch(sources);
+                    syncChangeLog.deleted(userId, SyncEntityType.CATEGORY, sources);
+                    op.setPhase(CategoryOperationPhase.DONE);
+                    op.setStatus(CategoryOperationStatus.COMPLETED);
+                    op.setFinishedAt(LocalDateTime.now());
+                    categoryDictionary.invalidate(op.getUser().getUserId());
+                }
+            }
+            case DONE -> {
+                return false;
+            }
+        }
+        // The bulk statements above clear the persistence context; save merges the progress back
+        operationRepository.save(op);
+        return op.getStatus() != CategoryOperationStatus.COMPLETED;
+    }
+
+    private int processChunk(List<Long> sources, Long afterId, boolean merge, Long targetId, CategoryOperation op) {
+        List<Long> ids = cashFlowRepository.findIdsByCategoryInAfter(sources, afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int n = merge
+                ? cashFlowRepository.reassignCategoryForIds(ids, targetId)
+                : cashFlowRepository.deleteByIds(ids);
+        op.setProcessedRows(op.getProcessedRows() + n);
+        domainEventPublisher.publish(op.getUser().getUserId(), DomainEventType.CATEGORY_REASSIGNED, DomainEventPublisher.payload(
+                "operationId", op.getId(),
+                "sourceCategoryIds", sources,
+                "targetCategoryId", merge ? targetId : null,
+                "cashFlowIds", ids));
+        if (merge) {
+            syncChangeLog.changed(op.getUser().getUserId(), SyncEntityType.CASH_FLOW, ids);
+        } else {
+            syncChangeLog.deleted(op.getUser().getUserId(), SyncEntityType.CASH_FLOW, ids);
+        }
+        op.setLastCursor(Math.max(op.getLastCursor(), ids.get(ids.size() - 1)));
+        return ids.size();
+    }
+
+    private void markFailed(Long operationId, Exception e) {
+        operationRepository.findById(operationId).ifPresent(op -> {
+            op.setStatus(CategoryOperationStatus.FAILED);
+            op.setFinishedAt(LocalDateTime.now());
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            op.setErrorMessage(message.length() <= 500 ? message : message.substring(0, 500));
+            operationRepository.save(op);
+        });
+    }
+}
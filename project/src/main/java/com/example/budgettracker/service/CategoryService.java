@@ -12,9 +12,17 @@ public interface CategoryService {
 
     CategoryResponse rename(Long userId, Long categoryId, CategoryRequest req);
 
-    void delete(Long userId, Long categoryId);
+    /**
+     * Validate and queue a background delete of a category with its budgets and cash flows
+     */
+    CategoryOperationResponse delete(Long userId, Long categoryId);
 
-    int merge(Long userId, CategoryMergeRequest req, Boolean mergeBudgets);
+    /**
+     * Validate and queue a background merge of the source categories into the target
+     */
+    CategoryOperationResponse merge(Long userId, CategoryMergeRequest req, Boolean mergeBudgets);
+
+    CategoryOperationResponse getOperation(Long userId, Long operationId);
 
     void ensureSystemCategoriesForUser(Long userId);
 
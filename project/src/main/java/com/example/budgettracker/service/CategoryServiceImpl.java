@@ -2,20 +2,25 @@ package com.example.budgettracker.service;
 
 import com.example.budgettracker.dto.Category.*;
 import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.CategoryOperation;
 import com.example.budgettracker.model.User;
 import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.CategoryOperationPhase;
+import com.example.budgettracker.model.enums.CategoryOperationStatus;
+import com.example.budgettracker.model.enums.CategoryOperationType;
+import com.example.budgettracker.model.enums.SyncEntityType;
 import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryOperationRepository;
 import com.example.budgettracker.repository.CategoryRepository;
-import jakarta.persistence.EntityManager;
+import com.example.budgettracker.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
@@ -24,23 +29,36 @@ import java.time.LocalTime;
 import java.time.YearMonth;
 
 @Service
+@Slf4j
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepo;
     private final CashFlowRepository cashFlowRepo;
     private final CategoryBudgetRepository categoryBudgetRepository;
-    private final EntityManager entityManager;
+    private final CategoryOperationRepository operationRepo;
+    private final CategoryOperationExecutor operationExecutor;
+    private final CategoryDictionary categoryDictionary;
+    private final SyncChangeLog syncChangeLog;
+    private final UserRepository userRepository;
 
 
 
     public CategoryServiceImpl(CategoryRepository categoryRepo,
                                CashFlowRepository cashFlowRepo,
                                CategoryBudgetRepository categoryBudgetRepository,
-                               EntityManager entityManager) {
+                               CategoryOperationRepository operationRepo,
+                               CategoryOperationExecutor operationExecutor,
+                               CategoryDictionary categoryDictionary,
+                               SyncChangeLog syncChangeLog,
+                               UserRepository userRepository) {
         this.categoryRepo = categoryRepo;
         this.cashFlowRepo = cashFlowRepo;
         this.categoryBudgetRepository = categoryBudgetRepository;
-        this.entityManager = entityManager;
+        this.operationRepo = operationRepo;
+        this.operationExecutor = operationExecutor;
+        this.categoryDictionary = categoryDictionary;
+        this.syncChangeLog = syncChangeLog;
+        this.userRepository = userRepository;
     }
 
     private static BigDecimal nz(BigDecimal v) {
@@ -50,9 +68,11 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional
     public List<CategoryResponse> list(Long userId) {
-        List<Category> categories = categoryRepo.findByUser_UserIdOrderByNameAsc(userId);
-        categories = ensureSystemCategories(userId, categories);
-        return categories.stream().map(this::toResp).toList();
+        // Seeding happens once per user; after that listing is a single read
+        if (!categoryDictionary.systemCategoriesEnsured(userId)) {
+            ensureSystemCategories(userId);
+        }
+        return categoryRepo.findByUser_UserIdOrderByNameAsc(userId).stream().map(this::toResp).toList();
     }
 
     @Override
@@ -67,6 +87,8 @@ public class CategoryServiceImpl implements CategoryService {
                 .name(norm)
                 .system(false)
                 .build());
+        syncChangeLog.changed(userId, SyncEntityType.CATEGORY, saved.getCategoryId());
+        categoryDictionary.invalidate(userId);
         return toResp(saved);
     }
 
@@ -86,12 +108,14 @@ public class CategoryServiceImpl implements CategoryService {
         }
         c.setName(norm);
         Category saved = categoryRepo.save(c);
+        syncChangeLog.changed(userId, SyncEntityType.CATEGORY, categoryId);
+        categoryDictionary.invalidate(userId);
         return toResp(saved);
     }
 
     @Override
     @Transactional
-    public void delete(Long userId, Long categoryId) {
+    public CategoryOperationResponse delete(Long userId, Long categoryId) {
         Category c = categoryRepo.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
 
@@ -102,162 +126,57 @@ public class CategoryServiceImpl implements CategoryService {
             throw new IllegalStateException("System category cannot be deleted");
         }
 
-        int budgetsDeleted = categoryBudgetRepository.deleteByUser_UserIdAndCategory_CategoryId(userId, categoryId);
-        if (budgetsDeleted > 0) {
-            System.out.println("✓ Deleted " + budgetsDeleted + " budget records for category " + categoryId);
-        }
-
-        int cashFlowsDeleted = cashFlowRepo.deleteByUserAndCategory(userId, categoryId);
-        if (cashFlowsDeleted > 0) {
-            System.out.println("✓ Deleted " + cashFlowsDeleted + " cash flow records for category " + categoryId);
-        }
-
-        // Ensure deletions hit the database before removing the category itself
-        entityManager.flush();
-        entityManager.clear();
-
-        categoryRepo.delete(c);
+        return startOperation(userId, CategoryOperationType.DELETE, List.of(categoryId), null, false);
     }
 
     @Override
     @Transactional
-    public int merge(Long userId, CategoryMergeRequest req, Boolean mergeBudgets) {
-        try {
-            System.out.println("🔀 Starting category merge - userId: " + userId + ", sources: " + req.getSourceIds() + ", target: " + req.getTargetId());
-
-            Category target = categoryRepo.findById(req.getTargetId())
-                    .orElseThrow(() -> new IllegalArgumentException("Target category not found"));
-            if (!target.getUser().getUserId().equals(userId)) {
-                throw new IllegalStateException("Forbidden: target category not owned by this user");
-            }
-
-            List<Long> sources = req.getSourceIds().stream()
-                    .filter(id -> !id.equals(req.getTargetId()))
-                    .toList();
-            if (sources.isEmpty()) {
-                System.out.println("⚠️ No valid source categories after filtering");
-                return 0;
-            }
-
-            System.out.println("✓ Target category validated: " + target.getName());
-
-
-            List<Long> nonSystemSources = new java.util.ArrayList<>();
-            for (Long sid : sources) {
-                Category src = categoryRepo.findById(sid)
-                        .orElseThrow(() -> new IllegalArgumentException("Source category not found: " + sid));
-                if (!src.getUser().getUserId().equals(userId)) {
-                    throw new IllegalStateException("Forbidden: source category " + sid + " not owned by this user");
-                }
-                if (src.isSystem()) {
-                    System.out.println("⚠️ Skipping system category: " + src.getName() + " (ID: " + sid + ")");
-                    continue;
-                }
-                nonSystemSources.add(sid);
-                System.out.println("✓ Source category validated: " + src.getName() + " (ID: " + sid + ")");
-            }
-
-
-            if (nonSystemSources.isEmpty()) {
-                System.out.println("⚠️ No non-system source categories to merge");
-                return 0;
-            }
-
-
-            int totalBudgetsAffected = 0;
-            for (Long sid : nonSystemSources) {
-                if (mergeBudgets != null && mergeBudgets) {
-
-                    System.out.println("📊 Processing budgets for category " + sid);
-
-
-                    List<com.example.budgettracker.model.CategoryBudget> sourceBudgets =
-                        categoryBudgetRepository.findByUser_UserIdAndCategory_CategoryId(userId, sid);
-
-                    int budgetsMerged = 0;
-                    int budgetsSummed = 0;
-
-                    for (com.example.budgettracker.model.CategoryBudget sourceBudget : sourceBudgets) {
-                        String yearMonth = sourceBudget.getYearMonth();
-
-
-                        var targetBudgetOpt = categoryBudgetRepository
-                            .findByUser_UserIdAndCategory_CategoryIdAndYearMonth(userId, req.getTargetId(), yearMonth);
-
-                        if (targetBudgetOpt.isPresent()) {
-
-                            com.example.budgettracker.model.CategoryBudget targetBudget = targetBudgetOpt.get();
-                            BigDecimal originalTargetAmount = targetBudget.getAmount();
-                            BigDecimal combinedAmount = originalTargetAmount.add(sourceBudget.getAmount());
-                            targetBudget.setAmount(combinedAmount);
-                            categoryBudgetRepository.save(targetBudget);
-
-
-                            categoryBudgetRepository.delete(sourceBudget);
-
-                            budgetsSummed++;
-                            System.out.println("  ✓ Summed budgets for " + yearMonth + ": " +
-                                sourceBudget.getAmount() + " + " + originalTargetAmount +
-                                " = " + combinedAmount);
-                        } else {
-
-                            sourceBudget.setCategory(com.example.budgettracker.model.Category.builder()
-                                .categoryId(req.getTargetId()).build());
-                            categoryBudgetRepository.save(sourceBudget);
-
-                            budgetsMerged++;
-                            System.out.println("  ✓ Reassigned budget for " + yearMonth + ": " + sourceBudget.getAmount());
-                        }
-                    }
+    public CategoryOperationResponse merge(Long userId, CategoryMergeRequest req, Boolean mergeBudgets) {
+        Category target = categoryRepo.findById(req.getTargetId())
+                .orElseThrow(() -> new IllegalArgumentException("Target category not found"));
+        if (!target.getUser().getUserId().equals(userId)) {
+            throw new IllegalStateException("Forbidden: target category not owned by this user");
+        }
 
-                    totalBudgetsAffected += budgetsMerged + budgetsSummed;
-                    System.out.println("✓ Category " + sid + ": " + budgetsMerged + " reassigned, " +
-                        budgetsSummed + " summed (total: " + sourceBudgets.size() + ")");
-                } else {
+        List<Long> sources = req.getSourceIds().stream()
+                .filter(id -> !id.equals(req.getTargetId()))
+                .distinct()
+                .toList();
 
-                    int budgetsDeleted = categoryBudgetRepository.deleteByUser_UserIdAndCategory_CategoryId(userId, sid);
-                    totalBudgetsAffected += budgetsDeleted;
-                    System.out.println("✓ Deleted " + budgetsDeleted + " budget records from category " + sid);
-                }
+        List<Long> nonSystemSources = new ArrayList<>();
+        for (Long sid : sources) {
+            Category src = categoryRepo.findById(sid)
+                    .orElseThrow(() -> new IllegalArgumentException("Source category not found: " + sid));
+            if (!src.getUser().getUserId().equals(userId)) {
+                throw new IllegalStateException("Forbidden: source category " + sid + " not owned by this user");
             }
-            if (totalBudgetsAffected > 0) {
-                System.out.println("✓ Total budgets affected: " + totalBudgetsAffected);
+            if (src.isSystem()) {
+                log.debug("Merge skips system category {} ({})", src.getName(), sid);
+                continue;
             }
+            nonSystemSources.add(sid);
+        }
 
-            // Force flush budget changes to database immediately to preserve ordering
-            entityManager.flush();
-            entityManager.clear();
-            System.out.println("✓ Budget changes flushed to database");
-
-
-            System.out.println("🔄 Reassigning cash flows from sources to target...");
-            int affected = cashFlowRepo.reassignUserCategoryIn(userId, nonSystemSources, req.getTargetId());
-            System.out.println("✓ Reassigned " + affected + " cash flow records");
-
-
-            entityManager.flush();
-            entityManager.clear();
-            System.out.println("✓ Changes flushed to database");
-
-
-            System.out.println("🗑️ Deleting source categories...");
-            for (Long sid : nonSystemSources) {
-                Category src = categoryRepo.findById(sid).orElseThrow();
-                categoryRepo.delete(src);
-                System.out.println("✓ Deleted category: " + src.getName() + " (ID: " + sid + ")");
-            }
+        if (nonSystemSources.isEmpty()) {
+            // Nothing to move: report an already finished operation
+            return CategoryOperationResponse.builder()
+                    .type(CategoryOperationType.MERGE.name())
+                    .status(CategoryOperationStatus.COMPLETED.name())
+                    .phase(CategoryOperationPhase.DONE.name())
+                    .sourceIds(List.of())
+                    .targetId(req.getTargetId())
+                    .build();
+        }
 
-            System.out.println("✅ Category merge completed successfully - " + affected + " cash flow records affected, " + totalBudgetsAffected + " budget records affected");
-            return affected;
+        return startOperation(userId, CategoryOperationType.MERGE, nonSystemSources, req.getTargetId(),
+                Boolean.TRUE.equals(mergeBudgets));
+    }
 
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            System.err.println("❌ Merge validation failed: " + e.getMessage());
-            throw e;
-        } catch (Exception e) {
-            System.err.println("❌ Unexpected error during category merge: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to merge categories: " + e.getMessage(), e);
-        }
+    @Override
+    public CategoryOperationResponse getOperation(Long userId, Long operationId) {
+        return operationRepo.findByIdAndUser_UserId(operationId, userId)
+                .map(this::toOperationResp)
+                .orElseThrow(() -> new EntityNotFoundException("Category operation not found"));
     }
 
     @Override
@@ -344,47 +263,59 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional
     public void ensureSystemCategoriesForUser(Long userId) {
-        ensureSystemCategories(userId, null);
+        ensureSystemCategories(userId);
     }
 
 
     /* ---------------- private helpers ---------------- */
 
-    private List<Category> ensureSystemCategories(Long userId, List<Category> existing) {
-        List<Category> categories = existing != null
-                ? new ArrayList<>(existing)
-                : new ArrayList<>(categoryRepo.findByUser_UserIdOrderByNameAsc(userId));
-
-        Set<String> existingNames = new HashSet<>();
-        for (Category category : categories) {
-            if (category != null && category.getName() != null) {
-                existingNames.add(category.getName().trim().toLowerCase());
-            }
-        }
-
-        List<Category> added = new ArrayList<>();
+    private void ensureSystemCategories(Long userId) {
         for (String defaultName : SystemCategoryDefaults.NAMES) {
-            String normalized = defaultName.trim().toLowerCase();
-            if (!existingNames.contains(normalized)) {
-                Category newCategory = Category.builder()
-                        .user(User.builder().userId(userId).build())
-                        .name(defaultName)
-                        .system(true)
-                        .build();
-                Category saved = categoryRepo.save(newCategory);
-                added.add(saved);
-                existingNames.add(normalized);
-            }
+            categoryDictionary.getOrCreate(userId, defaultName);
         }
+        categoryDictionary.markSystemCategoriesEnsured(userId);
+    }
 
-        if (!added.isEmpty()) {
-            entityManager.flush();
-            entityManager.clear();
-            categories.addAll(added);
-            categories.sort(Comparator.comparing(Category::getName, String.CASE_INSENSITIVE_ORDER));
+    private CategoryOperationResponse startOperation(Long userId, CategoryOperationType type, List<Long> sources,
+                                                     Long targetId, boolean mergeBudgets) {
+        // One at a time per user, so two operations never race over the same rows. The user row lock
+        // serializes concurrent requests, so two cannot both pass the check below before either inserts
+        userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        if (operationRepo.existsByUser_UserIdAndStatusIn(userId, CategoryOperationExecutor.UNFINISHED)) {
+            throw new IllegalArgumentException("Another category delete or merge is still in progress");
         }
+        CategoryOperation op = operationRepo.save(CategoryOperation.builder()
+                .user(User.builder().userId(userId).build())
+                .type(type)
+                .sourceIds(CategoryOperation.joinIds(sources))
+                .targetId(targetId)
+                .mergeBudgets(mergeBudgets)
+                .totalRows(cashFlowRepo.countByCategory_CategoryIdIn(sources))
+                .createdAt(LocalDateTime.now())
+                .build());
+        operationExecutor.submit(op.getId());
+        categoryDictionary.invalidate(userId);
+        log.info("Queued category {} #{} for user {}: sources={}, target={}, rows={}",
+                type, op.getId(), userId, sources, targetId, op.getTotalRows());
+        return toOperationResp(op);
+    }
 
-        return categories;
+    private CategoryOperationResponse toOperationResp(CategoryOperation op) {
+        return CategoryOperationResponse.builder()
+                .operationId(op.getId())
+                .type(op.getType().name())
+                .status(op.getStatus().name())
+                .phase(op.getPhase().name())
+                .sourceIds(op.sourceIdList())
+                .targetId(op.getTargetId())
+                .totalRows(op.getTotalRows())
+                .processedRows(op.getProcessedRows())
+                .budgetsAffected(op.getBudgetsAffected())
+                .errorMessage(op.getErrorMessage())
+                .createdAt(op.getCreatedAt())
+                .finishedAt(op.getFinishedAt())
+                .build();
     }
 
     private CategoryResponse toResp(Category c) {
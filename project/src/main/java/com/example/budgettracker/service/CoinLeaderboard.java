@@ -0,0 +1,269 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.config.JobContext;
+import com.example.budgettracker.config.ManagedJob;
+import com.example.budgettracker.dto.Budgetcoin.LeaderboardEntryResponse;
+import com.example.budgettracker.dto.Budgetcoin.LeaderboardRankResponse;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.repository.UserRepository;
+import com.example.budgettracker.repository.UserRepository.UserCoins;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Node-local BudgetCoin leaderboard: an order-statistic index of every user's balance, seeded from the
+ * database at startup and moved by each committed grant, redeem or ledger repair. Top-N and
+ * "your rank" never touch the users table; a periodic check pages through the balances and fixes any
+ * entry that missed an update (e.g. a write committed on another node).
+ * Writers report a balance while they still hold the user's row lock, so the order of the reports is
+ * the order of the commits; each report is numbered, and one that is applied after a later-numbered
+ * report for the same user (after-commit callbacks of concurrent grants can run in any order) is dropped.
+ */
+@Component
+@Slf4j
+public class CoinLeaderboard {
+
+    static final int MAX_TOP = 100;
+
+    private final UserRepository userRepository;
+    private final int pageSize;
+    private final Counter correctionsCounter;
+    private final CoinRankIndex index = new CoinRankIndex();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong reports = new AtomicLong();
+    // Number of the last report applied per user; guarded by the write lock
+    private final Map<Long, Long> appliedReports = new HashMap<>();
+
+    public CoinLeaderboard(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.budgetcoin.leaderboard.page-size:5000}") int pageSize) {
+        this.userRepository = userRepository;
+        this.pageSize = Math.max(1, pageSize);
+        this.correctionsCounter = Counter.builder("budgetcoin.leaderboard.corrections").register(meterRegistry);
+        meterRegistry.gauge("budgetcoin.leaderboard.size", this, CoinLeaderboard::size);
+    }
+
+    /**
+     * Load every balance. Requests served before this finishes see a partial board; users seen by
+     * an update in the meantime keep the fresher value.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long started = System.nanoTime();
+        long afterId = 0L;
+        List<UserCoins> page;
+        do {
+            page = userRepository.findCoinBalancesAfter(afterId, PageRequest.of(0, pageSize));
+            writeLocked(page, b -> index.putIfAbsent(b.getUserId(), coins(b.getBudgetCoin())));
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getUserId();
+            }
+        } while (page.size() == pageSize);
+        log.info("Seeded BudgetCoin leaderboard with {} users in {} ms", size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Move a user to a new balance once the current transaction commits (immediately outside one).
+     * Call it while the transaction still holds the lock on the user's row (after the UPDATE that
+     * changed the balance), so that reports for one user are numbered in commit order.
+     */
+    public void recordBalance(Long userId, Long budgetCoin) {
+        long report = reports.incrementAndGet();
+        Runnable apply = () -> writeLocked(List.of(userId), id -> {
+            Long applied = appliedReports.get(id);
+            if (applied == null || applied < report) {
+                appliedReports.put(id, report);
+                index.put(id, coins(budgetCoin));
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public List<LeaderboardEntryResponse> top(int limit) {
+        int n = Math.max(1, Math.min(limit, MAX_TOP));
+        List<CoinRankIndex.Entry> entries;
+        List<Integer> ranks = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            entries = index.top(n);
+            // Competition ranking: equal balances share a rank
+            for (int i = 0; i < entries.size(); i++) {
+                boolean tie = i > 0 && entries.get(i).coins() == entries.get(i - 1).coins();
+                ranks.add(tie ? ranks.get(i - 1) : i + 1);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Only the ids on the board are looked up; users are not in the second-level cache
+        Map<Long, String> names = userRepository.findAllById(entries.stream().map(CoinRankIndex.Entry::userId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getUserId, u -> u.getFirstName() == null ? "" : u.getFirstName()));
+        List<LeaderboardEntryResponse> out = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            CoinRankIndex.Entry e = entries.get(i);
+            out.add(new LeaderboardEntryResponse(ranks.get(i), e.userId(), names.get(e.userId()), e.coins()));
+        }
+        return out;
+    }
+
+    public LeaderboardRankResponse rankOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            Integer rank = index.rankOf(userId);
+            if (rank != null) {
+                return new LeaderboardRankResponse(userId, rank, index.coinsOf(userId), index.size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Not on the board yet (new user, or seeding still running): index from the database
+        UserCoins balance = userRepository.findCoinBalances(List.of(userId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("User not found: " + userId));
+        lock.writeLock().lock();
+        try {
+            index.putIfAbsent(userId, coins(balance.getBudgetCoin()));
+            return new LeaderboardRankResponse(userId, index.rankOf(userId), index.coinsOf(userId), index.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Not cluster-locked: every node checks its own board
+     */
+    @Scheduled(fixedDelayString = "${app.budgetcoin.leaderboard.check-ms:900000}", initialDelay = 900000)
+    @ManagedJob(name = "budgetcoin-leaderboard-check", timeoutSeconds = 600)
+    public void check() {
+        correctFromDatabase();
+    }
+
+    /**
+     * Compare the board with the database. Suspect entries are re-read just before fixing them,
+     * so an update applied while the check was paging is not rolled back to the older value.
+     * @return entries corrected
+     */
+    int correctFromDatabase() {
+        Set<Long> seen = new HashSet<>();
+        List<Long> suspects = new ArrayList<>();
+        long afterId = 0L;
+        List<UserCoins> page;
+        do {
+            if (JobContext.isCancellationRequested()) {
+                return 0;
+            }
+            page = userRepository.findCoinBalancesAfter(afterId, PageRequest.of(0, pageSize));
+            lock.readLock().lock();
+            try {
+                for (UserCoins b : page) {
+                    seen.add(b.getUserId());
+                    Long indexed = index.coinsOf(b.getUserId());
+                    if (indexed == null || indexed != coins(b.getBudgetCoin())) {
+                        suspects.add(b.getUserId());
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            JobContext.recordProcessed(page.size());
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getUserId();
+            }
+        } while (page.size() == pageSize);
+
+        lock.readLock().lock();
+        try {
+            // On the board but not in the table: deleted, or created after the check passed their id
+            index.userIds().stream().filter(id -> !seen.contains(id)).forEach(suspects::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (suspects.isEmpty()) {
+            return 0;
+        }
+
+        int corrected = 0;
+        for (int from = 0; from < suspects.size(); from += pageSize) {
+            List<Long> ids = suspects.subList(from, Math.min(from + pageSize, suspects.size()));
+            Map<Long, UserCoins> fresh = userRepository.findCoinBalances(ids).stream()
+                    .collect(Collectors.toMap(UserCoins::getUserId, Function.identity()));
+            lock.writeLock().lock();
+            try {
+                for (Long id : ids) {
+                    UserCoins b = fresh.get(id);
+                    Long indexed = index.coinsOf(id);
+                    if (b == null) {
+                        if (indexed != null) {
+                            index.remove(id);
+                            corrected++;
+                        }
+                    } else if (indexed == null || indexed != coins(b.getBudgetCoin())) {
+                        index.put(id, coins(b.getBudgetCoin()));
+                        corrected++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (corrected > 0) {
+            correctionsCounter.increment(corrected);
+            log.warn("Corrected {} BudgetCoin leaderboard entries", corrected);
+        }
+        return corrected;
+    }
+
+    private <T> void writeLocked(List<T> items, Consumer<T> action) {
+        lock.writeLock().lock();
+        try {
+            items.forEach(action);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long coins(Long budgetCoin) {
+        return budgetCoin == null ? 0L : budgetCoin;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.budgettracker.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic treap of (coins desc, userId asc) with a userId lookup beside it.
+ * Every node knows its subtree size, so rank and top-N are O(log n) (+ N) and updates are O(log n).
+ * Not thread-safe: {@link CoinLeaderboard} guards it with a read/write lock.
+ */
+final class CoinRankIndex {
+
+    record Entry(long userId, long coins) {}
+
+    private static final class Node {
+        final long coins;
+        final long userId;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long coins, long userId) {
+            this.coins = coins;
+            this.userId = userId;
+        }
+    }
+
+    private final Map<Long, Long> coinsByUser = new HashMap<>();
+    private Node root;
+
+    int size() {
+        return coinsByUser.size();
+    }
+
+    Long coinsOf(long userId) {
+        return coinsByUser.get(userId);
+    }
+
+    /**
+     * Insert or move a user
+     */
+    void put(long userId, long coins) {
+        Long previous = coinsByUser.put(userId, coins);
+        if (previous != null) {
+            if (previous == coins) {
+                return;
+            }
+            root = delete(root, previous, userId);
+        }
+        root = insert(root, new Node(coins, userId));
+    }
+
+    /**
+     * Insert a user only if not indexed yet, so a balance read earlier never overwrites a fresher update
+     */
+    void putIfAbsent(long userId, long coins) {
+        if (!coinsByUser.containsKey(userId)) {
+            put(userId, coins);
+        }
+    }
+
+    List<Long> userIds() {
+        return new ArrayList<>(coinsByUser.keySet());
+    }
+
+    void remove(long userId) {
+        Long previous = coinsByUser.remove(userId);
+        if (previous != null) {
+            root = delete(root, previous, userId);
+        }
+    }
+
+    /**
+     * Competition rank (1 + users with strictly more coins), or null if the user is not indexed
+     */
+    Integer rankOf(long userId) {
+        Long coins = coinsByUser.get(userId);
+        return coins == null ? null : countAbove(coins) + 1;
+    }
+
+    /**
+     * Number of users with strictly more coins
+     */
+    int countAbove(long coins) {
+        // (coins, Long.MIN_VALUE) sorts before every user holding exactly this many coins
+        int before = 0;
+        Node n = root;
+        while (n != null) {
+            if (compare(coins, Long.MIN_VALUE, n) <= 0) {
+                n = n.left;
+            } else {
+                before += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return before;
+    }
+
+    /**
+     * The first n entries, richest first
+     */
+    List<Entry> top(int n) {
+        List<Entry> out = new ArrayList<>(Math.min(n, size()));
+        collect(root, n, out);
+        return out;
+    }
+
+    private static void collect(Node node, int n, List<Entry> out) {
+        if (node == null || out.size() >= n) {
+            return;
+        }
+        collect(node.left, n, out);
+        if (out.size() < n) {
+            out.add(new Entry(node.userId, node.coins));
+            collect(node.right, n, out);
+        }
+    }
+
+    private static int compare(long coins, long userId, Node n) {
+        int c = Long.compare(n.coins, coins);
+        return c != 0 ? c : Long.compare(userId, n.userId);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private static Node insert(Node node, Node fresh) {
+        if (node == null) {
+            return fresh;
+        }
+        if (compare(fresh.coins, fresh.userId, node) < 0) {
+            node.left = insert(node.left, fresh);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, fresh);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private static Node delete(Node node, long coins, long userId) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(coins, userId, node);
+        if (c < 0) {
+            node.left = delete(node.left, coins, userId);
+        } else if (c > 0) {
+            node.right = delete(node.right, coins, userId);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return update(a);
+        }
+        b.left = merge(a, b.left);
+        return update(b);
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = update(n);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = update(n);
+        return r;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.budgettracker.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * A condition that earns BudgetCoin at month close, evaluated set-based for a range of user ids.
+ * Event ids must be deterministic (derived from the rule, the user and the subject), so running
+ * the same month twice grants nothing new.
+ */
+public interface CoinRewardRule {
+
+    record Hit(Long userId, String rewardEventId, String sourceType, long coins) {}
+
+    /**
+     * @return every qualifying (user, subject) pair in [fromUserId, toUserId] for the month
+     */
+    List<Hit> evaluate(YearMonth month, long fromUserId, long toUserId);
+}
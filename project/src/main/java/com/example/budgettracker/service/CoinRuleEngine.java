@@ -0,0 +1,156 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.config.JobContext;
+import com.example.budgettracker.model.RewardGrant;
+import com.example.budgettracker.repository.RewardGrantRepository;
+import com.example.budgettracker.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Month-close BudgetCoin grants from {@link CoinRewardRule}s.
+ * The user id space is cut into chunks that run in parallel, one transaction each: every rule is a
+ * single set-based query for the chunk, hits whose event id was already granted are dropped, the rest
+ * are inserted together and each user is credited once with an atomic increment.
+ */
+@Service
+@Slf4j
+public class CoinRuleEngine {
+
+    public record Result(int chunks, int failedChunks, int granted, long coins) {}
+
+    private record ChunkResult(int granted, long coins) {}
+
+    private final List<CoinRewardRule> rules;
+    private final UserRepository userRepository;
+    private final RewardGrantRepository rewardGrantRepository;
+    private final CoinLeaderboard coinLeaderboard;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int concurrency;
+
+    public CoinRuleEngine(List<CoinRewardRule> rules,
+                          UserRepository userRepository,
+                          RewardGrantRepository rewardGrantRepository,
+                          CoinLeaderboard coinLeaderboard,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.budgetcoin.rules.chunk-size:500}") int chunkSize,
+                          @Value("${app.budgetcoin.rules.concurrency:4}") int concurrency) {
+        this.rules = rules;
+        this.userRepository = userRepository;
+        this.rewardGrantRepository = rewardGrantRepository;
+        this.coinLeaderboard = coinLeaderboard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Evaluate every rule for a closed month. Safe to re-run: already granted events are skipped.
+     */
+    public Result grantForMonth(YearMonth month) {
+        UserRepository.IdRange range = userRepository.findIdRange();
+        if (range == null || range.getMinId() == null) {
+            return new Result(0, 0, 0, 0);
+        }
+        JobContext job = JobContext.current().orElse(null);
+        BooleanSupplier cancelled = () -> job != null && job.isCancelled();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "coin-rules-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<ChunkResult>> futures = new ArrayList<>();
+        try {
+            for (long from = range.getMinId(); from <= range.getMaxId(); from += chunkSize) {
+                long fromId = from;
+                long toId = from + chunkSize - 1;
+                futures.add(pool.submit(() -> cancelled.getAsBoolean() ? new ChunkResult(0, 0) : grantChunk(month, fromId, toId)));
+            }
+
+            int failed = 0;
+            int granted = 0;
+            long coins = 0;
+            for (Future<ChunkResult> future : futures) {
+                try {
+                    ChunkResult chunk = future.get();
+                    granted += chunk.granted();
+                    coins += chunk.coins();
+                    JobContext.recordProcessed(chunk.granted());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    throw new IllegalStateException("Coin rule run interrupted", e);
+                } catch (ExecutionException e) {
+                    // The chunk rolled back as a whole; a re-run picks it up again
+                    failed++;
+                    JobContext.recordFailure();
+                    log.warn("Coin rule chunk for {} failed: {}", month, e.getCause().getMessage());
+                }
+            }
+            return new Result(futures.size(), failed, granted, coins);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ChunkResult grantChunk(YearMonth month, long fromId, long toId) {
+        return transactionTemplate.execute(status -> {
+            // Keyed by event id: a hit reported twice is granted once
+            Map<String, CoinRewardRule.Hit> hits = new LinkedHashMap<>();
+            for (CoinRewardRule rule : rules) {
+                for (CoinRewardRule.Hit hit : rule.evaluate(month, fromId, toId)) {
+                    hits.putIfAbsent(hit.rewardEventId(), hit);
+                }
+            }
+            if (hits.isEmpty()) {
+                return new ChunkResult(0, 0);
+            }
+            Set<String> granted = new HashSet<>(rewardGrantRepository.findExistingEventIds(hits.keySet()));
+            List<RewardGrant> grants = new ArrayList<>();
+            Map<Long, Long> coinsByUser = new TreeMap<>();
+            for (CoinRewardRule.Hit hit : hits.values()) {
+                if (granted.contains(hit.rewardEventId())) {
+                    continue;
+                }
+                grants.add(RewardGrant.builder()
+                        .user(userRepository.getReferenceById(hit.userId()))
+                        .amount(BigDecimal.valueOf(hit.coins()))
+                        .sourceType(hit.sourceType())
+                        .rewardEventId(hit.rewardEventId())
+                        .build());
+                coinsByUser.merge(hit.userId(), hit.coins(), Long::sum);
+            }
+            if (grants.isEmpty()) {
+                return new ChunkResult(0, 0);
+            }
+            rewardGrantRepository.saveAll(grants);
+            // Ascending user id, so overlapping writers always lock rows in the same order
+            coinsByUser.forEach(userRepository::creditBudgetCoin);
+            userRepository.findCoinBalances(coinsByUser.keySet())
+                    .forEach(b -> coinLeaderboard.recordBalance(b.getUserId(), b.getBudgetCoin()));
+            return new ChunkResult(grants.size(), coinsByUser.values().stream().mapToLong(Long::longValue).sum());
+        });
+    }
+}
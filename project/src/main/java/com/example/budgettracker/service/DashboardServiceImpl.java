@@ -1,5 +1,6 @@
 package com.example.budgettracker.service;
 
+import com.example.budgettracker.config.SingleFlight;
 import com.example.budgettracker.dto.BudgetSummaryResponse;
 import com.example.budgettracker.dto.Dashboard.*;
 import com.example.budgettracker.dto.Goal.GoalResponse;
@@ -44,6 +45,7 @@ public class DashboardServiceImpl implements DashboardService {
     private final BudgetService budgetService;
 
     @Override
+    @SingleFlight("dashboard")
     public DashboardResponse getDashboardData(Long userId) {
         log.info("FR-14: Fetching complete dashboard data for user {}", userId);
 
@@ -77,6 +79,7 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     @Override
+    @SingleFlight("financial-aggregates")
     public FinancialAggregatesResponse getFinancialAggregates(Long userId) {
         log.info("FR-14: Calculating financial aggregates for user {} (all-time)", userId);
 
@@ -140,6 +143,7 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     @Override
+    @SingleFlight("spending-trend")
     public SpendingTrendData getSpendingTrend(Long userId, String period) {
         log.info("FR-14: Fetching spending trend for user {} with period {}", userId, period);
 
@@ -259,6 +263,7 @@ public class DashboardServiceImpl implements DashboardService {
 
                     response.setAccountId(goal.getAccount() != null ? goal.getAccount().getAccountId() : null);
                     response.setCategoryId(null); // Goal doesn't have a category field
+                    GoalForecast.apply(goal, response, LocalDate.now());
 
                     return response;
                 })
@@ -0,0 +1,29 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.DomainEvent;
+
+import java.util.List;
+
+/**
+ * Asynchronous reader of the domain event log, discovered as a Spring bean.
+ * Each user's events arrive oldest first and never concurrently with another batch for the same user.
+ * Delivery is at least once: after a failure or a replay the same events are handed over again,
+ * so handling must be idempotent.
+ */
+public interface DomainEventConsumer {
+
+    /**
+     * Stable name; keys the consumer's checkpoint, so renaming it starts over.
+     */
+    String name();
+
+    /**
+     * Whether a consumer seen for the first time starts at the oldest event (projections) or at the
+     * current end of the log (metrics, notifications).
+     */
+    default boolean fromBeginning() {
+        return true;
+    }
+
+    void handle(Long userId, List<DomainEvent> events);
+}
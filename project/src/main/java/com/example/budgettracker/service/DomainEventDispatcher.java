@@ -0,0 +1,256 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.DomainEvent;
+import com.example.budgettracker.model.DomainEventCheckpoint;
+import com.example.budgettracker.repository.DomainEventCheckpointRepository;
+import com.example.budgettracker.repository.DomainEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the domain event log to every {@link DomainEventConsumer}, one batch at a time.
+ * A batch is read after the consumer's checkpoint and split by user into lanes that run in parallel;
+ * a lane hands its users' events over in id order, so each user is seen sequentially. The checkpoint
+ * moves past the batch only when every lane succeeded, otherwise the whole batch is delivered again.
+ * An id is assigned when the event row is inserted but becomes visible only when its transaction
+ * commits, so a missing id may belong to a transaction that is still open (a category merge, a lock
+ * wait). A batch therefore stops at the first gap and the checkpoint stays in front of it for up to
+ * gapTimeout (seconds, longer than any writing transaction), timed from when the gap was first seen on
+ * the database clock; after that the transaction cannot still be open, so the gap was a rollback and is
+ * skipped. A dispatcher that takes over starts the wait again.
+ * Events every consumer is past are deleted once they are older than app.events.retention-days, which
+ * bounds how far back a replay can go.
+ * Callers (the scheduler) must be the only dispatcher in the cluster.
+ */
+@Service
+@Slf4j
+public class DomainEventDispatcher {
+
+    public record ConsumerStatus(String name, long lastEventId, long lag, LocalDateTime updatedAt) {}
+
+    private record Gap(long missingId, LocalDateTime seenAt) {}
+
+    private final List<DomainEventConsumer> consumers;
+    private final DomainEventRepository eventRepository;
+    private final DomainEventCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final int lanes;
+    private final Duration retention;
+    private final ExecutorService pool;
+    // The gap each consumer is held at, by consumer name
+    private final Map<String, Gap> gaps = new ConcurrentHashMap<>();
+
+    public DomainEventDispatcher(List<DomainEventConsumer> consumers,
+                                 DomainEventRepository eventRepository,
+                                 DomainEventCheckpointRepository checkpointRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.events.batch-size:500}") int batchSize,
+                                 @Value("${app.events.gap-timeout-seconds:30}") long gapTimeoutSeconds,
+                                 @Value("${app.events.lanes:4}") int lanes,
+                                 @Value("${app.events.retention-days:30}") long retentionDays) {
+        this.consumers = consumers;
+        this.eventRepository = eventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = Math.max(1, batchSize);
+        this.gapTimeout = Duration.ofSeconds(Math.max(0, gapTimeoutSeconds));
+        this.lanes = Math.max(1, lanes);
+        this.retention = Duration.ofDays(Math.max(1, retentionDays));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.lanes, r -> {
+            Thread t = new Thread(r, "domain-events-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * One batch for every consumer.
+     * @return the most events any consumer got through, so a full batch means there may be more
+     */
+    public int dispatchBatch() {
+        int most = 0;
+        for (DomainEventConsumer consumer : consumers) {
+            most = Math.max(most, dispatchBatch(consumer));
+        }
+        return most;
+    }
+
+    int dispatchBatch(DomainEventConsumer consumer) {
+        long after = checkpoint(consumer).getLastEventId();
+        List<DomainEvent> batch = contiguous(consumer, after,
+                eventRepository.findBatchAfter(after, PageRequest.of(0, batchSize)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Map<Long, List<DomainEvent>>> byLane = new ArrayList<>();
+        for (int i = 0; i < lanes; i++) {
+            byLane.add(new LinkedHashMap<>());
+        }
+        for (DomainEvent event : batch) {
+            byLane.get(Math.floorMod(event.getUserId().hashCode(), lanes))
+                    .computeIfAbsent(event.getUserId(), id -> new ArrayList<>())
+                    .add(event);
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (Map<Long, List<DomainEvent>> lane : byLane) {
+            if (!lane.isEmpty()) {
+                futures.add(pool.submit(() -> lane.forEach(consumer::handle)));
+            }
+        }
+
+        boolean failed = false;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                return 0;
+            } catch (ExecutionException e) {
+                failed = true;
+                log.warn("Domain event consumer {} failed after event {}: {}", consumer.name(), after, e.getCause().toString());
+            }
+        }
+        if (failed) {
+            Counter.builder("domain.events.failures").tag("consumer", consumer.name()).register(meterRegistry).increment();
+            return 0;
+        }
+
+        long last = batch.get(batch.size() - 1).getId();
+        Integer moved = transactionTemplate.execute(status ->
+                checkpointRepository.advance(consumer.name(), after, last, LocalDateTime.now()));
+        if (!Integer.valueOf(1).equals(moved)) {
+            log.info("Checkpoint of {} was moved during dispatch (replay); keeping it", consumer.name());
+        }
+        Counter.builder("domain.events.delivered").tag("consumer", consumer.name()).register(meterRegistry)
+                .increment(batch.size());
+        return batch.size();
+    }
+
+    /**
+     * The leading run of the batch that has no gap in front of it, or whose gaps have been waited on
+     * for gapTimeout. Waiting on a gap leaves the later events for the next poll.
+     */
+    private List<DomainEvent> contiguous(DomainEventConsumer consumer, long after, List<DomainEvent> batch) {
+        long expected = after + 1;
+        for (int i = 0; i < batch.size(); i++) {
+            DomainEvent event = batch.get(i);
+            if (event.getId() != expected) {
+                if (!gapTimedOut(consumer, expected)) {
+                    return batch.subList(0, i);
+                }
+                log.warn("Domain event consumer {} skipping missing events {}..{}, not committed after {}",
+                        consumer.name(), expected, event.getId() - 1, gapTimeout);
+                Counter.builder("domain.events.gaps.skipped").tag("consumer", consumer.name()).register(meterRegistry)
+                        .increment(event.getId() - expected);
+            }
+            expected = event.getId() + 1;
+        }
+        return batch;
+    }
+
+    private boolean gapTimedOut(DomainEventConsumer consumer, long missingId) {
+        LocalDateTime now = eventRepository.findDatabaseTime();
+        Gap gap = gaps.compute(consumer.name(), (name, held) ->
+                held != null && held.missingId() == missingId ? held : new Gap(missingId, now));
+        if (now.isBefore(gap.seenAt().plus(gapTimeout))) {
+            return false;
+        }
+        gaps.remove(consumer.name(), gap);
+        return true;
+    }
+
+    /**
+     * Delete the events every consumer has passed that are older than the retention window.
+     * @return number of events removed
+     */
+    public int purgeDelivered() {
+        long upTo = consumers.stream()
+                .mapToLong(consumer -> checkpoint(consumer).getLastEventId())
+                .min()
+                .orElse(0L);
+        if (upTo <= 0) {
+            return 0;
+        }
+        Integer deleted = transactionTemplate.execute(status ->
+                eventRepository.purgeDeliveredBefore(upTo, LocalDateTime.now().minus(retention)));
+        return deleted == null ? 0 : deleted;
+    }
+
+    public List<ConsumerStatus> status() {
+        long head = Optional.ofNullable(eventRepository.findMaxId()).orElse(0L);
+        return consumers.stream()
+                .map(consumer -> {
+                    DomainEventCheckpoint cp = checkpoint(consumer);
+                    return new ConsumerStatus(consumer.name(), cp.getLastEventId(),
+                            Math.max(0, head - cp.getLastEventId()), cp.getUpdatedAt());
+                })
+                .toList();
+    }
+
+    /**
+     * Deliver everything from fromEventId (inclusive; null for the whole log) to a consumer again.
+     * @return false if there is no such consumer
+     */
+    public boolean replay(String consumerName, Long fromEventId) {
+        if (consumers.stream().noneMatch(c -> c.name().equals(consumerName))) {
+            return false;
+        }
+        long lastEventId = fromEventId == null ? 0 : Math.max(0, fromEventId - 1);
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(DomainEventCheckpoint.builder()
+                .consumerName(consumerName)
+                .lastEventId(lastEventId)
+                .updatedAt(LocalDateTime.now())
+                .build()));
+        log.info("Domain event consumer {} will replay from event {}", consumerName, lastEventId + 1);
+        return true;
+    }
+
+    private DomainEventCheckpoint checkpoint(DomainEventConsumer consumer) {
+        return checkpointRepository.findById(consumer.name()).orElseGet(() -> {
+            long start = consumer.fromBeginning() ? 0 : Optional.ofNullable(eventRepository.findMaxId()).orElse(0L);
+            return transactionTemplate.execute(status -> checkpointRepository.save(DomainEventCheckpoint.builder()
+                    .consumerName(consumer.name())
+                    .lastEventId(start)
+                    .updatedAt(LocalDateTime.now())
+                    .build()));
+        });
+    }
+}
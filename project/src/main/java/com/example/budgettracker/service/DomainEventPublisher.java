@@ -0,0 +1,58 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.DomainEvent;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.repository.DomainEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes ledger changes to the domain_event log. It only joins the caller's transaction, so an event
+ * exists exactly when the change it describes committed; delivery to consumers happens later,
+ * off the request path, in {@link DomainEventDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+public class DomainEventPublisher {
+
+    private final DomainEventRepository domainEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Long userId, DomainEventType type, Map<String, ?> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + type + " payload", e);
+        }
+        domainEventRepository.save(DomainEvent.builder()
+                .userId(userId)
+                .type(type)
+                .payload(json)
+                .recordedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Ordered payload from alternating keys and values; unlike Map.of it keeps null values.
+     */
+    public static Map<String, Object> payload(Object... keysAndValues) {
+        if (keysAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Payload needs a value for every key");
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            payload.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.budgettracker.service;
+
+public interface EmailOutboxService {
+
+    /**
+     * Queue an HTML email for delivery. Joins the caller's transaction, so the message is
+     * only sent if the surrounding business change commits.
+     * @param recipient Destination address
+     * @param subject Subject line
+     * @param htmlBody Rendered HTML body
+     * @param template Short label used for metrics, e.g. "password-reset"
+     */
+    void enqueue(String recipient, String subject, String htmlBody, String template);
+
+    /**
+     * Send one batch of due messages over a single SMTP connection.
+     * @return number of messages picked up (sent, retried or dead-lettered)
+     */
+    int dispatchBatch();
+
+    /**
+     * Delete delivered messages older than the retention window.
+     * @return number of rows removed
+     */
+    int purgeSent();
+}
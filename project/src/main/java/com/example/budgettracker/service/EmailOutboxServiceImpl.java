@@ -0,0 +1,220 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.EmailOutbox;
+import com.example.budgettracker.model.enums.EmailOutboxStatus;
+import com.example.budgettracker.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration retention;
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+    private final Timer batchTimer;
+    private final Timer deliveryLagTimer;
+    private final AtomicLong pendingGauge = new AtomicLong();
+
+    public EmailOutboxServiceImpl(EmailOutboxRepository outboxRepository,
+                                  JavaMailSender mailSender,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.email.from:noreply@oversave.com}") String fromEmail,
+                                  @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                                  @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+                                  @Value("${app.email.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+                                  @Value("${app.email.outbox.retention-days:14}") long retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+
+        this.sentCounter = Counter.builder("email.outbox.sent").register(meterRegistry);
+        this.retryCounter = Counter.builder("email.outbox.retried").register(meterRegistry);
+        this.deadCounter = Counter.builder("email.outbox.dead").register(meterRegistry);
+        this.batchTimer = Timer.builder("email.outbox.batch")
+                .description("Time spent handing one batch to the SMTP server")
+                .register(meterRegistry);
+        this.deliveryLagTimer = Timer.builder("email.outbox.delivery.lag")
+                .description("Time from enqueue to successful delivery")
+                .register(meterRegistry);
+        meterRegistry.gauge("email.outbox.pending", pendingGauge);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void enqueue(String recipient, String subject, String htmlBody, String template) {
+        if (recipient == null || recipient.isBlank()) {
+            throw new IllegalArgumentException("Recipient is required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(EmailOutbox.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .htmlBody(htmlBody)
+                .template(template)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        log.debug("Queued {} email for {}", template, recipient);
+    }
+
+    @Override
+    public int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = outboxRepository.findDue(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            pendingGauge.set(outboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+            return 0;
+        }
+
+        // Keyed by identity: JavaMailSenderImpl reports failures against the exact instances passed in
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox row : batch) {
+            try {
+                messages.put(toMimeMessage(row), row);
+            } catch (Exception e) {
+                // A message that cannot even be built will never succeed
+                deadLetter(row, "Could not build message: " + e.getMessage());
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        if (!messages.isEmpty()) {
+            long started = System.nanoTime();
+            try {
+                // One call, one Transport: the connection is reused for the whole batch
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    failures = allFailed(messages, e);
+                }
+            } catch (MailException e) {
+                failures = allFailed(messages, e);
+            } finally {
+                batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        LocalDateTime finished = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, EmailOutbox> entry : messages.entrySet()) {
+            EmailOutbox row = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                markSent(row, finished);
+            } else {
+                markFailed(row, failure, finished);
+            }
+        }
+        outboxRepository.saveAll(batch);
+        pendingGauge.set(outboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+
+        log.info("Email outbox batch: {} picked up, {} failed", batch.size(), failures.size());
+        return batch.size();
+    }
+
+    @Override
+    @Transactional
+    public int purgeSent() {
+        return outboxRepository.purgeSentBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox row) throws Exception {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(row.getRecipient());
+        helper.setSubject(row.getSubject());
+        helper.setText(row.getHtmlBody(), true);
+        return mimeMessage;
+    }
+
+    private void markSent(EmailOutbox row, LocalDateTime now) {
+        row.setStatus(EmailOutboxStatus.SENT);
+        row.setAttempts(row.getAttempts() + 1);
+        row.setSentAt(now);
+        row.setLastError(null);
+        sentCounter.increment();
+        meterRegistry.counter("email.outbox.sent.by.template", "template", row.getTemplate()).increment();
+        deliveryLagTimer.record(Duration.between(row.getCreatedAt(), now));
+    }
+
+    private void markFailed(EmailOutbox row, Exception failure, LocalDateTime now) {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            deadLetter(row, failure.getMessage());
+            return;
+        }
+        row.setLastError(truncate(failure.getMessage()));
+        row.setNextAttemptAt(now.plus(backoff(attempts)));
+        retryCounter.increment();
+        log.warn("Email {} to {} failed (attempt {}/{}), retrying at {}: {}",
+                row.getId(), row.getRecipient(), attempts, maxAttempts, row.getNextAttemptAt(), failure.getMessage());
+    }
+
+    private void deadLetter(EmailOutbox row, String error) {
+        row.setStatus(EmailOutboxStatus.DEAD);
+        row.setLastError(truncate(error));
+        deadCounter.increment();
+        log.error("Email {} to {} dead-lettered after {} attempts: {}",
+                row.getId(), row.getRecipient(), row.getAttempts(), error);
+    }
+
+    /**
+     * Exponential backoff: base, 2x base, 4x base, ... capped at MAX_BACKOFF.
+     */
+    Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, EmailOutbox> messages, Exception e) {
+        Map<Object, Exception> failed = new IdentityHashMap<>();
+        messages.keySet().forEach(m -> failed.put(m, e));
+        return failed;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return null;
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -3,93 +3,39 @@ package com.example.budgettracker.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${app.email.from:noreply@oversave.com}")
-    private String fromEmail;
+    // Mail is queued in the caller's transaction and delivered by EmailOutboxDispatcher
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${app.frontend.url:http://localhost:8080}")
     private String frontendUrl;
 
     @Override
     public void sendPasswordResetEmail(String email, String firstName, String token) {
-        try {
-            String resetUrl = frontendUrl + "/reset-password.html?token=" + token;
-
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(email);
-            helper.setSubject("Reset Your OVER-SAVE Password");
-
-            String htmlContent = buildPasswordResetEmail(firstName, resetUrl);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(mimeMessage);
-            log.info("Password reset email sent to: {}", email);
-
-        } catch (MessagingException e) {
-            log.error("Failed to send password reset email to: {}", email, e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+        String resetUrl = frontendUrl + "/reset-password.html?token=" + token;
+        emailOutboxService.enqueue(email, "Reset Your OVER-SAVE Password",
+                buildPasswordResetEmail(firstName, resetUrl), "password-reset");
+        log.info("Password reset email queued for: {}", email);
     }
 
     @Override
     public void sendPasswordChangedEmail(String email, String firstName) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(email);
-            helper.setSubject("Your OVER-SAVE Password Has Been Changed");
-
-            String htmlContent = buildPasswordChangedEmail(firstName);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(mimeMessage);
-            log.info("Password changed confirmation email sent to: {}", email);
-
-        } catch (MessagingException e) {
-            log.error("Failed to send password changed email to: {}", email, e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+        emailOutboxService.enqueue(email, "Your OVER-SAVE Password Has Been Changed",
+                buildPasswordChangedEmail(firstName), "password-changed");
+        log.info("Password changed confirmation email queued for: {}", email);
     }
 
     @Override
     public void sendOAuthRecoveryEmail(String email, String firstName, String provider) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(email);
-            helper.setSubject("OVER-SAVE Account Recovery Instructions");
-
-            String htmlContent = buildOAuthRecoveryEmail(firstName, provider);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(mimeMessage);
-            log.info("OAuth recovery email sent to: {}", email);
-
-        } catch (MessagingException e) {
-            log.error("Failed to send OAuth recovery email to: {}", email, e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+        emailOutboxService.enqueue(email, "OVER-SAVE Account Recovery Instructions",
+                buildOAuthRecoveryEmail(firstName, provider), "oauth-recovery");
+        log.info("OAuth recovery email queued for: {}", email);
     }
 
     private String buildPasswordResetEmail(String firstName, String resetUrl) {
@@ -255,15 +201,7 @@ public class EmailServiceImpl implements EmailService {
 
     @Override
     public void sendTestEmail(String email, String firstName) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(email);
-            helper.setSubject("OVER-SAVE Test Email");
-
-            String html = """
+        String html = """
             <!DOCTYPE html>
             <html>
             <body style="font-family: Arial, sans-serif; line-height:1.6; color:#333; max-width:600px; margin:auto;">
@@ -283,27 +221,14 @@ public class EmailServiceImpl implements EmailService {
             </html>
         """.formatted(firstName);
 
-            helper.setText(html, true);
-            mailSender.send(mimeMessage);
-            log.info("✅ Test email sent to {}", email);
-        } catch (Exception e) {
-            log.error("❌ Failed to send test email to {}", email, e);
-            throw new RuntimeException("Failed to send test email", e);
-        }
+        emailOutboxService.enqueue(email, "OVER-SAVE Test Email", html, "test");
+        log.info("✅ Test email queued for {}", email);
     }
 
     @Override
     public void sendMonthlySummaryEmail(String email, String firstName, String summaryHtml) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(email);
-            helper.setSubject("Your Monthly OVER-SAVE Summary");
-
-            // if no external summaryHtml provided, fallback to simple message
-            String html = summaryHtml != null ? summaryHtml : """
+        // if no external summaryHtml provided, fallback to simple message
+        String html = summaryHtml != null ? summaryHtml : """
             <html>
               <body style="font-family: Arial, sans-serif; padding:20px;">
                 <h2>Hi %s 👋</h2>
@@ -314,13 +239,8 @@ public class EmailServiceImpl implements EmailService {
             </html>
         """.formatted(firstName);
 
-            helper.setText(html, true);
-            mailSender.send(mimeMessage);
-            log.info("✅ Monthly summary email sent to {}", email);
-        } catch (Exception e) {
-            log.error("❌ Failed to send monthly summary to {}", email, e);
-            throw new RuntimeException("Failed to send monthly summary email", e);
-        }
+        emailOutboxService.enqueue(email, "Your Monthly OVER-SAVE Summary", html, "monthly-summary");
+        log.info("✅ Monthly summary email queued for {}", email);
     }
 
 }
\ No newline at end of file
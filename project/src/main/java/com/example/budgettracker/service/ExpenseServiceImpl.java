@@ -6,6 +6,8 @@ import com.example.budgettracker.model.Account;
 import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.model.enums.SyncEntityType;
 import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.AccountRepository;
 import com.example.budgettracker.repository.CategoryRepository;
@@ -20,13 +22,19 @@ public class ExpenseServiceImpl implements ExpenseService {
     private final CashFlowRepository cashFlowRepository;
     private final AccountRepository accountRepository;
     private final CategoryRepository categoryRepository;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SyncChangeLog syncChangeLog;
 
     public ExpenseServiceImpl(CashFlowRepository cashFlowRepository,
                               AccountRepository accountRepository,
-                              CategoryRepository categoryRepository) {
+                              CategoryRepository categoryRepository,
+                              DomainEventPublisher domainEventPublisher,
+                              SyncChangeLog syncChangeLog) {
         this.cashFlowRepository = cashFlowRepository;
         this.accountRepository = accountRepository;
         this.categoryRepository = categoryRepository;
+        this.domainEventPublisher = domainEventPublisher;
+        this.syncChangeLog = syncChangeLog;
     }
 
     /**
@@ -78,6 +86,15 @@ public class ExpenseServiceImpl implements ExpenseService {
 
         // Save transaction
         CashFlow saved = cashFlowRepository.save(cashFlow);
+        domainEventPublisher.publish(userId, DomainEventType.CASH_FLOW_RECORDED, DomainEventPublisher.payload(
+                "cashFlowId", saved.getCashFlowId(),
+                "type", CashFlowType.Expense.name(),
+                "accountId", account.getAccountId(),
+                "categoryId", category != null ? category.getCategoryId() : null,
+                "amount", request.getAmount(),
+                "occurredAt", request.getOccurredAt()));
+        syncChangeLog.changed(userId, SyncEntityType.CASH_FLOW, saved.getCashFlowId());
+        syncChangeLog.changed(userId, SyncEntityType.ACCOUNT, account.getAccountId());
 
         // Return success response
         return ExpenseResponse.builder()
@@ -0,0 +1,36 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.repository.GoalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Reached a savings goal during the month; granted once per goal
+ */
+@Component
+public class GoalCompletedRule implements CoinRewardRule {
+
+    private final GoalRepository goalRepository;
+    private final long coins;
+
+    public GoalCompletedRule(GoalRepository goalRepository,
+                             @Value("${app.budgetcoin.rules.goal-completed-coins:100}") long coins) {
+        this.goalRepository = goalRepository;
+        this.coins = coins;
+    }
+
+    @Override
+    public List<Hit> evaluate(YearMonth month, long fromUserId, long toUserId) {
+        return goalRepository.findCompletedBetween(month.atDay(1).atStartOfDay(),
+                        month.plusMonths(1).atDay(1).atStartOfDay(), fromUserId, toUserId)
+                .stream()
+                .map(g -> new Hit(g.getUserId(),
+                        "rule:goal-completed:" + g.getGoalId(),
+                        "Goal reached: " + g.getName(),
+                        coins))
+                .toList();
+    }
+}
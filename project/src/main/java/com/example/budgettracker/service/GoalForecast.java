@@ -0,0 +1,75 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Goal.GoalResponse;
+import com.example.budgettracker.model.Goal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Completion forecast from a goal's running contribution statistics.
+ * O(1) per goal: reads only the counters kept on the goal row, never the contribution history.
+ */
+public final class GoalForecast {
+
+    static final BigDecimal DAYS_PER_MONTH = new BigDecimal("30.4375");
+
+    private GoalForecast() {
+    }
+
+    /**
+     * Fill the forecast fields of a response.
+     * The average rate is measured from the first contribution to today (at least one month),
+     * so a goal that stops receiving money drifts later instead of keeping its old pace.
+     */
+    public static void apply(Goal goal, GoalResponse res, LocalDate today) {
+        BigDecimal target = goal.getTargetAmount();
+        BigDecimal saved = goal.getCurrentAmount() == null ? BigDecimal.ZERO : goal.getCurrentAmount();
+        if (target == null) {
+            return;
+        }
+        BigDecimal remaining = target.subtract(saved);
+
+        res.setMonthlyContributionRate(monthlyRate(goal, today));
+        res.setRequiredMonthlyContribution(requiredMonthly(remaining, goal.getDueDate(), today));
+
+        if (remaining.signum() <= 0) {
+            res.setProjectedCompletionDate(goal.getLastContributionAt() != null
+                    ? goal.getLastContributionAt().toLocalDate()
+                    : today);
+        } else if (res.getMonthlyContributionRate() != null && res.getMonthlyContributionRate().signum() > 0) {
+            long days = remaining.multiply(DAYS_PER_MONTH)
+                    .divide(res.getMonthlyContributionRate(), 0, RoundingMode.CEILING)
+                    .longValue();
+            res.setProjectedCompletionDate(today.plusDays(days));
+        }
+        if (goal.getDueDate() != null && res.getProjectedCompletionDate() != null) {
+            res.setOnTrack(!res.getProjectedCompletionDate().isAfter(goal.getDueDate()));
+        }
+    }
+
+    static BigDecimal monthlyRate(Goal goal, LocalDate today) {
+        if (goal.getContributionCount() == null || goal.getContributionCount() == 0
+                || goal.getContributedTotal() == null || goal.getFirstContributionAt() == null) {
+            return null;
+        }
+        long days = ChronoUnit.DAYS.between(goal.getFirstContributionAt().toLocalDate(), today);
+        BigDecimal months = BigDecimal.valueOf(days).divide(DAYS_PER_MONTH, 4, RoundingMode.HALF_UP).max(BigDecimal.ONE);
+        return goal.getContributedTotal().divide(months, 2, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal requiredMonthly(BigDecimal remaining, LocalDate dueDate, LocalDate today) {
+        if (remaining.signum() <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        if (dueDate == null) {
+            return null;
+        }
+        // Due this month or already overdue: everything that is left is needed now
+        long days = ChronoUnit.DAYS.between(today, dueDate);
+        BigDecimal months = BigDecimal.valueOf(days).divide(DAYS_PER_MONTH, 4, RoundingMode.HALF_UP).max(BigDecimal.ONE);
+        return remaining.divide(months, 2, RoundingMode.CEILING);
+    }
+}
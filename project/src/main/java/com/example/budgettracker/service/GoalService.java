@@ -20,5 +20,7 @@ public interface GoalService {
     GoalResponse contribute(Long userId, Long goalId, ContributionRequest request);
     ContributionResponse contributeToGoal(Long userId, ContributionRequest request);
     List<CashFlow> getContributions(Long userId, Long goalId, LocalDate from, LocalDate to);
+    // Category the contribution cash flows are booked under, after checking the goal belongs to the user
+    Long getContributionCategoryId(Long userId, Long goalId);
 }
 
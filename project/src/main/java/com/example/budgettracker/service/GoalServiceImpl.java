@@ -4,7 +4,9 @@ import com.example.budgettracker.dto.Goal.*;
 import com.example.budgettracker.model.*;
 import com.example.budgettracker.model.enums.AccountType;
 import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.DomainEventType;
 import com.example.budgettracker.model.enums.GoalStatus;
+import com.example.budgettracker.model.enums.SyncEntityType;
 import com.example.budgettracker.repository.*;
 import jakarta.transaction.Transactional;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -16,6 +18,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +31,9 @@ public class GoalServiceImpl implements GoalService {
     private final CashFlowRepository cashFlowRepo;
     private final CategoryRepository categoryRepo;
     private final TransferRepository transferRepo;
+    private final CategoryDictionary categoryDictionary;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SyncChangeLog syncChangeLog;
 
 
     public GoalServiceImpl(UserRepository userRepo,
@@ -35,13 +41,19 @@ public class GoalServiceImpl implements GoalService {
                            GoalRepository goalRepo,
                            CashFlowRepository cashFlowRepo,
                            CategoryRepository categoryRepo,
-                           TransferRepository transferRepo) {
+                           TransferRepository transferRepo,
+                           CategoryDictionary categoryDictionary,
+                           DomainEventPublisher domainEventPublisher,
+                           SyncChangeLog syncChangeLog) {
         this.userRepo = userRepo;
         this.accountRepo = accountRepo;
         this.goalRepo = goalRepo;
         this.cashFlowRepo = cashFlowRepo;
         this.categoryRepo = categoryRepo;
         this.transferRepo = transferRepo;
+        this.categoryDictionary = categoryDictionary;
+        this.domainEventPublisher = domainEventPublisher;
+        this.syncChangeLog = syncChangeLog;
     }
 
     @Override
@@ -90,6 +102,8 @@ public class GoalServiceImpl implements GoalService {
         goal.setCurrentAmount(BigDecimal.ZERO);
         goal.setStatus(GoalStatus.IN_PROGRESS);
         goalRepo.save(goal);
+        syncChangeLog.changed(userId, SyncEntityType.ACCOUNT, goalAccount.getAccountId());
+        syncChangeLog.changed(userId, SyncEntityType.GOAL, goal.getId());
 
         return toResponse(goal);
     }
@@ -119,122 +133,117 @@ public class GoalServiceImpl implements GoalService {
         return getGoalById(userId, goalId);
     }
 
+    /**
+     * One short transaction with no read-modify-write: the source account is debited by a
+     * conditional UPDATE that also checks ownership and funds, so two concurrent contributions
+     * can never both spend the same balance. Both account rows are updated in ascending id order,
+     * so transfers in opposite directions cannot deadlock.
+     */
     @Override
     public ContributionResponse contributeToGoal(Long userId, ContributionRequest req) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-
-        Account fromAccount = accountRepo.findById(req.getFromAccountId())
-                .orElseThrow(() -> new IllegalArgumentException("Cash account not found"));
-        if (!fromAccount.getUser().getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Source account not owned by this user");
-        }
-
-        Goal goal = goalRepo.findById(req.getGoalId())
-                .orElseThrow(() -> new IllegalArgumentException("Goal not found"));
-        Account goalAccount = goal.getLinkedAccount();
-
         BigDecimal amount = req.getAmount();
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Contribution amount must be positive");
         }
 
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds in cash account");
+        GoalRepository.ContributionTarget goal = goalRepo.findContributionTarget(req.getGoalId(), userId)
+                .orElseThrow(() -> new IllegalArgumentException("Goal not found"));
+        Long fromId = req.getFromAccountId();
+        Long goalAccountId = goal.getAccountId();
+        if (fromId == null || fromId.equals(goalAccountId)) {
+            throw new IllegalArgumentException("Source account must be different from the goal account");
         }
 
-
-        Category transferCategory = ensureGoalTransferCategory(user);
-
-
+        if (fromId < goalAccountId) {
+            debit(userId, fromId, amount);
+            accountRepo.credit(goalAccountId, amount);
+        } else {
+            accountRepo.credit(goalAccountId, amount);
+            debit(userId, fromId, amount);
+        }
         LocalDateTime now = LocalDateTime.now();
+        goalRepo.addContribution(goal.getGoalId(), amount, GoalStatus.COMPLETED, now);
+
+        Map<Long, AccountRepository.AccountBalance> balances = accountRepo.findBalances(List.of(fromId, goalAccountId))
+                .stream()
+                .collect(Collectors.toMap(AccountRepository.AccountBalance::getAccountId, b -> b));
+        AccountRepository.AccountBalance from = balances.get(fromId);
+        AccountRepository.AccountBalance to = balances.get(goalAccountId);
 
+        Account fromRef = accountRepo.getReferenceById(fromId);
+        Account goalRef = accountRepo.getReferenceById(goalAccountId);
+        Category transferCategory = ensureGoalTransferCategory(User.builder().userId(userId).build());
         String goalName = goal.getName() != null ? goal.getName() : "Goal";
-        String outflowDescription = "Goal contribution to " + goalName;
-        String inflowDescription = "Goal contribution from " + fromAccount.getName();
 
         // From Account - Expense
         CashFlow outflow = new CashFlow();
-        outflow.setAccount(fromAccount);
+        outflow.setAccount(fromRef);
         outflow.setCategory(transferCategory);
         outflow.setType(CashFlowType.Expense);
         outflow.setAmount(amount);
         outflow.setOccurredAt(now);
-        outflow.setDescription(outflowDescription);
-        cashFlowRepo.save(outflow);
+        outflow.setDescription("Goal contribution to " + goalName);
 
         // To Goal Account - Income
         CashFlow inflow = new CashFlow();
-        inflow.setAccount(goalAccount);
+        inflow.setAccount(goalRef);
         inflow.setCategory(transferCategory);
         inflow.setType(CashFlowType.Income);
         inflow.setAmount(amount);
         inflow.setOccurredAt(now);
-        inflow.setDescription(inflowDescription);
-        cashFlowRepo.save(inflow);
+        inflow.setDescription("Goal contribution from " + from.getName());
+        cashFlowRepo.saveAll(List.of(outflow, inflow));
 
         Transfer transfer = new Transfer();
-        transfer.setAccountFrom(fromAccount);
-        transfer.setAccountTo(goalAccount);
+        transfer.setAccountFrom(fromRef);
+        transfer.setAccountTo(goalRef);
         transfer.setAmount(amount);
-        transfer.setCreatedAt(LocalDateTime.now());
+        transfer.setCreatedAt(now);
         transferRepo.save(transfer);
-
-
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        accountRepo.save(fromAccount);
-
-        goalAccount.setBalance(goalAccount.getBalance().add(amount));
-        accountRepo.save(goalAccount);
-
-
-        goal.setCurrentAmount(goal.getCurrentAmount().add(amount));
-        if (goal.getCurrentAmount().compareTo(goal.getTargetAmount()) >= 0) {
-            goal.setStatus(GoalStatus.COMPLETED);
-        }
-        goalRepo.save(goal);
+        domainEventPublisher.publish(userId, DomainEventType.GOAL_CONTRIBUTED, DomainEventPublisher.payload(
+                "goalId", goal.getGoalId(),
+                "fromAccountId", fromId,
+                "goalAccountId", goalAccountId,
+                "amount", amount,
+                "occurredAt", now));
+        syncChangeLog.changed(userId, SyncEntityType.ACCOUNT, fromId, goalAccountId);
+        syncChangeLog.changed(userId, SyncEntityType.CASH_FLOW, outflow.getCashFlowId(), inflow.getCashFlowId());
+        syncChangeLog.changed(userId, SyncEntityType.GOAL, goal.getGoalId());
 
         ContributionResponse response = new ContributionResponse();
         response.setMessage("Contribution successful");
-        response.setNewCashBalance(fromAccount.getBalance());
-        response.setNewGoalBalance(goalAccount.getBalance());
+        response.setNewCashBalance(from.getBalance());
+        response.setNewGoalBalance(to.getBalance());
         return response;
     }
 
+    private void debit(Long userId, Long accountId, BigDecimal amount) {
+        if (accountRepo.debitIfSufficient(accountId, userId, amount) == 1) {
+            return;
+        }
+        // Work out why only on the failure path; the exception rolls back any credit already applied
+        Account account = accountRepo.findById(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Cash account not found"));
+        if (!account.getUser().getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Source account not owned by this user");
+        }
+        throw new IllegalArgumentException("Insufficient funds in cash account");
+    }
+
     private Category ensureGoalTransferCategory(User user) {
         final String preferredName = "Goal Transfer";
         final String legacyName = "__Goal_Transfer__";
         Long userId = user.getUserId();
 
-        return categoryRepo.findByUser_UserIdAndNameIgnoreCase(userId, preferredName)
-                .orElseGet(() -> {
-                    Category category = categoryRepo.findByUser_UserIdAndNameIgnoreCase(userId, legacyName)
-                            .map(existing -> {
-                                if (!preferredName.equalsIgnoreCase(existing.getName())) {
-                                    existing.setName(preferredName);
-                                    try {
-                                        return categoryRepo.save(existing);
-                                    } catch (DataIntegrityViolationException e) {
-                                        return categoryRepo.findByUser_UserIdAndNameIgnoreCase(userId, preferredName)
-                                                .orElse(existing);
-                                    }
-                                }
-                                return existing;
-                            })
-                            .orElseGet(() -> {
-                                Category c = new Category();
-                                c.setUser(user);
-                                c.setName(preferredName);
-                                c.setSystem(true);
-                                try {
-                                    return categoryRepo.save(c);
-                                } catch (DataIntegrityViolationException e) {
-                                    return categoryRepo.findByUser_UserIdAndNameIgnoreCase(userId, preferredName)
-                                            .orElseThrow(() -> new RuntimeException("System category creation failed"));
-                                }
-                            });
-                    return category;
-                });
+        // Older accounts carry the legacy name; rename it once instead of creating a duplicate
+        if (categoryDictionary.find(userId, preferredName).isEmpty()) {
+            categoryDictionary.find(userId, legacyName).ifPresent(legacy -> {
+                legacy.setName(preferredName);
+                categoryRepo.save(legacy);
+                categoryDictionary.invalidate(userId);
+            });
+        }
+        return categoryDictionary.getOrCreate(userId, preferredName);
     }
 
     private GoalResponse toResponse(Goal goal) {
@@ -253,6 +262,7 @@ public class GoalServiceImpl implements GoalService {
         } else {
             res.setProgress(0.0);
         }
+        GoalForecast.apply(goal, res, LocalDate.now());
         return res;
     }
 
@@ -302,7 +312,9 @@ public class GoalServiceImpl implements GoalService {
             goal.setDueDate(request.getDueDate());
         }
 
-        return toResponse(goalRepo.save(goal));
+        Goal saved = goalRepo.save(goal);
+        syncChangeLog.changed(userId, SyncEntityType.GOAL, goalId);
+        return toResponse(saved);
     }
 
     @Override
@@ -370,20 +382,19 @@ public class GoalServiceImpl implements GoalService {
 
             cashAccount.setBalance(cashAccount.getBalance().add(remain));
             accountRepo.save(cashAccount);
+            syncChangeLog.changed(userId, SyncEntityType.ACCOUNT, goalAccount.getAccountId(), cashAccount.getAccountId());
+            syncChangeLog.changed(userId, SyncEntityType.CASH_FLOW, out.getCashFlowId(), in.getCashFlowId());
 
             goal.setCurrentAmount(BigDecimal.ZERO);
         }
 
         goalRepo.delete(goal);
+        syncChangeLog.deleted(userId, SyncEntityType.GOAL, goalId);
     }
 
     @Override
     public List<CashFlow> getContributions(Long userId, Long goalId, LocalDate from, LocalDate to) {
-        Goal goal = goalRepo.findById(goalId)
-                .orElseThrow(() -> new IllegalArgumentException("Goal not found"));
-        if (!goal.getUser().getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Goal not owned by user");
-        }
+        Long categoryId = getContributionCategoryId(userId, goalId);
         LocalDateTime fromDate = (from != null)
                 ? from.atStartOfDay()
                 : LocalDate.of(1970, 1, 1).atStartOfDay();
@@ -393,10 +404,20 @@ public class GoalServiceImpl implements GoalService {
 
         return cashFlowRepo.findByUserCategoryPeriodAndOptionalType(
                 userId,
-                ensureGoalTransferCategory(goal.getUser()).getCategoryId(),
+                categoryId,
                 fromDate,
                 toDate,
                 null
         );
     }
+
+    @Override
+    public Long getContributionCategoryId(Long userId, Long goalId) {
+        Goal goal = goalRepo.findById(goalId)
+                .orElseThrow(() -> new IllegalArgumentException("Goal not found"));
+        if (!goal.getUser().getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Goal not owned by user");
+        }
+        return ensureGoalTransferCategory(goal.getUser()).getCategoryId();
+    }
 }
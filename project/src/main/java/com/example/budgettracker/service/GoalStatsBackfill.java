@@ -0,0 +1,69 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.GoalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds the running contribution statistics of goals created before they existed.
+ * Each page locks its goal rows, aggregates the inflows to the linked accounts in one grouped
+ * query and writes the result. Contributions lock the same row, so each one is either already
+ * in the aggregate or applied on top of the seeded counters, never both or neither.
+ */
+@Component
+@Slf4j
+public class GoalStatsBackfill {
+
+    private final GoalRepository goalRepository;
+    private final CashFlowRepository cashFlowRepository;
+    private final int pageSize;
+
+    public GoalStatsBackfill(GoalRepository goalRepository,
+                             CashFlowRepository cashFlowRepository,
+                             @Value("${app.goals.stats-backfill.page-size:500}") int pageSize) {
+        this.goalRepository = goalRepository;
+        this.cashFlowRepository = cashFlowRepository;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Backfill one page of goals
+     * @return goals seeded; 0 when nothing is left
+     */
+    @Transactional
+    public int backfillPage() {
+        List<Long> ids = goalRepository.findIdsMissingStats(PageRequest.of(0, pageSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        goalRepository.lockIds(ids);
+
+        Map<Long, Long> accountByGoal = goalRepository.findLinkedAccounts(ids).stream()
+                .collect(Collectors.toMap(GoalRepository.GoalAccount::getGoalId, GoalRepository.GoalAccount::getAccountId));
+        Map<Long, CashFlowRepository.AccountInflowStats> statsByAccount = accountByGoal.isEmpty()
+                ? Map.of()
+                : cashFlowRepository.inflowStatsForAccounts(List.copyOf(accountByGoal.values())).stream()
+                        .collect(Collectors.toMap(CashFlowRepository.AccountInflowStats::getAccountId, Function.identity()));
+
+        int seeded = 0;
+        for (Long goalId : ids) {
+            CashFlowRepository.AccountInflowStats stats = statsByAccount.get(accountByGoal.get(goalId));
+            seeded += stats == null
+                    ? goalRepository.initContributionStats(goalId, 0L, BigDecimal.ZERO, null, null)
+                    : goalRepository.initContributionStats(goalId, stats.getContributions(), stats.getTotal(),
+                            stats.getFirstAt(), stats.getLastAt());
+        }
+        log.debug("Seeded contribution statistics for {} goals", seeded);
+        return seeded;
+    }
+}
@@ -5,6 +5,8 @@ import com.example.budgettracker.dto.IncomeResponse;
 import com.example.budgettracker.model.Account;
 import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.model.enums.SyncEntityType;
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.repository.CategoryRepository;
 import com.example.budgettracker.repository.CashFlowRepository;
@@ -21,13 +23,19 @@ public class IncomeServiceImpl implements IncomeService {
     private final CashFlowRepository cashFlowRepository;
     private final AccountRepository accountRepository;
     private final CategoryRepository categoryRepository;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SyncChangeLog syncChangeLog;
 
     public IncomeServiceImpl(CashFlowRepository cashFlowRepository,
                              AccountRepository accountRepository,
-                             CategoryRepository categoryRepository) {
+                             CategoryRepository categoryRepository,
+                             DomainEventPublisher domainEventPublisher,
+                             SyncChangeLog syncChangeLog) {
         this.cashFlowRepository = cashFlowRepository;
         this.accountRepository = accountRepository;
         this.categoryRepository = categoryRepository;
+        this.domainEventPublisher = domainEventPublisher;
+        this.syncChangeLog = syncChangeLog;
     }
 
     /**
@@ -75,6 +83,15 @@ public class IncomeServiceImpl implements IncomeService {
 
         // Save transaction
         CashFlow saved = cashFlowRepository.save(cashFlow);
+        domainEventPublisher.publish(userId, DomainEventType.CASH_FLOW_RECORDED, DomainEventPublisher.payload(
+                "cashFlowId", saved.getCashFlowId(),
+                "type", CashFlowType.Income.name(),
+                "accountId", account.getAccountId(),
+                "categoryId", category != null ? category.getCategoryId() : null,
+                "amount", request.getAmount(),
+                "occurredAt", request.getOccurredAt()));
+        syncChangeLog.changed(userId, SyncEntityType.CASH_FLOW, saved.getCashFlowId());
+        syncChangeLog.changed(userId, SyncEntityType.ACCOUNT, account.getAccountId());
 
         // Return success response
         return IncomeResponse.builder()
@@ -0,0 +1,37 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.DomainEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ledger activity by event type (ledger.events), counted off the request path from the domain event log.
+ * Starts at the end of the log: counting history again after a deploy would only inflate the rate.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerActivityMetrics implements DomainEventConsumer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String name() {
+        return "ledger-activity-metrics";
+    }
+
+    @Override
+    public boolean fromBeginning() {
+        return false;
+    }
+
+    @Override
+    public void handle(Long userId, List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            Counter.builder("ledger.events").tag("type", event.getType().name()).register(meterRegistry).increment();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Category.CategoryRecordResponse;
+import com.example.budgettracker.dto.ExpenseResponse;
+import com.example.budgettracker.dto.IncomeResponse;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CashFlowRepository.LedgerRow;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * application/x-ndjson variants of the ledger list endpoints, one JSON object per line.
+ * Rows are read in keyset pages of PAGE_SIZE, each in its own short read-only transaction, and
+ * written between reads: a slow reader holds no connection or transaction while the response drains,
+ * and memory does not grow with the history. Pages are separate reads, so a row recorded while a
+ * stream is in progress may or may not appear in it.
+ * Ownership and parameters are checked before the response body starts; after that a failure can
+ * only cut the stream short.
+ */
+@Service
+public class LedgerStreamService {
+
+    static final int PAGE_SIZE = 500;
+    private static final Pageable PAGE = PageRequest.of(0, PAGE_SIZE);
+
+    private final CashFlowRepository cashFlowRepository;
+    private final CategoryRepository categoryRepository;
+    private final GoalService goalService;
+    private final ObjectWriter writer;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public LedgerStreamService(CashFlowRepository cashFlowRepository,
+                               CategoryRepository categoryRepository,
+                               GoalService goalService,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.cashFlowRepository = cashFlowRepository;
+        this.categoryRepository = categoryRepository;
+        this.goalService = goalService;
+        // Flushing is left to the generator's buffer; a flush per row would mean a network write per row
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Same rows and order as GET /api/expenses. */
+    public StreamingResponseBody expenses(Long userId) {
+        return ndjson(last -> cashFlowRepository.pageByUserAndTypeOrderByOccurredAtDesc(userId, CashFlowType.Expense,
+                        last == null ? null : last.getOccurredAt(), idOf(last), PAGE),
+                row -> ExpenseResponse.builder()
+                        .amount(row.getAmount())
+                        .occurredAt(row.getOccurredAt())
+                        .createdAt(row.getCreatedAt())
+                        .description(row.getDescription())
+                        .categoryName(row.getCategoryName() != null ? row.getCategoryName() : "Uncategorized")
+                        .updatedBalance(row.getAccountBalance())
+                        .build());
+    }
+
+    /** Same rows and order as GET /api/income. */
+    public StreamingResponseBody income(Long userId) {
+        return ndjson(last -> cashFlowRepository.pageByUserAndTypeOrderByCreatedAtDesc(userId, CashFlowType.Income,
+                        last == null ? null : last.getCreatedAt(), idOf(last), PAGE),
+                row -> IncomeResponse.builder()
+                        .amount(row.getAmount())
+                        .occurredAt(row.getOccurredAt())
+                        .createdAt(row.getCreatedAt())
+                        .description(row.getDescription())
+                        .categoryName(row.getCategoryName() != null ? row.getCategoryName() : "Income")
+                        .updatedBalance(row.getAccountBalance())
+                        .build());
+    }
+
+    /** Same rows and order as GET /api/categories/{id}/records. */
+    public StreamingResponseBody categoryRecords(Long userId, Long categoryId, String month, String type) {
+        if (!categoryRepository.existsByCategoryIdAndUser_UserId(categoryId, userId)) {
+            throw new IllegalArgumentException("Category not found for user");
+        }
+        YearMonth ym = (month == null || month.isBlank()) ? YearMonth.now() : YearMonth.parse(month);
+        LocalDateTime start = ym.atDay(1).atStartOfDay();
+        LocalDateTime end = ym.atEndOfMonth().atTime(LocalTime.MAX);
+        CashFlowType t = (type == null || type.isBlank()) ? null : CashFlowType.valueOf(type);
+
+        return ndjson(last -> cashFlowRepository.pageByUserCategoryPeriodAndOptionalType(userId, categoryId, start, end, t,
+                        last == null ? null : last.getOccurredAt(), idOf(last), PAGE),
+                LedgerStreamService::toRecord);
+    }
+
+    /**
+     * Rows of GET /api/goals/{id}/contributions, written in the flat record shape of the category
+     * records stream rather than as cash flow entities.
+     */
+    public StreamingResponseBody goalContributions(Long userId, Long goalId, LocalDate from, LocalDate to) {
+        Long categoryId = goalService.getContributionCategoryId(userId, goalId);
+        LocalDateTime start = (from != null) ? from.atStartOfDay() : LocalDate.of(1970, 1, 1).atStartOfDay();
+        LocalDateTime end = (to != null) ? to.atTime(LocalTime.MAX) : LocalDate.of(3000, 12, 31).atTime(LocalTime.MAX);
+
+        return ndjson(last -> cashFlowRepository.pageByUserCategoryPeriodAndOptionalType(userId, categoryId, start, end, null,
+                        last == null ? null : last.getOccurredAt(), idOf(last), PAGE),
+                LedgerStreamService::toRecord);
+    }
+
+    private static CategoryRecordResponse toRecord(LedgerRow row) {
+        return new CategoryRecordResponse(
+                row.getCashFlowId(),
+                row.getType().name(),
+                row.getAmount(),
+                row.getOccurredAt(),
+                row.getDescription(),
+                row.getAccountId(),
+                row.getCategoryId());
+    }
+
+    private static Long idOf(LedgerRow last) {
+        return last == null ? null : last.getCashFlowId();
+    }
+
+    /**
+     * @param nextPage the page after the given row, or the first page for null
+     */
+    private StreamingResponseBody ndjson(Function<LedgerRow, List<LedgerRow>> nextPage, Function<LedgerRow, ?> mapper) {
+        return out -> {
+            try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                boolean first = true;
+                LedgerRow last = null;
+                List<LedgerRow> page;
+                do {
+                    LedgerRow after = last;
+                    page = readOnlyTransaction.execute(status -> nextPage.apply(after));
+                    for (LedgerRow row : page) {
+                        writer.writeValue(generator, mapper.apply(row));
+                        generator.writeRaw('\n');
+                        if (first) {
+                            // Get the first line on the wire now; later rows go out whenever the buffer fills
+                            generator.flush();
+                            first = false;
+                        }
+                        last = row;
+                    }
+                } while (page.size() == PAGE_SIZE);
+            }
+        };
+    }
+}
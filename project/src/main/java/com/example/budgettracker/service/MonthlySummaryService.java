@@ -0,0 +1,27 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.MonthlySummary;
+import com.example.budgettracker.repository.UserRepository.NotificationRecipient;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface MonthlySummaryService {
+
+    /**
+     * Page through every opted-in user and queue their summary email for the given month.
+     * @param month Month being summarised (normally the previous one)
+     * @return number of emails queued
+     */
+    int sendMonthlySummaries(YearMonth month);
+
+    /**
+     * Build summaries for one page of users with a fixed number of set-based queries.
+     * @param recipients Page of users
+     * @param month Month being summarised
+     * @return one summary per recipient, in the same order
+     */
+    List<MonthlySummary> summarise(List<NotificationRecipient> recipients, YearMonth month);
+
+    String render(MonthlySummary summary);
+}
@@ -0,0 +1,246 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.config.JobContext;
+import com.example.budgettracker.dto.MonthlySummary;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CashFlowRepository.UserCategoryTotal;
+import com.example.budgettracker.repository.CashFlowRepository.UserTypeTotal;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryBudgetRepository.UserCategoryBudget;
+import com.example.budgettracker.repository.UserRepository;
+import com.example.budgettracker.repository.UserRepository.NotificationRecipient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class MonthlySummaryServiceImpl implements MonthlySummaryService {
+
+    static final int TOP_CATEGORIES = 3;
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    private final UserRepository userRepository;
+    private final CashFlowRepository cashFlowRepository;
+    private final CategoryBudgetRepository categoryBudgetRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final int concurrency;
+
+    public MonthlySummaryServiceImpl(UserRepository userRepository,
+                                     CashFlowRepository cashFlowRepository,
+                                     CategoryBudgetRepository categoryBudgetRepository,
+                                     EmailService emailService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.summary.page-size:1000}") int pageSize,
+                                     @Value("${app.summary.concurrency:4}") int concurrency) {
+        this.userRepository = userRepository;
+        this.cashFlowRepository = cashFlowRepository;
+        this.categoryBudgetRepository = categoryBudgetRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    @Override
+    public int sendMonthlySummaries(YearMonth month) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "monthly-summary-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        int queued = 0;
+        long afterId = 0L;
+        try {
+            while (!JobContext.isCancellationRequested()) {
+                List<NotificationRecipient> page =
+                        userRepository.findNotificationRecipientsAfter(afterId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getUserId();
+
+                // Only one page of summaries is ever held in memory: the next page is read after this one is queued
+                int[] result = dispatchPage(pool, summarise(page, month));
+                queued += result[0];
+                JobContext.recordProcessed(result[0]);
+                for (int i = 0; i < result[1]; i++) {
+                    JobContext.recordFailure();
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Queued {} monthly summaries for {}", queued, month);
+        return queued;
+    }
+
+    @Override
+    public List<MonthlySummary> summarise(List<NotificationRecipient> recipients, YearMonth month) {
+        if (recipients.isEmpty()) {
+            return List.of();
+        }
+        List<Long> userIds = recipients.stream().map(NotificationRecipient::getUserId).toList();
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        Map<Long, BigDecimal> income = new HashMap<>();
+        Map<Long, BigDecimal> expense = new HashMap<>();
+        for (UserTypeTotal row : cashFlowRepository.sumByUserAndTypeForUsers(userIds, start, end)) {
+            (row.getType() == CashFlowType.Income ? income : expense).put(row.getUserId(), row.getTotal());
+        }
+
+        Map<Long, Map<Long, UserCategoryTotal>> spendByUser = new HashMap<>();
+        for (UserCategoryTotal row : cashFlowRepository.sumExpenseByUserAndCategoryForUsers(userIds, start, end)) {
+            spendByUser.computeIfAbsent(row.getUserId(), k -> new HashMap<>()).put(row.getCategoryId(), row);
+        }
+
+        Map<Long, List<MonthlySummary.BudgetOverrun>> overruns = new HashMap<>();
+        for (UserCategoryBudget budget : categoryBudgetRepository.findBudgetsForUsers(userIds, month.toString())) {
+            UserCategoryTotal spent = spendByUser.getOrDefault(budget.getUserId(), Map.of()).get(budget.getCategoryId());
+            if (spent != null && spent.getTotal().compareTo(budget.getAmount()) > 0) {
+                overruns.computeIfAbsent(budget.getUserId(), k -> new ArrayList<>())
+                        .add(new MonthlySummary.BudgetOverrun(budget.getCategoryName(), budget.getAmount(), spent.getTotal()));
+            }
+        }
+
+        List<MonthlySummary> summaries = new ArrayList<>(recipients.size());
+        for (NotificationRecipient r : recipients) {
+            List<MonthlySummary.CategoryTotal> top = spendByUser.getOrDefault(r.getUserId(), Map.of()).values().stream()
+                    .sorted(Comparator.comparing(UserCategoryTotal::getTotal).reversed())
+                    .limit(TOP_CATEGORIES)
+                    .map(t -> new MonthlySummary.CategoryTotal(t.getCategoryName(), t.getTotal()))
+                    .toList();
+            summaries.add(MonthlySummary.builder()
+                    .userId(r.getUserId())
+                    .email(r.getEmail())
+                    .firstName(r.getFirstName())
+                    .month(month)
+                    .totalIncome(income.getOrDefault(r.getUserId(), BigDecimal.ZERO))
+                    .totalExpense(expense.getOrDefault(r.getUserId(), BigDecimal.ZERO))
+                    .topCategories(top)
+                    .overruns(overruns.getOrDefault(r.getUserId(), List.of()))
+                    .build());
+        }
+        return summaries;
+    }
+
+    /**
+     * Split the page into one slice per worker; each slice is rendered and queued in a single transaction.
+     * @return {queued, failed}
+     */
+    private int[] dispatchPage(ExecutorService pool, List<MonthlySummary> summaries) {
+        int sliceSize = Math.max(1, (summaries.size() + concurrency - 1) / concurrency);
+        List<Future<Integer>> futures = new ArrayList<>();
+        List<Integer> sliceSizes = new ArrayList<>();
+        for (int from = 0; from < summaries.size(); from += sliceSize) {
+            List<MonthlySummary> slice = summaries.subList(from, Math.min(from + sliceSize, summaries.size()));
+            sliceSizes.add(slice.size());
+            futures.add(pool.submit(() -> queueSlice(slice)));
+        }
+
+        int queued = 0;
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                int sliceQueued = futures.get(i).get();
+                queued += sliceQueued;
+                failed += sliceSizes.get(i) - sliceQueued;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Monthly summary run interrupted", e);
+            } catch (ExecutionException e) {
+                failed += sliceSizes.get(i);
+                log.warn("Monthly summary slice of {} users failed: {}", sliceSizes.get(i), e.getCause().getMessage());
+            }
+        }
+        return new int[]{queued, failed};
+    }
+
+    private int queueSlice(List<MonthlySummary> slice) {
+        List<MonthlySummary> rendered = new ArrayList<>(slice.size());
+        List<String> bodies = new ArrayList<>(slice.size());
+        for (MonthlySummary summary : slice) {
+            try {
+                bodies.add(render(summary));
+                rendered.add(summary);
+            } catch (Exception e) {
+                // One bad record must not stop the rest of the slice
+                log.warn("Could not render monthly summary for userId={}: {}", summary.getUserId(), e.getMessage());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rendered.size(); i++) {
+                MonthlySummary s = rendered.get(i);
+                emailService.sendMonthlySummaryEmail(s.getEmail(), s.getFirstName(), bodies.get(i));
+            }
+        });
+        return rendered.size();
+    }
+
+    @Override
+    public String render(MonthlySummary summary) {
+        StringBuilder categories = new StringBuilder();
+        for (MonthlySummary.CategoryTotal c : summary.getTopCategories()) {
+            categories.append("<tr><td style=\"padding:4px 0;\">%s</td><td style=\"text-align:right;\">%s</td></tr>"
+                    .formatted(HtmlUtils.htmlEscape(c.getName()), money(c.getAmount())));
+        }
+        if (categories.isEmpty()) {
+            categories.append("<tr><td colspan=\"2\" style=\"color:#777;\">No spending recorded.</td></tr>");
+        }
+
+        StringBuilder overruns = new StringBuilder();
+        for (MonthlySummary.BudgetOverrun o : summary.getOverruns()) {
+            overruns.append("<li><strong>%s</strong>: spent %s of %s (%s over)</li>"
+                    .formatted(HtmlUtils.htmlEscape(o.getName()), money(o.getSpent()), money(o.getBudget()), money(o.getOver())));
+        }
+        String overrunSection = overruns.isEmpty()
+                ? "<p style=\"color:#2b8a3e;\">✅ You stayed within every budget.</p>"
+                : "<p style=\"color:#c92a2a;\">⚠️ Over budget:</p><ul>" + overruns + "</ul>";
+
+        return """
+            <html>
+              <body style="font-family: Arial, sans-serif; padding:20px; color:#333; max-width:600px; margin:auto;">
+                <h2>Hi %s 👋</h2>
+                <p>Here’s your OVER-SAVE summary for <strong>%s</strong>.</p>
+                <table style="width:100%%; border-collapse:collapse; margin:15px 0;">
+                  <tr><td>Income</td><td style="text-align:right; color:#2b8a3e;">%s</td></tr>
+                  <tr><td>Expenses</td><td style="text-align:right; color:#c92a2a;">%s</td></tr>
+                  <tr><td><strong>Net</strong></td><td style="text-align:right;"><strong>%s</strong></td></tr>
+                </table>
+                <h3>Top categories</h3>
+                <table style="width:100%%; border-collapse:collapse;">%s</table>
+                %s
+                <hr><p style="font-size:12px;color:#777;">OVER-SAVE Budget Tracker</p>
+              </body>
+            </html>
+            """.formatted(HtmlUtils.htmlEscape(summary.getFirstName()), summary.getMonth().format(MONTH_LABEL),
+                money(summary.getTotalIncome()), money(summary.getTotalExpense()), money(summary.getNet()),
+                categories, overrunSection);
+    }
+
+    private static String money(BigDecimal amount) {
+        return String.format(Locale.ENGLISH, "$%,.2f", amount);
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Report.ReportJobResponse;
+import com.example.budgettracker.model.ReportArtifact;
+import com.example.budgettracker.model.ReportJob;
+import com.example.budgettracker.model.enums.ReportFormat;
+import com.example.budgettracker.model.enums.ReportJobStatus;
+import com.example.budgettracker.repository.ReportArtifactRepository;
+import com.example.budgettracker.repository.ReportJobRepository;
+import com.example.budgettracker.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background report jobs (POST /api/reports/jobs). Reports are computed a month at a time on a fixed
+ * pool of app.reports.concurrency workers behind a queue of app.reports.queue-capacity jobs; a full
+ * queue turns new submissions away instead of piling them up. The rendered artifact is stored in
+ * report_artifact, so any node can serve the download, and kept for app.reports.ttl-minutes after
+ * the job finishes.
+ * An identical request (same user, format and dates) gets the job that is already queued, running,
+ * or done and not yet expired. A job still queued or running after app.reports.stale-minutes was
+ * lost with its node (or hung) and is failed by the cluster-wide cleanup job.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    static final Set<ReportJobStatus> UNFINISHED = EnumSet.of(ReportJobStatus.PENDING, ReportJobStatus.RUNNING);
+    static final Set<ReportJobStatus> FINISHED = EnumSet.of(ReportJobStatus.DONE, ReportJobStatus.FAILED);
+
+    private final ReportJobRepository jobRepository;
+    private final ReportArtifactRepository artifactRepository;
+    private final UserRepository userRepository;
+    private final ReportService reportService;
+    private final ReportRenderer renderer;
+    private final SchedulerLockService lockService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration staleAfter;
+    private final ThreadPoolExecutor pool;
+
+    public ReportJobService(ReportJobRepository jobRepository,
+                            ReportArtifactRepository artifactRepository,
+                            UserRepository userRepository,
+                            ReportService reportService,
+                            ReportRenderer renderer,
+                            SchedulerLockService lockService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.reports.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${app.reports.stale-minutes:30}") long staleMinutes,
+                            @Value("${app.reports.concurrency:2}") int concurrency,
+                            @Value("${app.reports.queue-capacity:50}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.artifactRepository = artifactRepository;
+        this.userRepository = userRepository;
+        this.reportService = reportService;
+        this.renderer = renderer;
+        this.lockService = lockService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.staleAfter = Duration.ofMinutes(staleMinutes);
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, concurrency);
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "report-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Queue a report, or return the identical job that already exists
+     * @throws RejectedExecutionException when the queue is full
+     */
+    @Transactional
+    public ReportJobResponse submit(Long userId, ReportFormat format, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        // Serializes a user's submissions, so two identical requests cannot both miss the lookup below
+        userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+
+        String dedupKey = userId + ":" + format + ":" + startDate + ":" + endDate;
+        LocalDateTime now = LocalDateTime.now();
+        List<ReportJob> reusable = jobRepository.findReusable(dedupKey, now, now.minus(staleAfter));
+        if (!reusable.isEmpty()) {
+            return toResponse(reusable.get(0));
+        }
+        if (pool.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Report queue is full");
+        }
+
+        ReportJob job = jobRepository.save(ReportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .format(format)
+                .startDate(startDate)
+                .endDate(endDate)
+                .dedupKey(dedupKey)
+                .nodeId(lockService.getNodeId())
+                .createdAt(now)
+                .build());
+        enqueueAfterCommit(job.getId());
+        return toResponse(job);
+    }
+
+    /**
+     * @throws EntityNotFoundException if the job is unknown or belongs to another user
+     */
+    public ReportJobResponse get(Long userId, String jobId) {
+        return toResponse(find(userId, jobId));
+    }
+
+    /**
+     * The artifact of a finished job; empty while the job is still queued or running
+     * @throws EntityNotFoundException if the job is unknown, another user's, failed, expired, or its content is gone
+     */
+    public Optional<Artifact> artifact(Long userId, String jobId) {
+        ReportJob job = find(userId, jobId);
+        if (UNFINISHED.contains(job.getStatus())) {
+            return Optional.empty();
+        }
+        if (job.getStatus() != ReportJobStatus.DONE || job.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new EntityNotFoundException("Report is not available");
+        }
+        byte[] content = artifactRepository.findById(jobId)
+                .map(ReportArtifact::getContent)
+                .orElseThrow(() -> new EntityNotFoundException("Report is not available"));
+        String fileName = "report-" + job.getStartDate() + "-" + job.getEndDate() + "." + job.getFormat().extension();
+        return Optional.of(new Artifact(content, job.getFormat().contentType(), fileName));
+    }
+
+    /**
+     * Re-queue this node's jobs that a restart interrupted; they were queued in this node's memory
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        List<ReportJob> unfinished = jobRepository.findByNodeIdAndStatusIn(lockService.getNodeId(), UNFINISHED);
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished report jobs", unfinished.size());
+        }
+        for (ReportJob job : unfinished) {
+            if (job.getStatus() == ReportJobStatus.RUNNING) {
+                job.setStatus(ReportJobStatus.PENDING);
+                jobRepository.save(job);
+            }
+            enqueue(job.getId());
+        }
+    }
+
+    /**
+     * Delete expired jobs and their artifacts, whichever node rendered them
+     * @return number of jobs removed
+     */
+    public int purgeExpired() {
+        Integer removed = transactionTemplate.execute(status -> {
+            List<ReportJob> expired = jobRepository.findByStatusInAndExpiresAtBefore(FINISHED, LocalDateTime.now());
+            if (expired.isEmpty()) {
+                return 0;
+            }
+            artifactRepository.deleteByJobIds(expired.stream().map(ReportJob::getId).toList());
+            jobRepository.deleteAllInBatch(expired);
+            return expired.size();
+        });
+        return removed == null ? 0 : removed;
+    }
+
+    /**
+     * Fail jobs that have been queued or running for longer than app.reports.stale-minutes, whichever
+     * node took them: that node died, restarted under another node id, or the render hung
+     * @return number of jobs failed
+     */
+    public int failStale() {
+        Integer failed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            return jobRepository.failStale(now.minus(staleAfter), now, now.plus(ttl), "Report job was abandoned");
+        });
+        return failed == null ? 0 : failed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    void run(String jobId) {
+        Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(jobId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        ReportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        byte[] content;
+        try {
+            content = render(job);
+        } catch (Exception e) {
+            log.error("Report job {} failed", jobId, e);
+            finish(jobId, ReportJobStatus.FAILED, null, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            return;
+        }
+        finish(jobId, ReportJobStatus.DONE, content, null);
+        log.info("Report job {} done ({} bytes)", jobId, content.length);
+    }
+
+    byte[] render(ReportJob job) throws IOException {
+        LinkedHashMap<YearMonth, Map<String, Object>> months =
+                reportService.generateMonthlyReports(job.getUserId(), job.getStartDate(), job.getEndDate());
+        Map<String, Object> totals = ReportService.combine(months.values());
+        return switch (job.getFormat()) {
+            // Same body as GET /api/reports/data
+            case JSON -> objectMapper.writeValueAsBytes(Map.of(
+                    "userId", job.getUserId(),
+                    "startDate", job.getStartDate(),
+                    "endDate", job.getEndDate(),
+                    "totals", totals));
+            case PNG -> renderer.png(totals, job.getStartDate() + " to " + job.getEndDate());
+            case SUMMARY -> renderer.summary(totals, months, job.getStartDate(), job.getEndDate())
+                    .getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    private void enqueueAfterCommit(String jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(jobId);
+                }
+            });
+        } else {
+            enqueue(jobId);
+        }
+    }
+
+    private void enqueue(String jobId) {
+        try {
+            pool.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            // Lost the race for the last queue slot after the capacity check
+            log.warn("Report job {} rejected: queue is full", jobId);
+            finish(jobId, ReportJobStatus.FAILED, null, "Report queue is full");
+        }
+    }
+
+    // The artifact and the DONE status commit together, so a DONE job always has its content.
+    // A job failStale has already given up on keeps its FAILED status.
+    private void finish(String jobId, ReportJobStatus status, byte[] content, String errorMessage) {
+        transactionTemplate.executeWithoutResult(tx -> jobRepository.findById(jobId)
+                .filter(job -> UNFINISHED.contains(job.getStatus()))
+                .ifPresent(job -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    if (content != null) {
+                        artifactRepository.save(new ReportArtifact(jobId, content));
+                    }
+                    job.setStatus(status);
+                    job.setSizeBytes(content == null ? null : (long) content.length);
+                    job.setErrorMessage(errorMessage == null || errorMessage.length() <= 500 ? errorMessage : errorMessage.substring(0, 500));
+                    job.setFinishedAt(now);
+                    job.setExpiresAt(now.plus(ttl));
+                    jobRepository.save(job);
+                }));
+    }
+
+    // Another user's job is reported as missing rather than forbidden, so job ids can't be probed
+    private ReportJob find(Long userId, String jobId) {
+        return jobRepository.findById(jobId)
+                .filter(job -> job.getUserId().equals(userId))
+                .orElseThrow(() -> new EntityNotFoundException("Report job not found"));
+    }
+
+    private static ReportJobResponse toResponse(ReportJob job) {
+        return ReportJobResponse.builder()
+                .jobId(job.getId())
+                .format(job.getFormat().name())
+                .status(job.getStatus().name())
+                .startDate(job.getStartDate())
+                .endDate(job.getEndDate())
+                .sizeBytes(job.getSizeBytes())
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .expiresAt(job.getExpiresAt())
+                .downloadUrl(job.getStatus() == ReportJobStatus.DONE ? "/api/reports/jobs/" + job.getId() + "/artifact" : null)
+                .build();
+    }
+
+    public record Artifact(byte[] content, String contentType, String fileName) {
+    }
+}
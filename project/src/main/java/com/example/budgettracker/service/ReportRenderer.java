@@ -0,0 +1,154 @@
+package com.example.budgettracker.service;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PiePlot;
+import org.jfree.data.general.DefaultPieDataset;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns a ReportService report map into the downloadable formats, for GET /api/reports/chart and
+ * the background report jobs alike.
+ */
+@Component
+public class ReportRenderer {
+
+    static final char PAGE_BREAK = '\f';
+
+    @SuppressWarnings("unchecked")
+    public byte[] png(Map<String, Object> report, String period) throws IOException {
+        Map<String, BigDecimal> expenseByCategory = (Map<String, BigDecimal>) report.get("expenseByCategory");
+
+        BigDecimal totalIncome = (BigDecimal) report.get("totalIncome");
+        BigDecimal totalExpense = (BigDecimal) report.get("totalExpense");
+        BigDecimal balance = (BigDecimal) report.get("balance");
+
+
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        expenseByCategory.forEach((category, amount) -> {
+            if (amount != null && amount.compareTo(BigDecimal.ZERO) > 0) {
+                dataset.setValue(category, amount);
+            }
+        });
+
+
+        JFreeChart chart = ChartFactory.createPieChart(
+                "Expense Breakdown",
+                dataset,
+                false, false, false
+        );
+
+        PiePlot plot = (PiePlot) chart.getPlot();
+        plot.setLabelFont(new Font("SansSerif", Font.PLAIN, 12));
+        plot.setCircular(true);
+        plot.setLabelGap(0.02);
+        plot.setBackgroundPaint(Color.WHITE);
+        chart.setBackgroundPaint(Color.WHITE);
+
+
+        int width = 800;
+        int height = 500;
+        BufferedImage combinedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = combinedImage.createGraphics();
+
+
+        g2.setPaint(Color.WHITE);
+        g2.fillRect(0, 0, width, height);
+
+
+        g2.setPaint(Color.BLACK);
+        g2.setFont(new Font("SansSerif", Font.BOLD, 20));
+        g2.drawString("Budget Report", 20, 30);
+        g2.setFont(new Font("SansSerif", Font.PLAIN, 16));
+        g2.drawString("Period: " + period, 20, 55);
+
+
+        BufferedImage chartImage = chart.createBufferedImage(400, 400);
+        g2.drawImage(chartImage, 20, 80, null);
+
+
+        g2.setPaint(Color.BLACK);
+        g2.setFont(new Font("SansSerif", Font.BOLD, 16));
+        int x = 440;
+        int y = 100;
+        g2.drawString("Total Income: $" + totalIncome.setScale(2, RoundingMode.HALF_UP), x, y);
+        g2.drawString("Total Expense: $" + totalExpense.setScale(2, RoundingMode.HALF_UP), x, y + 30);
+        g2.drawString("Balance: $" + balance.setScale(2, RoundingMode.HALF_UP), x, y + 60);
+
+        g2.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        y += 100;
+        g2.drawString("Expense Details:", x, y);
+        for (Map.Entry<String, BigDecimal> entry : expenseByCategory.entrySet()) {
+            y += 25;
+            g2.drawString("- " + entry.getKey() + ": $" + entry.getValue().setScale(2, RoundingMode.HALF_UP), x, y);
+        }
+
+        g2.dispose();
+
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(combinedImage, "png", baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Multi-page text summary: an overview page for the whole period, then one page per month,
+     * pages separated by form feeds.
+     */
+    public String summary(Map<String, Object> overall, Map<YearMonth, Map<String, Object>> months,
+                          LocalDate startDate, LocalDate endDate) {
+        int pageCount = 1 + months.size();
+        List<String> pages = new ArrayList<>(pageCount);
+        pages.add(page("Budget Report Summary", "Period: " + startDate + " to " + endDate, 1, pageCount, overall));
+        int n = 2;
+        for (Map.Entry<YearMonth, Map<String, Object>> month : months.entrySet()) {
+            pages.add(page("Month " + month.getKey(), "Period: " + startDate + " to " + endDate, n++, pageCount, month.getValue()));
+        }
+        return String.join(String.valueOf(PAGE_BREAK), pages);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String page(String title, String subtitle, int number, int pageCount, Map<String, Object> report) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(title).append('\n')
+          .append(subtitle).append('\n')
+          .append("Page ").append(number).append(" of ").append(pageCount).append("\n\n");
+        line(sb, "Total Income", (BigDecimal) report.get("totalIncome"));
+        line(sb, "Total Expense", (BigDecimal) report.get("totalExpense"));
+        line(sb, "Balance", (BigDecimal) report.get("balance"));
+        line(sb, "Transfers", (BigDecimal) report.get("transfer"));
+
+        Map<String, BigDecimal> expenseByCategory = (Map<String, BigDecimal>) report.get("expenseByCategory");
+        sb.append("\nExpense Details:\n");
+        if (expenseByCategory.isEmpty()) {
+            sb.append("  (no expenses)\n");
+        }
+        BigDecimal totalExpense = (BigDecimal) report.get("totalExpense");
+        expenseByCategory.entrySet().stream()
+                .sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+                .forEach(e -> {
+                    String share = totalExpense.signum() == 0 ? "" : String.format(Locale.ROOT, "  %5.1f%%",
+                            e.getValue().multiply(BigDecimal.valueOf(100)).divide(totalExpense, 1, RoundingMode.HALF_UP));
+                    sb.append(String.format(Locale.ROOT, "  %-28s $%12s%s\n", e.getKey(), e.getValue().setScale(2, RoundingMode.HALF_UP), share));
+                });
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String label, BigDecimal amount) {
+        sb.append(String.format(Locale.ROOT, "%-16s $%12s\n", label + ":", amount.setScale(2, RoundingMode.HALF_UP)));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.budgettracker.service;
 
 
 
+import com.example.budgettracker.config.SingleFlight;
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.model.Transfer;
 import com.example.budgettracker.repository.CashFlowRepository;
@@ -11,7 +12,11 @@ import com.example.budgettracker.repository.TransferRepository;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -30,6 +35,7 @@ public class ReportService {
         this.transferRepository = transferRepository;
     }
 
+    @SingleFlight("report")
     public Map<String, Object> generateReport(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
         LocalDateTime startDateTime = startDate;
         LocalDateTime endDateTime = endDate;
@@ -93,16 +99,50 @@ public class ReportService {
         report.put("expenseByCategory", expenseByCategory);
         report.put("transfer", totalTransfer);
 
-        System.out.println("===== Financial Report =====");
-        System.out.println("Total Income: " + totalIncome);
-        System.out.println("Total Expense: " + totalExpense);
-        System.out.println("Balance: " + balance);
-        expenseByCategory.forEach((name, total) -> {
-            System.out.println("Category: " + name + " | Expense: " + total);
-        });
-        System.out.println("============================");
-
         return report;
     }
 
+    /**
+     * generateReport for each calendar month the range touches (the first and last clipped to the range), in order.
+     * One month is loaded at a time, so a report over years of history never holds more than a month of rows.
+     */
+    public LinkedHashMap<YearMonth, Map<String, Object>> generateMonthlyReports(Long userId, LocalDate startDate, LocalDate endDate) {
+        LinkedHashMap<YearMonth, Map<String, Object>> months = new LinkedHashMap<>();
+        LocalDateTime rangeEnd = endDate.atTime(LocalTime.MAX);
+        for (YearMonth ym = YearMonth.from(startDate); !ym.isAfter(YearMonth.from(endDate)); ym = ym.plusMonths(1)) {
+            LocalDateTime from = ym.equals(YearMonth.from(startDate)) ? startDate.atStartOfDay() : ym.atDay(1).atStartOfDay();
+            // BETWEEN is inclusive and timestamps are stored to the microsecond
+            LocalDateTime monthEnd = ym.plusMonths(1).atDay(1).atStartOfDay().minus(1, ChronoUnit.MICROS);
+            LocalDateTime to = monthEnd.isAfter(rangeEnd) ? rangeEnd : monthEnd;
+            months.put(ym, generateReport(userId, from, to));
+        }
+        return months;
+    }
+
+    /**
+     * Sum of reports over adjacent periods, in the shape generateReport returns
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> combine(Collection<Map<String, Object>> reports) {
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        BigDecimal totalTransfer = BigDecimal.ZERO;
+        Map<String, BigDecimal> expenseByCategory = new LinkedHashMap<>();
+        for (Map<String, Object> report : reports) {
+            totalIncome = totalIncome.add((BigDecimal) report.get("totalIncome"));
+            totalExpense = totalExpense.add((BigDecimal) report.get("totalExpense"));
+            totalTransfer = totalTransfer.add((BigDecimal) report.get("transfer"));
+            ((Map<String, BigDecimal>) report.get("expenseByCategory"))
+                    .forEach((name, total) -> expenseByCategory.merge(name, total, BigDecimal::add));
+        }
+
+        Map<String, Object> combined = new LinkedHashMap<>();
+        combined.put("totalIncome", totalIncome);
+        combined.put("totalExpense", totalExpense);
+        combined.put("balance", totalIncome.subtract(totalExpense));
+        combined.put("expenseByCategory", expenseByCategory);
+        combined.put("transfer", totalTransfer);
+        return combined;
+    }
+
 }
@@ -2,10 +2,10 @@ package com.example.budgettracker.service;
 
 import com.example.budgettracker.dto.Budgetcoin.RewardGrantRequest;
 import com.example.budgettracker.dto.Budgetcoin.RewardGrantResponse;
+import com.example.budgettracker.dto.Budgetcoin.RewardHistoryPage;
 import com.example.budgettracker.dto.Budgetcoin.RewardRedeemRequest;
 import com.example.budgettracker.dto.Budgetcoin.RewardRedeemResponse;
 import com.example.budgettracker.dto.Budgetcoin.RewardTransactionResponse;
-import com.example.budgettracker.model.Item;
 import com.example.budgettracker.model.RewardGrant;
 import com.example.budgettracker.model.RewardRedeem;
 import com.example.budgettracker.model.User;
@@ -18,20 +18,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class RewardService {
 
+    static final int MAX_HISTORY_PAGE = 100;
+
     private final UserRepository userRepository;
     private final RewardGrantRepository rewardGrantRepository;
     private final RewardRedeemRepository rewardRedeemRepository;
     private final ItemRepository itemRepository;
+    private final CoinLeaderboard coinLeaderboard;
 
     public BigDecimal getBalance(Long userId) {
         User user = userRepository.findById(userId)
@@ -39,11 +44,13 @@ public class RewardService {
         return user.getBudgetCoin() != null ? BigDecimal.valueOf(user.getBudgetCoin()) : BigDecimal.ZERO;
     }
 
+    /**
+     * Credit coins with an atomic increment rather than writing back a balance read through the
+     * User entity, which could undo a concurrent redemption.
+     */
     @Transactional
     public RewardGrantResponse grantBudgetCoin(RewardGrantRequest request) {
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+        Long userId = request.getUserId();
         if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Grant amount must be positive");
         }
@@ -58,23 +65,22 @@ public class RewardService {
             rewardEventId = UUID.randomUUID().toString();
         }
 
-        RewardGrant grant = RewardGrant.builder()
-                .user(user)
+        if (userRepository.creditBudgetCoin(userId, request.getAmount().longValue()) == 0) {
+            throw new RuntimeException("User not found");
+        }
+
+        RewardGrant saved = rewardGrantRepository.save(RewardGrant.builder()
+                .user(userRepository.getReferenceById(userId))
                 .amount(request.getAmount())
                 .sourceType(sourceType)
                 .rewardEventId(rewardEventId)
-                .build();
-
-        long currentBalance = user.getBudgetCoin() != null ? user.getBudgetCoin() : 0L;
-        long newBalance = currentBalance + request.getAmount().longValue();
-        user.setBudgetCoin(newBalance);
-        userRepository.save(user);
-
-        RewardGrant saved = rewardGrantRepository.save(grant);
+                .build());
+        long newBalance = userRepository.getBudgetCoin(userId);
+        coinLeaderboard.recordBalance(userId, newBalance);
 
         return new RewardGrantResponse(
                 saved.getGrantId(),
-                user.getUserId(),
+                userId,
                 saved.getAmount(),
                 saved.getSourceType(),
                 saved.getRewardEventId(),
@@ -83,47 +89,46 @@ public class RewardService {
         );
     }
 
+    /**
+     * Redeem an item without reading and writing back balances: coins and stock are each taken by a
+     * conditional UPDATE, so concurrent redeemers can neither oversell nor overdraw. The stock
+     * decrement runs last, so a popular item's row stays locked only until this transaction commits.
+     */
     @Transactional
     public RewardRedeemResponse redeemBudgetCoin(RewardRedeemRequest request) {
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Item item = itemRepository.findById(request.getItemId())
+        Long userId = request.getUserId();
+        ItemRepository.ItemPrice item = itemRepository.findPriceById(request.getItemId())
                 .orElseThrow(() -> new RuntimeException("Item not found"));
 
-        long currentBalance = user.getBudgetCoin() != null ? user.getBudgetCoin() : 0L;
-        if (currentBalance < item.getPrice()) {
+        if (userRepository.spendBudgetCoin(userId, item.getPrice()) == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
             throw new RuntimeException("Insufficient BudgetCoin balance");
         }
 
-        if (item.getStockQty() <= 0) {
-            throw new RuntimeException("Item out of stock");
-        }
-
-        long newBalance = currentBalance - item.getPrice();
-        user.setBudgetCoin(newBalance);
-        userRepository.save(user);
-
-        item.setStockQty(item.getStockQty() - 1);
-        itemRepository.save(item);
-
-        RewardRedeem redeem = RewardRedeem.builder()
-                .user(user)
-                .item(item)
+        RewardRedeem saved = rewardRedeemRepository.save(RewardRedeem.builder()
+                .user(userRepository.getReferenceById(userId))
+                .item(itemRepository.getReferenceById(item.getItemId()))
                 .amount(BigDecimal.valueOf(item.getPrice()))
                 .itemName(item.getItemName())
-                .build();
+                .build());
 
-        RewardRedeem saved = rewardRedeemRepository.save(redeem);
+        // Sold out: throwing rolls back the coins spent above
+        if (itemRepository.takeOneFromStock(item.getItemId()) == 0) {
+            throw new RuntimeException("Item out of stock");
+        }
 
+        Long balance = userRepository.getBudgetCoin(userId);
+        coinLeaderboard.recordBalance(userId, balance);
         return new RewardRedeemResponse(
                 saved.getOrderId(),
-                user.getUserId(),
+                userId,
                 item.getItemId(),
                 item.getItemName(),
                 saved.getAmount(),
                 saved.getRedeemedAt(),
-                newBalance
+                balance
         );
     }
 
@@ -132,7 +137,7 @@ public class RewardService {
                 .stream()
                 .map(g -> new RewardGrantResponse(
                         g.getGrantId(),
-                        g.getUser().getUserId(),
+                        userId,
                         g.getAmount(),
                         g.getSourceType(),
                         g.getRewardEventId(),
@@ -143,11 +148,12 @@ public class RewardService {
     }
 
     public List<RewardRedeemResponse> getRedeems(Long userId) {
+        // The item proxy answers its id without loading the item row
         return rewardRedeemRepository.findByUserUserId(userId)
                 .stream()
                 .map(r -> new RewardRedeemResponse(
                         r.getOrderId(),
-                        r.getUser().getUserId(),
+                        userId,
                         r.getItem().getItemId(),
                         r.getItemName(),
                         r.getAmount(),
@@ -157,29 +163,71 @@ public class RewardService {
                 .collect(Collectors.toList());
     }
 
-    public List<RewardTransactionResponse> getTransactionHistory(Long userId) {
-        List<RewardGrant> grants = rewardGrantRepository.findByUserUserId(userId);
-        List<RewardRedeem> redeems = rewardRedeemRepository.findByUserUserId(userId);
-
-        return Stream.concat(
-                        grants.stream()
-                                .map(g -> new RewardTransactionResponse(
-                                        "EARN",
-                                        g.getSourceType(),
-                                        g.getRewardEventId(),
-                                        g.getAmount(),
-                                        g.getCreatedAt()
-                                )),
-                        redeems.stream()
-                                .map(r -> new RewardTransactionResponse(
-                                        "SPEND",
-                                        r.getItemName(),
-                                        String.valueOf(r.getOrderId()),
-                                        r.getAmount(),
-                                        r.getRedeemedAt()
-                                ))
-                )
-                .sorted(Comparator.comparing(RewardTransactionResponse::getOccurredAt).reversed())
+    /**
+     * One page of grants and redeems, newest first, read with a single bounded query.
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit page size, clamped to 1..MAX_HISTORY_PAGE
+     */
+    public RewardHistoryPage getTransactionHistory(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE));
+        HistoryCursor after = cursor == null || cursor.isBlank() ? HistoryCursor.FIRST : HistoryCursor.decode(cursor);
+
+        // One extra row tells whether another page exists
+        List<RewardGrantRepository.CoinTransaction> rows = rewardGrantRepository.findHistoryPage(
+                userId, after.occurredAt(), after.grantTieBefore(), after.redeemTieBefore(), pageSize + 1);
+
+        List<RewardTransactionResponse> items = rows.stream()
+                .limit(pageSize)
+                .map(t -> new RewardTransactionResponse(
+                        t.getType(),
+                        t.getTitle(),
+                        t.getReference(),
+                        t.getAmount(),
+                        t.getOccurredAt()
+                ))
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            RewardGrantRepository.CoinTransaction last = rows.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.getOccurredAt(), last.getType(), last.getRowId()).encode();
+        }
+        return new RewardHistoryPage(items, nextCursor);
+    }
+
+    /**
+     * Position after the last row of a page. History is ordered by (occurredAt desc, type desc, rowId desc),
+     * so at equal timestamps every SPEND row comes before every EARN row.
+     */
+    record HistoryCursor(LocalDateTime occurredAt, String type, long rowId) {
+
+        static final HistoryCursor FIRST = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 0, 0), "SPEND", Long.MAX_VALUE);
+
+        long grantTieBefore() {
+            // After a SPEND row all grants at the same instant are still to come
+            return "EARN".equals(type) ? rowId : Long.MAX_VALUE;
+        }
+
+        long redeemTieBefore() {
+            // After an EARN row the redeems at the same instant were already returned
+            return "SPEND".equals(type) ? rowId : 0L;
+        }
+
+        String encode() {
+            String raw = occurredAt + "|" + type + "|" + rowId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                if (parts.length != 3 || !("EARN".equals(parts[1]) || "SPEND".equals(parts[1]))) {
+                    throw new IllegalArgumentException("Invalid history cursor");
+                }
+                return new HistoryCursor(LocalDateTime.parse(parts[0]), parts[1], Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
     }
 }
@@ -0,0 +1,69 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.SchedulerRunHistory;
+import com.example.budgettracker.model.enums.JobRunStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DB-backed lease so that each scheduled job run executes on exactly one node.
+ * Lease times are taken from the database clock, so clock skew between nodes cannot hand out a lease
+ * early or keep one beyond its time.
+ */
+public interface SchedulerLockService {
+
+    /**
+     * Identifier of this node as written to scheduler_lock.locked_by and the run history
+     */
+    String getNodeId();
+
+    /**
+     * Try to take the lease for a job
+     * @param lockName job/lock name
+     * @param leaseFor how long the lease is valid without a heartbeat
+     * @return true if this node now owns the lease
+     */
+    boolean tryAcquire(String lockName, Duration leaseFor);
+
+    /**
+     * Heartbeat an owned lease
+     * @return false if the lease was lost (expired and taken over by another node)
+     */
+    boolean extend(String lockName, Duration leaseFor);
+
+    /**
+     * Release an owned lease, keeping it held until lockAtLeastFor after it was acquired so that
+     * nodes whose cron fires slightly later (clock skew) do not run the same job again
+     */
+    void release(String lockName, Duration lockAtLeastFor);
+
+    /**
+     * Release an owned lease by deleting its row, for one-off locks that will never be taken again
+     */
+    void remove(String lockName);
+
+    /**
+     * Append a row to scheduler_run_history for a completed run on this node
+     */
+    void recordRun(String jobName, LocalDateTime startedAt, LocalDateTime finishedAt,
+                   JobRunStatus status, String errorMessage);
+
+    /**
+     * Append a run including the item/failure counters reported by the job
+     */
+    void recordRun(String jobName, LocalDateTime startedAt, LocalDateTime finishedAt,
+                   JobRunStatus status, long itemsProcessed, long failures, String errorMessage);
+
+    /**
+     * Most recent runs of a job across all nodes, newest first
+     */
+    List<SchedulerRunHistory> recentRuns(String jobName);
+
+    /**
+     * Delete run history started before the cutoff, across all jobs and nodes
+     * @return number of rows removed
+     */
+    int purgeRunHistory(LocalDateTime before);
+}
@@ -0,0 +1,184 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.SchedulerLock;
+import com.example.budgettracker.model.SchedulerRunHistory;
+import com.example.budgettracker.model.enums.JobRunStatus;
+import com.example.budgettracker.repository.SchedulerLockRepository;
+import com.example.budgettracker.repository.SchedulerRunHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class SchedulerLockServiceImpl implements SchedulerLockService {
+
+    private static final LocalDateTime NEVER_LOCKED = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final SchedulerLockRepository lockRepository;
+    private final SchedulerRunHistoryRepository historyRepository;
+    private final TransactionTemplate requiresNew;
+    private final String nodeId;
+
+    public SchedulerLockServiceImpl(SchedulerLockRepository lockRepository,
+                                    SchedulerRunHistoryRepository historyRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.scheduler.node-id:}") String configuredNodeId) {
+        this.lockRepository = lockRepository;
+        this.historyRepository = historyRepository;
+        // Lease operations must commit on their own, independent of any caller transaction
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                ? defaultNodeId()
+                : configuredNodeId;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean tryAcquire(String lockName, Duration leaseFor) {
+        ensureLockRow(lockName);
+        Integer updated = requiresNew.execute(status -> {
+            LocalDateTime now = lockRepository.findDatabaseTime();
+            return lockRepository.tryAcquire(lockName, nodeId, now, now.plus(leaseFor));
+        });
+        boolean acquired = updated != null && updated > 0;
+        if (acquired) {
+            log.debug("Acquired scheduler lease {} on node {}", lockName, nodeId);
+        } else {
+            log.debug("Scheduler lease {} is held by another node, skipping run", lockName);
+        }
+        return acquired;
+    }
+
+    @Override
+    public boolean extend(String lockName, Duration leaseFor) {
+        Integer updated = requiresNew.execute(status -> {
+            LocalDateTime now = lockRepository.findDatabaseTime();
+            return lockRepository.extend(lockName, nodeId, now, now.plus(leaseFor));
+        });
+        boolean extended = updated != null && updated > 0;
+        if (!extended) {
+            log.warn("Scheduler lease {} was lost by node {}", lockName, nodeId);
+        }
+        return extended;
+    }
+
+    @Override
+    public void release(String lockName, Duration lockAtLeastFor) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                LocalDateTime now = lockRepository.findDatabaseTime();
+                // lockedAt was set from the database clock when this node acquired the lease
+                lockRepository.findById(lockName)
+                        .filter(lock -> nodeId.equals(lock.getLockedBy()))
+                        .ifPresent(lock -> {
+                            LocalDateTime holdUntil = lock.getLockedAt().plus(lockAtLeastFor);
+                            lockRepository.release(lockName, nodeId, holdUntil.isAfter(now) ? holdUntil : now);
+                        });
+            });
+        } catch (Exception e) {
+            // The lease simply expires on its own if release fails
+            log.warn("Failed to release scheduler lease {}: {}", lockName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void remove(String lockName) {
+        try {
+            requiresNew.executeWithoutResult(status -> lockRepository.deleteOwned(lockName, nodeId));
+        } catch (Exception e) {
+            // Left behind, the row is harmless: its lease has run out or soon will
+            log.warn("Failed to remove scheduler lease {}: {}", lockName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordRun(String jobName, LocalDateTime startedAt, LocalDateTime finishedAt,
+                          JobRunStatus status, String errorMessage) {
+        recordRun(jobName, startedAt, finishedAt, status, 0, 0, errorMessage);
+    }
+
+    @Override
+    public void recordRun(String jobName, LocalDateTime startedAt, LocalDateTime finishedAt,
+                          JobRunStatus status, long itemsProcessed, long failures, String errorMessage) {
+        SchedulerRunHistory run = SchedulerRunHistory.builder()
+                .jobName(jobName)
+                .nodeId(nodeId)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .durationMs(Duration.between(startedAt, finishedAt).toMillis())
+                .status(status)
+                .itemsProcessed(itemsProcessed)
+                .failures(failures)
+                .errorMessage(truncate(errorMessage))
+                .build();
+        try {
+            requiresNew.executeWithoutResult(tx -> historyRepository.save(run));
+        } catch (Exception e) {
+            log.warn("Failed to record run history for job {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<SchedulerRunHistory> recentRuns(String jobName) {
+        return historyRepository.findTop20ByJobNameOrderByStartedAtDesc(jobName);
+    }
+
+    @Override
+    public int purgeRunHistory(LocalDateTime before) {
+        Integer deleted = requiresNew.execute(status -> historyRepository.purgeStartedBefore(before));
+        return deleted == null ? 0 : deleted;
+    }
+
+    /**
+     * Create the lock row the first time a job is seen. Concurrent inserts from other nodes
+     * are harmless: the loser hits the primary key and the row exists either way.
+     */
+    private void ensureLockRow(String lockName) {
+        if (lockRepository.existsById(lockName)) {
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> lockRepository.saveAndFlush(SchedulerLock.builder()
+                    .lockName(lockName)
+                    .lockedBy(nodeId)
+                    .lockedAt(NEVER_LOCKED)
+                    .lockUntil(NEVER_LOCKED)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Scheduler lock row {} was created by another node", lockName);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
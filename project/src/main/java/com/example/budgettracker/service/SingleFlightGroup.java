@@ -0,0 +1,115 @@
+package com.example.budgettracker.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent identical per-user reads into one computation: the first caller for a key
+ * runs it, callers arriving while it runs wait for and share its result (or its exception).
+ * Nothing is kept once the computation finishes, so this is not a cache; a caller never gets a
+ * result that was computed before it arrived, only one that was still being computed.
+ * Every write recorded in {@link SyncChangeLog} calls {@link #forget(Long)} on commit, so a read
+ * that starts after a user's write does not join a computation that started before it.
+ * Publishes singleflight.calls{operation, role=leader|joined} and singleflight.collapse.ratio{operation},
+ * the share of calls that joined another call.
+ */
+@Component
+public class SingleFlightGroup {
+
+    /**
+     * An in-flight computation key; args[0] is the user id by convention
+     */
+    public record Key(String operation, List<Object> args) {
+    }
+
+    @FunctionalInterface
+    public interface Computation<T> {
+        T run() throws Throwable;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public SingleFlightGroup(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Key key, Computation<T> computation) throws Throwable {
+        Stats s = stats(key.operation());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            s.joined.increment();
+            return (T) await(running);
+        }
+
+        s.leader.increment();
+        try {
+            T result = computation.run();
+            // Leave the map first, so callers arriving from now on start a fresh computation
+            inFlight.remove(key, mine);
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * Stop handing out the user's in-flight computations to new callers; running ones still finish
+     * for the callers already waiting on them
+     */
+    public void forget(Long userId) {
+        inFlight.keySet().removeIf(key -> !key.args().isEmpty() && userId.equals(key.args().get(0)));
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws Throwable {
+        try {
+            return running.get();
+        } catch (ExecutionException | CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Stats stats(String operation) {
+        return stats.computeIfAbsent(operation, op -> {
+            Stats s = new Stats();
+            FunctionCounter.builder("singleflight.calls", s.leader, LongAdder::doubleValue)
+                    .tag("operation", op).tag("role", "leader").register(meterRegistry);
+            FunctionCounter.builder("singleflight.calls", s.joined, LongAdder::doubleValue)
+                    .tag("operation", op).tag("role", "joined").register(meterRegistry);
+            Gauge.builder("singleflight.collapse.ratio", s, Stats::collapseRatio)
+                    .tag("operation", op).register(meterRegistry);
+            return s;
+        });
+    }
+
+    private static final class Stats {
+        final LongAdder leader = new LongAdder();
+        final LongAdder joined = new LongAdder();
+
+        double collapseRatio() {
+            long l = leader.sum();
+            long j = joined.sum();
+            return l + j == 0 ? 0.0 : (double) j / (l + j);
+        }
+    }
+}
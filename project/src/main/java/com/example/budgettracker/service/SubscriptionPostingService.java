@@ -0,0 +1,41 @@
+package com.example.budgettracker.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Posts due recurring subscriptions (expenses) and recurring income as CashFlows.
+ */
+public interface SubscriptionPostingService {
+
+    /**
+     * Subscriptions are scheduled in Sydney local time
+     */
+    ZoneId ZONE = ZoneId.of("Australia/Sydney");
+
+    /**
+     * Post every occurrence of one subscription that is due at or before now (catching up if
+     * the app was down) and advance nextPostAt to the first future date.
+     * Safe to call concurrently from several threads or nodes: the subscription row is locked
+     * and re-checked, so each due date is posted exactly once.
+     * @param subscriptionId subscription to post
+     * @param now current Sydney local time
+     * @return the subscription's next due instant, or null if it no longer needs scheduling
+     */
+    LocalDateTime postDue(Long subscriptionId, LocalDateTime now);
+
+    /**
+     * Advance a date by one period of the given frequency
+     */
+    static LocalDateTime increment(LocalDateTime date, String freqRaw) {
+        String f = (freqRaw == null ? "" : freqRaw.trim().toUpperCase());
+        return switch (f) {
+            case "WEEKLY" -> date.plusWeeks(1);
+            case "FORTNIGHTLY" -> date.plusWeeks(2);
+            case "QUARTERLY" -> date.plusMonths(3);
+            case "YEARLY", "ANNUAL", "ANNUALLY" -> date.plusYears(1);
+            case "MONTHLY" -> date.plusMonths(1);
+            default -> date.plusMonths(1); // safe fallback
+        };
+    }
+}
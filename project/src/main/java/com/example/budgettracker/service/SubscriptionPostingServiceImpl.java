@@ -0,0 +1,103 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.config.JobContext;
+import com.example.budgettracker.model.Account;
+import com.example.budgettracker.model.CashFlow;
+import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.Subscription;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.AccountType;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.SubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionPostingServiceImpl implements SubscriptionPostingService {
+
+    private static final String EXPENSE_CATEGORY = "Subscriptions";
+    private static final String INCOME_CATEGORY = "Income";
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final CashFlowRepository cashFlowRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final AccountRepository accountRepository;
+    private final DomainEventPublisher domainEventPublisher;
+    private final SyncChangeLog syncChangeLog;
+
+    @Override
+    @Transactional
+    public LocalDateTime postDue(Long subscriptionId, LocalDateTime now) {
+        Subscription s = subscriptionRepository.findByIdForUpdate(subscriptionId).orElse(null);
+        if (s == null || !Boolean.TRUE.equals(s.getIsActive()) || s.getNextPostAt() == null) {
+            return null;
+        }
+        if (s.getNextPostAt().isAfter(now)) {
+            // Already posted by someone else, or rescheduled; just report the new due date
+            return s.getNextPostAt();
+        }
+
+        User user = s.getUser();
+        CashFlowType type = s.getType() != null ? s.getType() : CashFlowType.Expense;
+        Category category = resolveCategory(user, type);
+
+        // Resolve default CASH account (required by your domain)
+        Account cashAccount = accountRepository
+                .findFirstByUser_UserIdAndAccountType(user.getUserId(), AccountType.CASH)
+                .orElseThrow(() ->
+                        new IllegalStateException("No CASH account found for userId=" + user.getUserId()));
+
+        // Post one or more times if nextPostAt lags behind now
+        LocalDateTime postDate = s.getNextPostAt();
+        List<Long> postedIds = new ArrayList<>();
+        while (!postDate.isAfter(now)) {
+            CashFlow cf = new CashFlow();
+            cf.setType(type);
+            cf.setAmount(s.getAmount() != null ? s.getAmount() : BigDecimal.ZERO);
+            cf.setOccurredAt(postDate);
+            cf.setDescription((type == CashFlowType.Income ? "Recurring income: " : "Subscription: ") + s.getMerchant());
+            cf.setAccount(cashAccount);
+            cf.setCategory(category);
+            cf.setSubscription(s);
+            cashFlowRepository.save(cf);
+            domainEventPublisher.publish(user.getUserId(), DomainEventType.SUBSCRIPTION_POSTED, DomainEventPublisher.payload(
+                    "subscriptionId", s.getSubscriptionId(),
+                    "cashFlowId", cf.getCashFlowId(),
+                    "type", type.name(),
+                    "accountId", cashAccount.getAccountId(),
+                    "categoryId", category != null ? category.getCategoryId() : null,
+                    "amount", cf.getAmount(),
+                    "occurredAt", postDate));
+
+            postDate = SubscriptionPostingService.increment(postDate, s.getFrequency());
+            postedIds.add(cf.getCashFlowId());
+        }
+
+        s.setNextPostAt(postDate); // push to first future date
+        syncChangeLog.changed(user.getUserId(), SyncEntityType.CASH_FLOW, postedIds);
+        syncChangeLog.changed(user.getUserId(), SyncEntityType.SUBSCRIPTION, s.getSubscriptionId());
+        int posted = postedIds.size();
+        JobContext.recordProcessed(posted);
+        log.info("Posted {} time(s) for subId={} (merchant={}, type={}), nextPostAt -> {}",
+                posted, s.getSubscriptionId(), s.getMerchant(), type, postDate);
+        return postDate;
+    }
+
+    private Category resolveCategory(User user, CashFlowType type) {
+        String name = type == CashFlowType.Income ? INCOME_CATEGORY : EXPENSE_CATEGORY;
+        return categoryDictionary.getOrCreate(user.getUserId(), name);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.Subscription;
+import com.example.budgettracker.repository.SubscriptionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory recurrence index for subscriptions and recurring income.
+ * A min-heap keyed by nextPostAt is seeded from the database at startup and kept in sync by
+ * SubscriptionServiceImpl; a single thread sleeps until the earliest due instant and posts just
+ * those subscriptions, so postings land when due instead of in one daily batch.
+ * The daily SubscriptionPostingScheduler sweep remains as a safety net.
+ */
+@Component
+@Slf4j
+public class SubscriptionRecurrenceEngine {
+
+    // Re-check the clock at least this often (DST changes, system clock adjustments)
+    private static final Duration MAX_SLEEP = Duration.ofMinutes(10);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(15);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionPostingService postingService;
+    private final boolean enabled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>();
+    // Current due instant per subscription; heap entries that disagree are stale and skipped
+    private final Map<Long, LocalDateTime> dueById = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public SubscriptionRecurrenceEngine(SubscriptionRepository subscriptionRepository,
+                                        SubscriptionPostingService postingService,
+                                        @Value("${app.subscriptions.recurrence.enabled:true}") boolean enabled) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.postingService = postingService;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Subscription recurrence engine disabled; relying on the daily sweep");
+            return;
+        }
+        List<SubscriptionRepository.ScheduleEntry> active = subscriptionRepository.findActiveSchedule();
+        active.forEach(e -> put(e.getSubscriptionId(), e.getNextPostAt()));
+        log.info("Subscription recurrence engine loaded {} active subscriptions", active.size());
+
+        running = true;
+        worker = new Thread(this::loop, "subscription-recurrence");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Track a subscription's current state. Applied after the surrounding transaction commits,
+     * so the worker never sees uncommitted data.
+     */
+    public void schedule(Subscription s) {
+        if (Boolean.TRUE.equals(s.getIsActive()) && s.getNextPostAt() != null) {
+            afterCommit(() -> put(s.getSubscriptionId(), s.getNextPostAt()));
+        } else {
+            unschedule(s.getSubscriptionId());
+        }
+    }
+
+    public void unschedule(Long subscriptionId) {
+        afterCommit(() -> remove(subscriptionId));
+    }
+
+    /**
+     * Earliest due instant currently indexed, or null if nothing is scheduled
+     */
+    public LocalDateTime nextDueAt() {
+        lock.lock();
+        try {
+            Entry head = peekValid();
+            return head == null ? null : head.dueAt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return dueById.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Post every subscription due at or before now and reschedule it
+     * @return number of subscriptions processed
+     */
+    int runDue(LocalDateTime now) {
+        List<Long> due = new ArrayList<>();
+        lock.lock();
+        try {
+            Entry head;
+            while ((head = peekValid()) != null && !head.dueAt().isAfter(now)) {
+                heap.poll();
+                dueById.remove(head.subscriptionId());
+                due.add(head.subscriptionId());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Long id : due) {
+            try {
+                LocalDateTime next = postingService.postDue(id, now);
+                if (next != null) {
+                    put(id, next);
+                }
+            } catch (Exception e) {
+                log.error("Failed to post subscription {}; retrying in {}", id, RETRY_DELAY, e);
+                put(id, now.plus(RETRY_DELAY));
+            }
+        }
+        return due.size();
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                awaitNextDue();
+                if (running) {
+                    runDue(LocalDateTime.now(SubscriptionPostingService.ZONE));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Subscription recurrence loop error", e);
+            }
+        }
+    }
+
+    private void awaitNextDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                Entry head = peekValid();
+                long waitNanos = head == null
+                        ? MAX_SLEEP.toNanos()
+                        : Math.min(MAX_SLEEP.toNanos(), Duration.between(
+                                LocalDateTime.now(SubscriptionPostingService.ZONE), head.dueAt()).toNanos());
+                if (head != null && waitNanos <= 0) {
+                    return;
+                }
+                changed.awaitNanos(waitNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Long id, LocalDateTime dueAt) {
+        lock.lock();
+        try {
+            dueById.put(id, dueAt);
+            heap.add(new Entry(id, dueAt));
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.lock();
+        try {
+            // Lazy deletion: the heap entry is dropped when it reaches the top
+            dueById.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry peekValid() {
+        Entry head;
+        while ((head = heap.peek()) != null && !head.dueAt().equals(dueById.get(head.subscriptionId()))) {
+            heap.poll();
+        }
+        return head;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(Long subscriptionId, LocalDateTime dueAt) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byDue = dueAt.compareTo(other.dueAt);
+            return byDue != 0 ? byDue : subscriptionId.compareTo(other.subscriptionId);
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.example.budgettracker.dto.SubscriptionRequest;
 import com.example.budgettracker.dto.SubscriptionResponse;
 import com.example.budgettracker.model.Subscription;
 import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.SubscriptionRepository;
 import com.example.budgettracker.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -21,10 +24,20 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
-
-    public SubscriptionServiceImpl(SubscriptionRepository subscriptionRepository, UserRepository userRepository) {
+    private final SubscriptionRecurrenceEngine recurrenceEngine;
+    private final SyncChangeLog syncChangeLog;
+    private final CashFlowRepository cashFlowRepository;
+
+    public SubscriptionServiceImpl(SubscriptionRepository subscriptionRepository,
+                                   UserRepository userRepository,
+                                   SubscriptionRecurrenceEngine recurrenceEngine,
+                                   SyncChangeLog syncChangeLog,
+                                   CashFlowRepository cashFlowRepository) {
         this.subscriptionRepository = subscriptionRepository;
         this.userRepository = userRepository;
+        this.recurrenceEngine = recurrenceEngine;
+        this.syncChangeLog = syncChangeLog;
+        this.cashFlowRepository = cashFlowRepository;
     }
 
     @Override
@@ -42,10 +55,13 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 .startDate(req.getStartDate())
                 .isActive(req.getIsActive() == null ? Boolean.TRUE : req.getIsActive())
                 .nextPostAt(firstPost)
+                .type(req.getType() != null ? req.getType() : CashFlowType.Expense)
                 .user(user)
                 .build();
 
         s = subscriptionRepository.save(s);
+        syncChangeLog.changed(userId, SyncEntityType.SUBSCRIPTION, s.getSubscriptionId());
+        recurrenceEngine.schedule(s);
         return toResponse(s);
     }
 
@@ -73,6 +89,11 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         if (req.getIsActive() != null)
             s.setIsActive(req.getIsActive());
 
+        if (req.getType() != null)
+            s.setType(req.getType());
+
+        syncChangeLog.changed(userId, SyncEntityType.SUBSCRIPTION, id);
+        recurrenceEngine.schedule(s);
         return toResponse(s);
     }
 
@@ -80,6 +101,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     public void pause(Long userId, Long id) {
         Subscription s = getOwned(userId, id);
         s.setIsActive(false);
+        syncChangeLog.changed(userId, SyncEntityType.SUBSCRIPTION, id);
+        recurrenceEngine.unschedule(s.getSubscriptionId());
     }
 
     @Override
@@ -90,12 +113,19 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         // If somehow nextPostAt was null, set it to now
         if (s.getNextPostAt() == null)
             s.setNextPostAt(LocalDateTime.now());
+
+        syncChangeLog.changed(userId, SyncEntityType.SUBSCRIPTION, id);
+        recurrenceEngine.schedule(s);
     }
 
     @Override
     public void delete(Long userId, Long id) {
         Subscription s = getOwned(userId, id);
+        // Cash flows it already posted reference it (fk_cashflow_subscription)
+        cashFlowRepository.detachFromSubscription(id);
         subscriptionRepository.delete(s);
+        syncChangeLog.deleted(userId, SyncEntityType.SUBSCRIPTION, id);
+        recurrenceEngine.unschedule(id);
     }
 
     private Subscription getOwned(Long userId, Long id) {
@@ -116,7 +146,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 s.getStartDate(),
                 s.getIsActive(),
                 s.getNextPostAt(),
-                monthlyEquivalent(s.getAmount(), s.getFrequency())
+                monthlyEquivalent(s.getAmount(), s.getFrequency()),
+                s.getType() != null ? s.getType() : CashFlowType.Expense
         );
     }
 
@@ -0,0 +1,107 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.SyncChange;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.SyncChangeRepository;
+import com.example.budgettracker.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user change log behind /api/sync, maintained by the write paths in the caller's transaction.
+ * Versions are taken under the user's row lock, so a user's changes commit in version order and a
+ * client that has seen version v never misses a change numbered at or below v.
+ * Since every write path records here, this is also where the user's in-flight single-flight reads
+ * are forgotten once the write commits (see {@link SingleFlightGroup}).
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncChangeLog {
+
+    private final SyncChangeRepository syncChangeRepository;
+    private final UserRepository userRepository;
+    private final SingleFlightGroup singleFlightGroup;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Long userId, SyncEntityType type, Long... entityIds) {
+        record(userId, type, Arrays.asList(entityIds), false);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Long userId, SyncEntityType type, Collection<Long> entityIds) {
+        record(userId, type, entityIds, false);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long userId, SyncEntityType type, Long... entityIds) {
+        record(userId, type, Arrays.asList(entityIds), true);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long userId, SyncEntityType type, Collection<Long> entityIds) {
+        record(userId, type, entityIds, true);
+    }
+
+    public long currentVersion(Long userId) {
+        return Optional.ofNullable(syncChangeRepository.findMaxVersion(userId)).orElse(0L);
+    }
+
+    private void record(Long userId, SyncEntityType type, Collection<Long> entityIds, boolean deleted) {
+        List<Long> ids = entityIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        // Flush first so this transaction's other row locks are taken before the user's: the user row
+        // is then always the last lock acquired and writers cannot deadlock on it
+        syncChangeRepository.flush();
+        userRepository.findByIdForUpdate(userId);
+
+        long version = currentVersion(userId);
+        Map<Long, SyncChange> existing = syncChangeRepository.findEntries(userId, type, ids).stream()
+                .collect(Collectors.toMap(SyncChange::getEntityId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<SyncChange> entries = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            SyncChange entry = existing.getOrDefault(id, SyncChange.builder()
+                    .userId(userId)
+                    .entityType(type)
+                    .entityId(id)
+                    .build());
+            entry.setVersion(++version);
+            entry.setDeleted(deleted);
+            entry.setChangedAt(now);
+            entries.add(entry);
+        }
+        syncChangeRepository.saveAll(entries);
+        forgetInFlightReadsAfterCommit(userId);
+    }
+
+    // Reads that start after this commit must not join dashboard/report computations that started before it
+    private void forgetInFlightReadsAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    singleFlightGroup.forget(userId);
+                }
+            });
+        } else {
+            singleFlightGroup.forget(userId);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Sync.SyncChangeResponse;
+import com.example.budgettracker.dto.Sync.SyncResponse;
+import com.example.budgettracker.model.SyncChange;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.repository.GoalRepository;
+import com.example.budgettracker.repository.SubscriptionRepository;
+import com.example.budgettracker.repository.SyncChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync: a user's changes after a cursor from the change log kept by {@link SyncChangeLog},
+ * with the current state of every changed entity loaded in one query per entity type.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    static final int MAX_PAGE = 1000;
+
+    private final SyncChangeRepository syncChangeRepository;
+    private final SyncChangeLog syncChangeLog;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final GoalRepository goalRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final CashFlowRepository cashFlowRepository;
+    private final CategoryBudgetRepository categoryBudgetRepository;
+
+    /**
+     * @param cursor the cursor of the previous response; null on first use, which asks the client
+     *               to load the full lists once (data from before the change log has no entries)
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse changesSince(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE));
+        // Read before the page: anything committed in between is delivered again next time, never lost
+        long current = syncChangeLog.currentVersion(userId);
+        if (cursor == null || cursor.isBlank()) {
+            return new SyncResponse(String.valueOf(current), false, true, List.of());
+        }
+        long since = parseCursor(cursor);
+        if (since > current) {
+            // Not a cursor this log handed out (e.g. data restored from an older backup)
+            return new SyncResponse(String.valueOf(current), false, true, List.of());
+        }
+
+        List<SyncChange> page = syncChangeRepository.findChangesSince(userId, since, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+        Map<SyncEntityType, Map<Long, Object>> live = loadLive(userId, page);
+        List<SyncChangeResponse> changes = page.stream()
+                .map(c -> {
+                    Object data = c.isDeleted() ? null : live.get(c.getEntityType()).get(c.getEntityId());
+                    // Removed without a tombstone of its own (e.g. together with its parent): report it deleted
+                    return new SyncChangeResponse(c.getEntityType().name(), c.getEntityId(), c.getVersion(), data == null, data);
+                })
+                .toList();
+        String next = page.isEmpty() ? String.valueOf(since) : String.valueOf(page.get(page.size() - 1).getVersion());
+        return new SyncResponse(next, hasMore, false, changes);
+    }
+
+    private Map<SyncEntityType, Map<Long, Object>> loadLive(Long userId, List<SyncChange> page) {
+        Map<SyncEntityType, Set<Long>> ids = page.stream()
+                .filter(c -> !c.isDeleted())
+                .collect(Collectors.groupingBy(SyncChange::getEntityType,
+                        () -> new EnumMap<>(SyncEntityType.class),
+                        Collectors.mapping(SyncChange::getEntityId, Collectors.toSet())));
+        Map<SyncEntityType, Map<Long, Object>> live = new EnumMap<>(SyncEntityType.class);
+        for (SyncEntityType type : SyncEntityType.values()) {
+            live.put(type, new HashMap<>());
+        }
+        ids.forEach((type, entityIds) -> {
+            Map<Long, Object> byId = live.get(type);
+            switch (type) {
+                case ACCOUNT -> accountRepository.findByUser_UserIdAndAccountIdIn(userId, entityIds)
+                        .forEach(a -> byId.put(a.getAccountId(), new SyncChangeResponse.AccountData(
+                                a.getAccountId(), a.getName(),
+                                a.getAccountType() != null ? a.getAccountType().name() : null,
+                                a.getBalance())));
+                case CATEGORY -> categoryRepository.findByUser_UserIdAndCategoryIdIn(userId, entityIds)
+                        .forEach(c -> byId.put(c.getCategoryId(), new SyncChangeResponse.CategoryData(
+                                c.getCategoryId(), c.getName(), c.isSystem())));
+                case GOAL -> goalRepository.findByUser_UserIdAndIdIn(userId, entityIds)
+                        .forEach(g -> byId.put(g.getId(), new SyncChangeResponse.GoalData(
+                                g.getId(), g.getName(), g.getTargetAmount(), g.getCurrentAmount(), g.getDueDate(),
+                                g.getStatus() != null ? g.getStatus().name() : null,
+                                g.getLinkedAccount() != null ? g.getLinkedAccount().getAccountId() : null)));
+                case SUBSCRIPTION -> subscriptionRepository.findByUser_UserIdAndSubscriptionIdIn(userId, entityIds)
+                        .forEach(s -> byId.put(s.getSubscriptionId(), new SyncChangeResponse.SubscriptionData(
+                                s.getSubscriptionId(), s.getMerchant(), s.getAmount(), s.getFrequency(),
+                                s.getType() != null ? s.getType().name() : null, s.getIsActive(), s.getNextPostAt())));
+                case CASH_FLOW -> cashFlowRepository.findByAccount_User_UserIdAndCashFlowIdIn(userId, entityIds)
+                        .forEach(cf -> byId.put(cf.getCashFlowId(), new SyncChangeResponse.CashFlowData(
+                                cf.getCashFlowId(), cf.getType() != null ? cf.getType().name() : null,
+                                cf.getAmount(), cf.getOccurredAt(), cf.getDescription(),
+                                cf.getAccount() != null ? cf.getAccount().getAccountId() : null,
+                                cf.getCategory() != null ? cf.getCategory().getCategoryId() : null,
+                                cf.getSubscription() != null ? cf.getSubscription().getSubscriptionId() : null)));
+                case BUDGET -> categoryBudgetRepository.findByUser_UserIdAndIdIn(userId, entityIds)
+                        .forEach(b -> byId.put(b.getId(), new SyncChangeResponse.BudgetData(
+                                b.getId(), b.getCategory() != null ? b.getCategory().getCategoryId() : null,
+                                b.getYearMonth(), b.getAmount(), b.getCustomName())));
+            }
+        });
+        return live;
+    }
+
+    private static long parseCursor(String cursor) {
+        try {
+            long since = Long.parseLong(cursor.trim());
+            if (since < 0) {
+                throw new IllegalArgumentException("Invalid sync cursor");
+            }
+            return since;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync cursor");
+        }
+    }
+}
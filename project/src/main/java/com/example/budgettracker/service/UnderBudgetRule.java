@@ -0,0 +1,37 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Stayed within the budget of a category for the month
+ */
+@Component
+public class UnderBudgetRule implements CoinRewardRule {
+
+    private final CategoryBudgetRepository categoryBudgetRepository;
+    private final long coins;
+
+    public UnderBudgetRule(CategoryBudgetRepository categoryBudgetRepository,
+                           @Value("${app.budgetcoin.rules.under-budget-coins:20}") long coins) {
+        this.categoryBudgetRepository = categoryBudgetRepository;
+        this.coins = coins;
+    }
+
+    @Override
+    public List<Hit> evaluate(YearMonth month, long fromUserId, long toUserId) {
+        return categoryBudgetRepository.findUnderBudget(month.toString(),
+                        month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay(),
+                        fromUserId, toUserId)
+                .stream()
+                .map(b -> new Hit(b.getUserId(),
+                        "rule:under-budget:" + b.getUserId() + ":" + b.getCategoryId() + ":" + month,
+                        "Under budget: " + b.getCategoryName(),
+                        coins))
+                .toList();
+    }
+}
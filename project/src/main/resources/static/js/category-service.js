@@ -176,6 +176,10 @@ const categoryService = {
                 throw new Error(finalMsg);
             }
 
+            // Deletion runs in the background; wait for it so the refreshed list is accurate
+            const operation = await response.json();
+            await this.waitForOperation(operation);
+
             console.log('✅ Category deleted successfully');
             return true;
         } catch (error) {
@@ -184,6 +188,34 @@ const categoryService = {
         }
     },
 
+    /**
+     * Poll a background delete/merge until it finishes
+     * @param {object} operation - Response from DELETE /{id} or POST /merge
+     * @returns {Promise<object>} The finished operation
+     */
+    async waitForOperation(operation) {
+        let current = operation;
+        let delay = 300;
+        while (current && current.operationId && (current.status === 'PENDING' || current.status === 'RUNNING')) {
+            await new Promise(resolve => setTimeout(resolve, delay));
+            delay = Math.min(delay * 2, 3000);
+
+            const response = await fetch(`${this.apiUrl}/operations/${current.operationId}`, {
+                method: 'GET',
+                headers: this.getAuthHeaders()
+            });
+            if (!response.ok) {
+                throw new Error(`Failed to fetch operation status: ${response.status}`);
+            }
+            current = await response.json();
+            console.log(`⏳ Category operation ${current.operationId}: ${current.processedRows}/${current.totalRows} rows`);
+        }
+        if (current && current.status === 'FAILED') {
+            throw new Error(current.errorMessage || 'Category operation failed');
+        }
+        return current;
+    },
+
     /**
      * Get category summary (total spent, etc.)
      * @param {number} categoryId
@@ -300,7 +332,8 @@ const categoryService = {
                 throw new Error(finalMsg);
             }
 
-            const result = await response.json();
+            // Merge runs in the background; wait for it so the refreshed list is accurate
+            const result = await this.waitForOperation(await response.json());
             console.log('✅ Categories merged:', result);
 
             // Trigger UI refresh after successful merge
@@ -266,7 +266,8 @@ class CoinSystem {
         this.earnCoins(300, 'Challenge completed');
     }
 
-    async fetchHistory() {
+    // Returns one page of history entries, newest first; pass this.historyNextCursor to get the next page
+    async fetchHistory(cursor = null) {
         const sessionToken = localStorage.getItem('sessionToken');
         if (!sessionToken) {
             console.warn('⚠️ No session token present when requesting coin history');
@@ -274,7 +275,8 @@ class CoinSystem {
         }
 
         try {
-            const response = await fetch(`${this.apiUrl}/history`, {
+            const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+            const response = await fetch(`${this.apiUrl}/history${query}`, {
                 method: 'GET',
                 headers: {
                     'Authorization': `Bearer ${sessionToken}`,
@@ -286,7 +288,10 @@ class CoinSystem {
                 throw new Error(`Failed to load coin history: ${response.status}`);
             }
 
-            return await response.json();
+            // The endpoint returns { items, nextCursor }; nextCursor is null on the last page
+            const page = await response.json();
+            this.historyNextCursor = page.nextCursor || null;
+            return page.items || [];
         } catch (error) {
             console.error('❌ Error fetching coin history:', error);
             return [];
@@ -0,0 +1,229 @@
+package com.example.budgettracker.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit checks plus a simulation benchmark: a backend with 20 units of capacity and 10 ms mean
+ * service time (processor sharing, so every extra request in the system slows all of them down)
+ * is driven at up to 3x its capacity, in virtual time, with and without the limiter.
+ */
+public class AdaptiveLimiterTest {
+
+    private static final double CAPACITY = 20;
+    private static final double MEAN_WORK_MS = 10;
+    private static final int TICKS_PER_MS = 10;
+    private static final int DURATION_MS = 30_000;
+    private static final int WARMUP_MS = 10_000;
+    private static final int WINDOW_MS = 5_000;
+
+    private static AdaptiveLimiter limiter() {
+        return new AdaptiveLimiter(20, 4, 200, 1.5, 0.2, 50, 0.05, 0.5);
+    }
+
+    @Test
+    public void inflatedLatency_lowersTheLimit() {
+        AdaptiveLimiter limiter = limiter();
+        for (int i = 0; i < 50 * 20; i++) {
+            limiter.onSample(10_000_000L, limiter.getLimit());
+        }
+        int grown = limiter.getLimit();
+        assertTrue("limit should grow while latency is at baseline: " + grown, grown > 20);
+
+        for (int i = 0; i < 50 * 20; i++) {
+            limiter.onSample(40_000_000L, limiter.getLimit());
+        }
+        assertTrue("limit should fall once latency inflates: " + limiter.getLimit(), limiter.getLimit() < grown / 2);
+        assertEquals(10.0, limiter.getBaselineMillis(), 0.5);
+    }
+
+    @Test
+    public void unusedLimit_doesNotGrow() {
+        AdaptiveLimiter limiter = limiter();
+        for (int i = 0; i < 50 * 20; i++) {
+            limiter.onSample(10_000_000L, 2);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void batchRequests_onlyGetTheirShareOfTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 4, 200, 1.5, 0.2, 50, 0.05, 0.5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.BATCH));
+        }
+        assertFalse(limiter.tryAcquire(AdaptiveLimiter.Priority.BATCH));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.INTERACTIVE));
+        }
+        assertFalse(limiter.tryAcquire(AdaptiveLimiter.Priority.INTERACTIVE));
+
+        limiter.releaseWithoutSample();
+        assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.INTERACTIVE));
+        assertEquals(10, limiter.getInflight());
+    }
+
+    @Test
+    public void filter_samplesOnlyInteractiveRequestsThatReachedAHandler() throws Exception {
+        // Window of one sample, so every sampled request shows up in limiter.rtt.window
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(new SimpleMeterRegistry(),
+                20, 4, 200, 1.5, 0.2, 1, 0.05, 0.5, List.of("/api/export/"));
+        AdaptiveLimiter limiter = filter.getLimiter();
+
+        // A slow export, a request stopped before any handler, and a handler that answered 429
+        run(filter, "/api/export/csv", true, 200, 20);
+        run(filter, "/api/dashboard", false, 401, 0);
+        run(filter, "/api/dashboard", true, 429, 0);
+        assertEquals(0.0, limiter.getLastWindowMillis(), 0.0);
+        assertEquals(0, limiter.getInflight());
+
+        run(filter, "/api/dashboard", true, 200, 5);
+        assertTrue(limiter.getLastWindowMillis() >= 5);
+    }
+
+    private static void run(AdaptiveConcurrencyFilter filter, String path, boolean handled, int status, long millis)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            if (handled) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new Object());
+            }
+            ((MockHttpServletResponse) res).setStatus(status);
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Test
+    public void simulation_overloadKeepsP99StableWhileUnlimitedQueueGrows() {
+        Result unlimited = simulate(3.0, null);
+        Result limited = simulate(3.0, limiter());
+
+        // Without a limit the queue grows for as long as the overload lasts
+        assertTrue("unlimited p99 " + unlimited.windowP99s, unlimited.windowP99s.get(unlimited.windowP99s.size() - 1) > 5_000);
+        assertTrue(increasing(unlimited.windowP99s));
+
+        double min = Collections.min(limited.windowP99s);
+        double max = Collections.max(limited.windowP99s);
+        assertTrue("limited p99 " + limited.windowP99s, max < 100);
+        assertTrue("limited p99 should hold steady " + limited.windowP99s, max / min < 1.3);
+        // Shedding must not cost throughput: the backend stays busy
+        assertTrue("throughput " + limited.throughputPerMs, limited.throughputPerMs > 0.9 * CAPACITY / MEAN_WORK_MS);
+    }
+
+    @Test
+    public void simulation_overloadShedsBatchBeforeInteractive() {
+        Result limited = simulate(3.0, limiter());
+
+        assertTrue(limited.batchRejectedRatio > 0.9);
+        assertTrue("interactive rejected " + limited.interactiveRejectedRatio, limited.interactiveRejectedRatio < 0.3);
+    }
+
+    @Test
+    public void simulation_belowCapacityRejectsNothing() {
+        Result limited = simulate(1.0, limiter());
+
+        assertEquals(0.0, limited.interactiveRejectedRatio, 0.0);
+        assertEquals(0.0, limited.batchRejectedRatio, 0.0);
+    }
+
+    private record Request(double finishedAtWork, double arrivedAtMs) {
+    }
+
+    private record Result(List<Double> windowP99s, double throughputPerMs,
+                          double interactiveRejectedRatio, double batchRejectedRatio) {
+    }
+
+    /**
+     * Poisson arrivals (20% batch) with exponential work, processor-shared across everything in the
+     * system; requests finish in order of when their work is done, tracked on a shared work clock.
+     */
+    private static Result simulate(double arrivalsPerMs, AdaptiveLimiter limiter) {
+        Random random = new Random(42);
+        PriorityQueue<Request> inSystem = new PriorityQueue<>(Comparator.comparingDouble(Request::finishedAtWork));
+        double workClock = 0;
+        double dt = 1.0 / TICKS_PER_MS;
+        List<List<Double>> windows = new ArrayList<>();
+        for (int i = 0; i < (DURATION_MS - WARMUP_MS) / WINDOW_MS; i++) {
+            windows.add(new ArrayList<>());
+        }
+        long[] accepted = new long[2];
+        long[] rejected = new long[2];
+        long completed = 0;
+
+        for (int tick = 0; tick < DURATION_MS * TICKS_PER_MS; tick++) {
+            double now = tick * dt;
+            boolean measuring = now >= WARMUP_MS;
+            double expected = arrivalsPerMs * dt;
+            int arrivals = (int) expected + (random.nextDouble() < expected - (int) expected ? 1 : 0);
+            for (int i = 0; i < arrivals; i++) {
+                boolean batch = random.nextDouble() < 0.2;
+                AdaptiveLimiter.Priority priority = batch ? AdaptiveLimiter.Priority.BATCH : AdaptiveLimiter.Priority.INTERACTIVE;
+                if (limiter != null && !limiter.tryAcquire(priority)) {
+                    if (measuring) {
+                        rejected[priority.ordinal()]++;
+                    }
+                    continue;
+                }
+                if (measuring) {
+                    accepted[priority.ordinal()]++;
+                }
+                double work = -Math.log(1 - random.nextDouble()) * MEAN_WORK_MS;
+                inSystem.add(new Request(workClock + work, now));
+            }
+
+            if (!inSystem.isEmpty()) {
+                workClock += dt * Math.min(1.0, CAPACITY / inSystem.size());
+            }
+            while (!inSystem.isEmpty() && inSystem.peek().finishedAtWork() <= workClock) {
+                Request done = inSystem.poll();
+                double latencyMs = now + dt - done.arrivedAtMs();
+                if (limiter != null) {
+                    limiter.release((long) (latencyMs * 1_000_000));
+                }
+                if (measuring) {
+                    completed++;
+                    windows.get((int) ((now - WARMUP_MS) / WINDOW_MS)).add(latencyMs);
+                }
+            }
+        }
+
+        List<Double> p99s = new ArrayList<>();
+        for (List<Double> window : windows) {
+            Collections.sort(window);
+            p99s.add(window.get((int) (window.size() * 0.99)));
+        }
+        return new Result(p99s,
+                completed / (double) (DURATION_MS - WARMUP_MS),
+                ratio(rejected[0], accepted[0]),
+                ratio(rejected[1], accepted[1]));
+    }
+
+    private static double ratio(long rejected, long accepted) {
+        return rejected + accepted == 0 ? 0 : rejected / (double) (rejected + accepted);
+    }
+
+    private static boolean increasing(List<Double> values) {
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i) <= values.get(i - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.errors.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BulkheadAspectTest {
+
+    private MockEnvironment environment;
+    private SimpleMeterRegistry meterRegistry;
+    private BulkheadAspect aspect;
+
+    @Before
+    public void setUp() {
+        environment = new MockEnvironment();
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new BulkheadAspect(environment, meterRegistry);
+    }
+
+    @Bulkhead(value = "solo", maxConcurrent = 1, maxWaiting = 0, retryAfterSeconds = 7)
+    void solo() {
+    }
+
+    @Bulkhead(value = "queued", maxConcurrent = 1, maxWaiting = 1, maxWaitMillis = 5000)
+    void queued() {
+    }
+
+    @Bulkhead(value = "impatient", maxConcurrent = 1, maxWaiting = 1, maxWaitMillis = 50)
+    void impatient() {
+    }
+
+    @Test
+    public void saturated_noWaitingRoom_rejectsImmediately() throws Throwable {
+        Bulkhead bulkhead = annotation("solo");
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = hold(bulkhead, release);
+        awaitActive(bulkhead, 1);
+
+        try {
+            aspect.limit(returning("second"), bulkhead);
+            fail("expected rejection");
+        } catch (BulkheadFullException e) {
+            assertEquals("solo", e.getBulkhead());
+            assertEquals(7, e.getRetryAfterSeconds());
+        }
+        assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("name", "solo").tag("reason", "queue_full").counter().count(), 0.0);
+        assertEquals(1.0, meterRegistry.get("bulkhead.saturation").tag("name", "solo").gauge().value(), 0.0);
+
+        release.countDown();
+        assertEquals("held", holder.get(5, TimeUnit.SECONDS));
+        assertEquals("third", aspect.limit(returning("third"), bulkhead));
+    }
+
+    @Test
+    public void waitingCall_getsTheSlotWhenItFrees() throws Throwable {
+        Bulkhead bulkhead = annotation("queued");
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = hold(bulkhead, release);
+        awaitActive(bulkhead, 1);
+
+        CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> call(bulkhead, "waited"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (aspect.compartment(bulkhead).waiting.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, aspect.compartment(bulkhead).waiting.get());
+        release.countDown();
+
+        assertEquals("held", holder.get(5, TimeUnit.SECONDS));
+        assertEquals("waited", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("bulkhead.wait").tag("name", "queued").timer().count());
+        assertEquals(0, aspect.compartment(bulkhead).active());
+    }
+
+    @Test
+    public void waitingCall_givesUpAfterMaxWait() throws Throwable {
+        Bulkhead bulkhead = annotation("impatient");
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = hold(bulkhead, release);
+        awaitActive(bulkhead, 1);
+
+        try {
+            aspect.limit(returning("late"), bulkhead);
+            fail("expected rejection");
+        } catch (BulkheadFullException expected) {
+        }
+        assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("name", "impatient").tag("reason", "timeout").counter().count(), 0.0);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void failingCall_releasesItsSlot() throws Throwable {
+        Bulkhead bulkhead = annotation("solo");
+        ProceedingJoinPoint failing = mock(ProceedingJoinPoint.class);
+        when(failing.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        try {
+            aspect.limit(failing, bulkhead);
+            fail("expected the call's own exception");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, aspect.compartment(bulkhead).active());
+    }
+
+    @Test
+    public void properties_overrideAnnotationDefaults() {
+        environment.setProperty("app.bulkheads.solo.max-concurrent", "6");
+        environment.setProperty("app.bulkheads.solo.retry-after-seconds", "30");
+
+        BulkheadAspect.Compartment compartment = aspect.compartment(annotation("solo"));
+
+        assertEquals(6, compartment.limit);
+        assertEquals(30, compartment.retryAfterSeconds);
+        assertEquals(6.0, meterRegistry.get("bulkhead.limit").tag("name", "solo").gauge().value(), 0.0);
+    }
+
+    private CompletableFuture<Object> hold(Bulkhead bulkhead, CountDownLatch release) throws Throwable {
+        ProceedingJoinPoint blocking = mock(ProceedingJoinPoint.class);
+        when(blocking.proceed()).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "held";
+        });
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return aspect.limit(blocking, bulkhead);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        });
+    }
+
+    private Object call(Bulkhead bulkhead, String result) {
+        try {
+            return aspect.limit(returning(result), bulkhead);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static ProceedingJoinPoint returning(String result) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+
+    private void awaitActive(Bulkhead bulkhead, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (aspect.compartment(bulkhead).active() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, aspect.compartment(bulkhead).active());
+    }
+
+    private static Bulkhead annotation(String method) {
+        try {
+            return BulkheadAspectTest.class.getDeclaredMethod(method).getAnnotation(Bulkhead.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
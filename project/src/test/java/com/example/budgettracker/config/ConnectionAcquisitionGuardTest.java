@@ -0,0 +1,137 @@
+package com.example.budgettracker.config;
+
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConnectionAcquisitionGuardTest {
+
+    @Test
+    public void permit_isHeldUntilTheConnectionCloses() throws Exception {
+        ConnectionAcquisitionGuard guard = new ConnectionAcquisitionGuard(new SimulatedPool(2), 2, 50);
+
+        Connection first = guard.getConnection();
+        Connection second = guard.getConnection();
+        assertEquals(2, guard.getActive());
+
+        first.close();
+        first.close();
+        assertEquals(1, guard.getActive());
+        second.close();
+        assertEquals(0, guard.getActive());
+    }
+
+    @Test
+    public void exhaustedGuard_timesOutLikeThePool() throws Exception {
+        ConnectionAcquisitionGuard guard = new ConnectionAcquisitionGuard(new SimulatedPool(5), 1, 20);
+        Connection held = guard.getConnection();
+
+        try {
+            guard.getConnection();
+            fail("expected a timeout");
+        } catch (SQLTransientConnectionException e) {
+            assertTrue(e.getMessage().startsWith("Connection not available"));
+        }
+        assertEquals(1.0, guard.getTimeouts(), 0.0);
+        held.close();
+        guard.getConnection().close();
+        assertEquals(0, guard.getActive());
+    }
+
+    @Test
+    public void failedAcquisition_givesThePermitBack() throws Exception {
+        SimulatedPool pool = new SimulatedPool(1);
+        pool.broken = true;
+        ConnectionAcquisitionGuard guard = new ConnectionAcquisitionGuard(pool, 1, 20);
+
+        try {
+            guard.getConnection();
+            fail("expected the pool's exception");
+        } catch (SQLException e) {
+            assertEquals("database unavailable", e.getMessage());
+        }
+        assertEquals(0, guard.getActive());
+    }
+
+    @Test
+    public void unwrap_reachesTheGuardAndTheDriverConnection() throws Exception {
+        ConnectionAcquisitionGuard guard = new ConnectionAcquisitionGuard(new SimulatedPool(1), 1, 20);
+
+        assertSame(guard, guard.unwrap(ConnectionAcquisitionGuard.class));
+        try (Connection connection = guard.getConnection()) {
+            assertTrue(connection.isWrapperFor(Connection.class));
+            assertFalse(connection.isClosed());
+        }
+    }
+
+    /**
+     * Fixed-size pool that blocks for a free connection the way Hikari does
+     */
+    private static final class SimulatedPool extends AbstractDataSource {
+        private final BlockingQueue<Connection> idle;
+        private final Set<Connection> out = ConcurrentHashMap.newKeySet();
+        private volatile boolean broken;
+
+        SimulatedPool(int size) {
+            idle = new ArrayBlockingQueue<>(size);
+            for (int i = 0; i < size; i++) {
+                idle.add(connection());
+            }
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (broken) {
+                throw new SQLException("database unavailable");
+            }
+            Connection connection = idle.poll();
+            if (connection == null) {
+                try {
+                    connection = idle.poll(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+            }
+            if (connection == null) {
+                throw new SQLTransientConnectionException("pool timeout");
+            }
+            out.add(connection);
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            // Closing twice is a no-op, as for a Hikari connection
+                            if (out.remove(proxy)) {
+                                idle.add((Connection) proxy);
+                            }
+                            yield null;
+                        }
+                        case "isClosed" -> false;
+                        case "isWrapperFor" -> ((Class<?>) args[0]).isInstance(proxy);
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+    }
+}
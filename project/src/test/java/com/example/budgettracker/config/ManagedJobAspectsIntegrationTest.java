@@ -0,0 +1,89 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.model.enums.JobRunStatus;
+import com.example.budgettracker.service.SchedulerLockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * A @Scheduled @ManagedJob @ClusterLocked bean run through the real aspect proxies: the scheduler
+ * thread hands the run to the job's worker, which takes the lease and records the run.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = ManagedJobAspectsIntegrationTest.Config.class)
+public class ManagedJobAspectsIntegrationTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @EnableScheduling
+    @Import({ManagedJobAspect.class, ClusterLockAspect.class, ManagedJobRegistry.class})
+    static class Config {
+
+        @Bean
+        SchedulerLockService schedulerLockService() {
+            SchedulerLockService lockService = mock(SchedulerLockService.class);
+            when(lockService.tryAcquire(eq("it-locked-job"), any())).thenReturn(true);
+            return lockService;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        LockedJob lockedJob() {
+            return new LockedJob();
+        }
+    }
+
+    static class LockedJob {
+        final CountDownLatch ran = new CountDownLatch(1);
+        volatile String threadName;
+
+        // Fires once right after startup, from the scheduler thread
+        @Scheduled(fixedDelay = 60 * 60 * 1000)
+        @ManagedJob(name = "it-locked-job", timeoutSeconds = 30)
+        @ClusterLocked(name = "it-locked-job", leaseSeconds = 30, lockAtLeastSeconds = 5)
+        public void run() {
+            threadName = Thread.currentThread().getName();
+            JobContext.recordProcessed(2);
+            ran.countDown();
+        }
+    }
+
+    @Autowired private LockedJob lockedJob;
+    @Autowired private SchedulerLockService lockService;
+
+    @Test
+    public void scheduledRun_takesTheLeaseOnTheJobThreadAndRecordsTheRun() throws Exception {
+        assertTrue(AopUtils.isAopProxy(lockedJob));
+        assertTrue(lockedJob.ran.await(10, TimeUnit.SECONDS));
+
+        assertTrue(lockedJob.threadName.startsWith("job-it-locked-job-"));
+        verify(lockService, timeout(5000)).tryAcquire("it-locked-job", Duration.ofSeconds(30));
+        verify(lockService, timeout(5000)).release("it-locked-job", Duration.ofSeconds(5));
+        verify(lockService, timeout(5000)).recordRun(eq("it-locked-job"), any(), any(),
+                eq(JobRunStatus.SUCCEEDED), eq(2L), eq(0L), isNull());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.model.enums.JobRunStatus;
+import com.example.budgettracker.service.SchedulerLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ManagedJobRegistryTest {
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private SchedulerLockService lockService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ManagedJobRegistry registry;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ManagedJobRegistry(applicationContext, lockService, meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    public void submit_runsOnJobThread_andRecordsItemsProcessed() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        String[] threadName = new String[1];
+
+        Optional<String> runId = registry.submit(definition("quick"), () -> {
+            threadName[0] = Thread.currentThread().getName();
+            JobContext.recordProcessed(3);
+            JobContext.recordFailure();
+            ran.countDown();
+        });
+
+        assertTrue(runId.isPresent());
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        verify(lockService, timeout(2000)).recordRun(eq("quick"), any(), any(),
+                eq(JobRunStatus.SUCCEEDED), eq(3L), eq(1L), isNull());
+        assertTrue(threadName[0].startsWith("job-quick-"));
+        assertEquals(1, meterRegistry.timer("jobs.run", "job", "quick", "status", "SUCCEEDED").count());
+    }
+
+    @Test
+    public void submit_skipsOverlappingRun_whenPolicyIsSkip() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        registry.submit(definition("slow"), () -> {
+            started.countDown();
+            release.await();
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        Optional<String> second = registry.submit(definition("slow"), () -> fail("must not run"));
+
+        assertFalse(second.isPresent());
+        assertEquals(1, registry.getSkippedCount("slow"));
+        release.countDown();
+        verify(lockService, timeout(2000)).recordRun(eq("slow"), any(), any(),
+                eq(JobRunStatus.SUCCEEDED), anyLong(), anyLong(), isNull());
+    }
+
+    @Test
+    public void submit_recordsFailure_whenBodyThrows() {
+        registry.submit(definition("broken"), () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        verify(lockService, timeout(2000)).recordRun(eq("broken"), any(), any(),
+                eq(JobRunStatus.FAILED), eq(0L), eq(0L), eq("boom"));
+    }
+
+    @Test
+    public void submit_cancelsRun_afterTimeout() {
+        registry.submit(definition("timed"), () -> Thread.sleep(10_000));
+
+        verify(lockService, timeout(3000)).recordRun(eq("timed"), any(), any(),
+                eq(JobRunStatus.TIMED_OUT), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void cancel_interruptsRunningJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        registry.submit(definition("slow"), () -> {
+            started.countDown();
+            Thread.sleep(10_000);
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        assertEquals(1, registry.cancel("slow"));
+
+        verify(lockService, timeout(2000)).recordRun(eq("slow"), any(), any(),
+                eq(JobRunStatus.CANCELLED), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void skippedRun_isNotRecorded() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        registry.submit(definition("quick"), () -> {
+            JobContext.current().orElseThrow().markSkipped();
+            ran.countDown();
+        });
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        verifyNoInteractions(lockService);
+    }
+
+    @Test
+    public void idleRun_isRecorded() {
+        registry.submit(definition("quick"), () -> {
+        });
+
+        verify(lockService, timeout(2000)).recordRun(eq("quick"), any(), any(),
+                eq(JobRunStatus.SUCCEEDED), eq(0L), eq(0L), isNull());
+    }
+
+    @Test
+    public void idleRuns_ofAThrottledPoller_areRecordedOncePerInterval() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            CountDownLatch ran = new CountDownLatch(1);
+            registry.submit(definition("poller"), ran::countDown);
+            assertTrue(ran.await(2, TimeUnit.SECONDS));
+            Thread.sleep(100);
+        }
+        CountDownLatch busy = new CountDownLatch(1);
+        registry.submit(definition("poller"), () -> {
+            JobContext.recordProcessed(4);
+            busy.countDown();
+        });
+        assertTrue(busy.await(2, TimeUnit.SECONDS));
+
+        verify(lockService, timeout(2000)).recordRun(eq("poller"), any(), any(),
+                eq(JobRunStatus.SUCCEEDED), eq(4L), eq(0L), isNull());
+        verify(lockService, times(1)).recordRun(eq("poller"), any(), any(),
+                eq(JobRunStatus.SUCCEEDED), eq(0L), eq(0L), isNull());
+        assertEquals(4, meterRegistry.timer("jobs.run", "job", "poller", "status", "SUCCEEDED").count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void trigger_throws_forUnknownJob() {
+        registry.trigger("missing");
+    }
+
+    private static ManagedJob definition(String name) {
+        try {
+            return Jobs.class.getDeclaredMethod(name).getAnnotation(ManagedJob.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Jobs {
+        @ManagedJob(name = "quick")
+        void quick() {
+        }
+
+        @ManagedJob(name = "slow")
+        void slow() {
+        }
+
+        @ManagedJob(name = "broken")
+        void broken() {
+        }
+
+        @ManagedJob(name = "timed", timeoutSeconds = 1)
+        void timed() {
+        }
+
+        @ManagedJob(name = "poller", idleHistorySeconds = 3600)
+        void poller() {
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.budgettracker.config;
+
+import com.example.budgettracker.model.Account;
+import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.Item;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.AccountType;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.repository.ItemRepository;
+import com.example.budgettracker.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Before/after query counts for the id lookups the main API flows repeat on every request
+ * (add expense, category budget summary, redeem reward, list categories, list shop items).
+ * Each simulated request runs in its own transaction, as it would behind a controller.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheQueryCountTest {
+
+    private static final int REQUESTS = 50;
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ItemRepository itemRepository;
+
+    private TransactionTemplate tx;
+    private SessionFactory sessionFactory;
+    private Long userId;
+    private Long categoryId;
+    private Long itemId;
+
+    @Before
+    public void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        tx.executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                    .email("cache-" + System.nanoTime() + "@example.com")
+                    .hashedPassword("x")
+                    .firstName("Cache")
+                    .lastName("Test")
+                    .build());
+            userId = user.getUserId();
+            accountRepository.save(Account.builder()
+                    .user(user)
+                    .name("Cash")
+                    .accountType(AccountType.CASH)
+                    .balance(new BigDecimal("100.00"))
+                    .build());
+            categoryId = categoryRepository.save(Category.builder().user(user).name("Food").build()).getCategoryId();
+            categoryRepository.save(Category.builder().user(user).name("Rent").build());
+            itemId = itemRepository.save(Item.builder()
+                    .itemName("Mug-" + System.nanoTime())
+                    .price(10L)
+                    .stockQty(5L)
+                    .build()).getItemId();
+        });
+    }
+
+    private void request() {
+        tx.executeWithoutResult(status -> {
+            // add expense: user + category (users and accounts are not cached, budgetCoin and balances change in bulk UPDATEs)
+            userRepository.findById(userId).orElseThrow();
+            categoryRepository.findById(categoryId).orElseThrow();
+        });
+        tx.executeWithoutResult(status -> {
+            // category budget summary: user + category re-check
+            userRepository.findById(userId).orElseThrow();
+            categoryRepository.findById(categoryId).orElseThrow();
+        });
+        tx.executeWithoutResult(status -> {
+            // redeem reward: user + item (items are not cached, stock changes in a bulk UPDATE)
+            userRepository.findById(userId).orElseThrow();
+            itemRepository.findById(itemId).orElseThrow();
+        });
+        tx.executeWithoutResult(status -> {
+            categoryRepository.findByUser_UserIdOrderByNameAsc(userId);
+            itemRepository.findAll();
+        });
+    }
+
+    private long statementsFor(boolean coldCache) {
+        Statistics stats = sessionFactory.getStatistics();
+        stats.clear();
+        for (int i = 0; i < REQUESTS; i++) {
+            if (coldCache) {
+                sessionFactory.getCache().evictAllRegions();
+            }
+            request();
+        }
+        return stats.getPrepareStatementCount();
+    }
+
+    @Test
+    public void warmCache_removesRepeatedLookups() {
+        long before = statementsFor(true);
+        request(); // warm up
+        long after = statementsFor(false);
+        Statistics stats = sessionFactory.getStatistics();
+
+        assertTrue("expected every cold request to hit the database, got " + before, before >= REQUESTS * 5L);
+        // Only the three uncached user lookups and the item lookup per request still reach the database
+        assertEquals("statements with a warm cache (before: " + before + ")", REQUESTS * 4L, after);
+        assertTrue(stats.getSecondLevelCacheHitCount() > 0);
+        assertTrue(stats.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    public void updatesAreVisibleThroughTheCache() {
+        request();
+        tx.executeWithoutResult(status -> {
+            Category c = categoryRepository.findById(categoryId).orElseThrow();
+            c.setName("Groceries");
+        });
+
+        String name = tx.execute(status -> categoryRepository.findById(categoryId).orElseThrow().getName());
+        List<String> listed = tx.execute(status -> categoryRepository.findByUser_UserIdOrderByNameAsc(userId)
+                .stream().map(Category::getName).toList());
+
+        assertEquals("Groceries", name);
+        assertEquals(List.of("Groceries", "Rent"), listed);
+    }
+}
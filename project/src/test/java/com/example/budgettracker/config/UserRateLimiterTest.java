@@ -0,0 +1,177 @@
+package com.example.budgettracker.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class UserRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    public void burstUpToCapacity_thenRefusedUntilRefill() {
+        UserRateLimiter limiter = new UserRateLimiter(5, 1.0, 100, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryConsume("user:1", 1).allowed());
+        }
+        UserRateLimiter.Decision refused = limiter.tryConsume("user:1", 1);
+        assertFalse(refused.allowed());
+        assertEquals(0, refused.remaining());
+        assertEquals(1, refused.retryAfterSeconds());
+        assertEquals(5, refused.resetSeconds());
+
+        now.addAndGet(SECOND);
+        UserRateLimiter.Decision refilled = limiter.tryConsume("user:1", 1);
+        assertTrue(refilled.allowed());
+        assertEquals(0, refilled.remaining());
+    }
+
+    @Test
+    public void weightedRequests_takeTheirCost() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 1.0, 100, now::get);
+
+        assertEquals(6, limiter.tryConsume("user:1", 4).remaining());
+        assertEquals(2, limiter.tryConsume("user:1", 4).remaining());
+        UserRateLimiter.Decision refused = limiter.tryConsume("user:1", 4);
+        assertFalse(refused.allowed());
+        assertEquals(2, refused.retryAfterSeconds());
+        // A cheap request still fits in what is left
+        assertTrue(limiter.tryConsume("user:1", 1).allowed());
+    }
+
+    @Test
+    public void users_haveIndependentBuckets() {
+        UserRateLimiter limiter = new UserRateLimiter(1, 1.0, 100, now::get);
+
+        assertTrue(limiter.tryConsume("user:1", 1).allowed());
+        assertFalse(limiter.tryConsume("user:1", 1).allowed());
+        assertTrue(limiter.tryConsume("user:2", 1).allowed());
+    }
+
+    @Test
+    public void map_staysBounded_droppingFullBucketsFirst() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 1.0, 3, now::get);
+        limiter.tryConsume("idle-1", 1);
+        limiter.tryConsume("idle-2", 1);
+        now.addAndGet(60 * SECOND);
+        limiter.tryConsume("busy", 10);
+        limiter.tryConsume("new-1", 1);
+        limiter.tryConsume("new-2", 1);
+
+        assertTrue(limiter.size() <= 3);
+        // The busy bucket kept its state
+        assertFalse(limiter.tryConsume("busy", 1).allowed());
+    }
+
+    @Test
+    public void concurrentTakes_neverOverspend() throws Exception {
+        UserRateLimiter limiter = new UserRateLimiter(100, 1.0, 100, now::get);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryConsume("user:1", 1).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, allowed.get());
+    }
+
+    @Test
+    public void filter_chargesLongestPrefixAndSetsHeaders() throws Exception {
+        UserRateLimitFilter filter = new UserRateLimitFilter(new UserRateLimiter(10, 1.0, 100, now::get),
+                List.of("/api/dashboard:4", "/api/dashboard/aggregates:2"), 100, new SimpleMeterRegistry());
+
+        MockHttpServletResponse response = run(filter, "/api/dashboard", "token-7", 7L);
+        assertEquals(200, response.getStatus());
+        assertEquals("10", response.getHeader("RateLimit-Limit"));
+        assertEquals("6", response.getHeader("RateLimit-Remaining"));
+        assertEquals("4", response.getHeader("RateLimit-Reset"));
+
+        // The first request went to the address bucket; the token is now charged to user 7
+        assertEquals("8", run(filter, "/api/dashboard/aggregates", "token-7", 7L).getHeader("RateLimit-Remaining"));
+        assertEquals("7", run(filter, "/api/goals", "token-7", 7L).getHeader("RateLimit-Remaining"));
+        assertEquals(2, filter.cost("/api/dashboard/aggregates"));
+    }
+
+    @Test
+    public void filter_refusesWith429AndRetryAfter_beforeTheSessionIsTouched() throws Exception {
+        UserRateLimitFilter filter = new UserRateLimitFilter(new UserRateLimiter(2, 0.5, 100, now::get),
+                List.of(), 100, new SimpleMeterRegistry());
+        AtomicInteger sessionLookups = new AtomicInteger();
+
+        // The first request is charged to the address; from then on the token's user is known
+        assertEquals(200, run(filter, "/api/dashboard", "token-7", 7L, "10.0.0.1", sessionLookups).getStatus());
+        assertEquals(200, run(filter, "/api/dashboard", "token-7", 7L, "10.0.0.1", sessionLookups).getStatus());
+        assertEquals(200, run(filter, "/api/dashboard", "token-7", 7L, "10.0.0.1", sessionLookups).getStatus());
+        MockHttpServletResponse refused = run(filter, "/api/dashboard", "token-7", 7L, "10.0.0.1", sessionLookups);
+
+        assertEquals(429, refused.getStatus());
+        assertEquals("2", refused.getHeader("Retry-After"));
+        assertEquals(3, sessionLookups.get());
+        // Another user behind the same address is unaffected once known
+        assertEquals(200, run(filter, "/api/dashboard", "token-8", 8L, "10.0.0.2", sessionLookups).getStatus());
+        assertEquals(200, run(filter, "/api/dashboard", "token-8", 8L, "10.0.0.1", sessionLookups).getStatus());
+    }
+
+    @Test
+    public void filter_bogusTokens_shareTheAddressBucket() throws Exception {
+        UserRateLimitFilter filter = new UserRateLimitFilter(new UserRateLimiter(3, 0.5, 100, now::get),
+                List.of(), 100, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, run(filter, "/api/dashboard", "bogus-" + i, null).getStatus());
+        }
+        assertEquals(429, run(filter, "/api/dashboard", "bogus-3", null).getStatus());
+        assertEquals(429, run(filter, "/api/dashboard", null, null).getStatus());
+    }
+
+    private static MockHttpServletResponse run(UserRateLimitFilter filter, String path, String token, Long userId) throws Exception {
+        return run(filter, path, token, userId, "127.0.0.1", new AtomicInteger());
+    }
+
+    // The chain stands in for SessionActivityFilter: a valid token leaves its user id on the request
+    private static MockHttpServletResponse run(UserRateLimitFilter filter, String path, String token, Long userId,
+                                               String address, AtomicInteger sessionLookups) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            sessionLookups.incrementAndGet();
+            if (userId != null) {
+                req.setAttribute(SessionActivityFilter.SESSION_USER_ID, userId);
+            }
+        });
+        return response;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.budgettracker.service;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BackupFormatTest {
+
+    private static final int CASH_FLOWS = 40_000;
+
+    private static Object[] user(long id) {
+        return new Object[]{id, "u" + id + "@example.com", "hash", "Ann", null, "Lee", true, 120L, null, null, "g-" + id};
+    }
+
+    private static Object[] cashFlow(long id) {
+        return new Object[]{id, id % 2 == 0 ? "Expense" : "Income", new BigDecimal("12.35").add(BigDecimal.valueOf(id)),
+                LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_456_000), LocalDateTime.of(2026, 2, 28, 23, 59),
+                id % 3 == 0 ? null : "Coffee \u2615 " + id, 7L, id % 5 == 0 ? null : 9L, null};
+    }
+
+    /** Every table, with users and a multi-block run of cash flows, the rest empty. */
+    private static byte[] snapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BackupFormat.Writer writer = new BackupFormat.Writer(out, 42L)) {
+            for (BackupFormat.Table table : BackupFormat.TABLES) {
+                switch (table.name()) {
+                    case "users" -> {
+                        writer.beginTable(table, 2);
+                        writer.writeRow(user(1));
+                        writer.writeRow(user(2));
+                    }
+                    case "goal" -> {
+                        writer.beginTable(table, 5);
+                        writer.writeRow(new Object[]{5L, "Trip", new BigDecimal("1000.00"), BigDecimal.ZERO,
+                                LocalDate.of(2027, 1, 31), "IN_PROGRESS", 1L, 8L, 0L, BigDecimal.ZERO, null, null});
+                    }
+                    case "cash_flow" -> {
+                        writer.beginTable(table, CASH_FLOWS);
+                        for (long id = 1; id <= CASH_FLOWS; id++) {
+                            writer.writeRow(cashFlow(id));
+                        }
+                    }
+                    default -> writer.beginTable(table, 0);
+                }
+                writer.endTable();
+            }
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Object[]> readAll(byte[] bytes, String tableName) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (BackupFormat.Reader reader = new BackupFormat.Reader(new ByteArrayInputStream(bytes))) {
+            BackupFormat.Table table;
+            while ((table = reader.nextTable()) != null) {
+                Object[] row;
+                while ((row = reader.nextRow()) != null) {
+                    if (table.name().equals(tableName)) {
+                        rows.add(row);
+                    }
+                }
+            }
+            reader.finish();
+        }
+        return rows;
+    }
+
+    @Test
+    public void roundTrip_preservesEveryValueAcrossBlocks() throws IOException {
+        byte[] bytes = snapshot();
+
+        BackupFormat.Header header = BackupFormat.readHeader(new ByteArrayInputStream(bytes));
+        assertTrue(header.userScope());
+        assertEquals(Long.valueOf(42L), header.userId());
+
+        List<Object[]> users = readAll(bytes, "users");
+        assertEquals(2, users.size());
+        assertArrayEquals(user(2), users.get(1));
+
+        List<Object[]> cashFlows = readAll(bytes, "cash_flow");
+        assertEquals(CASH_FLOWS, cashFlows.size());
+        for (int i = 0; i < CASH_FLOWS; i += 997) {
+            assertArrayEquals(cashFlow(i + 1), cashFlows.get(i));
+        }
+        assertArrayEquals(cashFlow(CASH_FLOWS), cashFlows.get(CASH_FLOWS - 1));
+        assertEquals(LocalDate.of(2027, 1, 31), readAll(bytes, "goal").get(0)[4]);
+        // Repetitive ledger rows compress well below their raw size
+        assertTrue(bytes.length < CASH_FLOWS * 40);
+    }
+
+    @Test
+    public void corruptBlock_isRejected() throws IOException {
+        byte[] bytes = snapshot();
+        // Into the deflated data of the first users block: header, table section, block header
+        int offset = 25 + 2 + "users".length() + 2 + 8 + 16 + 4;
+        for (BackupFormat.Column column : BackupFormat.TABLES.get(0).columns()) {
+            offset += 2 + column.name().length() + 1;
+        }
+        bytes[offset] ^= 0x5A;
+
+        try {
+            readAll(bytes, "cash_flow");
+            fail("corruption not detected");
+        } catch (IllegalArgumentException | IOException expected) {
+            // checksum or inflate error
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFile_isRejected() throws IOException {
+        byte[] bytes = snapshot();
+        readAll(Arrays.copyOf(bytes, bytes.length - 9), "users");
+    }
+
+    @Test
+    public void otherFormatVersion_isRejected() throws IOException {
+        byte[] bytes = snapshot();
+        bytes[5] = 9;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new BackupFormat.Reader(new ByteArrayInputStream(bytes)));
+        assertTrue(e.getMessage().contains("version"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BudgetCoinReconcilerTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private CoinLeaderboard coinLeaderboard;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private BudgetCoinReconciler reconciler(boolean repair) {
+        return new BudgetCoinReconciler(userRepository, coinLeaderboard, transactionManager, meterRegistry, 10, 4, repair);
+    }
+
+    private static UserRepository.IdRange range(Long min, Long max) {
+        return new UserRepository.IdRange() {
+            @Override public Long getMinId() { return min; }
+            @Override public Long getMaxId() { return max; }
+        };
+    }
+
+    private static UserRepository.CoinLedgerBalance balance(long userId, Long recorded, String expected) {
+        return new UserRepository.CoinLedgerBalance() {
+            @Override public Long getUserId() { return userId; }
+            @Override public Long getRecorded() { return recorded; }
+            @Override public BigDecimal getExpected() { return new BigDecimal(expected); }
+        };
+    }
+
+    @Test
+    public void reconcile_scansEveryPartitionOnce() {
+        when(userRepository.findIdRange()).thenReturn(range(5L, 47L));
+        when(userRepository.findCoinLedgerBalances(anyLong(), anyLong()))
+                .thenReturn(List.of(balance(1L, 10L, "10")));
+
+        BudgetCoinReconciler.Result result = reconciler(false).reconcile(() -> false);
+
+        // 5..47 in ranges of 10 ids
+        verify(userRepository).findCoinLedgerBalances(5L, 14L);
+        verify(userRepository).findCoinLedgerBalances(15L, 24L);
+        verify(userRepository).findCoinLedgerBalances(25L, 34L);
+        verify(userRepository).findCoinLedgerBalances(35L, 44L);
+        verify(userRepository).findCoinLedgerBalances(45L, 54L);
+        verify(userRepository, times(5)).findCoinLedgerBalances(anyLong(), anyLong());
+        assertEquals(5, result.usersScanned());
+        assertEquals(0, result.drifted());
+        assertEquals(5.0, meterRegistry.get("budgetcoin.reconcile.partitions.done").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void reconcile_reportOnly_neverWrites() {
+        when(userRepository.findIdRange()).thenReturn(range(1L, 3L));
+        when(userRepository.findCoinLedgerBalances(1L, 10L))
+                .thenReturn(List.of(balance(1L, 100L, "100"), balance(2L, 70L, "50"), balance(3L, null, "20")));
+
+        BudgetCoinReconciler.Result result = reconciler(false).reconcile(() -> false);
+
+        assertEquals(3, result.usersScanned());
+        assertEquals(2, result.drifted());
+        assertEquals(40, result.driftCoins());
+        assertEquals(0, result.repaired());
+        assertEquals(2.0, meterRegistry.get("budgetcoin.reconcile.drifted").counter().count(), 0.0);
+        verify(userRepository, never()).repairBudgetCoin(anyLong(), anyLong(), anyLong());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    public void reconcile_repair_compareAndSetsDriftedUsersOnly() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userRepository.findIdRange()).thenReturn(range(1L, 3L));
+        when(userRepository.findCoinLedgerBalances(1L, 10L))
+                .thenReturn(List.of(balance(1L, 100L, "100"), balance(2L, 70L, "50"), balance(3L, null, "20")));
+        when(userRepository.repairBudgetCoin(2L, 70L, 50L)).thenReturn(1);
+        // User 3 earned coins between the read and the repair: the CAS misses and it is left alone
+        when(userRepository.repairBudgetCoin(3L, 0L, 20L)).thenReturn(0);
+
+        BudgetCoinReconciler.Result result = reconciler(true).reconcile(() -> false);
+
+        assertEquals(2, result.drifted());
+        assertEquals(1, result.repaired());
+        assertEquals(1.0, meterRegistry.get("budgetcoin.reconcile.repaired").counter().count(), 0.0);
+        verify(userRepository, never()).repairBudgetCoin(eq(1L), anyLong(), anyLong());
+        verify(transactionManager, times(2)).commit(any());
+        verify(coinLeaderboard).recordBalance(2L, 50L);
+        verifyNoMoreInteractions(coinLeaderboard);
+    }
+
+    @Test
+    public void reconcile_cancelled_stopsBetweenPartitions() {
+        when(userRepository.findIdRange()).thenReturn(range(1L, 1000L));
+        AtomicInteger polls = new AtomicInteger();
+
+        reconciler(false).reconcile(() -> polls.incrementAndGet() > 3);
+
+        verify(userRepository, atMost(3)).findCoinLedgerBalances(anyLong(), anyLong());
+    }
+
+    @Test
+    public void reconcile_noUsers() {
+        when(userRepository.findIdRange()).thenReturn(range(null, null));
+
+        BudgetCoinReconciler.Result result = reconciler(true).reconcile(() -> false);
+
+        assertEquals(0, result.usersScanned());
+        verify(userRepository, never()).findCoinLedgerBalances(anyLong(), anyLong());
+    }
+}
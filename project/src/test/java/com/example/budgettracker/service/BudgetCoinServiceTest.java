@@ -28,6 +28,8 @@ public class BudgetCoinServiceTest {
     private RewardRedeemRepository rewardRedeemRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private CoinLeaderboard coinLeaderboard;
 
     @InjectMocks
     private RewardService rewardService;
@@ -111,10 +113,11 @@ public class BudgetCoinServiceTest {
     // ✅ grantBudgetCoin()
     // =============================
     @Test
-    public void grantBudgetCoin_successfullyUpdatesUserAndSavesGrant() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    public void grantBudgetCoin_creditsAtomicallyAndSavesGrant() {
+        when(userRepository.creditBudgetCoin(1L, 200L)).thenReturn(1);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(userRepository.getBudgetCoin(1L)).thenReturn(300L);
         when(rewardGrantRepository.save(any(RewardGrant.class))).thenReturn(grant);
-        when(userRepository.save(any(User.class))).thenReturn(user);
 
         RewardGrantResponse response = rewardService.grantBudgetCoin(grantRequest);
 
@@ -124,13 +127,14 @@ public class BudgetCoinServiceTest {
         assertEquals(Long.valueOf(1L), response.getUserId());
         assertEquals(grant.getRewardEventId(), response.getRewardEventId());
         assertEquals(Long.valueOf(300L), response.getBalanceAfter());
-        verify(userRepository).save(user);
+        verify(userRepository, never()).save(any(User.class));
         verify(rewardGrantRepository).save(any(RewardGrant.class));
+        verify(coinLeaderboard).recordBalance(1L, 300L);
     }
 
     @Test
     public void grantBudgetCoin_userNotFound_throwsException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.creditBudgetCoin(1L, 200L)).thenReturn(0);
         assertThrows(RuntimeException.class, () -> rewardService.grantBudgetCoin(grantRequest));
         verifyNoInteractions(rewardGrantRepository);
     }
@@ -138,12 +142,20 @@ public class BudgetCoinServiceTest {
     // =============================
     // ✅ redeemBudgetCoin()
     // =============================
+    private ItemRepository.ItemPrice price(Item item) {
+        return new ItemRepository.ItemPrice() {
+            @Override public Long getItemId() { return item.getItemId(); }
+            @Override public String getItemName() { return item.getItemName(); }
+            @Override public Long getPrice() { return item.getPrice(); }
+        };
+    }
+
     @Test
     public void redeemBudgetCoin_successfullyRedeemsItem() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(2L)).thenReturn(Optional.of(item));
-        when(userRepository.save(any(User.class))).thenReturn(user);
-        when(itemRepository.save(any(Item.class))).thenReturn(item);
+        when(itemRepository.findPriceById(2L)).thenReturn(Optional.of(price(item)));
+        when(userRepository.spendBudgetCoin(1L, 50L)).thenReturn(1);
+        when(itemRepository.takeOneFromStock(2L)).thenReturn(1);
+        when(userRepository.getBudgetCoin(1L)).thenReturn(50L);
         when(rewardRedeemRepository.save(any(RewardRedeem.class))).thenReturn(redeem);
 
         RewardRedeemResponse response = rewardService.redeemBudgetCoin(redeemRequest);
@@ -154,41 +166,51 @@ public class BudgetCoinServiceTest {
         assertEquals("Coffee Mug", response.getItemName());
         assertEquals(BigDecimal.valueOf(50), response.getAmount());
         assertEquals(Long.valueOf(50L), response.getBalanceAfter());
-        verify(userRepository).save(user);
-        verify(itemRepository).save(item);
+        verify(userRepository, never()).save(any());
+        verify(itemRepository, never()).save(any());
         verify(rewardRedeemRepository).save(any(RewardRedeem.class));
+        verify(coinLeaderboard).recordBalance(1L, 50L);
     }
 
     @Test
     public void redeemBudgetCoin_userNotFound_throwsException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
-        assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
+        when(itemRepository.findPriceById(2L)).thenReturn(Optional.of(price(item)));
+        when(userRepository.spendBudgetCoin(1L, 50L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
+        assertEquals("User not found", e.getMessage());
     }
 
     @Test
     public void redeemBudgetCoin_itemNotFound_throwsException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(2L)).thenReturn(Optional.empty());
+        when(itemRepository.findPriceById(2L)).thenReturn(Optional.empty());
+
         assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
+        verify(userRepository, never()).spendBudgetCoin(anyLong(), anyLong());
     }
 
     @Test
     public void redeemBudgetCoin_insufficientBalance_throwsException() {
-        user.setBudgetCoin(10L);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(2L)).thenReturn(Optional.of(item));
-
-        assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
-        verify(userRepository, never()).save(any());
+        when(itemRepository.findPriceById(2L)).thenReturn(Optional.of(price(item)));
+        when(userRepository.spendBudgetCoin(1L, 50L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
+        assertEquals("Insufficient BudgetCoin balance", e.getMessage());
+        verify(rewardRedeemRepository, never()).save(any());
+        verify(itemRepository, never()).takeOneFromStock(anyLong());
     }
 
     @Test
     public void redeemBudgetCoin_itemOutOfStock_throwsException() {
-        item.setStockQty(0L);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(2L)).thenReturn(Optional.of(item));
+        when(itemRepository.findPriceById(2L)).thenReturn(Optional.of(price(item)));
+        when(userRepository.spendBudgetCoin(1L, 50L)).thenReturn(1);
+        when(rewardRedeemRepository.save(any(RewardRedeem.class))).thenReturn(redeem);
+        when(itemRepository.takeOneFromStock(2L)).thenReturn(0);
 
-        assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> rewardService.redeemBudgetCoin(redeemRequest));
+        assertEquals("Item out of stock", e.getMessage());
     }
 
     // =============================
@@ -240,35 +262,79 @@ public class BudgetCoinServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    private static RewardGrantRepository.CoinTransaction row(String type, long rowId, LocalDateTime at) {
+        return new RewardGrantRepository.CoinTransaction() {
+            public String getType() { return type; }
+            public String getTitle() { return type + "-" + rowId; }
+            public String getReference() { return String.valueOf(rowId); }
+            public BigDecimal getAmount() { return BigDecimal.TEN; }
+            public LocalDateTime getOccurredAt() { return at; }
+            public Long getRowId() { return rowId; }
+        };
+    }
+
     @Test
-    public void getTransactionHistory_mergesAndSortsRecords() {
-        RewardGrant olderGrant = RewardGrant.builder()
-                .grantId(200L)
-                .user(user)
-                .amount(BigDecimal.valueOf(150))
-                .sourceType("Daily streak")
-                .rewardEventId("event-1")
-                .build();
-        olderGrant.setCreatedAt(LocalDateTime.now().minusDays(1));
-
-        RewardRedeem latestRedeem = RewardRedeem.builder()
-                .orderId(300L)
-                .user(user)
-                .item(item)
-                .itemName(item.getItemName())
-                .amount(BigDecimal.valueOf(item.getPrice()))
-                .build();
-        latestRedeem.setRedeemedAt(LocalDateTime.now());
-
-        when(rewardGrantRepository.findByUserUserId(1L)).thenReturn(List.of(olderGrant));
-        when(rewardRedeemRepository.findByUserUserId(1L)).thenReturn(List.of(latestRedeem));
-
-        List<RewardTransactionResponse> history = rewardService.getTransactionHistory(1L);
-
-        assertEquals(2, history.size());
-        assertEquals("SPEND", history.get(0).getType());
-        assertEquals("EARN", history.get(1).getType());
-        verify(rewardGrantRepository).findByUserUserId(1L);
-        verify(rewardRedeemRepository).findByUserUserId(1L);
+    public void getTransactionHistory_firstPage_readsOneQueryAndReturnsCursor() {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 12, 0);
+        when(rewardGrantRepository.findHistoryPage(eq(1L), any(), eq(Long.MAX_VALUE), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(List.of(row("SPEND", 300L, now), row("EARN", 200L, now), row("EARN", 199L, now.minusDays(1))));
+
+        RewardHistoryPage page = rewardService.getTransactionHistory(1L, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("SPEND", page.getItems().get(0).getType());
+        assertEquals("EARN", page.getItems().get(1).getType());
+        assertNotNull(page.getNextCursor());
+        verify(rewardGrantRepository, never()).findByUserUserId(any());
+        verify(rewardRedeemRepository, never()).findByUserUserId(any());
+    }
+
+    @Test
+    public void getTransactionHistory_nextPage_continuesBelowCursor() {
+        LocalDateTime at = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 123456000);
+        when(rewardGrantRepository.findHistoryPage(eq(1L), any(), anyLong(), anyLong(), anyInt()))
+                .thenReturn(List.of(row("SPEND", 300L, at), row("EARN", 200L, at)));
+        String cursor = rewardService.getTransactionHistory(1L, null, 1).getNextCursor();
+
+        when(rewardGrantRepository.findHistoryPage(eq(1L), eq(at), eq(Long.MAX_VALUE), eq(300L), eq(2)))
+                .thenReturn(List.of(row("EARN", 200L, at)));
+        RewardHistoryPage page = rewardService.getTransactionHistory(1L, cursor, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void getTransactionHistory_clampsPageSize() {
+        when(rewardGrantRepository.findHistoryPage(eq(1L), any(), anyLong(), anyLong(), eq(RewardService.MAX_HISTORY_PAGE + 1)))
+                .thenReturn(Collections.emptyList());
+
+        RewardHistoryPage page = rewardService.getTransactionHistory(1L, "", 10_000);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void getTransactionHistory_rejectsGarbageCursor() {
+        try {
+            rewardService.getTransactionHistory(1L, "not-a-cursor", 10);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid history cursor", e.getMessage());
+        }
+        verifyNoInteractions(rewardGrantRepository);
+    }
+
+    @Test
+    public void historyCursor_tieBoundsFollowTypeOrder() {
+        RewardService.HistoryCursor afterSpend = new RewardService.HistoryCursor(LocalDateTime.now(), "SPEND", 7L);
+        RewardService.HistoryCursor afterEarn = new RewardService.HistoryCursor(LocalDateTime.now(), "EARN", 7L);
+
+        assertEquals(Long.MAX_VALUE, afterSpend.grantTieBefore());
+        assertEquals(7L, afterSpend.redeemTieBefore());
+        assertEquals(7L, afterEarn.grantTieBefore());
+        assertEquals(0L, afterEarn.redeemTieBefore());
+        assertEquals(afterSpend, RewardService.HistoryCursor.decode(afterSpend.encode()));
     }
 }
@@ -35,6 +35,8 @@ public class BudgetServiceImplTest {
     @Mock private UserRepository userRepository;
     @Mock private CategoryBudgetRepository categoryBudgetRepository;
     @Mock private CashFlowRepository cashFlowRepository;
+    @Mock private DomainEventPublisher domainEventPublisher;
+    @Mock private SyncChangeLog syncChangeLog;
 
     @InjectMocks
     private BudgetServiceImpl service;
@@ -0,0 +1,153 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CategoryDictionaryTest {
+
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private SyncChangeLog syncChangeLog;
+
+    private CategoryDictionary dictionary;
+
+    @Before
+    public void setUp() {
+        dictionary = new CategoryDictionary(categoryRepository, userRepository, syncChangeLog, 600, 2);
+    }
+
+    private static CategoryRepository.CategoryName name(long id, String name) {
+        return new CategoryRepository.CategoryName() {
+            @Override public Long getCategoryId() { return id; }
+            @Override public String getName() { return name; }
+        };
+    }
+
+    @Test
+    public void find_loadsOnce_thenServesFromMemory() {
+        when(categoryRepository.findNamesByUserId(1L)).thenReturn(List.of(name(5L, "Food")));
+        Category ref = Category.builder().categoryId(5L).build();
+        when(categoryRepository.getReferenceById(5L)).thenReturn(ref);
+
+        assertSame(ref, dictionary.find(1L, "food").orElseThrow());
+        assertSame(ref, dictionary.find(1L, "  FOOD ").orElseThrow());
+        assertTrue(dictionary.find(1L, "Travel").isEmpty());
+
+        verify(categoryRepository, times(1)).findNamesByUserId(1L);
+    }
+
+    @Test
+    public void getOrCreate_hit_doesNotLockOrQuery() {
+        when(categoryRepository.findNamesByUserId(1L)).thenReturn(List.of(name(5L, "Income")));
+        when(categoryRepository.getReferenceById(5L)).thenReturn(Category.builder().categoryId(5L).build());
+
+        assertEquals(Long.valueOf(5L), dictionary.getOrCreate(1L, "Income").getCategoryId());
+
+        verify(userRepository, never()).findByIdForUpdate(anyLong());
+        verify(categoryRepository, never()).saveAndFlush(any(Category.class));
+    }
+
+    @Test
+    public void getOrCreate_miss_createsUnderUserLock_andCachesId() {
+        User user = User.builder().userId(1L).build();
+        when(categoryRepository.findNamesByUserId(1L)).thenReturn(List.of());
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+        when(categoryRepository.findByUser_UserIdAndNameIgnoreCase(1L, "Subscriptions")).thenReturn(Optional.empty());
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenAnswer(inv -> {
+            Category c = inv.getArgument(0);
+            c.setCategoryId(7L);
+            return c;
+        });
+        when(categoryRepository.getReferenceById(7L)).thenReturn(Category.builder().categoryId(7L).build());
+
+        Category created = dictionary.getOrCreate(1L, "Subscriptions");
+        assertEquals(Long.valueOf(7L), created.getCategoryId());
+        assertTrue(created.isSystem());
+        assertSame(user, created.getUser());
+
+        // Second call is answered from the cache
+        assertEquals(Long.valueOf(7L), dictionary.getOrCreate(1L, "subscriptions").getCategoryId());
+        verify(userRepository, times(1)).findByIdForUpdate(1L);
+        verify(categoryRepository, times(1)).saveAndFlush(any(Category.class));
+        verify(categoryRepository, times(1)).findNamesByUserId(1L);
+    }
+
+    @Test
+    public void getOrCreate_reusesRowCreatedByAnotherTransaction() {
+        Category existing = Category.builder().categoryId(8L).name("Income").build();
+        when(categoryRepository.findNamesByUserId(1L)).thenReturn(List.of());
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(User.builder().userId(1L).build()));
+        when(categoryRepository.findByUser_UserIdAndNameIgnoreCase(1L, "Income")).thenReturn(Optional.of(existing));
+
+        assertSame(existing, dictionary.getOrCreate(1L, "Income"));
+        verify(categoryRepository, never()).saveAndFlush(any(Category.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getOrCreate_unknownUser_throws() {
+        when(categoryRepository.findNamesByUserId(99L)).thenReturn(List.of());
+        when(userRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
+
+        dictionary.getOrCreate(99L, "Income");
+    }
+
+    @Test
+    public void invalidate_forcesReload() {
+        when(categoryRepository.findNamesByUserId(1L))
+                .thenReturn(List.of())
+                .thenReturn(List.of(name(3L, "Rent")));
+        when(categoryRepository.getReferenceById(3L)).thenReturn(Category.builder().categoryId(3L).build());
+
+        assertTrue(dictionary.find(1L, "Rent").isEmpty());
+        dictionary.invalidate(1L);
+        assertTrue(dictionary.find(1L, "Rent").isPresent());
+
+        verify(categoryRepository, times(2)).findNamesByUserId(1L);
+    }
+
+    @Test
+    public void systemCategoriesFlag_isCached_andRefreshedWhenMarked() {
+        when(categoryRepository.findNamesByUserId(1L)).thenReturn(List.of());
+        when(userRepository.getSystemCategoriesEnsured(1L)).thenReturn(null, true);
+
+        assertFalse(dictionary.systemCategoriesEnsured(1L));
+        assertFalse(dictionary.systemCategoriesEnsured(1L));
+
+        dictionary.markSystemCategoriesEnsured(1L);
+
+        assertTrue(dictionary.systemCategoriesEnsured(1L));
+        verify(userRepository).markSystemCategoriesEnsured(1L);
+        verify(userRepository, times(2)).getSystemCategoriesEnsured(1L);
+    }
+
+    @Test
+    public void leastRecentlyUsedUserIsEvicted_beyondMaxUsers() {
+        when(categoryRepository.findNamesByUserId(anyLong())).thenReturn(List.of());
+
+        dictionary.find(1L, "x");
+        dictionary.find(2L, "x");
+        dictionary.find(1L, "x"); // 1 is now most recent
+        dictionary.find(3L, "x"); // evicts 2
+        dictionary.find(1L, "x");
+        dictionary.find(2L, "x");
+
+        verify(categoryRepository, times(1)).findNamesByUserId(1L);
+        verify(categoryRepository, times(2)).findNamesByUserId(2L);
+        verify(categoryRepository, times(1)).findNamesByUserId(3L);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.CategoryOperation;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.CategoryOperationPhase;
+import com.example.budgettracker.model.enums.CategoryOperationStatus;
+import com.example.budgettracker.model.enums.CategoryOperationType;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryOperationRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CategoryOperationExecutorTest {
+
+    private static final int CHUNK = 3;
+
+    @Mock private CategoryOperationRepository operationRepository;
+    @Mock private CashFlowRepository cashFlowRepository;
+    @Mock private CategoryBudgetRepository categoryBudgetRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private SchedulerLockService lockService;
+    @Mock private CategoryDictionary categoryDictionary;
+    @Mock private DomainEventPublisher domainEventPublisher;
+    @Mock private SyncChangeLog syncChangeLog;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private CategoryOperationExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new CategoryOperationExecutor(operationRepository, cashFlowRepository, categoryBudgetRepository,
+                categoryRepository, lockService, categoryDictionary, domainEventPublisher, syncChangeLog, transactionManager, CHUNK, 1);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private CategoryOperation op(CategoryOperationType type, CategoryOperationPhase phase) {
+        CategoryOperation op = CategoryOperation.builder()
+                .id(1L)
+                .user(User.builder().userId(42L).build())
+                .type(type)
+                .phase(phase)
+                .status(CategoryOperationStatus.RUNNING)
+                .sourceIds("10,11")
+                .targetId(type == CategoryOperationType.MERGE ? 20L : null)
+                .mergeBudgets(type == CategoryOperationType.MERGE)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(operationRepository.findById(1L)).thenReturn(Optional.of(op));
+        return op;
+    }
+
+    @Test
+    public void step_budgets_mergesSetBasedThenMovesToCashFlows() {
+        CategoryOperation op = op(CategoryOperationType.MERGE, CategoryOperationPhase.BUDGETS);
+        when(categoryBudgetRepository.addSourceBudgetsToTarget(42L, List.of(10L, 11L), 20L)).thenReturn(2);
+        when(categoryBudgetRepository.insertMissingTargetBudgets(42L, List.of(10L, 11L), 20L)).thenReturn(3);
+
+        assertTrue(executor.step(1L));
+
+        verify(categoryBudgetRepository).deleteByUserAndCategoryIn(42L, List.of(10L, 11L));
+        assertEquals(CategoryOperationPhase.CASH_FLOWS, op.getPhase());
+        assertEquals(Long.valueOf(5L), op.getBudgetsAffected());
+        verify(operationRepository).save(op);
+    }
+
+    @Test
+    public void step_budgets_deleteOnlyDropsBudgets() {
+        CategoryOperation op = op(CategoryOperationType.DELETE, CategoryOperationPhase.BUDGETS);
+        when(categoryBudgetRepository.deleteByUserAndCategoryIn(42L, List.of(10L, 11L))).thenReturn(4);
+
+        executor.step(1L);
+
+        verify(categoryBudgetRepository, never()).addSourceBudgetsToTarget(anyLong(), anyList(), anyLong());
+        assertEquals(Long.valueOf(4L), op.getBudgetsAffected());
+    }
+
+    @Test
+    public void step_cashFlows_reassignsOneKeysetChunkAndAdvancesCursor() {
+        CategoryOperation op = op(CategoryOperationType.MERGE, CategoryOperationPhase.CASH_FLOWS);
+        op.setLastCursor(100L);
+        when(cashFlowRepository.findIdsByCategoryInAfter(eq(List.of(10L, 11L)), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(101L, 105L, 110L));
+        when(cashFlowRepository.reassignCategoryForIds(List.of(101L, 105L, 110L), 20L)).thenReturn(3);
+
+        assertTrue(executor.step(1L));
+
+        assertEquals(Long.valueOf(110L), op.getLastCursor());
+        assertEquals(Long.valueOf(3L), op.getProcessedRows());
+        assertEquals(CategoryOperationPhase.CASH_FLOWS, op.getPhase());
+        verify(cashFlowRepository, never()).deleteByIds(anyList());
+        verify(domainEventPublisher).publish(eq(42L), eq(DomainEventType.CATEGORY_REASSIGNED),
+                argThat(payload -> payload.get("cashFlowIds").equals(List.of(101L, 105L, 110L))
+                        && payload.get("targetCategoryId").equals(20L)));
+    }
+
+    @Test
+    public void step_cashFlows_movesToCategoriesWhenNoRowsLeft() {
+        CategoryOperation op = op(CategoryOperationType.DELETE, CategoryOperationPhase.CASH_FLOWS);
+        when(cashFlowRepository.findIdsByCategoryInAfter(anyList(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        assertTrue(executor.step(1L));
+
+        assertEquals(CategoryOperationPhase.CATEGORIES, op.getPhase());
+    }
+
+    @Test
+    public void step_categories_sweepsStragglersBeforeDeleting() {
+        CategoryOperation op = op(CategoryOperationType.DELETE, CategoryOperationPhase.CATEGORIES);
+        when(cashFlowRepository.findIdsByCategoryInAfter(anyList(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(500L));
+        when(cashFlowRepository.deleteByIds(List.of(500L))).thenReturn(1);
+
+        assertTrue(executor.step(1L));
+
+        verify(categoryRepository).lockAllById(List.of(10L, 11L));
+        verify(categoryRepository, never()).deleteAllByIdInBatch(anyList());
+        assertEquals(CategoryOperationStatus.RUNNING, op.getStatus());
+    }
+
+    @Test
+    public void step_categories_deletesSourcesAndCompletes() {
+        CategoryOperation op = op(CategoryOperationType.MERGE, CategoryOperationPhase.CATEGORIES);
+        when(cashFlowRepository.findIdsByCategoryInAfter(anyList(), eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        assertFalse(executor.step(1L));
+
+        verify(categoryRepository).deleteAllByIdInBatch(List.of(10L, 11L));
+        assertEquals(CategoryOperationStatus.COMPLETED, op.getStatus());
+        assertEquals(CategoryOperationPhase.DONE, op.getPhase());
+        assertNotNull(op.getFinishedAt());
+        verify(categoryDictionary).invalidate(42L);
+    }
+
+    @Test
+    public void run_doesNothing_whenLeaseHeldElsewhere() {
+        when(lockService.tryAcquire(eq("category-op-1"), any())).thenReturn(false);
+
+        executor.run(1L);
+
+        verifyNoInteractions(operationRepository);
+    }
+
+    @Test
+    public void run_stopsWithoutFailing_whenLeaseLost() {
+        CategoryOperation op = op(CategoryOperationType.DELETE, CategoryOperationPhase.CASH_FLOWS);
+        when(lockService.tryAcquire(eq("category-op-1"), any())).thenReturn(true);
+        when(lockService.extend(eq("category-op-1"), any())).thenReturn(false);
+
+        executor.run(1L);
+
+        assertEquals(CategoryOperationStatus.RUNNING, op.getStatus());
+        verify(cashFlowRepository, never()).findIdsByCategoryInAfter(anyList(), anyLong(), any(Pageable.class));
+        verify(lockService).release(eq("category-op-1"), any());
+        verify(lockService, never()).remove(any());
+    }
+
+    @Test
+    public void run_marksFailed_whenStepThrows() {
+        CategoryOperation op = op(CategoryOperationType.DELETE, CategoryOperationPhase.CASH_FLOWS);
+        when(lockService.tryAcquire(eq("category-op-1"), any())).thenReturn(true);
+        when(lockService.extend(eq("category-op-1"), any())).thenReturn(true);
+        when(cashFlowRepository.findIdsByCategoryInAfter(anyList(), anyLong(), any(Pageable.class)))
+                .thenThrow(new RuntimeException("deadlock"));
+
+        executor.run(1L);
+
+        assertEquals(CategoryOperationStatus.FAILED, op.getStatus());
+        assertEquals("deadlock", op.getErrorMessage());
+        verify(lockService).remove("category-op-1");
+        verify(lockService, never()).release(any(), any());
+    }
+
+    @Test
+    public void run_removesTheLeaseRow_whenOperationCompletes() {
+        CategoryOperation op = op(CategoryOperationType.DELETE, CategoryOperationPhase.CATEGORIES);
+        when(lockService.tryAcquire(eq("category-op-1"), any())).thenReturn(true);
+        when(lockService.extend(eq("category-op-1"), any())).thenReturn(true);
+        when(cashFlowRepository.findIdsByCategoryInAfter(anyList(), eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        executor.run(1L);
+
+        assertEquals(CategoryOperationStatus.COMPLETED, op.getStatus());
+        verify(lockService).remove("category-op-1");
+        verify(lockService, never()).release(any(), any());
+    }
+}
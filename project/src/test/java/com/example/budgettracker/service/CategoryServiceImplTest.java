@@ -5,12 +5,16 @@ import com.example.budgettracker.model.Account;
 import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.model.CategoryBudget;
+import com.example.budgettracker.model.CategoryOperation;
 import com.example.budgettracker.model.User;
 import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.CategoryOperationType;
 import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryOperationRepository;
 import com.example.budgettracker.repository.CategoryRepository;
-import jakarta.persistence.EntityManager;
+import com.example.budgettracker.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -43,7 +47,11 @@ public class CategoryServiceImplTest {
     private CategoryRepository categoryRepo;
     @Mock private CashFlowRepository cashFlowRepo;
     @Mock private CategoryBudgetRepository categoryBudgetRepository;
-    @Mock private EntityManager entityManager;
+    @Mock private CategoryOperationRepository operationRepo;
+    @Mock private CategoryOperationExecutor operationExecutor;
+    @Mock private CategoryDictionary categoryDictionary;
+    @Mock private SyncChangeLog syncChangeLog;
+    @Mock private UserRepository userRepository;
 
     @InjectMocks
     private CategoryServiceImpl service;
@@ -97,31 +105,38 @@ public class CategoryServiceImplTest {
         }
         existing.add(cat(id, 1L, "Play", false));
 
+        when(categoryDictionary.systemCategoriesEnsured(1L)).thenReturn(true);
         when(categoryRepo.findByUser_UserIdOrderByNameAsc(1L)).thenReturn(existing);
 
         List<CategoryResponse> out = service.list(1L);
         assertThat(out.size(), is(SystemCategoryDefaults.NAMES.size() + 1));
         assertTrue(out.stream().anyMatch(c -> "Play".equals(c.getName()) && !c.isSystem()));
         verify(categoryRepo, never()).save(any(Category.class));
+        verify(categoryDictionary, never()).getOrCreate(anyLong(), anyString());
+        verify(categoryDictionary, never()).markSystemCategoriesEnsured(anyLong());
     }
 
     @Test
     public void list_missingSystemCategories_seeded() {
-        when(categoryRepo.findByUser_UserIdOrderByNameAsc(1L)).thenReturn(new ArrayList<>());
-        when(categoryRepo.save(any(Category.class))).thenAnswer(invocation -> {
-            Category c = invocation.getArgument(0);
-            c.setCategoryId(Math.abs((long) c.getName().hashCode()));
+        List<Category> seeded = new ArrayList<>();
+        when(categoryDictionary.systemCategoriesEnsured(1L)).thenReturn(false);
+        when(categoryDictionary.getOrCreate(eq(1L), anyString())).thenAnswer(invocation -> {
+            Category c = cat(seeded.size() + 1L, 1L, invocation.getArgument(1), true);
+            seeded.add(c);
             return c;
         });
+        when(categoryRepo.findByUser_UserIdOrderByNameAsc(1L)).thenReturn(seeded);
 
         List<CategoryResponse> out = service.list(1L);
 
         long systemCount = out.stream().filter(CategoryResponse::isSystem).count();
         assertThat(systemCount, is((long) SystemCategoryDefaults.NAMES.size()));
 
-        verify(categoryRepo, times(SystemCategoryDefaults.NAMES.size())).save(any(Category.class));
-        verify(entityManager, times(1)).flush();
-        verify(entityManager, times(1)).clear();
+        for (String name : SystemCategoryDefaults.NAMES) {
+            verify(categoryDictionary).getOrCreate(1L, name);
+        }
+        verify(categoryDictionary).markSystemCategoriesEnsured(1L);
+        verify(categoryRepo, never()).save(any(Category.class));
     }
 
     // ---------- create ----------
@@ -152,6 +167,7 @@ public class CategoryServiceImplTest {
 
         assertThat(resp.getId(), is(99L));
         assertThat(resp.getName(), is("New Cat"));
+        verify(categoryDictionary).invalidate(1L);
     }
 
     @Test
@@ -181,6 +197,7 @@ public class CategoryServiceImplTest {
         CategoryResponse out = service.rename(1L, 10L, req);
         assertThat(out.getName(), is("New Name"));
         verify(categoryRepo).save(Mockito.argThat(c -> c.getName().equals("New Name")));
+        verify(categoryDictionary).invalidate(1L);
     }
     @Test
     public void rename_notFound_throws() {
@@ -232,20 +249,58 @@ public class CategoryServiceImplTest {
     }
 
     // ---------- delete ----------
+    private void stubOperationSave(long id) {
+        when(operationRepo.save(any(CategoryOperation.class))).thenAnswer(inv -> {
+            CategoryOperation op = inv.getArgument(0);
+            op.setId(id);
+            return op;
+        });
+    }
+
     @Test
-    public void delete_ok_deletesBudgetsCashFlowsAndCategory() {
+    public void delete_ok_queuesBackgroundOperation() {
         Category own = cat(10L, 1L, "X", false);
         when(categoryRepo.findById(10L)).thenReturn(Optional.of(own));
-        when(categoryBudgetRepository.deleteByUser_UserIdAndCategory_CategoryId(1L, 10L)).thenReturn(2);
-        when(cashFlowRepo.deleteByUserAndCategory(1L, 10L)).thenReturn(5);
+        when(cashFlowRepo.countByCategory_CategoryIdIn(List.of(10L))).thenReturn(5L);
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user(1L)));
+        stubOperationSave(7L);
+
+        CategoryOperationResponse resp = service.delete(1L, 10L);
+
+        assertEquals(Long.valueOf(7L), resp.getOperationId());
+        assertEquals("DELETE", resp.getType());
+        assertEquals("PENDING", resp.getStatus());
+        assertEquals(5L, resp.getTotalRows());
+        assertEquals(List.of(10L), resp.getSourceIds());
+        verify(operationExecutor).submit(7L);
+        // Nothing is deleted inline any more
+        verify(cashFlowRepo, never()).deleteByUserAndCategory(anyLong(), anyLong());
+        verify(categoryRepo, never()).delete(any(Category.class));
+    }
+
+    @Test
+    public void delete_rejected_whenAnotherOperationInProgress() {
+        when(categoryRepo.findById(10L)).thenReturn(Optional.of(cat(10L, 1L, "X", false)));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user(1L)));
+        when(operationRepo.existsByUser_UserIdAndStatusIn(eq(1L), any())).thenReturn(true);
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Another category delete or merge is still in progress");
+        service.delete(1L, 10L);
+    }
+
+    @Test
+    public void delete_locksUserRowBeforeCheckingForActiveOperation() {
+        when(categoryRepo.findById(10L)).thenReturn(Optional.of(cat(10L, 1L, "X", false)));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user(1L)));
+        stubOperationSave(7L);
 
         service.delete(1L, 10L);
 
-        verify(categoryBudgetRepository).deleteByUser_UserIdAndCategory_CategoryId(1L, 10L);
-        verify(cashFlowRepo).deleteByUserAndCategory(1L, 10L);
-        verify(entityManager).flush();
-        verify(entityManager).clear();
-        verify(categoryRepo).delete(own);
+        InOrder inOrder = Mockito.inOrder(userRepository, operationRepo);
+        inOrder.verify(userRepository).findByIdForUpdate(1L);
+        inOrder.verify(operationRepo).existsByUser_UserIdAndStatusIn(eq(1L), any());
+        inOrder.verify(operationRepo).save(any(CategoryOperation.class));
     }
 
     @Test
@@ -276,7 +331,7 @@ public class CategoryServiceImplTest {
 
     // ---------- merge ----------
     @Test
-    public void merge_ok_filtersTargetAndDeletesNonSystem() {
+    public void merge_ok_queuesOnlyNonSystemSources() {
         Category target = cat(100L, 1L, "Target", false);
         when(categoryRepo.findById(100L)).thenReturn(Optional.of(target));
 
@@ -284,20 +339,25 @@ public class CategoryServiceImplTest {
         Category s2 = cat(102L, 1L, "B", true); // 系统类目保留
         when(categoryRepo.findById(101L)).thenReturn(Optional.of(s1));
         when(categoryRepo.findById(102L)).thenReturn(Optional.of(s2));
-
-        when(categoryBudgetRepository.deleteByUser_UserIdAndCategory_CategoryId(eq(1L), eq(101L))).thenReturn(0);
-        when(cashFlowRepo.reassignUserCategoryIn(eq(1L), Mockito.anyList(), eq(100L)))
-                .thenReturn(7);
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user(1L)));
+        stubOperationSave(9L);
 
         CategoryMergeRequest req = new CategoryMergeRequest();
         req.setTargetId(100L);
         req.setSourceIds(Arrays.asList(100L, 101L, 102L));
 
-        int affected = service.merge(1L, req, null);
+        CategoryOperationResponse resp = service.merge(1L, req, true);
 
-        assertThat(affected, is(7));
-        verify(categoryRepo).delete(s1);
-        verify(categoryRepo, never()).delete(s2);
+        ArgumentCaptor<CategoryOperation> captor = ArgumentCaptor.forClass(CategoryOperation.class);
+        verify(operationRepo).save(captor.capture());
+        CategoryOperation op = captor.getValue();
+        assertEquals(CategoryOperationType.MERGE, op.getType());
+        assertEquals("101", op.getSourceIds());
+        assertEquals(Long.valueOf(100L), op.getTargetId());
+        assertTrue(op.isMergeBudgets());
+        assertEquals(Long.valueOf(9L), resp.getOperationId());
+        verify(operationExecutor).submit(9L);
+        verify(categoryRepo, never()).delete(any(Category.class));
     }
 
     @Test
@@ -334,9 +394,11 @@ public class CategoryServiceImplTest {
         req.setTargetId(100L);
         req.setSourceIds(Arrays.asList(100L)); // 只包含 targetId -> 过滤后为空
 
-        int out = service.merge(1L, req, null);
-        assertThat(out, is(0));
-        verify(cashFlowRepo, never()).reassignUserExpenseCategoryIn(Mockito.anyLong(), Mockito.anyList(), Mockito.anyLong());
+        CategoryOperationResponse out = service.merge(1L, req, null);
+        assertThat(out.getStatus(), is("COMPLETED"));
+        assertThat(out.getOperationId(), is(nullValue()));
+        verify(operationRepo, never()).save(any());
+        verify(operationExecutor, never()).submit(anyLong());
     }
 
     @Test
@@ -367,6 +429,15 @@ public class CategoryServiceImplTest {
         service.merge(1L, req, null);
     }
 
+    // ---------- getOperation ----------
+    @Test
+    public void getOperation_notOwned_throws() {
+        when(operationRepo.findByIdAndUser_UserId(5L, 1L)).thenReturn(Optional.empty());
+
+        thrown.expect(EntityNotFoundException.class);
+        service.getOperation(1L, 5L);
+    }
+
     // ---------- categorySummary ----------
     @Test
     public void categorySummary_notOwned_throws() {
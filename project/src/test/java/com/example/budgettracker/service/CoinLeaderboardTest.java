@@ -0,0 +1,142 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Budgetcoin.LeaderboardEntryResponse;
+import com.example.budgettracker.dto.Budgetcoin.LeaderboardRankResponse;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CoinLeaderboardTest {
+
+    @Mock private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoinLeaderboard leaderboard;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        leaderboard = new CoinLeaderboard(userRepository, meterRegistry, 2);
+    }
+
+    private static UserRepository.UserCoins coins(long userId, Long budgetCoin) {
+        return new UserRepository.UserCoins() {
+            @Override public Long getUserId() { return userId; }
+            @Override public Long getBudgetCoin() { return budgetCoin; }
+        };
+    }
+
+    private static User user(long id, String firstName) {
+        User u = new User();
+        u.setUserId(id);
+        u.setFirstName(firstName);
+        return u;
+    }
+
+    @Test
+    public void seed_pagesThroughEveryUser() {
+        when(userRepository.findCoinBalancesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(coins(1L, 30L), coins(2L, 90L)));
+        when(userRepository.findCoinBalancesAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(coins(3L, null)));
+
+        leaderboard.seed();
+
+        assertEquals(3, leaderboard.size());
+        assertEquals(3.0, meterRegistry.get("budgetcoin.leaderboard.size").gauge().value(), 0.0);
+        assertEquals(3, leaderboard.rankOf(3L).getRank());
+    }
+
+    @Test
+    public void top_sharesRanksOnTiesAndLooksUpOnlyBoardNames() {
+        leaderboard.recordBalance(1L, 40L);
+        leaderboard.recordBalance(2L, 90L);
+        leaderboard.recordBalance(3L, 40L);
+        when(userRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(user(1L, "Ann"), user(2L, "Bo")));
+
+        List<LeaderboardEntryResponse> top = leaderboard.top(2);
+
+        assertEquals(2, top.size());
+        assertEquals("Bo", top.get(0).getFirstName());
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(2, top.get(1).getRank());
+        assertEquals(40L, top.get(1).getBudgetCoin());
+    }
+
+    @Test
+    public void recordBalance_commitsAppliedOutOfOrder_keepTheLaterBalance() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> commits;
+        try {
+            leaderboard.recordBalance(1L, 100L);
+            leaderboard.recordBalance(1L, 150L);
+            commits = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, leaderboard.size());
+
+        Collections.reverse(commits);
+        commits.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(150L, leaderboard.rankOf(1L).getBudgetCoin());
+    }
+
+    @Test
+    public void rankOf_unknownUser_isIndexedFromDatabase() {
+        leaderboard.recordBalance(1L, 40L);
+        when(userRepository.findCoinBalances(List.of(7L))).thenReturn(List.of(coins(7L, 100L)));
+
+        LeaderboardRankResponse rank = leaderboard.rankOf(7L);
+
+        assertEquals(1, rank.getRank());
+        assertEquals(2, rank.getTotalUsers());
+        // Second call is served from the index
+        leaderboard.rankOf(7L);
+        verify(userRepository, times(1)).findCoinBalances(any());
+    }
+
+    @Test
+    public void rankOf_missingUser_throwsNotFound() {
+        when(userRepository.findCoinBalances(List.of(7L))).thenReturn(List.of());
+        assertThrows(EntityNotFoundException.class, () -> leaderboard.rankOf(7L));
+    }
+
+    @Test
+    public void correctFromDatabase_fixesStaleAndDeletedEntriesWithFreshReads() {
+        leaderboard.recordBalance(1L, 10L);
+        leaderboard.recordBalance(2L, 20L);
+        leaderboard.recordBalance(9L, 99L);
+        when(userRepository.findCoinBalancesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(coins(1L, 10L), coins(2L, 25L)));
+        when(userRepository.findCoinBalancesAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+        // User 2 changed again after the page was read; 9 was deleted
+        when(userRepository.findCoinBalances(List.of(2L, 9L))).thenReturn(List.of(coins(2L, 27L)));
+
+        int corrected = leaderboard.correctFromDatabase();
+
+        assertEquals(2, corrected);
+        assertEquals(2, leaderboard.size());
+        assertEquals(27L, leaderboard.rankOf(2L).getBudgetCoin());
+        assertEquals(2.0, meterRegistry.get("budgetcoin.leaderboard.corrections").counter().count(), 0.0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.budgettracker.service;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CoinRankIndexTest {
+
+    @Test
+    public void rankAndTop_followCoinsThenUserId() {
+        CoinRankIndex index = new CoinRankIndex();
+        index.put(1L, 50L);
+        index.put(2L, 80L);
+        index.put(3L, 50L);
+        index.put(4L, 10L);
+
+        assertEquals(List.of(new CoinRankIndex.Entry(2L, 80L), new CoinRankIndex.Entry(1L, 50L),
+                new CoinRankIndex.Entry(3L, 50L)), index.top(3));
+        assertEquals(Integer.valueOf(1), index.rankOf(2L));
+        // Ties share a rank
+        assertEquals(Integer.valueOf(2), index.rankOf(1L));
+        assertEquals(Integer.valueOf(2), index.rankOf(3L));
+        assertEquals(Integer.valueOf(4), index.rankOf(4L));
+        assertNull(index.rankOf(99L));
+    }
+
+    @Test
+    public void put_movesUserAndRemoveDropsIt() {
+        CoinRankIndex index = new CoinRankIndex();
+        index.put(1L, 50L);
+        index.put(2L, 80L);
+
+        index.put(1L, 100L);
+        assertEquals(Integer.valueOf(1), index.rankOf(1L));
+        assertEquals(2, index.size());
+
+        index.remove(1L);
+        assertEquals(Integer.valueOf(1), index.rankOf(2L));
+        assertEquals(1, index.top(10).size());
+    }
+
+    @Test
+    public void putIfAbsent_keepsExistingValue() {
+        CoinRankIndex index = new CoinRankIndex();
+        index.put(1L, 70L);
+        index.putIfAbsent(1L, 10L);
+        index.putIfAbsent(2L, 10L);
+
+        assertEquals(Long.valueOf(70L), index.coinsOf(1L));
+        assertEquals(Long.valueOf(10L), index.coinsOf(2L));
+    }
+
+    @Test
+    public void randomUpdates_matchSortedReference() {
+        Random random = new Random(42);
+        CoinRankIndex index = new CoinRankIndex();
+        Map<Long, Long> reference = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            long userId = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                index.remove(userId);
+                reference.remove(userId);
+            } else {
+                long coins = random.nextInt(200);
+                index.put(userId, coins);
+                reference.put(userId, coins);
+            }
+        }
+
+        List<CoinRankIndex.Entry> sorted = new ArrayList<>();
+        reference.forEach((id, coins) -> sorted.add(new CoinRankIndex.Entry(id, coins)));
+        sorted.sort(Comparator.comparingLong(CoinRankIndex.Entry::coins).reversed()
+                .thenComparingLong(CoinRankIndex.Entry::userId));
+
+        assertEquals(reference.size(), index.size());
+        assertEquals(sorted, index.top(Integer.MAX_VALUE));
+        for (CoinRankIndex.Entry e : sorted) {
+            long above = sorted.stream().filter(o -> o.coins() > e.coins()).count();
+            assertEquals(Integer.valueOf((int) above + 1), index.rankOf(e.userId()));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.RewardGrant;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.GoalRepository;
+import com.example.budgettracker.repository.RewardGrantRepository;
+import com.example.budgettracker.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CoinRuleEngineTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2026, 3);
+
+    @Mock private CategoryBudgetRepository categoryBudgetRepository;
+    @Mock private GoalRepository goalRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private RewardGrantRepository rewardGrantRepository;
+    @Mock private CoinLeaderboard coinLeaderboard;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private CoinRuleEngine engine;
+
+    @Before
+    public void setUp() {
+        List<CoinRewardRule> rules = List.of(
+                new UnderBudgetRule(categoryBudgetRepository, 20),
+                new GoalCompletedRule(goalRepository, 100));
+        engine = new CoinRuleEngine(rules, userRepository, rewardGrantRepository, coinLeaderboard,
+                transactionManager, 100, 2);
+    }
+
+    private static UserRepository.IdRange range(Long min, Long max) {
+        return new UserRepository.IdRange() {
+            @Override public Long getMinId() { return min; }
+            @Override public Long getMaxId() { return max; }
+        };
+    }
+
+    private static CategoryBudgetRepository.UnderBudget underBudget(long userId, long categoryId, String name) {
+        return new CategoryBudgetRepository.UnderBudget() {
+            @Override public Long getUserId() { return userId; }
+            @Override public Long getCategoryId() { return categoryId; }
+            @Override public String getCategoryName() { return name; }
+        };
+    }
+
+    private static GoalRepository.CompletedGoal completed(long goalId, long userId, String name) {
+        return new GoalRepository.CompletedGoal() {
+            @Override public Long getGoalId() { return goalId; }
+            @Override public Long getUserId() { return userId; }
+            @Override public String getName() { return name; }
+        };
+    }
+
+    private static UserRepository.UserCoins balance(long userId, long coins) {
+        return new UserRepository.UserCoins() {
+            @Override public Long getUserId() { return userId; }
+            @Override public Long getBudgetCoin() { return coins; }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void grantForMonth_grantsNewHitsOnceAndCreditsEachUserOnce() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userRepository.findIdRange()).thenReturn(range(1L, 50L));
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 4, 1, 0, 0);
+        when(categoryBudgetRepository.findUnderBudget("2026-03", start, end, 1L, 100L))
+                .thenReturn(List.of(underBudget(7L, 70L, "Food"), underBudget(7L, 71L, "Rent"), underBudget(8L, 80L, "Fun")));
+        when(goalRepository.findCompletedBetween(start, end, 1L, 100L))
+                .thenReturn(List.of(completed(900L, 7L, "Trip")));
+        // Fun for user 8 was already granted by an earlier run
+        when(rewardGrantRepository.findExistingEventIds(anyCollection()))
+                .thenReturn(List.of("rule:under-budget:8:80:2026-03"));
+        when(userRepository.getReferenceById(7L)).thenReturn(new User());
+        when(userRepository.findCoinBalances(anyCollection())).thenReturn(List.of(balance(7L, 140L)));
+
+        CoinRuleEngine.Result result = engine.grantForMonth(MARCH);
+
+        assertEquals(1, result.chunks());
+        assertEquals(3, result.granted());
+        assertEquals(140L, result.coins());
+
+        ArgumentCaptor<List<RewardGrant>> saved = ArgumentCaptor.forClass(List.class);
+        verify(rewardGrantRepository).saveAll(saved.capture());
+        assertEquals(Set.of("rule:under-budget:7:70:2026-03", "rule:under-budget:7:71:2026-03", "rule:goal-completed:900"),
+                Set.copyOf(saved.getValue().stream().map(RewardGrant::getRewardEventId).toList()));
+        verify(userRepository).creditBudgetCoin(7L, 140L);
+        verify(userRepository, never()).creditBudgetCoin(eq(8L), anyLong());
+        verify(coinLeaderboard).recordBalance(7L, 140L);
+    }
+
+    @Test
+    public void grantForMonth_rerun_grantsNothing() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userRepository.findIdRange()).thenReturn(range(1L, 50L));
+        when(categoryBudgetRepository.findUnderBudget(anyString(), any(), any(), anyLong(), anyLong()))
+                .thenReturn(List.of(underBudget(7L, 70L, "Food")));
+        when(rewardGrantRepository.findExistingEventIds(anyCollection()))
+                .thenReturn(List.of("rule:under-budget:7:70:2026-03"));
+
+        CoinRuleEngine.Result result = engine.grantForMonth(MARCH);
+
+        assertEquals(0, result.granted());
+        verify(rewardGrantRepository, never()).saveAll(any());
+        verify(userRepository, never()).creditBudgetCoin(anyLong(), anyLong());
+    }
+
+    @Test
+    public void grantForMonth_splitsUsersIntoChunks() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userRepository.findIdRange()).thenReturn(range(1L, 250L));
+
+        CoinRuleEngine.Result result = engine.grantForMonth(MARCH);
+
+        assertEquals(3, result.chunks());
+        verify(goalRepository).findCompletedBetween(any(), any(), eq(1L), eq(100L));
+        verify(goalRepository).findCompletedBetween(any(), any(), eq(101L), eq(200L));
+        verify(goalRepository).findCompletedBetween(any(), any(), eq(201L), eq(300L));
+        verify(rewardGrantRepository, never()).findExistingEventIds(any(Collection.class));
+    }
+
+    @Test
+    public void grantForMonth_failedChunkIsCounted() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userRepository.findIdRange()).thenReturn(range(1L, 150L));
+        when(goalRepository.findCompletedBetween(any(), any(), eq(1L), eq(100L)))
+                .thenThrow(new IllegalStateException("db down"));
+
+        CoinRuleEngine.Result result = engine.grantForMonth(MARCH);
+
+        assertEquals(2, result.chunks());
+        assertEquals(1, result.failedChunks());
+    }
+}
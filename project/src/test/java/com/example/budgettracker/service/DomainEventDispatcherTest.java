@@ -0,0 +1,248 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.DomainEvent;
+import com.example.budgettracker.model.DomainEventCheckpoint;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.repository.DomainEventCheckpointRepository;
+import com.example.budgettracker.repository.DomainEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DomainEventDispatcherTest {
+
+    @Mock private DomainEventRepository eventRepository;
+    @Mock private DomainEventCheckpointRepository checkpointRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DomainEventDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    /** Records what each user received, in order; optionally fails for one user */
+    private static class RecordingConsumer implements DomainEventConsumer {
+        final Map<Long, List<Long>> received = new ConcurrentHashMap<>();
+        final Long failFor;
+        final boolean fromBeginning;
+
+        RecordingConsumer(Long failFor, boolean fromBeginning) {
+            this.failFor = failFor;
+            this.fromBeginning = fromBeginning;
+        }
+
+        @Override public String name() { return "recorder"; }
+
+        @Override public boolean fromBeginning() { return fromBeginning; }
+
+        @Override
+        public void handle(Long userId, List<DomainEvent> events) {
+            if (userId.equals(failFor)) {
+                throw new IllegalStateException("projection down");
+            }
+            received.computeIfAbsent(userId, id -> Collections.synchronizedList(new ArrayList<>()))
+                    .addAll(events.stream().map(DomainEvent::getId).toList());
+        }
+    }
+
+    private DomainEventDispatcher dispatcher(DomainEventConsumer consumer) {
+        return dispatcher(consumer, 0);
+    }
+
+    private DomainEventDispatcher dispatcher(DomainEventConsumer consumer, long gapTimeoutSeconds) {
+        dispatcher = new DomainEventDispatcher(List.of(consumer), eventRepository, checkpointRepository,
+                transactionManager, meterRegistry, 100, gapTimeoutSeconds, 3, 30);
+        return dispatcher;
+    }
+
+    private static DomainEvent event(long id, long userId) {
+        return event(id, userId, LocalDateTime.now());
+    }
+
+    private static DomainEvent event(long id, long userId, LocalDateTime recordedAt) {
+        return DomainEvent.builder()
+                .id(id)
+                .userId(userId)
+                .type(DomainEventType.CASH_FLOW_RECORDED)
+                .payload("{}")
+                .recordedAt(recordedAt)
+                .build();
+    }
+
+    private void checkpointAt(long lastEventId) {
+        when(checkpointRepository.findById("recorder")).thenReturn(Optional.of(DomainEventCheckpoint.builder()
+                .consumerName("recorder").lastEventId(lastEventId).updatedAt(LocalDateTime.now()).build()));
+    }
+
+    @Test
+    public void dispatchBatch_deliversEachUsersEventsInOrderAndAdvancesCheckpoint() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        checkpointAt(10L);
+        when(eventRepository.findBatchAfter(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(11, 1), event(12, 2), event(13, 1), event(14, 3), event(15, 1)));
+        when(checkpointRepository.advance(eq("recorder"), eq(10L), eq(15L), any())).thenReturn(1);
+        RecordingConsumer consumer = new RecordingConsumer(null, true);
+
+        assertEquals(5, dispatcher(consumer).dispatchBatch());
+
+        assertEquals(List.of(11L, 13L, 15L), consumer.received.get(1L));
+        assertEquals(List.of(12L), consumer.received.get(2L));
+        assertEquals(List.of(14L), consumer.received.get(3L));
+        assertEquals(5.0, meterRegistry.get("domain.events.delivered").counter().count(), 0.0);
+    }
+
+    @Test
+    public void dispatchBatch_failedLane_keepsCheckpointSoTheBatchIsRedelivered() {
+        checkpointAt(10L);
+        when(eventRepository.findBatchAfter(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(11, 1), event(12, 2)));
+
+        assertEquals(0, dispatcher(new RecordingConsumer(2L, true)).dispatchBatch());
+
+        verify(checkpointRepository, never()).advance(any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("domain.events.failures").counter().count(), 0.0);
+    }
+
+    @Test
+    public void dispatchBatch_recentGap_holdsCheckpointBeforeTheMissingId() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        checkpointAt(10L);
+        // 13 is still in an open transaction
+        when(eventRepository.findBatchAfter(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(11, 1), event(12, 2), event(14, 1), event(15, 3)));
+        when(checkpointRepository.advance(eq("recorder"), eq(10L), eq(12L), any())).thenReturn(1);
+        when(eventRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        RecordingConsumer consumer = new RecordingConsumer(null, true);
+
+        assertEquals(2, dispatcher(consumer, 60).dispatchBatch());
+
+        assertEquals(List.of(11L), consumer.received.get(1L));
+        assertEquals(List.of(12L), consumer.received.get(2L));
+        assertNull(consumer.received.get(3L));
+        verify(checkpointRepository).advance(eq("recorder"), eq(10L), eq(12L), any());
+    }
+
+    @Test
+    public void dispatchBatch_gapRightAfterCheckpoint_deliversNothing() {
+        checkpointAt(10L);
+        when(eventRepository.findBatchAfter(eq(10L), any(Pageable.class))).thenReturn(List.of(event(12, 1)));
+        when(eventRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        RecordingConsumer consumer = new RecordingConsumer(null, true);
+
+        assertEquals(0, dispatcher(consumer, 60).dispatchBatch());
+
+        assertTrue(consumer.received.isEmpty());
+        verify(checkpointRepository, never()).advance(any(), any(), any(), any());
+    }
+
+    @Test
+    public void dispatchBatch_gapHeldForTheTimeout_isSkippedAsRollback() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        checkpointAt(10L);
+        // The writer's clock is far behind; only the database clock counts
+        LocalDateTime writerClock = LocalDateTime.now().minusHours(3);
+        when(eventRepository.findBatchAfter(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(11, 1, writerClock), event(14, 1, writerClock)));
+        when(checkpointRepository.advance(eq("recorder"), eq(10L), anyLong(), any())).thenReturn(1);
+        LocalDateTime firstSeen = LocalDateTime.of(2026, 5, 1, 12, 0, 0);
+        when(eventRepository.findDatabaseTime())
+                .thenReturn(firstSeen, firstSeen.plusSeconds(59), firstSeen.plusSeconds(60));
+        RecordingConsumer consumer = new RecordingConsumer(null, true);
+        DomainEventDispatcher d = dispatcher(consumer, 60);
+
+        assertEquals(1, d.dispatchBatch());
+        assertEquals(1, d.dispatchBatch());
+        assertEquals(2, d.dispatchBatch());
+
+        assertEquals(List.of(11L, 11L, 11L, 14L), consumer.received.get(1L));
+        assertEquals(2.0, meterRegistry.get("domain.events.gaps.skipped").counter().count(), 0.0);
+        verify(checkpointRepository).advance(eq("recorder"), eq(10L), eq(14L), any());
+    }
+
+    @Test
+    public void purgeDelivered_deletesOnlyUpToTheSlowestCheckpoint() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        checkpointAt(25L);
+        when(eventRepository.purgeDeliveredBefore(eq(25L), any())).thenReturn(7);
+
+        assertEquals(7, dispatcher(new RecordingConsumer(null, true)).purgeDelivered());
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(eventRepository).purgeDeliveredBefore(eq(25L), before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusDays(29)));
+    }
+
+    @Test
+    public void purgeDelivered_consumerAtTheStart_deletesNothing() {
+        checkpointAt(0L);
+
+        assertEquals(0, dispatcher(new RecordingConsumer(null, true)).purgeDelivered());
+
+        verify(eventRepository, never()).purgeDeliveredBefore(any(), any());
+    }
+
+    @Test
+    public void dispatchBatch_newConsumer_startsAtBeginningOrAtHead() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(checkpointRepository.findById("recorder")).thenReturn(Optional.empty());
+        when(checkpointRepository.save(any(DomainEventCheckpoint.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(eventRepository.findMaxId()).thenReturn(40L);
+
+        dispatcher(new RecordingConsumer(null, false)).dispatchBatch();
+        verify(eventRepository).findBatchAfter(eq(40L), any(Pageable.class));
+
+        dispatcher.shutdown();
+        dispatcher(new RecordingConsumer(null, true)).dispatchBatch();
+        verify(eventRepository).findBatchAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    public void replay_rewindsCheckpointOfKnownConsumerOnly() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        DomainEventDispatcher d = dispatcher(new RecordingConsumer(null, true));
+
+        assertFalse(d.replay("unknown", 5L));
+        assertTrue(d.replay("recorder", 5L));
+
+        ArgumentCaptor<DomainEventCheckpoint> captor = ArgumentCaptor.forClass(DomainEventCheckpoint.class);
+        verify(checkpointRepository).save(captor.capture());
+        assertEquals(Long.valueOf(4L), captor.getValue().getLastEventId());
+    }
+
+    @Test
+    public void status_reportsLagBehindNewestEvent() {
+        checkpointAt(30L);
+        when(eventRepository.findMaxId()).thenReturn(42L);
+
+        List<DomainEventDispatcher.ConsumerStatus> status = dispatcher(new RecordingConsumer(null, true)).status();
+
+        assertEquals(1, status.size());
+        assertEquals(30L, status.get(0).lastEventId());
+        assertEquals(12L, status.get(0).lag());
+    }
+}
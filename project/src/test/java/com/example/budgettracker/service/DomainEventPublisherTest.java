@@ -0,0 +1,59 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.DomainEvent;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.repository.DomainEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DomainEventPublisherTest {
+
+    @Mock private DomainEventRepository domainEventRepository;
+
+    private DomainEventPublisher publisher;
+
+    @Before
+    public void setUp() {
+        publisher = new DomainEventPublisher(domainEventRepository, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    public void publish_appendsJsonPayloadKeepingNulls() {
+        publisher.publish(7L, DomainEventType.BUDGET_CHANGED, DomainEventPublisher.payload(
+                "categoryId", 3L,
+                "amount", new BigDecimal("250.00"),
+                "customName", null));
+
+        ArgumentCaptor<DomainEvent> captor = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(domainEventRepository).save(captor.capture());
+        DomainEvent event = captor.getValue();
+        assertEquals(Long.valueOf(7L), event.getUserId());
+        assertEquals(DomainEventType.BUDGET_CHANGED, event.getType());
+        assertEquals("{\"categoryId\":3,\"amount\":250.00,\"customName\":null}", event.getPayload());
+        assertNotNull(event.getRecordedAt());
+    }
+
+    @Test
+    public void payload_keepsInsertionOrder() {
+        Map<String, Object> payload = DomainEventPublisher.payload("b", 1, "a", 2);
+        assertEquals(List.of("b", "a"), List.copyOf(payload.keySet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void payload_rejectsKeyWithoutValue() {
+        DomainEventPublisher.payload("a", 1, "b");
+    }
+}
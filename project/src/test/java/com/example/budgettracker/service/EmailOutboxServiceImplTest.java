@@ -0,0 +1,179 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.EmailOutbox;
+import com.example.budgettracker.model.enums.EmailOutboxStatus;
+import com.example.budgettracker.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EmailOutboxServiceImplTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    private FakeSmtpServer smtp;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxServiceImpl outboxService;
+
+    @Before
+    public void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = newService(smtp.getPort());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        smtp.close();
+    }
+
+    private EmailOutboxServiceImpl newService(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return new EmailOutboxServiceImpl(outboxRepository, mailSender, meterRegistry,
+                "noreply@oversave.com", 50, MAX_ATTEMPTS, 30, 14);
+    }
+
+    private static EmailOutbox pending(long id, String recipient, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        return EmailOutbox.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject " + id)
+                .htmlBody("<p>Body " + id + "</p>")
+                .template("test")
+                .attempts(attempts)
+                .nextAttemptAt(now)
+                .createdAt(now.minusSeconds(5))
+                .build();
+    }
+
+    @Test
+    public void enqueue_savesPendingRowDueNow() {
+        outboxService.enqueue("a@example.com", "Hello", "<p>hi</p>", "password-reset");
+
+        ArgumentCaptor<EmailOutbox> captor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        EmailOutbox saved = captor.getValue();
+        assertEquals("a@example.com", saved.getRecipient());
+        assertEquals(EmailOutboxStatus.PENDING, saved.getStatus());
+        assertEquals(Integer.valueOf(0), saved.getAttempts());
+        assertNotNull(saved.getNextAttemptAt());
+        assertEquals(0, smtp.getMessages().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void enqueue_rejectsBlankRecipient() {
+        outboxService.enqueue(" ", "Hello", "<p>hi</p>", "test");
+    }
+
+    @Test
+    public void dispatchBatch_sendsWholeBatchOverOneConnection() {
+        List<EmailOutbox> batch = List.of(
+                pending(1L, "a@example.com", 0),
+                pending(2L, "b@example.com", 0),
+                pending(3L, "c@example.com", 0));
+        when(outboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(batch);
+
+        assertEquals(3, outboxService.dispatchBatch());
+
+        assertEquals(3, smtp.getMessages().size());
+        assertEquals(1, smtp.getConnectionCount());
+        batch.forEach(row -> {
+            assertEquals(EmailOutboxStatus.SENT, row.getStatus());
+            assertEquals(Integer.valueOf(1), row.getAttempts());
+            assertNotNull(row.getSentAt());
+        });
+        verify(outboxRepository).saveAll(batch);
+        assertEquals(3.0, meterRegistry.counter("email.outbox.sent").count(), 0.0);
+        assertEquals(3L, meterRegistry.timer("email.outbox.delivery.lag").count());
+    }
+
+    @Test
+    public void dispatchBatch_retriesOnlyRejectedMessage_withBackoff() {
+        smtp.rejectRecipient("bounce@example.com");
+        EmailOutbox good = pending(1L, "a@example.com", 0);
+        EmailOutbox bad = pending(2L, "bounce@example.com", 0);
+        when(outboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(good, bad)));
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxService.dispatchBatch();
+
+        assertEquals(EmailOutboxStatus.SENT, good.getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, bad.getStatus());
+        assertEquals(Integer.valueOf(1), bad.getAttempts());
+        assertNotNull(bad.getLastError());
+        assertFalse(bad.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+        assertEquals(1, smtp.getMessages().size());
+        assertEquals(1.0, meterRegistry.counter("email.outbox.retried").count(), 0.0);
+    }
+
+    @Test
+    public void dispatchBatch_deadLettersAfterMaxAttempts() {
+        smtp.rejectRecipient("bounce@example.com");
+        EmailOutbox bad = pending(2L, "bounce@example.com", MAX_ATTEMPTS - 1);
+        when(outboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(bad));
+
+        outboxService.dispatchBatch();
+
+        assertEquals(EmailOutboxStatus.DEAD, bad.getStatus());
+        assertEquals(Integer.valueOf(MAX_ATTEMPTS), bad.getAttempts());
+        assertEquals(1.0, meterRegistry.counter("email.outbox.dead").count(), 0.0);
+    }
+
+    @Test
+    public void dispatchBatch_retriesEverything_whenServerUnreachable() throws Exception {
+        int deadPort = smtp.getPort();
+        smtp.close();
+        outboxService = newService(deadPort);
+        List<EmailOutbox> batch = List.of(pending(1L, "a@example.com", 0), pending(2L, "b@example.com", 0));
+        when(outboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(batch);
+
+        outboxService.dispatchBatch();
+
+        batch.forEach(row -> {
+            assertEquals(EmailOutboxStatus.PENDING, row.getStatus());
+            assertEquals(Integer.valueOf(1), row.getAttempts());
+        });
+        verify(outboxRepository).saveAll(batch);
+    }
+
+    @Test
+    public void dispatchBatch_returnsZero_whenNothingDue() {
+        when(outboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, outboxService.dispatchBatch());
+        verify(outboxRepository, never()).saveAll(any());
+        assertEquals(0, smtp.getConnectionCount());
+    }
+
+    @Test
+    public void backoff_growsExponentiallyAndIsCapped() {
+        assertEquals(Duration.ofSeconds(30), outboxService.backoff(1));
+        assertEquals(Duration.ofSeconds(60), outboxService.backoff(2));
+        assertEquals(Duration.ofSeconds(120), outboxService.backoff(3));
+        assertEquals(Duration.ofHours(6), outboxService.backoff(30));
+    }
+}
@@ -1,20 +1,16 @@
 package com.example.budgettracker.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(org.mockito.junit.MockitoJUnitRunner.class)
@@ -24,219 +20,152 @@ public class EmailServiceImplTest {
     private static final String TEST_FIRST_NAME = "John";
     private static final String TEST_TOKEN = "test-reset-token-12345";
     private static final String TEST_PROVIDER = "Google";
-    private static final String FROM_EMAIL = "noreply@oversave.com";
     private static final String FRONTEND_URL = "http://localhost:8080";
 
     @Mock
-    private JavaMailSender mailSender;
-
-    @Mock
-    private MimeMessage mimeMessage;
+    private EmailOutboxService emailOutboxService;
 
     @InjectMocks
     private EmailServiceImpl emailService;
 
     @Before
     public void setUp() {
-        ReflectionTestUtils.setField(emailService, "fromEmail", FROM_EMAIL);
         ReflectionTestUtils.setField(emailService, "frontendUrl", FRONTEND_URL);
     }
 
+    private String capturedHtml(String template) {
+        ArgumentCaptor<String> html = ArgumentCaptor.forClass(String.class);
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), anyString(), html.capture(), eq(template));
+        return html.getValue();
+    }
+
     // ==================== sendPasswordResetEmail Tests ====================
 
     @Test
-    public void sendPasswordResetEmail_succeeds_whenInputsValid() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordResetEmail_queuesMessage_whenInputsValid() {
         emailService.sendPasswordResetEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_TOKEN);
 
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), eq("Reset Your OVER-SAVE Password"),
+                anyString(), eq("password-reset"));
     }
 
     @Test
-    public void sendPasswordResetEmail_includesCorrectResetUrl() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordResetEmail_includesCorrectResetUrl() {
         emailService.sendPasswordResetEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_TOKEN);
 
-        verify(mailSender).send(mimeMessage);
-        // Verify the reset URL would be constructed correctly
         String expectedUrl = FRONTEND_URL + "/reset-password.html?token=" + TEST_TOKEN;
-        assertNotNull(expectedUrl);
-        assertTrue(expectedUrl.contains(TEST_TOKEN));
+        assertTrue(capturedHtml("password-reset").contains(expectedUrl));
     }
 
     @Test(expected = RuntimeException.class)
-    public void sendPasswordResetEmail_throwsException_whenMessagingExceptionOccurs() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("Failed to send email", new MessagingException("SMTP error")))
-                .when(mailSender).send(any(MimeMessage.class));
+    public void sendPasswordResetEmail_propagatesException_whenEnqueueFails() {
+        // The caller's transaction must roll back if the outbox row cannot be written
+        doThrow(new RuntimeException("insert failed"))
+                .when(emailOutboxService).enqueue(anyString(), anyString(), anyString(), anyString());
 
         emailService.sendPasswordResetEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_TOKEN);
     }
 
     @Test
-    public void sendPasswordResetEmail_usesCorrectFromAddress() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordResetEmail_includesUserFirstName() {
         emailService.sendPasswordResetEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_TOKEN);
 
-        verify(mailSender).send(mimeMessage);
-        // Email should be sent from the configured from address
-    }
-
-    @Test
-    public void sendPasswordResetEmail_includesUserFirstName() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
-        emailService.sendPasswordResetEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_TOKEN);
-
-        verify(mailSender).send(mimeMessage);
-        // Verify the first name is included in the email
+        assertTrue(capturedHtml("password-reset").contains(TEST_FIRST_NAME));
     }
 
     // ==================== sendPasswordChangedEmail Tests ====================
 
     @Test
-    public void sendPasswordChangedEmail_succeeds_whenInputsValid() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordChangedEmail_queuesMessage_whenInputsValid() {
         emailService.sendPasswordChangedEmail(TEST_EMAIL, TEST_FIRST_NAME);
 
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
-    }
-
-    @Test(expected = RuntimeException.class)
-    public void sendPasswordChangedEmail_throwsException_whenMessagingExceptionOccurs() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("Failed to send email", new MessagingException("SMTP error")))
-                .when(mailSender).send(any(MimeMessage.class));
-
-        emailService.sendPasswordChangedEmail(TEST_EMAIL, TEST_FIRST_NAME);
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), eq("Your OVER-SAVE Password Has Been Changed"),
+                anyString(), eq("password-changed"));
     }
 
     @Test
-    public void sendPasswordChangedEmail_includesUserFirstName() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordChangedEmail_includesUserFirstName() {
         emailService.sendPasswordChangedEmail(TEST_EMAIL, TEST_FIRST_NAME);
 
-        verify(mailSender).send(mimeMessage);
-        // Verify the first name is included in the confirmation email
+        assertTrue(capturedHtml("password-changed").contains(TEST_FIRST_NAME));
     }
 
     @Test
-    public void sendPasswordChangedEmail_includesLoginUrl() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordChangedEmail_includesLoginUrl() {
         emailService.sendPasswordChangedEmail(TEST_EMAIL, TEST_FIRST_NAME);
 
-        verify(mailSender).send(mimeMessage);
-        // Verify the login URL is included in the email
-        String expectedUrl = FRONTEND_URL + "/login.html";
-        assertNotNull(expectedUrl);
-        assertTrue(expectedUrl.contains("/login.html"));
+        assertTrue(capturedHtml("password-changed").contains(FRONTEND_URL + "/login.html"));
     }
 
     // ==================== sendOAuthRecoveryEmail Tests ====================
 
     @Test
-    public void sendOAuthRecoveryEmail_succeeds_whenInputsValid() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendOAuthRecoveryEmail_queuesMessage_whenInputsValid() {
         emailService.sendOAuthRecoveryEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_PROVIDER);
 
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), eq("OVER-SAVE Account Recovery Instructions"),
+                anyString(), eq("oauth-recovery"));
     }
 
-    @Test(expected = RuntimeException.class)
-    public void sendOAuthRecoveryEmail_throwsException_whenMessagingExceptionOccurs() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("Failed to send email", new MessagingException("SMTP error")))
-                .when(mailSender).send(any(MimeMessage.class));
-
+    @Test
+    public void sendOAuthRecoveryEmail_includesProviderName() {
         emailService.sendOAuthRecoveryEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_PROVIDER);
+
+        assertTrue(capturedHtml("oauth-recovery").contains(TEST_PROVIDER));
     }
 
     @Test
-    public void sendOAuthRecoveryEmail_includesProviderName() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendOAuthRecoveryEmail_includesUserFirstNameAndLoginUrl() {
         emailService.sendOAuthRecoveryEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_PROVIDER);
 
-        verify(mailSender).send(mimeMessage);
-        // Verify the provider name is mentioned in the email
+        String html = capturedHtml("oauth-recovery");
+        assertTrue(html.contains(TEST_FIRST_NAME));
+        assertTrue(html.contains(FRONTEND_URL + "/login.html"));
     }
 
-    @Test
-    public void sendOAuthRecoveryEmail_includesUserFirstName() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    // ==================== Test and monthly summary ====================
 
-        emailService.sendOAuthRecoveryEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_PROVIDER);
+    @Test
+    public void sendTestEmail_queuesMessage() {
+        emailService.sendTestEmail(TEST_EMAIL, TEST_FIRST_NAME);
 
-        verify(mailSender).send(mimeMessage);
-        // Verify the first name is included in the recovery email
+        assertTrue(capturedHtml("test").contains(TEST_FIRST_NAME));
     }
 
     @Test
-    public void sendOAuthRecoveryEmail_includesLoginUrl() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    public void sendMonthlySummaryEmail_usesProvidedHtml() {
+        emailService.sendMonthlySummaryEmail(TEST_EMAIL, TEST_FIRST_NAME, "<p>custom</p>");
 
-        emailService.sendOAuthRecoveryEmail(TEST_EMAIL, TEST_FIRST_NAME, TEST_PROVIDER);
+        assertEquals("<p>custom</p>", capturedHtml("monthly-summary"));
+    }
 
-        verify(mailSender).send(mimeMessage);
-        // Verify the login URL is included in the email
-        String expectedUrl = FRONTEND_URL + "/login.html";
-        assertNotNull(expectedUrl);
-        assertTrue(expectedUrl.contains("/login.html"));
+    @Test
+    public void sendMonthlySummaryEmail_fallsBackToDefaultHtml() {
+        emailService.sendMonthlySummaryEmail(TEST_EMAIL, TEST_FIRST_NAME, null);
+
+        assertTrue(capturedHtml("monthly-summary").contains(TEST_FIRST_NAME));
     }
 
     // ==================== Edge Cases ====================
 
     @Test
-    public void sendPasswordResetEmail_handlesEmptyToken() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordResetEmail_handlesEmptyToken() {
         emailService.sendPasswordResetEmail(TEST_EMAIL, TEST_FIRST_NAME, "");
 
-        verify(mailSender).send(mimeMessage);
-        // Should still attempt to send even with empty token
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), anyString(), anyString(), eq("password-reset"));
     }
 
     @Test
-    public void sendPasswordChangedEmail_handlesEmptyFirstName() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendPasswordChangedEmail_handlesEmptyFirstName() {
         emailService.sendPasswordChangedEmail(TEST_EMAIL, "");
 
-        verify(mailSender).send(mimeMessage);
-        // Should still send email even with empty first name
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), anyString(), anyString(), eq("password-changed"));
     }
 
     @Test
-    public void sendOAuthRecoveryEmail_handlesEmptyProvider() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    public void sendOAuthRecoveryEmail_handlesEmptyProvider() {
         emailService.sendOAuthRecoveryEmail(TEST_EMAIL, TEST_FIRST_NAME, "");
 
-        verify(mailSender).send(mimeMessage);
-        // Should still send email even with empty provider
+        verify(emailOutboxService).enqueue(eq(TEST_EMAIL), anyString(), anyString(), eq("oauth-recovery"));
     }
 }
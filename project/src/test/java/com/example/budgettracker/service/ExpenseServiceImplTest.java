@@ -7,6 +7,7 @@ import com.example.budgettracker.model.CashFlow;
 import com.example.budgettracker.model.Category;
 import com.example.budgettracker.model.User;
 import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.DomainEventType;
 import com.example.budgettracker.repository.AccountRepository;
 import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.CategoryRepository;
@@ -24,6 +25,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(org.mockito.junit.MockitoJUnitRunner.class)
@@ -36,6 +39,8 @@ public class ExpenseServiceImplTest {
     @Mock private CashFlowRepository cashFlowRepository;
     @Mock private AccountRepository accountRepository;
     @Mock private CategoryRepository categoryRepository;
+    @Mock private DomainEventPublisher domainEventPublisher;
+    @Mock private SyncChangeLog syncChangeLog;
 
     @InjectMocks
     private ExpenseServiceImpl expenseService;
@@ -104,6 +109,9 @@ public class ExpenseServiceImplTest {
         assertThat(persisted.getDescription(), is(baseRequest.getDescription()));
         assertSame(account, persisted.getAccount());
         assertSame(category, persisted.getCategory());
+
+        // Same transaction as the cash flow
+        verify(domainEventPublisher).publish(eq(USER_ID), eq(DomainEventType.CASH_FLOW_RECORDED), anyMap());
     }
 
     @Test
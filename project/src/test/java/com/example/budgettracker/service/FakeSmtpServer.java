@@ -0,0 +1,132 @@
+package com.example.budgettracker.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests. Speaks just enough of RFC 5321 for JavaMail
+ * (no TLS, no AUTH), records every accepted message and counts connections so tests can
+ * assert that a batch went over one session. Recipients added to {@link #rejectRecipient}
+ * get a 550 on RCPT TO.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    record Received(String from, List<String> recipients, String data) {}
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final List<Received> messages = new CopyOnWriteArrayList<>();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    List<Received> getMessages() {
+        return messages;
+    }
+
+    int getConnectionCount() {
+        return connections.get();
+    }
+
+    void rejectRecipient(String address) {
+        rejected.add(address.toLowerCase());
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                connections.incrementAndGet();
+                handle(socket);
+            } catch (IOException e) {
+                // closed while accepting, or client hung up
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        OutputStream out = socket.getOutputStream();
+        reply(out, "220 localhost fake SMTP ready");
+
+        String from = null;
+        List<String> recipients = new CopyOnWriteArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+            switch (command) {
+                case "EHLO", "HELO" -> reply(out, "250 localhost");
+                case "MAIL" -> {
+                    from = address(line);
+                    recipients.clear();
+                    reply(out, "250 OK");
+                }
+                case "RCPT" -> {
+                    String to = address(line);
+                    if (rejected.contains(to.toLowerCase())) {
+                        reply(out, "550 No such user " + to);
+                    } else {
+                        recipients.add(to);
+                        reply(out, "250 OK");
+                    }
+                }
+                case "DATA" -> {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    String dataLine;
+                    while ((dataLine = in.readLine()) != null && !dataLine.equals(".")) {
+                        data.append(dataLine.startsWith("..") ? dataLine.substring(1) : dataLine).append('\n');
+                    }
+                    messages.add(new Received(from, List.copyOf(recipients), data.toString()));
+                    reply(out, "250 OK queued");
+                }
+                case "RSET" -> {
+                    from = null;
+                    recipients.clear();
+                    reply(out, "250 OK");
+                }
+                case "NOOP" -> reply(out, "250 OK");
+                case "QUIT" -> {
+                    reply(out, "221 Bye");
+                    return;
+                }
+                default -> reply(out, "502 Command not implemented");
+            }
+        }
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>');
+        return start >= 0 && end > start ? line.substring(start + 1, end) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private static void reply(OutputStream out, String text) throws IOException {
+        out.write((text + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Goal.ContributionRequest;
+import com.example.budgettracker.model.Account;
+import com.example.budgettracker.model.Goal;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.AccountType;
+import com.example.budgettracker.model.enums.GoalStatus;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.GoalRepository;
+import com.example.budgettracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Concurrent contributions against a real (H2) database.
+ * Correctness: 64 threads race to spend one cash balance; exactly the affordable number succeed
+ * and no money is created or lost. Independent users: contributions for 64 users on 64 threads
+ * versus one thread must all land; the two rates are only logged, since wall-clock speed-up
+ * depends on the machine and is not asserted.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:goalstress;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=64"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({GoalServiceImpl.class, CategoryDictionary.class, DomainEventPublisher.class, SyncChangeLog.class,
+        SingleFlightGroup.class, SimpleMeterRegistry.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class GoalContributionStressTest {
+
+    private static final Logger log = LoggerFactory.getLogger(GoalContributionStressTest.class);
+    private static final int THREADS = 64;
+
+    @Autowired private GoalService goalService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private GoalRepository goalRepository;
+    @Autowired private CashFlowRepository cashFlowRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @Before
+    public void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    private record Fixture(Long userId, Long cashId, Long goalId, Long goalAccountId) {}
+
+    private Fixture fixture(String cash, String target) {
+        return tx.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .email("stress-" + System.nanoTime() + "@example.com")
+                    .hashedPassword("x")
+                    .firstName("Stress")
+                    .lastName("Test")
+                    .build());
+            Account cashAccount = accountRepository.save(Account.builder()
+                    .user(user).name("Cash").accountType(AccountType.CASH).balance(new BigDecimal(cash)).build());
+            Account goalAccount = accountRepository.save(Account.builder()
+                    .user(user).name("Trip").accountType(AccountType.GOAL).balance(BigDecimal.ZERO).build());
+            Goal goal = goalRepository.save(Goal.builder()
+                    .user(user).name("Trip").targetAmount(new BigDecimal(target)).linkedAccount(goalAccount).build());
+            return new Fixture(user.getUserId(), cashAccount.getAccountId(), goal.getId(), goalAccount.getAccountId());
+        });
+    }
+
+    private static ContributionRequest request(Fixture f, String amount) {
+        ContributionRequest req = new ContributionRequest();
+        req.setFromAccountId(f.cashId());
+        req.setGoalId(f.goalId());
+        req.setAmount(new BigDecimal(amount));
+        return req;
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return tx.execute(status -> accountRepository.findById(accountId).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void concurrentContributions_neverOverspend() throws Exception {
+        Fixture f = fixture("100.00", "100.00");
+        int attemptsPerThread = 5;
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        goalService.contributeToGoal(f.userId(), request(f, "1.00"));
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertEquals("Insufficient funds in cash account", e.getMessage());
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(100, succeeded.get());
+        assertEquals(THREADS * attemptsPerThread - 100, rejected.get());
+        assertEquals(0, balance(f.cashId()).compareTo(BigDecimal.ZERO));
+        assertEquals(0, balance(f.goalAccountId()).compareTo(new BigDecimal("100.00")));
+        tx.executeWithoutResult(status -> {
+            Goal goal = goalRepository.findById(f.goalId()).orElseThrow();
+            assertEquals(0, goal.getCurrentAmount().compareTo(new BigDecimal("100.00")));
+            assertEquals(GoalStatus.COMPLETED, goal.getStatus());
+        });
+        long flows = tx.execute(status -> cashFlowRepository.count());
+        assertTrue("two cash flows per successful contribution", flows >= 200);
+    }
+
+    private double contributionsPerSecond(List<Fixture> fixtures, int threads, int perUser) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Fixture f : fixtures) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perUser; i++) {
+                    goalService.contributeToGoal(f.userId(), request(f, "1.00"));
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+        return fixtures.size() * perUser / (elapsed / 1e9);
+    }
+
+    @Test
+    public void independentUsers_concurrentContributionsAllLand() throws Exception {
+        int perUser = 20;
+        List<Fixture> serial = new ArrayList<>();
+        List<Fixture> parallel = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            serial.add(fixture("1000.00", "5000.00"));
+            parallel.add(fixture("1000.00", "5000.00"));
+        }
+        // Warm up the category dictionary and the connection pool
+        contributionsPerSecond(serial.subList(0, 4), 4, 1);
+
+        double single = contributionsPerSecond(serial, 1, perUser);
+        double concurrent = contributionsPerSecond(parallel, THREADS, perUser);
+
+        for (Fixture f : parallel) {
+            assertEquals(0, balance(f.cashId()).compareTo(new BigDecimal("980.00")));
+            assertEquals(0, balance(f.goalAccountId()).compareTo(new BigDecimal("20.00")));
+            tx.executeWithoutResult(status -> {
+                Goal goal = goalRepository.findById(f.goalId()).orElseThrow();
+                assertEquals(0, goal.getCurrentAmount().compareTo(new BigDecimal("20.00")));
+                assertEquals(GoalStatus.IN_PROGRESS, goal.getStatus());
+            });
+        }
+
+        log.info("goal contributions/s on {} cores: 1 thread {}, {} threads {} (x{})",
+                Runtime.getRuntime().availableProcessors(), Math.round(single), THREADS, Math.round(concurrent),
+                String.format("%.1f", concurrent / single));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Goal.GoalResponse;
+import com.example.budgettracker.model.Goal;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class GoalForecastTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    private static Goal goal(String target, String saved, LocalDate due) {
+        Goal g = new Goal();
+        g.setTargetAmount(new BigDecimal(target));
+        g.setCurrentAmount(new BigDecimal(saved));
+        g.setDueDate(due);
+        return g;
+    }
+
+    private static GoalResponse forecast(Goal g) {
+        GoalResponse res = new GoalResponse();
+        GoalForecast.apply(g, res, TODAY);
+        return res;
+    }
+
+    @Test
+    public void projectsFromAverageMonthlyRate() {
+        Goal g = goal("1200", "600", TODAY.plusMonths(12));
+        g.setContributionCount(6L);
+        g.setContributedTotal(new BigDecimal("600"));
+        g.setFirstContributionAt(TODAY.minusDays(183).atStartOfDay()); // ~6 months
+
+        GoalResponse res = forecast(g);
+
+        assertEquals(0, res.getMonthlyContributionRate().compareTo(new BigDecimal("99.80")));
+        // 600 left at ~100/month: about six months out
+        assertTrue(res.getProjectedCompletionDate().isAfter(TODAY.plusMonths(5)));
+        assertTrue(res.getProjectedCompletionDate().isBefore(TODAY.plusMonths(7)));
+        assertEquals(0, res.getRequiredMonthlyContribution().compareTo(new BigDecimal("50.04")));
+        assertTrue(res.getOnTrack());
+    }
+
+    @Test
+    public void youngGoal_usesAtLeastOneMonthWindow() {
+        Goal g = goal("1000", "100", null);
+        g.setContributionCount(1L);
+        g.setContributedTotal(new BigDecimal("100"));
+        g.setFirstContributionAt(TODAY.atStartOfDay());
+
+        GoalResponse res = forecast(g);
+
+        assertEquals(0, res.getMonthlyContributionRate().compareTo(new BigDecimal("100")));
+        assertNull(res.getRequiredMonthlyContribution());
+        assertNull(res.getOnTrack());
+        assertNotNull(res.getProjectedCompletionDate());
+    }
+
+    @Test
+    public void noHistory_noProjection() {
+        Goal g = goal("1000", "0", TODAY.plusMonths(10));
+        g.setContributionCount(0L);
+        g.setContributedTotal(BigDecimal.ZERO);
+
+        GoalResponse res = forecast(g);
+
+        assertNull(res.getMonthlyContributionRate());
+        assertNull(res.getProjectedCompletionDate());
+        assertEquals(0, res.getRequiredMonthlyContribution().compareTo(new BigDecimal("100.13")));
+    }
+
+    @Test
+    public void notBackfilledYet_noProjection() {
+        GoalResponse res = forecast(goal("1000", "500", TODAY.plusMonths(5)));
+
+        assertNull(res.getMonthlyContributionRate());
+        assertNull(res.getProjectedCompletionDate());
+        assertNotNull(res.getRequiredMonthlyContribution());
+    }
+
+    @Test
+    public void overdue_requiresEverythingNow() {
+        GoalResponse res = forecast(goal("1000", "400", TODAY.minusDays(3)));
+
+        assertEquals(0, res.getRequiredMonthlyContribution().compareTo(new BigDecimal("600")));
+    }
+
+    @Test
+    public void reached_projectsLastContributionDate() {
+        Goal g = goal("500", "500", TODAY.plusMonths(1));
+        g.setContributionCount(2L);
+        g.setContributedTotal(new BigDecimal("500"));
+        g.setFirstContributionAt(TODAY.minusDays(40).atStartOfDay());
+        g.setLastContributionAt(TODAY.minusDays(2).atTime(10, 0));
+
+        GoalResponse res = forecast(g);
+
+        assertEquals(TODAY.minusDays(2), res.getProjectedCompletionDate());
+        assertEquals(0, res.getRequiredMonthlyContribution().signum());
+        assertTrue(res.getOnTrack());
+    }
+
+    @Test
+    public void slowPace_isNotOnTrack() {
+        Goal g = goal("1000", "100", TODAY.plusMonths(2));
+        g.setContributionCount(1L);
+        g.setContributedTotal(new BigDecimal("100"));
+        g.setFirstContributionAt(TODAY.minusMonths(3).atStartOfDay());
+
+        assertFalse(forecast(g).getOnTrack());
+    }
+}
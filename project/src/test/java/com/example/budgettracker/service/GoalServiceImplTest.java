@@ -12,9 +12,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.dao.DataIntegrityViolationException;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +32,9 @@ public class GoalServiceImplTest {
     @Mock private CashFlowRepository cashFlowRepo;
     @Mock private CategoryRepository categoryRepo;
     @Mock private TransferRepository transferRepo;
+    @Mock private CategoryDictionary categoryDictionary;
+    @Mock private DomainEventPublisher domainEventPublisher;
+    @Mock private SyncChangeLog syncChangeLog;
 
     @InjectMocks
     private GoalServiceImpl goalService;
@@ -157,39 +158,91 @@ public class GoalServiceImplTest {
     }
     // ---------------- contributeToGoal ----------------
 
-    @Test
-    public void testContributeCompletesGoal() {
-        Account cash = new Account();
-        cash.setUser(user);
-        cash.setBalance(new BigDecimal("1000"));
-        cash.setAccountId(1L);
-
-        Goal goal = new Goal();
-        goal.setUser(user);
-        goal.setTargetAmount(new BigDecimal("500"));
-        goal.setCurrentAmount(new BigDecimal("400"));
-        Account goalAcc = new Account();
-        goalAcc.setUser(user);
-        goal.setLinkedAccount(goalAcc);
+    private static GoalRepository.ContributionTarget target(Long goalId, String name, Long accountId) {
+        return new GoalRepository.ContributionTarget() {
+            @Override public Long getGoalId() { return goalId; }
+            @Override public String getName() { return name; }
+            @Override public Long getAccountId() { return accountId; }
+        };
+    }
 
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
-        when(accountRepo.findById(1L)).thenReturn(Optional.of(cash));
-        when(goalRepo.findById(2L)).thenReturn(Optional.of(goal));
-        when(categoryRepo.findByUser_UserIdAndNameIgnoreCase(anyLong(), anyString()))
-                .thenReturn(Optional.of(new Category()));
+    private static AccountRepository.AccountBalance balance(Long accountId, String name, String balance) {
+        return new AccountRepository.AccountBalance() {
+            @Override public Long getAccountId() { return accountId; }
+            @Override public String getName() { return name; }
+            @Override public BigDecimal getBalance() { return new BigDecimal(balance); }
+        };
+    }
 
+    private static ContributionRequest contribution(Long fromAccountId, Long goalId, String amount) {
         ContributionRequest req = new ContributionRequest();
-        req.setFromAccountId(1L);
-        req.setGoalId(2L);
-        req.setAmount(new BigDecimal("200"));
-
-        ContributionResponse resp = goalService.contributeToGoal(1L, req);
+        req.setFromAccountId(fromAccountId);
+        req.setGoalId(goalId);
+        req.setAmount(new BigDecimal(amount));
+        return req;
+    }
 
-        assertEquals("COMPLETED", goal.getStatus().name());
-        assertEquals(new BigDecimal("600"), goal.getCurrentAmount());
+    @Test
+    public void testContributeUsesAtomicUpdates() {
+        when(goalRepo.findContributionTarget(2L, 1L)).thenReturn(Optional.of(target(2L, "Trip", 20L)));
+        when(accountRepo.debitIfSufficient(10L, 1L, new BigDecimal("200"))).thenReturn(1);
+        when(accountRepo.findBalances(anyList()))
+                .thenReturn(java.util.List.of(balance(10L, "Cash", "800"), balance(20L, "Trip", "600")));
+        when(categoryDictionary.getOrCreate(anyLong(), anyString())).thenReturn(new Category());
+
+        ContributionResponse resp = goalService.contributeToGoal(1L, contribution(10L, 2L, "200"));
+
+        verify(accountRepo).credit(20L, new BigDecimal("200"));
+        verify(goalRepo).addContribution(eq(2L), eq(new BigDecimal("200")), eq(GoalStatus.COMPLETED), any(LocalDateTime.class));
+        verify(cashFlowRepo).saveAll(anyList());
+        verify(transferRepo).save(any(Transfer.class));
+        verify(accountRepo, never()).save(any(Account.class));
+        verify(goalRepo, never()).save(any(Goal.class));
+        assertEquals(new BigDecimal("800"), resp.getNewCashBalance());
+        assertEquals(new BigDecimal("600"), resp.getNewGoalBalance());
         assertEquals("Contribution successful", resp.getMessage());
     }
 
+    @Test
+    public void testContributeUpdatesAccountsInIdOrder() {
+        when(goalRepo.findContributionTarget(2L, 1L)).thenReturn(Optional.of(target(2L, "Trip", 5L)));
+        when(accountRepo.debitIfSufficient(10L, 1L, BigDecimal.ONE)).thenReturn(1);
+        when(accountRepo.findBalances(anyList()))
+                .thenReturn(java.util.List.of(balance(10L, "Cash", "9"), balance(5L, "Trip", "1")));
+        when(categoryDictionary.getOrCreate(anyLong(), anyString())).thenReturn(new Category());
+
+        goalService.contributeToGoal(1L, contribution(10L, 2L, "1"));
+
+        // Goal account 5 sorts before cash account 10, so it is locked first
+        org.mockito.InOrder inOrder = inOrder(accountRepo);
+        inOrder.verify(accountRepo).credit(5L, BigDecimal.ONE);
+        inOrder.verify(accountRepo).debitIfSufficient(10L, 1L, BigDecimal.ONE);
+    }
+
+    @Test
+    public void testContributeInsufficientFunds() {
+        Account cash = new Account(); cash.setAccountId(10L); cash.setUser(user); cash.setBalance(BigDecimal.ONE);
+        when(goalRepo.findContributionTarget(2L, 1L)).thenReturn(Optional.of(target(2L, "Trip", 20L)));
+        when(accountRepo.debitIfSufficient(10L, 1L, BigDecimal.TEN)).thenReturn(0);
+        when(accountRepo.findById(10L)).thenReturn(Optional.of(cash));
+
+        try {
+            goalService.contributeToGoal(1L, contribution(10L, 2L, "10"));
+            fail("Expected insufficient funds");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Insufficient funds in cash account", e.getMessage());
+        }
+        verify(accountRepo, never()).credit(anyLong(), any());
+        verify(goalRepo, never()).addContribution(anyLong(), any(), any(), any());
+        verify(cashFlowRepo, never()).saveAll(anyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContributeFromGoalAccountItself() {
+        when(goalRepo.findContributionTarget(2L, 1L)).thenReturn(Optional.of(target(2L, "Trip", 20L)));
+        goalService.contributeToGoal(1L, contribution(20L, 2L, "1"));
+    }
+
     // ---------------- createGoal ----------------
 
     @Test
@@ -309,8 +362,8 @@ public class GoalServiceImplTest {
         when(accountRepo.findFirstByUser_UserIdAndAccountType(eq(1L), eq(AccountType.CASH)))
                 .thenReturn(Optional.of(cashAcc));
         Category cat = new Category(); cat.setCategoryId(123L);
-        when(categoryRepo.findByUser_UserIdAndNameIgnoreCase(eq(1L), anyString()))
-                .thenReturn(Optional.of(cat));
+        when(categoryDictionary.getOrCreate(eq(1L), anyString()))
+                .thenReturn(cat);
 
         goalService.deleteGoal(1L, 7L);
 
@@ -334,8 +387,8 @@ public class GoalServiceImplTest {
 
         Category cat = new Category();
         cat.setCategoryId(123L);
-        when(categoryRepo.findByUser_UserIdAndNameIgnoreCase(eq(1L), anyString()))
-                .thenReturn(Optional.of(cat));
+        when(categoryDictionary.getOrCreate(eq(1L), anyString()))
+                .thenReturn(cat);
 
         when(cashFlowRepo.findByUserCategoryPeriodAndOptionalType(
                 eq(1L), eq(123L),
@@ -351,113 +404,60 @@ public class GoalServiceImplTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testContributeGoalNotFound() {
-        User user = new User(); user.setUserId(1L);
-        Account cash = new Account(); cash.setAccountId(10L); cash.setUser(user); cash.setBalance(BigDecimal.TEN);
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
-        when(accountRepo.findById(10L)).thenReturn(Optional.of(cash));
-        when(goalRepo.findById(99L)).thenReturn(Optional.empty());
-
-        ContributionRequest req = new ContributionRequest();
-        req.setFromAccountId(10L);
-        req.setGoalId(99L);
-        req.setAmount(BigDecimal.ONE);
+        when(goalRepo.findContributionTarget(99L, 1L)).thenReturn(Optional.empty());
 
-        goalService.contributeToGoal(1L, req);
+        goalService.contributeToGoal(1L, contribution(10L, 99L, "1"));
     }
 
-    @Test(expected = IllegalArgumentException.class)
+    @Test
     public void testContributeAccountNotOwned() {
-        User user = new User(); user.setUserId(1L);
         User other = new User(); other.setUserId(2L);
-
         Account cash = new Account(); cash.setAccountId(10L); cash.setUser(other); cash.setBalance(BigDecimal.TEN);
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(goalRepo.findContributionTarget(7L, 1L)).thenReturn(Optional.of(target(7L, "Trip", 20L)));
+        when(accountRepo.debitIfSufficient(10L, 1L, BigDecimal.ONE)).thenReturn(0);
         when(accountRepo.findById(10L)).thenReturn(Optional.of(cash));
 
-        ContributionRequest req = new ContributionRequest();
-        req.setFromAccountId(10L);
-        req.setGoalId(7L);
-        req.setAmount(BigDecimal.ONE);
-
-        goalService.contributeToGoal(1L, req);
+        try {
+            goalService.contributeToGoal(1L, contribution(10L, 7L, "1"));
+            fail("Expected ownership check to fail");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Source account not owned by this user", e.getMessage());
+        }
     }
 
     @Test
-    public void testEnsureGoalTransferCategoryFallback() throws Exception {
+    public void testEnsureGoalTransferCategory_RenamesLegacyCategory() throws Exception {
         User u = new User(); u.setUserId(1L);
+        Category legacy = new Category(); legacy.setCategoryId(9L); legacy.setName("__Goal_Transfer__");
 
-        when(categoryRepo.findByUser_UserIdAndNameIgnoreCase(eq(1L), anyString()))
-                .thenReturn(Optional.empty(), Optional.empty());
-        when(categoryRepo.save(any(Category.class)))
-                .thenThrow(new DataIntegrityViolationException("dup"));
+        when(categoryDictionary.find(1L, "Goal Transfer")).thenReturn(Optional.empty());
+        when(categoryDictionary.find(1L, "__Goal_Transfer__")).thenReturn(Optional.of(legacy));
+        when(categoryDictionary.getOrCreate(1L, "Goal Transfer")).thenReturn(legacy);
 
         Method m = GoalServiceImpl.class.getDeclaredMethod("ensureGoalTransferCategory", User.class);
         m.setAccessible(true);
+        Category result = (Category) m.invoke(goalService, u);
 
-        try {
-            m.invoke(goalService, u);
-            fail("Expected RuntimeException from ensureGoalTransferCategory");
-        } catch (InvocationTargetException ite) {
-            Throwable cause = ite.getCause();
-            assertTrue(cause instanceof RuntimeException);
-            assertEquals("System category creation failed", cause.getMessage());
-        }
+        assertSame(legacy, result);
+        assertEquals("Goal Transfer", legacy.getName());
+        verify(categoryRepo).save(legacy);
+        verify(categoryDictionary).invalidate(1L);
     }
 
-    @Test(expected = IllegalArgumentException.class)
-    public void testContributeAmountNullOrNonPositive() {
-        User u = new User(); u.setUserId(1L);
-        Account cash = new Account(); cash.setAccountId(10L); cash.setUser(u); cash.setBalance(new BigDecimal("1000"));
-        Account goalAcc = new Account(); goalAcc.setAccountId(20L); goalAcc.setUser(u);
-        Goal g = new Goal(); g.setId(2L); g.setUser(u); g.setLinkedAccount(goalAcc);
-
-        when(userRepo.findById(1L)).thenReturn(Optional.of(u));
-        when(accountRepo.findById(10L)).thenReturn(Optional.of(cash));
-        when(goalRepo.findById(2L)).thenReturn(Optional.of(g));
-
-
-        ContributionRequest req = new ContributionRequest();
-        req.setFromAccountId(10L);
-        req.setGoalId(2L);
-        req.setAmount(null);
-
-        goalService.contributeToGoal(1L, req);
-    }
-
-    @Test(expected = IllegalArgumentException.class)
-    public void testContributeInsufficientFundsBranch() {
-        // 余额不足
+    @Test
+    public void testEnsureGoalTransferCategory_UsesDictionaryWhenPresent() throws Exception {
         User u = new User(); u.setUserId(1L);
-        Account cash = new Account(); cash.setAccountId(10L); cash.setUser(u); cash.setBalance(new BigDecimal("50"));
-        Account goalAcc = new Account(); goalAcc.setAccountId(20L); goalAcc.setUser(u);
-        Goal g = new Goal(); g.setId(2L); g.setUser(u); g.setLinkedAccount(goalAcc);
+        Category existing = new Category(); existing.setCategoryId(5L); existing.setName("Goal Transfer");
 
-        when(userRepo.findById(1L)).thenReturn(Optional.of(u));
-        when(accountRepo.findById(10L)).thenReturn(Optional.of(cash));
-        when(goalRepo.findById(2L)).thenReturn(Optional.of(g));
+        when(categoryDictionary.find(1L, "Goal Transfer")).thenReturn(Optional.of(existing));
+        when(categoryDictionary.getOrCreate(1L, "Goal Transfer")).thenReturn(existing);
 
-        ContributionRequest req = new ContributionRequest();
-        req.setFromAccountId(10L);
-        req.setGoalId(2L);
-        req.setAmount(new BigDecimal("200"));
-
-        goalService.contributeToGoal(1L, req);
-    }
-
-// ---------------- getContributions 其他分支 ----------------
-
-    @Test(expected = IllegalArgumentException.class)
-    public void testGetContributions_GoalNotFound() {
-        when(goalRepo.findById(404L)).thenReturn(Optional.empty());
-        goalService.getContributions(1L, 404L, LocalDate.now().minusDays(7), LocalDate.now());
-    }
+        Method m = GoalServiceImpl.class.getDeclaredMethod("ensureGoalTransferCategory", User.class);
+        m.setAccessible(true);
 
-    @Test(expected = IllegalArgumentException.class)
-    public void testGetContributions_GoalNotOwned() {
-        User other = new User(); other.setUserId(2L);
-        Goal g = new Goal(); g.setUser(other);
-        when(goalRepo.findById(3L)).thenReturn(Optional.of(g));
-        goalService.getContributions(1L, 3L, LocalDate.now().minusDays(7), LocalDate.now());
+        assertSame(existing, m.invoke(goalService, u));
+        verify(categoryDictionary, never()).find(1L, "__Goal_Transfer__");
+        verify(categoryRepo, never()).save(any(Category.class));
     }
 
     @Test
@@ -466,8 +466,8 @@ public class GoalServiceImplTest {
         when(goalRepo.findById(3L)).thenReturn(Optional.of(g));
 
         Category cat = new Category(); cat.setCategoryId(111L);
-        when(categoryRepo.findByUser_UserIdAndNameIgnoreCase(eq(1L), anyString()))
-                .thenReturn(Optional.of(cat));
+        when(categoryDictionary.getOrCreate(eq(1L), anyString()))
+                .thenReturn(cat);
 
         when(cashFlowRepo.findByUserCategoryPeriodAndOptionalType(
                 anyLong(), anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), isNull()))
@@ -508,22 +508,7 @@ public class GoalServiceImplTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testContributeAmountZero_shouldThrow() {
-        User u = new User(); u.setUserId(1L);
-        Account cash = new Account(); cash.setAccountId(10L); cash.setUser(u); cash.setBalance(new BigDecimal("100"));
-        Account goalAcc = new Account(); goalAcc.setAccountId(20L); goalAcc.setUser(u);
-        Goal g = new Goal(); g.setId(2L); g.setUser(u); g.setLinkedAccount(goalAcc);
-
-        when(userRepo.findById(1L)).thenReturn(Optional.of(u));
-        when(accountRepo.findById(10L)).thenReturn(Optional.of(cash));
-        when(goalRepo.findById(2L)).thenReturn(Optional.of(g));
-
-        ContributionRequest req = new ContributionRequest();
-        req.setFromAccountId(10L);
-        req.setGoalId(2L);
-        req.setAmount(BigDecimal.ZERO);
-
-        goalService.contributeToGoal(1L, req);
+        goalService.contributeToGoal(1L, contribution(10L, 2L, "0"));
     }
 
-
 }
@@ -0,0 +1,84 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.GoalRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GoalStatsBackfillTest {
+
+    @Mock private GoalRepository goalRepository;
+    @Mock private CashFlowRepository cashFlowRepository;
+
+    private GoalStatsBackfill backfill;
+
+    @Before
+    public void setUp() {
+        backfill = new GoalStatsBackfill(goalRepository, cashFlowRepository, 100);
+    }
+
+    private static GoalRepository.GoalAccount link(Long goalId, Long accountId) {
+        return new GoalRepository.GoalAccount() {
+            @Override public Long getGoalId() { return goalId; }
+            @Override public Long getAccountId() { return accountId; }
+        };
+    }
+
+    private static CashFlowRepository.AccountInflowStats stats(Long accountId, long count, String total,
+                                                               LocalDateTime first, LocalDateTime last) {
+        return new CashFlowRepository.AccountInflowStats() {
+            @Override public Long getAccountId() { return accountId; }
+            @Override public Long getContributions() { return count; }
+            @Override public BigDecimal getTotal() { return new BigDecimal(total); }
+            @Override public LocalDateTime getFirstAt() { return first; }
+            @Override public LocalDateTime getLastAt() { return last; }
+        };
+    }
+
+    @Test
+    public void backfillPage_seedsFromOneGroupedQuery() {
+        LocalDateTime first = LocalDateTime.of(2025, 1, 5, 9, 0);
+        LocalDateTime last = LocalDateTime.of(2025, 4, 5, 9, 0);
+        when(goalRepository.findIdsMissingStats(any(Pageable.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(goalRepository.findLinkedAccounts(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(link(1L, 11L), link(2L, 12L)));
+        when(cashFlowRepository.inflowStatsForAccounts(anyList()))
+                .thenReturn(List.of(stats(11L, 4, "400.00", first, last)));
+        when(goalRepository.initContributionStats(anyLong(), anyLong(), any(), any(), any())).thenReturn(1);
+
+        assertEquals(3, backfill.backfillPage());
+
+        InOrder inOrder = inOrder(goalRepository, cashFlowRepository);
+        inOrder.verify(goalRepository).lockIds(List.of(1L, 2L, 3L));
+        inOrder.verify(cashFlowRepository).inflowStatsForAccounts(anyList());
+        verify(goalRepository).initContributionStats(1L, 4L, new BigDecimal("400.00"), first, last);
+        // No inflows yet, and no linked account: both start from zero
+        verify(goalRepository).initContributionStats(2L, 0L, BigDecimal.ZERO, null, null);
+        verify(goalRepository).initContributionStats(3L, 0L, BigDecimal.ZERO, null, null);
+        verify(cashFlowRepository, times(1)).inflowStatsForAccounts(anyList());
+    }
+
+    @Test
+    public void backfillPage_nothingLeft() {
+        when(goalRepository.findIdsMissingStats(any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, backfill.backfillPage());
+
+        verify(goalRepository, never()).lockIds(anyList());
+        verifyNoInteractions(cashFlowRepository);
+    }
+}
@@ -35,6 +35,12 @@ public class IncomeServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private DomainEventPublisher domainEventPublisher;
+
+    @Mock
+    private SyncChangeLog syncChangeLog;
+
     @InjectMocks
     private IncomeServiceImpl incomeService;
 
@@ -0,0 +1,126 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LedgerStreamServiceTest {
+
+    @Mock private CashFlowRepository cashFlowRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private GoalService goalService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private LedgerStreamService service;
+
+    @Before
+    public void setUp() {
+        service = new LedgerStreamService(cashFlowRepository, categoryRepository, goalService, objectMapper, transactionManager);
+    }
+
+    private static CashFlowRepository.LedgerRow row(long id, CashFlowType type, String amount, String categoryName) {
+        return new CashFlowRepository.LedgerRow() {
+            @Override public Long getCashFlowId() { return id; }
+            @Override public CashFlowType getType() { return type; }
+            @Override public BigDecimal getAmount() { return new BigDecimal(amount); }
+            @Override public LocalDateTime getOccurredAt() { return LocalDateTime.of(2026, 3, 1, 12, 0); }
+            @Override public LocalDateTime getCreatedAt() { return LocalDateTime.of(2026, 3, 1, 12, 0); }
+            @Override public String getDescription() { return "row " + id; }
+            @Override public Long getAccountId() { return 4L; }
+            @Override public BigDecimal getAccountBalance() { return new BigDecimal("100.00"); }
+            @Override public Long getCategoryId() { return categoryName == null ? null : 9L; }
+            @Override public String getCategoryName() { return categoryName; }
+        };
+    }
+
+    @Test
+    public void expenses_writesOneJsonObjectPerLineInOneShortTransaction() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(cashFlowRepository.pageByUserAndTypeOrderByOccurredAtDesc(eq(7L), eq(CashFlowType.Expense), isNull(), isNull(), any()))
+                .thenReturn(List.of(row(2L, CashFlowType.Expense, "12.50", "Food"), row(1L, CashFlowType.Expense, "3.00", null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.expenses(7L).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Food", first.get("categoryName").asText());
+        assertEquals(12.50, first.get("amount").asDouble(), 0.0);
+        assertEquals("2026-03-01T12:00:00", first.get("occurredAt").asText());
+        assertEquals("Uncategorized", objectMapper.readTree(lines[1]).get("categoryName").asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+        // A short page is the last one
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void income_fullPage_continuesAfterTheLastRowInANewTransaction() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        List<CashFlowRepository.LedgerRow> full = new ArrayList<>();
+        for (long id = 1000; full.size() < LedgerStreamService.PAGE_SIZE; id--) {
+            full.add(row(id, CashFlowType.Income, "1.00", null));
+        }
+        CashFlowRepository.LedgerRow last = full.get(full.size() - 1);
+        when(cashFlowRepository.pageByUserAndTypeOrderByCreatedAtDesc(eq(7L), eq(CashFlowType.Income), isNull(), isNull(), any()))
+                .thenReturn(full);
+        when(cashFlowRepository.pageByUserAndTypeOrderByCreatedAtDesc(eq(7L), eq(CashFlowType.Income),
+                eq(last.getCreatedAt()), eq(last.getCashFlowId()), any()))
+                .thenReturn(List.of(row(1L, CashFlowType.Income, "2.00", null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.income(7L).writeTo(out);
+
+        assertEquals(LedgerStreamService.PAGE_SIZE + 1, out.toString(StandardCharsets.UTF_8).split("\n").length);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void categoryRecords_unknownCategory_failsBeforeStreaming() {
+        when(categoryRepository.existsByCategoryIdAndUser_UserId(9L, 7L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.categoryRecords(7L, 9L, null, null));
+        verifyNoInteractions(cashFlowRepository, transactionManager);
+    }
+
+    @Test
+    public void goalContributions_streamsFlatRecordsUnderTheTransferCategory() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(goalService.getContributionCategoryId(7L, 3L)).thenReturn(9L);
+        when(cashFlowRepository.pageByUserCategoryPeriodAndOptionalType(eq(7L), eq(9L), any(), any(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(row(5L, CashFlowType.Income, "25.00", "Goal Transfer")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.goalContributions(7L, 3L, null, null).writeTo(out);
+
+        JsonNode record = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+        assertEquals(5L, record.get("id").asLong());
+        assertEquals("Income", record.get("type").asText());
+        assertEquals(9L, record.get("categoryId").asLong());
+    }
+}
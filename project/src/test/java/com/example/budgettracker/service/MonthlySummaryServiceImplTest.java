@@ -0,0 +1,181 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.MonthlySummary;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CashFlowRepository.UserCategoryTotal;
+import com.example.budgettracker.repository.CashFlowRepository.UserTypeTotal;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryBudgetRepository.UserCategoryBudget;
+import com.example.budgettracker.repository.UserRepository;
+import com.example.budgettracker.repository.UserRepository.NotificationRecipient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MonthlySummaryServiceImplTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 9);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CashFlowRepository cashFlowRepository;
+
+    @Mock
+    private CategoryBudgetRepository categoryBudgetRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MonthlySummaryServiceImpl summaryService;
+
+    @Before
+    public void setUp() {
+        summaryService = new MonthlySummaryServiceImpl(userRepository, cashFlowRepository,
+                categoryBudgetRepository, emailService, transactionManager, 2, 2);
+    }
+
+    private static NotificationRecipient recipient(long id) {
+        return new NotificationRecipient() {
+            public Long getUserId() { return id; }
+            public String getEmail() { return "user" + id + "@example.com"; }
+            public String getFirstName() { return "User" + id; }
+        };
+    }
+
+    private static UserTypeTotal typeTotal(long userId, CashFlowType type, String total) {
+        return new UserTypeTotal() {
+            public Long getUserId() { return userId; }
+            public CashFlowType getType() { return type; }
+            public BigDecimal getTotal() { return new BigDecimal(total); }
+        };
+    }
+
+    private static UserCategoryTotal categoryTotal(long userId, long categoryId, String name, String total) {
+        return new UserCategoryTotal() {
+            public Long getUserId() { return userId; }
+            public Long getCategoryId() { return categoryId; }
+            public String getCategoryName() { return name; }
+            public BigDecimal getTotal() { return new BigDecimal(total); }
+        };
+    }
+
+    private static UserCategoryBudget budget(long userId, long categoryId, String name, String amount) {
+        return new UserCategoryBudget() {
+            public Long getUserId() { return userId; }
+            public Long getCategoryId() { return categoryId; }
+            public String getCategoryName() { return name; }
+            public BigDecimal getAmount() { return new BigDecimal(amount); }
+        };
+    }
+
+    @Test
+    public void summarise_usesThreeSetBasedQueriesForWholePage() {
+        List<NotificationRecipient> page = List.of(recipient(1), recipient(2));
+        when(cashFlowRepository.sumByUserAndTypeForUsers(eq(List.of(1L, 2L)), any(), any())).thenReturn(List.of(
+                typeTotal(1, CashFlowType.Income, "3000.00"),
+                typeTotal(1, CashFlowType.Expense, "1200.00")));
+        when(cashFlowRepository.sumExpenseByUserAndCategoryForUsers(eq(List.of(1L, 2L)), any(), any())).thenReturn(List.of(
+                categoryTotal(1, 10, "Food", "500.00"),
+                categoryTotal(1, 11, "Rent", "600.00"),
+                categoryTotal(1, 12, "Fun", "60.00"),
+                categoryTotal(1, 13, "Misc", "40.00")));
+        when(categoryBudgetRepository.findBudgetsForUsers(List.of(1L, 2L), "2025-09")).thenReturn(List.of(
+                budget(1, 10, "Food", "400.00"),
+                budget(1, 11, "Rent", "700.00")));
+
+        List<MonthlySummary> summaries = summaryService.summarise(page, MONTH);
+
+        assertEquals(2, summaries.size());
+        MonthlySummary first = summaries.get(0);
+        assertEquals(new BigDecimal("1800.00"), first.getNet());
+        assertEquals(MonthlySummaryServiceImpl.TOP_CATEGORIES, first.getTopCategories().size());
+        assertEquals("Rent", first.getTopCategories().get(0).getName());
+        assertEquals(1, first.getOverruns().size());
+        assertEquals("Food", first.getOverruns().get(0).getName());
+        assertEquals(new BigDecimal("100.00"), first.getOverruns().get(0).getOver());
+
+        MonthlySummary second = summaries.get(1);
+        assertEquals(BigDecimal.ZERO, second.getTotalIncome());
+        assertTrue(second.getTopCategories().isEmpty());
+        assertTrue(second.getOverruns().isEmpty());
+
+        verify(cashFlowRepository, times(1)).sumByUserAndTypeForUsers(any(), any(), any());
+        verify(cashFlowRepository, times(1)).sumExpenseByUserAndCategoryForUsers(any(), any(), any());
+    }
+
+    @Test
+    public void summarise_queriesWholeMonthHalfOpenRange() {
+        when(cashFlowRepository.sumByUserAndTypeForUsers(any(), any(), any())).thenReturn(List.of());
+
+        summaryService.summarise(List.of(recipient(1)), MONTH);
+
+        verify(cashFlowRepository).sumByUserAndTypeForUsers(List.of(1L),
+                LocalDateTime.of(2025, 9, 1, 0, 0), LocalDateTime.of(2025, 10, 1, 0, 0));
+    }
+
+    @Test
+    public void render_escapesUserSuppliedNames() {
+        MonthlySummary summary = MonthlySummary.builder()
+                .firstName("<b>Eve</b>")
+                .month(MONTH)
+                .totalIncome(new BigDecimal("10"))
+                .totalExpense(new BigDecimal("5"))
+                .topCategories(List.of(new MonthlySummary.CategoryTotal("<script>", new BigDecimal("5"))))
+                .overruns(List.of())
+                .build();
+
+        String html = summaryService.render(summary);
+
+        assertFalse(html.contains("<script>"));
+        assertTrue(html.contains("&lt;script&gt;"));
+        assertTrue(html.contains("September 2025"));
+        assertTrue(html.contains("$5.00"));
+    }
+
+    @Test
+    public void sendMonthlySummaries_pagesByKeysetAndQueuesEveryUser() {
+        when(userRepository.findNotificationRecipientsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(recipient(1), recipient(2)));
+        when(userRepository.findNotificationRecipientsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(recipient(5)));
+
+        int queued = summaryService.sendMonthlySummaries(MONTH);
+
+        assertEquals(3, queued);
+        verify(emailService).sendMonthlySummaryEmail(eq("user1@example.com"), eq("User1"), contains("September 2025"));
+        verify(emailService).sendMonthlySummaryEmail(eq("user2@example.com"), eq("User2"), anyString());
+        verify(emailService).sendMonthlySummaryEmail(eq("user5@example.com"), eq("User5"), anyString());
+        // Short last page ends the run without another query
+        verify(userRepository, never()).findNotificationRecipientsAfter(eq(5L), any(Pageable.class));
+    }
+
+    @Test
+    public void sendMonthlySummaries_countsFailedSliceAndContinues() {
+        when(userRepository.findNotificationRecipientsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(recipient(1)));
+        doThrow(new RuntimeException("insert failed"))
+                .when(emailService).sendMonthlySummaryEmail(anyString(), anyString(), anyString());
+
+        assertEquals(0, summaryService.sendMonthlySummaries(MONTH));
+    }
+}
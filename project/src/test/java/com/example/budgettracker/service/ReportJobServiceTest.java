@@ -0,0 +1,297 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Report.ReportJobResponse;
+import com.example.budgettracker.model.ReportArtifact;
+import com.example.budgettracker.model.ReportJob;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.ReportFormat;
+import com.example.budgettracker.model.enums.ReportJobStatus;
+import com.example.budgettracker.repository.ReportArtifactRepository;
+import com.example.budgettracker.repository.ReportJobRepository;
+import com.example.budgettracker.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReportJobServiceTest {
+
+    @Mock private ReportJobRepository jobRepository;
+    @Mock private ReportArtifactRepository artifactRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private ReportService reportService;
+    @Mock private ReportRenderer renderer;
+    @Mock private SchedulerLockService lockService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private ReportJobService service;
+
+    private final LocalDate start = LocalDate.of(2026, 1, 1);
+    private final LocalDate end = LocalDate.of(2026, 3, 31);
+
+    @Before
+    public void setUp() {
+        service = new ReportJobService(jobRepository, artifactRepository, userRepository, reportService, renderer,
+                lockService, new ObjectMapper().findAndRegisterModules(), transactionManager, 60, 30, 1, 4);
+    }
+
+    @After
+    public void tearDown() {
+        service.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void submit_identicalJobInFlight_isReused() {
+        when(userRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(new User()));
+        ReportJob running = job("job-1", ReportJobStatus.RUNNING);
+        when(jobRepository.findReusable(eq("7:SUMMARY:2026-01-01:2026-03-31"), any(), any())).thenReturn(List.of(running));
+
+        ReportJobResponse response = service.submit(7L, ReportFormat.SUMMARY, start, end);
+
+        assertEquals("job-1", response.getJobId());
+        assertEquals("RUNNING", response.getStatus());
+        assertNull(response.getDownloadUrl());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    public void submit_newJob_isSavedAndQueuedAfterCommit() {
+        when(userRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(new User()));
+        when(jobRepository.findReusable(any(), any(), any())).thenReturn(List.of());
+        when(lockService.getNodeId()).thenReturn("node-a");
+        when(jobRepository.save(any(ReportJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        ReportJobResponse response = service.submit(7L, ReportFormat.PNG, start, end);
+
+        ArgumentCaptor<ReportJob> saved = ArgumentCaptor.forClass(ReportJob.class);
+        verify(jobRepository).save(saved.capture());
+        assertEquals(ReportJobStatus.PENDING, saved.getValue().getStatus());
+        assertEquals("node-a", saved.getValue().getNodeId());
+        assertEquals("7:PNG:2026-01-01:2026-03-31", saved.getValue().getDedupKey());
+        assertEquals(saved.getValue().getId(), response.getJobId());
+        // Nothing runs until the submitting transaction commits
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        verify(jobRepository, never()).claim(any(), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void submit_startAfterEnd_isRejected() {
+        service.submit(7L, ReportFormat.JSON, end, start);
+    }
+
+    @Test(expected = EntityNotFoundException.class)
+    public void submit_unknownUser_isNotFound() {
+        when(userRepository.findByIdForUpdate(7L)).thenReturn(Optional.empty());
+        service.submit(7L, ReportFormat.JSON, start, end);
+    }
+
+    @Test
+    public void run_writesArtifactAndMarksDone() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ReportJob job = job("job-2", ReportJobStatus.PENDING);
+        when(jobRepository.claim(eq("job-2"), any())).thenReturn(1);
+        when(jobRepository.findById("job-2")).thenReturn(Optional.of(job));
+        LinkedHashMap<YearMonth, Map<String, Object>> months = new LinkedHashMap<>();
+        months.put(YearMonth.of(2026, 1), report("100.00", "40.00"));
+        months.put(YearMonth.of(2026, 2), report("50.00", "10.00"));
+        when(reportService.generateMonthlyReports(7L, start, end)).thenReturn(months);
+        when(renderer.summary(any(), eq(months), eq(start), eq(end))).thenReturn("page 1\fpage 2\fpage 3");
+
+        service.run("job-2");
+
+        ArgumentCaptor<ReportArtifact> artifact = ArgumentCaptor.forClass(ReportArtifact.class);
+        verify(artifactRepository).save(artifact.capture());
+        assertEquals("job-2", artifact.getValue().getJobId());
+        assertEquals("page 1\fpage 2\fpage 3", new String(artifact.getValue().getContent(), StandardCharsets.UTF_8));
+        assertEquals(ReportJobStatus.DONE, job.getStatus());
+        assertEquals(Long.valueOf(20), job.getSizeBytes());
+        assertNotNull(job.getExpiresAt());
+        ArgumentCaptor<Map<String, Object>> totals = ArgumentCaptor.forClass(Map.class);
+        verify(renderer).summary(totals.capture(), eq(months), eq(start), eq(end));
+        assertEquals(0, new BigDecimal("100.00").compareTo((BigDecimal) totals.getValue().get("balance")));
+    }
+
+    @Test
+    public void run_jobClaimedElsewhere_doesNothing() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jobRepository.claim(eq("job-3"), any())).thenReturn(0);
+
+        service.run("job-3");
+
+        verifyNoInteractions(reportService, renderer);
+        verify(jobRepository, never()).findById(any());
+    }
+
+    @Test
+    public void run_renderFailure_marksFailedAndStoresNoArtifact() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ReportJob job = job("job-4", ReportJobStatus.PENDING);
+        when(jobRepository.claim(eq("job-4"), any())).thenReturn(1);
+        when(jobRepository.findById("job-4")).thenReturn(Optional.of(job));
+        when(reportService.generateMonthlyReports(7L, start, end)).thenThrow(new IllegalStateException("db down"));
+
+        service.run("job-4");
+
+        assertEquals(ReportJobStatus.FAILED, job.getStatus());
+        assertEquals("db down", job.getErrorMessage());
+        verify(artifactRepository, never()).save(any());
+    }
+
+    @Test
+    public void run_jobFailedAsStaleWhileRendering_staysFailed() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ReportJob job = job("job-9", ReportJobStatus.PENDING);
+        when(jobRepository.claim(eq("job-9"), any())).thenReturn(1);
+        when(jobRepository.findById("job-9")).thenReturn(Optional.of(job));
+        when(reportService.generateMonthlyReports(7L, start, end)).thenAnswer(inv -> {
+            job.setStatus(ReportJobStatus.FAILED);
+            return new LinkedHashMap<>();
+        });
+        when(renderer.summary(any(), any(), eq(start), eq(end))).thenReturn("late");
+
+        service.run("job-9");
+
+        assertEquals(ReportJobStatus.FAILED, job.getStatus());
+        verify(artifactRepository, never()).save(any());
+    }
+
+    @Test
+    public void submit_staleJobs_areNotReused() {
+        when(userRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(new User()));
+        when(lockService.getNodeId()).thenReturn("node-a");
+        when(jobRepository.save(any(ReportJob.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.submit(7L, ReportFormat.JSON, start, end);
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobRepository).findReusable(eq("7:JSON:2026-01-01:2026-03-31"), now.capture(), staleBefore.capture());
+        assertEquals(now.getValue().minusMinutes(30), staleBefore.getValue());
+    }
+
+    @Test
+    public void failStale_failsJobsOlderThanTheStaleTimeoutOnEveryNode() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jobRepository.failStale(any(), any(), any(), any())).thenReturn(2);
+
+        assertEquals(2, service.failStale());
+
+        ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobRepository).failStale(staleBefore.capture(), now.capture(), any(), eq("Report job was abandoned"));
+        assertEquals(now.getValue().minusMinutes(30), staleBefore.getValue());
+        verifyNoInteractions(lockService);
+    }
+
+    @Test
+    public void artifact_pendingJob_isNotReadyYet() {
+        when(jobRepository.findById("job-5")).thenReturn(Optional.of(job("job-5", ReportJobStatus.PENDING)));
+
+        assertTrue(service.artifact(7L, "job-5").isEmpty());
+    }
+
+    @Test
+    public void artifact_doneJob_isServedFromTheDatabase() {
+        ReportJob job = job("job-8", ReportJobStatus.DONE);
+        job.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+        when(jobRepository.findById("job-8")).thenReturn(Optional.of(job));
+        when(artifactRepository.findById("job-8"))
+                .thenReturn(Optional.of(new ReportArtifact("job-8", "done".getBytes(StandardCharsets.UTF_8))));
+
+        ReportJobService.Artifact artifact = service.artifact(7L, "job-8").orElseThrow();
+
+        assertEquals("done", new String(artifact.content(), StandardCharsets.UTF_8));
+        assertEquals("report-2026-01-01-2026-03-31.txt", artifact.fileName());
+    }
+
+    @Test(expected = EntityNotFoundException.class)
+    public void artifact_expiredJob_isNotFound() {
+        ReportJob job = job("job-6", ReportJobStatus.DONE);
+        job.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(jobRepository.findById("job-6")).thenReturn(Optional.of(job));
+
+        service.artifact(7L, "job-6");
+    }
+
+    @Test(expected = EntityNotFoundException.class)
+    public void artifact_anotherUsersJob_isNotFound() {
+        ReportJob job = job("job-9", ReportJobStatus.DONE);
+        job.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+        when(jobRepository.findById("job-9")).thenReturn(Optional.of(job));
+
+        service.artifact(8L, "job-9");
+    }
+
+    @Test(expected = EntityNotFoundException.class)
+    public void get_anotherUsersJob_isNotFound() {
+        when(jobRepository.findById("job-9")).thenReturn(Optional.of(job("job-9", ReportJobStatus.PENDING)));
+
+        service.get(8L, "job-9");
+    }
+
+    @Test
+    public void purgeExpired_deletesArtifactsAndRowsFromEveryNode() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ReportJob job = job("job-7", ReportJobStatus.DONE);
+        job.setNodeId("node-b");
+        when(jobRepository.findByStatusInAndExpiresAtBefore(eq(ReportJobService.FINISHED), any()))
+                .thenReturn(List.of(job));
+
+        assertEquals(1, service.purgeExpired());
+
+        verify(artifactRepository).deleteByJobIds(List.of("job-7"));
+        verify(jobRepository).deleteAllInBatch(List.of(job));
+        verifyNoInteractions(lockService);
+    }
+
+    private ReportJob job(String id, ReportJobStatus status) {
+        return ReportJob.builder()
+                .id(id)
+                .userId(7L)
+                .format(ReportFormat.SUMMARY)
+                .startDate(start)
+                .endDate(end)
+                .dedupKey("7:SUMMARY:" + start + ":" + end)
+                .status(status)
+                .nodeId("node-a")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Map<String, Object> report(String income, String expense) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("totalIncome", new BigDecimal(income));
+        report.put("totalExpense", new BigDecimal(expense));
+        report.put("balance", new BigDecimal(income).subtract(new BigDecimal(expense)));
+        report.put("expenseByCategory", Map.of("Food", new BigDecimal(expense)));
+        report.put("transfer", BigDecimal.ZERO);
+        return report;
+    }
+}
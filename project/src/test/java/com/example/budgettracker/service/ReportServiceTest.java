@@ -139,6 +139,35 @@ public class ReportServiceTest {
         assertEquals(0, expenseByCategory.get("Uncategorized").compareTo(new BigDecimal("75.00")));
     }
 
+    @Test
+    public void generateMonthlyReports_splitsRangeAtMonthBoundaries_andCombineSumsThem() {
+        LocalDateTime janFrom = LocalDateTime.of(2025, 1, 15, 0, 0);
+        LocalDateTime janTo = LocalDateTime.of(2025, 1, 31, 23, 59, 59, 999_999_000);
+        LocalDateTime febFrom = LocalDateTime.of(2025, 2, 1, 0, 0);
+        LocalDateTime febTo = LocalDate.of(2025, 2, 10).atTime(LocalTime.MAX);
+        when(cashFlowRepository.findByAccount_User_UserIdAndOccurredAtBetween(userId, janFrom, janTo))
+                .thenReturn(List.of(flow(1L, CashFlowType.Expense, new BigDecimal("10.00"), janFrom, null, 100L)));
+        when(cashFlowRepository.findByAccount_User_UserIdAndOccurredAtBetween(userId, febFrom, febTo))
+                .thenReturn(List.of(
+                        flow(2L, CashFlowType.Expense, new BigDecimal("5.00"), febFrom, null, 100L),
+                        flow(3L, CashFlowType.Expense, new BigDecimal("7.50"), febFrom, null, 200L),
+                        flow(4L, CashFlowType.Income, new BigDecimal("100.00"), febFrom, null, null)));
+        when(transferRepository.findByAccountFrom_User_UserIdAndCreatedAtBetween(any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        LinkedHashMap<YearMonth, Map<String, Object>> months =
+                reportService.generateMonthlyReports(userId, LocalDate.of(2025, 1, 15), LocalDate.of(2025, 2, 10));
+
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 2)), new ArrayList<>(months.keySet()));
+        Map<String, Object> combined = ReportService.combine(months.values());
+        assertEquals(0, ((BigDecimal) combined.get("totalIncome")).compareTo(new BigDecimal("100.00")));
+        assertEquals(0, ((BigDecimal) combined.get("totalExpense")).compareTo(new BigDecimal("22.50")));
+        assertEquals(0, ((BigDecimal) combined.get("balance")).compareTo(new BigDecimal("77.50")));
+        Map<String, BigDecimal> expenseByCategory = (Map<String, BigDecimal>) combined.get("expenseByCategory");
+        assertEquals(0, expenseByCategory.get("Food").compareTo(new BigDecimal("15.00")));
+        assertEquals(0, expenseByCategory.get("Play").compareTo(new BigDecimal("7.50")));
+    }
+
     private static CashFlow flow(long id, CashFlowType type, BigDecimal amount, LocalDateTime date, Long acctId, Long catId) {
         CashFlow f = new CashFlow();
         f.setCashFlowId(id);
@@ -0,0 +1,94 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Budgetcoin.RewardHistoryPage;
+import com.example.budgettracker.dto.Budgetcoin.RewardTransactionResponse;
+import com.example.budgettracker.model.Item;
+import com.example.budgettracker.model.RewardGrant;
+import com.example.budgettracker.model.RewardRedeem;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.repository.ItemRepository;
+import com.example.budgettracker.repository.RewardGrantRepository;
+import com.example.budgettracker.repository.RewardRedeemRepository;
+import com.example.budgettracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Walks a merged grant/redeem history page by page against H2, including rows that share a timestamp.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ActiveProfiles("test")
+@Import({RewardService.class, CoinLeaderboard.class, SimpleMeterRegistry.class})
+public class RewardHistoryPagingTest {
+
+    @Autowired private RewardService rewardService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private RewardGrantRepository rewardGrantRepository;
+    @Autowired private RewardRedeemRepository rewardRedeemRepository;
+
+    @Test
+    public void pagesCoverEveryRowOnceInOrder() {
+        User user = userRepository.save(User.builder()
+                .email("history-" + System.nanoTime() + "@example.com")
+                .hashedPassword("x")
+                .firstName("His")
+                .lastName("Tory")
+                .build());
+        User other = userRepository.save(User.builder()
+                .email("other-" + System.nanoTime() + "@example.com")
+                .hashedPassword("x")
+                .firstName("Oth")
+                .lastName("Er")
+                .build());
+        Item item = itemRepository.save(Item.builder().itemName("Pen-" + System.nanoTime()).price(5L).stockQty(100L).build());
+
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < 12; i++) {
+            // Every third pair shares a timestamp to exercise the tie-breakers
+            LocalDateTime at = base.plusMinutes(i / 3);
+            rewardGrantRepository.save(RewardGrant.builder()
+                    .user(user).amount(BigDecimal.TEN).sourceType("Streak").rewardEventId("h-" + System.nanoTime() + "-" + i)
+                    .createdAt(at).build());
+            rewardRedeemRepository.save(RewardRedeem.builder()
+                    .user(user).item(item).itemName(item.getItemName()).amount(BigDecimal.valueOf(5))
+                    .redeemedAt(at).build());
+        }
+        rewardGrantRepository.save(RewardGrant.builder()
+                .user(other).amount(BigDecimal.ONE).sourceType("Other").rewardEventId("o-" + System.nanoTime())
+                .createdAt(base).build());
+
+        List<RewardTransactionResponse> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            RewardHistoryPage page = rewardService.getTransactionHistory(user.getUserId(), cursor, 5);
+            assertTrue(page.getItems().size() <= 5);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(24, all.size());
+        assertEquals(5, pages);
+        assertEquals(24, all.stream().map(t -> t.getType() + t.getReference()).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse("newest first", all.get(i).getOccurredAt().isAfter(all.get(i - 1).getOccurredAt()));
+        }
+        assertTrue(all.stream().noneMatch(t -> "Other".equals(t.getTitle())));
+    }
+}
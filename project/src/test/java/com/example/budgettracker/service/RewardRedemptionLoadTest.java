@@ -0,0 +1,171 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Budgetcoin.RewardRedeemRequest;
+import com.example.budgettracker.model.Item;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.repository.ItemRepository;
+import com.example.budgettracker.repository.RewardRedeemRepository;
+import com.example.budgettracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Many redeemers racing for few units, against a real (H2) database.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:redeemload;LOCK_TIMEOUT=20000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=64"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({RewardService.class, CoinLeaderboard.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RewardRedemptionLoadTest {
+
+    private static final int REDEEMERS = 1000;
+    private static final long STOCK = 100;
+    private static final long PRICE = 30;
+
+    @Autowired private RewardService rewardService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private RewardRedeemRepository rewardRedeemRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @Before
+    public void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    private Long newItem(long stock) {
+        return tx.execute(status -> itemRepository.save(Item.builder()
+                .itemName("Hot-" + System.nanoTime())
+                .price(PRICE)
+                .stockQty(stock)
+                .build()).getItemId());
+    }
+
+    private List<Long> newUsers(int count, long coins) {
+        return tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ids.add(userRepository.save(User.builder()
+                        .email("redeemer-" + i + "-" + System.nanoTime() + "@example.com")
+                        .hashedPassword("x")
+                        .firstName("Redeem")
+                        .lastName("Er")
+                        .budgetCoin(coins)
+                        .build()).getUserId());
+            }
+            return ids;
+        });
+    }
+
+    private static RewardRedeemRequest redeem(Long userId, Long itemId) {
+        RewardRedeemRequest req = new RewardRedeemRequest();
+        req.setUserId(userId);
+        req.setItemId(itemId);
+        return req;
+    }
+
+    /**
+     * Run the callers all at once
+     * @return outcome message counts ("ok" for success)
+     */
+    private ConcurrentHashMap<String, AtomicInteger> race(List<Runnable> callers) throws Exception {
+        ConcurrentHashMap<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable caller : callers) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                String outcome;
+                try {
+                    caller.run();
+                    outcome = "ok";
+                } catch (RuntimeException e) {
+                    outcome = e.getMessage();
+                }
+                outcomes.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return outcomes;
+    }
+
+    @Test
+    public void thousandRedeemers_hundredUnits_exactlyHundredSucceed() throws Exception {
+        Long itemId = newItem(STOCK);
+        List<Long> users = newUsers(REDEEMERS, PRICE);
+        long ordersBefore = tx.execute(s -> rewardRedeemRepository.count());
+
+        List<Runnable> callers = new ArrayList<>();
+        for (Long userId : users) {
+            callers.add(() -> rewardService.redeemBudgetCoin(redeem(userId, itemId)));
+        }
+        var outcomes = race(callers);
+
+        assertEquals(STOCK, outcomes.get("ok").get());
+        assertEquals(REDEEMERS - STOCK, outcomes.get("Item out of stock").get());
+        assertEquals(2, outcomes.size());
+
+        assertEquals(Long.valueOf(0), tx.execute(s -> itemRepository.findById(itemId).orElseThrow().getStockQty()));
+        assertEquals(STOCK, tx.execute(s -> rewardRedeemRepository.count()) - ordersBefore);
+        // Losers were refunded by rollback: only the winners paid
+        long spent = tx.execute(s -> users.stream()
+                .filter(id -> userRepository.getBudgetCoin(id) == 0L)
+                .count());
+        assertEquals(STOCK, spent);
+    }
+
+    @Test
+    public void oneUser_manyTabs_neverOverdraws() throws Exception {
+        Long itemId = newItem(STOCK);
+        Long userId = newUsers(1, PRICE * 3).get(0);
+
+        List<Runnable> callers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            callers.add(() -> rewardService.redeemBudgetCoin(redeem(userId, itemId)));
+        }
+        var outcomes = race(callers);
+
+        assertEquals(3, outcomes.get("ok").get());
+        assertEquals(47, outcomes.get("Insufficient BudgetCoin balance").get());
+        assertEquals(Long.valueOf(0), tx.execute(s -> userRepository.getBudgetCoin(userId)));
+        assertEquals(Long.valueOf(STOCK - 3), tx.execute(s -> itemRepository.findById(itemId).orElseThrow().getStockQty()));
+    }
+}
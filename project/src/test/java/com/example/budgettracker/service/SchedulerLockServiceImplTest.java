@@ -0,0 +1,191 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.SchedulerLock;
+import com.example.budgettracker.model.SchedulerRunHistory;
+import com.example.budgettracker.model.enums.JobRunStatus;
+import com.example.budgettracker.repository.SchedulerLockRepository;
+import com.example.budgettracker.repository.SchedulerRunHistoryRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SchedulerLockServiceImplTest {
+
+    private static final String LOCK = "session-cleanup";
+    private static final String NODE = "node-a";
+    private static final LocalDateTime DB_NOW = LocalDateTime.of(2026, 5, 1, 12, 0, 0);
+
+    @Mock
+    private SchedulerLockRepository lockRepository;
+
+    @Mock
+    private SchedulerRunHistoryRepository historyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SchedulerLockServiceImpl lockService;
+
+    @Before
+    public void setUp() {
+        lockService = new SchedulerLockServiceImpl(lockRepository, historyRepository, transactionManager, NODE);
+        lenient().when(lockRepository.findDatabaseTime()).thenReturn(DB_NOW);
+    }
+
+    @Test
+    public void tryAcquire_returnsTrue_whenLeaseExpired() {
+        when(lockRepository.existsById(LOCK)).thenReturn(true);
+        when(lockRepository.tryAcquire(eq(LOCK), eq(NODE), any(), any())).thenReturn(1);
+
+        assertTrue(lockService.tryAcquire(LOCK, Duration.ofSeconds(30)));
+        verify(lockRepository, never()).saveAndFlush(any());
+        // Lease times come from the database clock, not this node's
+        verify(lockRepository).tryAcquire(LOCK, NODE, DB_NOW, DB_NOW.plusSeconds(30));
+    }
+
+    @Test
+    public void tryAcquire_returnsFalse_whenHeldByAnotherNode() {
+        when(lockRepository.existsById(LOCK)).thenReturn(true);
+        when(lockRepository.tryAcquire(eq(LOCK), eq(NODE), any(), any())).thenReturn(0);
+
+        assertFalse(lockService.tryAcquire(LOCK, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    public void tryAcquire_createsLockRow_onFirstUse() {
+        when(lockRepository.existsById(LOCK)).thenReturn(false);
+        when(lockRepository.tryAcquire(eq(LOCK), eq(NODE), any(), any())).thenReturn(1);
+
+        assertTrue(lockService.tryAcquire(LOCK, Duration.ofSeconds(30)));
+
+        ArgumentCaptor<SchedulerLock> captor = ArgumentCaptor.forClass(SchedulerLock.class);
+        verify(lockRepository).saveAndFlush(captor.capture());
+        assertEquals(LOCK, captor.getValue().getLockName());
+        assertTrue(captor.getValue().getLockUntil().isBefore(LocalDateTime.now()));
+    }
+
+    @Test
+    public void tryAcquire_toleratesConcurrentRowCreation() {
+        when(lockRepository.existsById(LOCK)).thenReturn(false);
+        when(lockRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(lockRepository.tryAcquire(eq(LOCK), eq(NODE), any(), any())).thenReturn(0);
+
+        assertFalse(lockService.tryAcquire(LOCK, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    public void extend_returnsFalse_whenLeaseLost() {
+        when(lockRepository.extend(eq(LOCK), eq(NODE), any(), any())).thenReturn(0);
+
+        assertFalse(lockService.extend(LOCK, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    public void extend_usesDatabaseClock() {
+        when(lockRepository.extend(LOCK, NODE, DB_NOW, DB_NOW.plusSeconds(30))).thenReturn(1);
+
+        assertTrue(lockService.extend(LOCK, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    public void release_keepsLeaseUntilLockAtLeastForAfterAcquisition() {
+        when(lockRepository.findById(LOCK)).thenReturn(Optional.of(lock(NODE, DB_NOW.minusMinutes(2))));
+
+        lockService.release(LOCK, Duration.ofMinutes(10));
+
+        verify(lockRepository).release(LOCK, NODE, DB_NOW.plusMinutes(8));
+    }
+
+    @Test
+    public void release_afterLockAtLeastFor_endsLeaseNow() {
+        when(lockRepository.findById(LOCK)).thenReturn(Optional.of(lock(NODE, DB_NOW.minusMinutes(2))));
+
+        lockService.release(LOCK, Duration.ofMinutes(1));
+
+        verify(lockRepository).release(LOCK, NODE, DB_NOW);
+    }
+
+    @Test
+    public void release_leaseTakenOver_leavesItAlone() {
+        when(lockRepository.findById(LOCK)).thenReturn(Optional.of(lock("node-b", DB_NOW)));
+
+        lockService.release(LOCK, Duration.ZERO);
+
+        verify(lockRepository, never()).release(any(), any(), any());
+    }
+
+    @Test
+    public void release_swallowsRepositoryFailure() {
+        when(lockRepository.findDatabaseTime()).thenThrow(new RuntimeException("db down"));
+
+        lockService.release(LOCK, Duration.ZERO);
+    }
+
+    private static SchedulerLock lock(String lockedBy, LocalDateTime lockedAt) {
+        return SchedulerLock.builder()
+                .lockName(LOCK)
+                .lockedBy(lockedBy)
+                .lockedAt(lockedAt)
+                .lockUntil(lockedAt.plusSeconds(30))
+                .build();
+    }
+
+    @Test
+    public void recordRun_savesHistoryWithNodeAndDuration() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(2);
+        LocalDateTime end = start.plusSeconds(2);
+
+        lockService.recordRun(LOCK, start, end, JobRunStatus.FAILED, "boom");
+
+        ArgumentCaptor<SchedulerRunHistory> captor = ArgumentCaptor.forClass(SchedulerRunHistory.class);
+        verify(historyRepository).save(captor.capture());
+        SchedulerRunHistory run = captor.getValue();
+        assertEquals(NODE, run.getNodeId());
+        assertEquals(Long.valueOf(2000), run.getDurationMs());
+        assertEquals(JobRunStatus.FAILED, run.getStatus());
+        assertEquals("boom", run.getErrorMessage());
+    }
+
+    @Test
+    public void recordRun_persistsItemCounters() {
+        LocalDateTime start = LocalDateTime.now();
+
+        lockService.recordRun(LOCK, start, start.plusSeconds(1), JobRunStatus.SUCCEEDED, 42, 3, null);
+
+        ArgumentCaptor<SchedulerRunHistory> captor = ArgumentCaptor.forClass(SchedulerRunHistory.class);
+        verify(historyRepository).save(captor.capture());
+        assertEquals(Long.valueOf(42), captor.getValue().getItemsProcessed());
+        assertEquals(Long.valueOf(3), captor.getValue().getFailures());
+    }
+
+    @Test
+    public void purgeRunHistory_deletesRowsStartedBeforeTheCutoff() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        when(historyRepository.purgeStartedBefore(cutoff)).thenReturn(12);
+
+        assertEquals(12, lockService.purgeRunHistory(cutoff));
+    }
+
+    @Test
+    public void nodeId_defaultsToHostAndPid_whenNotConfigured() {
+        SchedulerLockServiceImpl service =
+                new SchedulerLockServiceImpl(lockRepository, historyRepository, transactionManager, "");
+
+        assertTrue(service.getNodeId().endsWith(":" + ProcessHandle.current().pid()));
+    }
+}
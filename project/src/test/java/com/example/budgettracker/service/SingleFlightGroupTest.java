@@ -0,0 +1,161 @@
+package com.example.budgettracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightGroupTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlightGroup group;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        group = new SingleFlightGroup(meterRegistry);
+        pool = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void concurrentIdenticalCalls_shareOneComputation() throws Exception {
+        SingleFlightGroup.Key key = key("dashboard", 7L);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Object>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(pool.submit(() -> call(key, () -> {
+                runs.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return new Object();
+            })));
+        }
+        awaitJoined("dashboard", 7);
+        release.countDown();
+
+        Object first = calls.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Object> call : calls) {
+            assertSame(first, call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1.0, meterRegistry.get("singleflight.calls").tag("operation", "dashboard").tag("role", "leader").functionCounter().count(), 0.0);
+        assertEquals(0.875, meterRegistry.get("singleflight.collapse.ratio").tag("operation", "dashboard").gauge().value(), 1e-9);
+        assertEquals(0, group.inFlightCount());
+    }
+
+    @Test
+    public void differentArguments_runSeparately() throws Throwable {
+        AtomicInteger runs = new AtomicInteger();
+
+        group.execute(key("spending-trend", 7L, "WEEK"), runs::incrementAndGet);
+        group.execute(key("spending-trend", 7L, "MONTH"), runs::incrementAndGet);
+        group.execute(key("spending-trend", 8L, "WEEK"), runs::incrementAndGet);
+
+        assertEquals(3, runs.get());
+        assertEquals(0.0, meterRegistry.get("singleflight.collapse.ratio").tag("operation", "spending-trend").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void finishedComputation_isNotReused() throws Throwable {
+        SingleFlightGroup.Key key = key("report", 7L);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(Integer.valueOf(1), group.execute(key, runs::incrementAndGet));
+        assertEquals(Integer.valueOf(2), group.execute(key, runs::incrementAndGet));
+    }
+
+    @Test
+    public void leaderFailure_reachesEveryJoiner() throws Exception {
+        SingleFlightGroup.Key key = key("budget-summary", 7L, 3L);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = pool.submit(() -> call(key, () -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalArgumentException("Category not found");
+        }));
+        awaitInFlight(1);
+        Future<Object> joiner = pool.submit(() -> call(key, () -> "never runs"));
+        awaitJoined("budget-summary", 1);
+        release.countDown();
+
+        for (Future<Object> call : List.of(leader, joiner)) {
+            try {
+                call.get(5, TimeUnit.SECONDS);
+                fail("expected the leader's exception");
+            } catch (java.util.concurrent.ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+                assertEquals("Category not found", e.getCause().getMessage());
+            }
+        }
+        assertEquals(0, group.inFlightCount());
+    }
+
+    @Test
+    public void forget_makesLaterCallersStartFresh() throws Throwable {
+        SingleFlightGroup.Key key = key("dashboard", 7L);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> before = pool.submit(() -> call(key, () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "before write";
+        }));
+        awaitInFlight(1);
+
+        group.forget(7L);
+        assertEquals("after write", group.execute(key, () -> "after write"));
+
+        release.countDown();
+        assertEquals("before write", before.get(5, TimeUnit.SECONDS));
+    }
+
+    private Object call(SingleFlightGroup.Key key, SingleFlightGroup.Computation<Object> computation) throws Exception {
+        try {
+            return group.execute(key, computation);
+        } catch (Exception e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private void awaitJoined(String operation, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            var counter = meterRegistry.find("singleflight.calls").tag("operation", operation).tag("role", "joined").functionCounter();
+            if (counter != null && counter.count() >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("callers did not join in time");
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (group.inFlightCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, group.inFlightCount());
+    }
+
+    private static SingleFlightGroup.Key key(String operation, Object... args) {
+        return new SingleFlightGroup.Key(operation, List.of(args));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.Account;
+import com.example.budgettracker.model.CashFlow;
+import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.Subscription;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.AccountType;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.model.enums.DomainEventType;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.SubscriptionRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SubscriptionPostingServiceImplTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long SUB_ID = 10L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private CashFlowRepository cashFlowRepository;
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private DomainEventPublisher domainEventPublisher;
+
+    @Mock
+    private SyncChangeLog syncChangeLog;
+
+    @InjectMocks
+    private SubscriptionPostingServiceImpl postingService;
+
+    private User user;
+    private Account cash;
+    private Subscription subscription;
+
+    @Before
+    public void setUp() {
+        user = User.builder().userId(USER_ID).email("u@example.com").build();
+        cash = Account.builder().accountId(5L).accountType(AccountType.CASH).user(user).build();
+        subscription = Subscription.builder()
+                .subscriptionId(SUB_ID)
+                .merchant("Netflix")
+                .amount(new BigDecimal("15.99"))
+                .frequency("WEEKLY")
+                .isActive(true)
+                .nextPostAt(NOW.minusWeeks(2))
+                .user(user)
+                .build();
+    }
+
+    @Test
+    public void postDue_catchesUpMissedPostings_andAdvancesNextPostAt() {
+        when(subscriptionRepository.findByIdForUpdate(SUB_ID)).thenReturn(Optional.of(subscription));
+        when(categoryDictionary.getOrCreate(USER_ID, "Subscriptions"))
+                .thenReturn(Category.builder().categoryId(3L).name("Subscriptions").build());
+        when(accountRepository.findFirstByUser_UserIdAndAccountType(USER_ID, AccountType.CASH))
+                .thenReturn(Optional.of(cash));
+
+        LocalDateTime next = postingService.postDue(SUB_ID, NOW);
+
+        // due 2 weeks ago, 1 week ago and now
+        verify(cashFlowRepository, times(3)).save(any(CashFlow.class));
+        verify(domainEventPublisher, times(3)).publish(eq(USER_ID), eq(DomainEventType.SUBSCRIPTION_POSTED), anyMap());
+        assertEquals(NOW.plusWeeks(1), next);
+        assertEquals(NOW.plusWeeks(1), subscription.getNextPostAt());
+    }
+
+    @Test
+    public void postDue_postsRecurringIncomeAsIncome() {
+        subscription.setType(CashFlowType.Income);
+        subscription.setNextPostAt(NOW);
+        when(subscriptionRepository.findByIdForUpdate(SUB_ID)).thenReturn(Optional.of(subscription));
+        when(categoryDictionary.getOrCreate(USER_ID, "Income"))
+                .thenReturn(Category.builder().categoryId(4L).name("Income").build());
+        when(accountRepository.findFirstByUser_UserIdAndAccountType(USER_ID, AccountType.CASH))
+                .thenReturn(Optional.of(cash));
+
+        postingService.postDue(SUB_ID, NOW);
+
+        ArgumentCaptor<CashFlow> captor = ArgumentCaptor.forClass(CashFlow.class);
+        verify(cashFlowRepository).save(captor.capture());
+        assertEquals(CashFlowType.Income, captor.getValue().getType());
+        assertEquals("Income", captor.getValue().getCategory().getName());
+    }
+
+    @Test
+    public void postDue_doesNothing_whenAlreadyPostedElsewhere() {
+        subscription.setNextPostAt(NOW.plusDays(3));
+        when(subscriptionRepository.findByIdForUpdate(SUB_ID)).thenReturn(Optional.of(subscription));
+
+        assertEquals(NOW.plusDays(3), postingService.postDue(SUB_ID, NOW));
+        verifyNoInteractions(cashFlowRepository);
+    }
+
+    @Test
+    public void postDue_returnsNull_whenPausedOrDeleted() {
+        subscription.setIsActive(false);
+        when(subscriptionRepository.findByIdForUpdate(SUB_ID)).thenReturn(Optional.of(subscription));
+        when(subscriptionRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
+
+        assertNull(postingService.postDue(SUB_ID, NOW));
+        assertNull(postingService.postDue(99L, NOW));
+        verifyNoInteractions(cashFlowRepository);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void postDue_throws_whenUserHasNoCashAccount() {
+        when(subscriptionRepository.findByIdForUpdate(SUB_ID)).thenReturn(Optional.of(subscription));
+        when(categoryDictionary.getOrCreate(USER_ID, "Subscriptions"))
+                .thenReturn(Category.builder().categoryId(3L).name("Subscriptions").build());
+        when(accountRepository.findFirstByUser_UserIdAndAccountType(USER_ID, AccountType.CASH))
+                .thenReturn(Optional.empty());
+
+        postingService.postDue(SUB_ID, NOW);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.Subscription;
+import com.example.budgettracker.repository.SubscriptionRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SubscriptionRecurrenceEngineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private SubscriptionPostingService postingService;
+
+    private SubscriptionRecurrenceEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new SubscriptionRecurrenceEngine(subscriptionRepository, postingService, false);
+    }
+
+    @Test
+    public void nextDueAt_returnsEarliestScheduledInstant() {
+        engine.schedule(subscription(1L, NOW.plusDays(3), true));
+        engine.schedule(subscription(2L, NOW.plusHours(1), true));
+        engine.schedule(subscription(3L, NOW.plusDays(1), true));
+
+        assertEquals(NOW.plusHours(1), engine.nextDueAt());
+        assertEquals(3, engine.size());
+    }
+
+    @Test
+    public void runDue_postsOnlyDueSubscriptions_andReschedules() {
+        engine.schedule(subscription(1L, NOW.minusMinutes(5), true));
+        engine.schedule(subscription(2L, NOW.plusDays(2), true));
+        when(postingService.postDue(1L, NOW)).thenReturn(NOW.plusMonths(1).minusMinutes(5));
+
+        int processed = engine.runDue(NOW);
+
+        assertEquals(1, processed);
+        verify(postingService).postDue(1L, NOW);
+        verify(postingService, never()).postDue(eq(2L), any());
+        assertEquals(NOW.plusDays(2), engine.nextDueAt());
+        assertEquals(2, engine.size());
+    }
+
+    @Test
+    public void reschedule_replacesPreviousDueInstant() {
+        engine.schedule(subscription(1L, NOW.minusMinutes(1), true));
+        engine.schedule(subscription(1L, NOW.plusDays(7), true));
+
+        assertEquals(0, engine.runDue(NOW));
+        assertEquals(NOW.plusDays(7), engine.nextDueAt());
+        verifyNoInteractions(postingService);
+    }
+
+    @Test
+    public void pausedOrDeletedSubscriptions_areNotPosted() {
+        engine.schedule(subscription(1L, NOW.minusDays(1), true));
+        engine.schedule(subscription(2L, NOW.minusDays(1), true));
+        engine.schedule(subscription(1L, NOW.minusDays(1), false));
+        engine.unschedule(2L);
+
+        assertEquals(0, engine.runDue(NOW));
+        assertNull(engine.nextDueAt());
+        verifyNoInteractions(postingService);
+    }
+
+    @Test
+    public void runDue_retriesLater_whenPostingFails() {
+        engine.schedule(subscription(1L, NOW.minusMinutes(1), true));
+        when(postingService.postDue(1L, NOW)).thenThrow(new IllegalStateException("No CASH account"));
+
+        engine.runDue(NOW);
+
+        assertEquals(NOW.plusMinutes(15), engine.nextDueAt());
+    }
+
+    @Test
+    public void runDue_dropsSubscription_whenPostingReportsNothingToSchedule() {
+        engine.schedule(subscription(1L, NOW.minusMinutes(1), true));
+        when(postingService.postDue(1L, NOW)).thenReturn(null);
+
+        engine.runDue(NOW);
+
+        assertEquals(0, engine.size());
+    }
+
+    private static Subscription subscription(Long id, LocalDateTime nextPostAt, boolean active) {
+        return Subscription.builder()
+                .subscriptionId(id)
+                .merchant("Merchant " + id)
+                .frequency("MONTHLY")
+                .isActive(active)
+                .nextPostAt(nextPostAt)
+                .build();
+    }
+}
@@ -4,6 +4,8 @@ import com.example.budgettracker.dto.SubscriptionRequest;
 import com.example.budgettracker.dto.SubscriptionResponse;
 import com.example.budgettracker.model.Subscription;
 import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.SubscriptionRepository;
 import com.example.budgettracker.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -11,6 +13,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
@@ -43,6 +46,15 @@ public class SubscriptionServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SubscriptionRecurrenceEngine recurrenceEngine;
+
+    @Mock
+    private SyncChangeLog syncChangeLog;
+
+    @Mock
+    private CashFlowRepository cashFlowRepository;
+
     @InjectMocks
     private SubscriptionServiceImpl subscriptionService;
 
@@ -312,6 +324,18 @@ public class SubscriptionServiceImplTest {
         verify(subscriptionRepository).delete(testSubscription);
     }
 
+    @Test
+    public void delete_afterPosting_detachesPostedCashFlowsBeforeDeleting() {
+        when(subscriptionRepository.findById(SUBSCRIPTION_ID)).thenReturn(Optional.of(testSubscription));
+        when(cashFlowRepository.detachFromSubscription(SUBSCRIPTION_ID)).thenReturn(3);
+
+        subscriptionService.delete(USER_ID, SUBSCRIPTION_ID);
+
+        InOrder order = inOrder(cashFlowRepository, subscriptionRepository);
+        order.verify(cashFlowRepository).detachFromSubscription(SUBSCRIPTION_ID);
+        order.verify(subscriptionRepository).delete(testSubscription);
+    }
+
     @Test(expected = EntityNotFoundException.class)
     public void delete_throws_whenSubscriptionNotFound() {
         when(subscriptionRepository.findById(SUBSCRIPTION_ID)).thenReturn(Optional.empty());
@@ -330,6 +354,66 @@ public class SubscriptionServiceImplTest {
         subscriptionService.delete(USER_ID, SUBSCRIPTION_ID);
     }
 
+    // ==================== recurrence index sync Tests ====================
+
+    @Test
+    public void create_schedulesSubscriptionInRecurrenceEngine() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+        when(subscriptionRepository.save(any(Subscription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        subscriptionService.create(USER_ID, subscriptionRequest);
+
+        verify(recurrenceEngine).schedule(any(Subscription.class));
+    }
+
+    @Test
+    public void create_defaultsToExpense_andAcceptsRecurringIncome() {
+        subscriptionRequest.setType(CashFlowType.Income);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+        when(subscriptionRepository.save(any(Subscription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SubscriptionResponse response = subscriptionService.create(USER_ID, subscriptionRequest);
+
+        assertThat(response.getType(), is(CashFlowType.Income));
+    }
+
+    @Test
+    public void update_reschedulesSubscription() {
+        when(subscriptionRepository.findById(SUBSCRIPTION_ID)).thenReturn(Optional.of(testSubscription));
+
+        subscriptionService.update(USER_ID, SUBSCRIPTION_ID, subscriptionRequest);
+
+        verify(recurrenceEngine).schedule(testSubscription);
+    }
+
+    @Test
+    public void pause_unschedulesSubscription() {
+        when(subscriptionRepository.findById(SUBSCRIPTION_ID)).thenReturn(Optional.of(testSubscription));
+
+        subscriptionService.pause(USER_ID, SUBSCRIPTION_ID);
+
+        verify(recurrenceEngine).unschedule(SUBSCRIPTION_ID);
+    }
+
+    @Test
+    public void resume_schedulesSubscription() {
+        testSubscription.setIsActive(false);
+        when(subscriptionRepository.findById(SUBSCRIPTION_ID)).thenReturn(Optional.of(testSubscription));
+
+        subscriptionService.resume(USER_ID, SUBSCRIPTION_ID);
+
+        verify(recurrenceEngine).schedule(testSubscription);
+    }
+
+    @Test
+    public void delete_unschedulesSubscription() {
+        when(subscriptionRepository.findById(SUBSCRIPTION_ID)).thenReturn(Optional.of(testSubscription));
+
+        subscriptionService.delete(USER_ID, SUBSCRIPTION_ID);
+
+        verify(recurrenceEngine).unschedule(SUBSCRIPTION_ID);
+    }
+
     // ==================== monthlyEquivalent Tests ====================
 
     @Test
@@ -0,0 +1,85 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.model.SyncChange;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.SyncChangeRepository;
+import com.example.budgettracker.repository.UserRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SyncChangeLogTest {
+
+    @Mock private SyncChangeRepository syncChangeRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private SingleFlightGroup singleFlightGroup;
+
+    @InjectMocks
+    private SyncChangeLog syncChangeLog;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void changed_numbersEntriesAfterTheUsersLatestVersionUnderTheUserLock() {
+        when(syncChangeRepository.findMaxVersion(7L)).thenReturn(41L);
+        SyncChange existing = SyncChange.builder()
+                .id(1L).userId(7L).entityType(SyncEntityType.ACCOUNT).entityId(10L)
+                .version(3L).deleted(false).changedAt(LocalDateTime.now().minusDays(1))
+                .build();
+        when(syncChangeRepository.findEntries(7L, SyncEntityType.ACCOUNT, List.of(10L, 11L))).thenReturn(List.of(existing));
+
+        syncChangeLog.changed(7L, SyncEntityType.ACCOUNT, 10L, 11L, 10L);
+
+        InOrder order = inOrder(syncChangeRepository, userRepository);
+        order.verify(syncChangeRepository).flush();
+        order.verify(userRepository).findByIdForUpdate(7L);
+        order.verify(syncChangeRepository).findMaxVersion(7L);
+
+        ArgumentCaptor<List<SyncChange>> saved = ArgumentCaptor.forClass(List.class);
+        verify(syncChangeRepository).saveAll(saved.capture());
+        List<SyncChange> entries = new ArrayList<>(saved.getValue());
+        assertEquals(2, entries.size());
+        // The existing row is moved forward rather than duplicated
+        assertSame(existing, entries.get(0));
+        assertEquals(Long.valueOf(42L), entries.get(0).getVersion());
+        assertEquals(Long.valueOf(11L), entries.get(1).getEntityId());
+        assertEquals(Long.valueOf(43L), entries.get(1).getVersion());
+        assertFalse(entries.get(1).isDeleted());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deleted_leavesTombstone() {
+        when(syncChangeRepository.findEntries(eq(7L), eq(SyncEntityType.GOAL), anyCollection())).thenReturn(List.of());
+
+        syncChangeLog.deleted(7L, SyncEntityType.GOAL, 5L);
+
+        ArgumentCaptor<List<SyncChange>> saved = ArgumentCaptor.forClass(List.class);
+        verify(syncChangeRepository).saveAll(saved.capture());
+        SyncChange tombstone = saved.getValue().get(0);
+        assertTrue(tombstone.isDeleted());
+        assertEquals(Long.valueOf(1L), tombstone.getVersion());
+        // No transaction here, so the user's in-flight reads are dropped straight away
+        verify(singleFlightGroup).forget(7L);
+    }
+
+    @Test
+    public void changed_withoutIds_touchesNothing() {
+        syncChangeLog.changed(7L, SyncEntityType.CASH_FLOW, (Long) null);
+        syncChangeLog.deleted(7L, SyncEntityType.CASH_FLOW, List.of());
+
+        verifyNoInteractions(syncChangeRepository, userRepository, singleFlightGroup);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.dto.Sync.SyncChangeResponse;
+import com.example.budgettracker.dto.Sync.SyncResponse;
+import com.example.budgettracker.model.Account;
+import com.example.budgettracker.model.SyncChange;
+import com.example.budgettracker.model.enums.AccountType;
+import com.example.budgettracker.model.enums.SyncEntityType;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CategoryBudgetRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.repository.GoalRepository;
+import com.example.budgettracker.repository.SubscriptionRepository;
+import com.example.budgettracker.repository.SyncChangeRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SyncServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock private SyncChangeRepository syncChangeRepository;
+    @Mock private SyncChangeLog syncChangeLog;
+    @Mock private AccountRepository accountRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private GoalRepository goalRepository;
+    @Mock private SubscriptionRepository subscriptionRepository;
+    @Mock private CashFlowRepository cashFlowRepository;
+    @Mock private CategoryBudgetRepository categoryBudgetRepository;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private static SyncChange change(SyncEntityType type, long id, long version, boolean deleted) {
+        return SyncChange.builder()
+                .userId(USER_ID).entityType(type).entityId(id)
+                .version(version).deleted(deleted).changedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    public void firstSync_asksForFullReloadAndHandsOutCurrentCursor() {
+        when(syncChangeLog.currentVersion(USER_ID)).thenReturn(12L);
+
+        SyncResponse response = syncService.changesSince(USER_ID, null, 100);
+
+        assertTrue(response.isResetRequired());
+        assertEquals("12", response.getCursor());
+        assertTrue(response.getChanges().isEmpty());
+        verifyNoInteractions(syncChangeRepository);
+    }
+
+    @Test
+    public void changesSince_returnsLiveStateAndTombstones() {
+        when(syncChangeLog.currentVersion(USER_ID)).thenReturn(20L);
+        when(syncChangeRepository.findChangesSince(USER_ID, 10L, PageRequest.of(0, 101))).thenReturn(List.of(
+                change(SyncEntityType.ACCOUNT, 5L, 11L, false),
+                change(SyncEntityType.GOAL, 3L, 12L, true),
+                change(SyncEntityType.CASH_FLOW, 99L, 13L, false)));
+        Account account = Account.builder().accountId(5L).name("Cash").accountType(AccountType.CASH)
+                .balance(new BigDecimal("40.00")).build();
+        when(accountRepository.findByUser_UserIdAndAccountIdIn(USER_ID, Set.of(5L))).thenReturn(List.of(account));
+        // Cash flow 99 is gone without a tombstone of its own
+        when(cashFlowRepository.findByAccount_User_UserIdAndCashFlowIdIn(USER_ID, Set.of(99L))).thenReturn(List.of());
+
+        SyncResponse response = syncService.changesSince(USER_ID, "10", 100);
+
+        assertFalse(response.isResetRequired());
+        assertFalse(response.isHasMore());
+        assertEquals("13", response.getCursor());
+        List<SyncChangeResponse> changes = response.getChanges();
+        assertEquals(3, changes.size());
+        assertFalse(changes.get(0).isDeleted());
+        assertEquals(new SyncChangeResponse.AccountData(5L, "Cash", "CASH", new BigDecimal("40.00")), changes.get(0).getData());
+        assertTrue(changes.get(1).isDeleted());
+        assertNull(changes.get(1).getData());
+        assertTrue(changes.get(2).isDeleted());
+        verify(goalRepository, never()).findByUser_UserIdAndIdIn(anyLong(), anyCollection());
+    }
+
+    @Test
+    public void changesSince_fullPage_setsHasMoreAndCursorAtLastReturnedChange() {
+        when(syncChangeLog.currentVersion(USER_ID)).thenReturn(50L);
+        when(syncChangeRepository.findChangesSince(USER_ID, 0L, PageRequest.of(0, 3))).thenReturn(List.of(
+                change(SyncEntityType.BUDGET, 1L, 1L, true),
+                change(SyncEntityType.BUDGET, 2L, 2L, true),
+                change(SyncEntityType.BUDGET, 3L, 3L, true)));
+
+        SyncResponse response = syncService.changesSince(USER_ID, "0", 2);
+
+        assertTrue(response.isHasMore());
+        assertEquals(2, response.getChanges().size());
+        assertEquals("2", response.getCursor());
+    }
+
+    @Test
+    public void changesSince_cursorAheadOfLog_requiresReset() {
+        when(syncChangeLog.currentVersion(USER_ID)).thenReturn(5L);
+
+        SyncResponse response = syncService.changesSince(USER_ID, "900", 100);
+
+        assertTrue(response.isResetRequired());
+        assertEquals("5", response.getCursor());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void changesSince_rejectsGarbageCursor() {
+        when(syncChangeLog.currentVersion(USER_ID)).thenReturn(5L);
+        syncService.changesSince(USER_ID, "abc", 100);
+    }
+}
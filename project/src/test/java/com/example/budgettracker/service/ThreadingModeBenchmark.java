@@ -0,0 +1,230 @@
+package com.example.budgettracker.service;
+
+import com.example.budgettracker.config.ConnectionAcquisitionGuard;
+import com.example.budgettracker.config.VirtualThreadConfig;
+import com.example.budgettracker.dto.Dashboard.DashboardResponse;
+import com.example.budgettracker.dto.ExpenseRequest;
+import com.example.budgettracker.model.Account;
+import com.example.budgettracker.model.CashFlow;
+import com.example.budgettracker.model.Category;
+import com.example.budgettracker.model.User;
+import com.example.budgettracker.model.enums.AccountType;
+import com.example.budgettracker.model.enums.CashFlowType;
+import com.example.budgettracker.repository.AccountRepository;
+import com.example.budgettracker.repository.CashFlowRepository;
+import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Platform vs virtual threads on the two hottest flows, through the real services on H2:
+ * DashboardServiceImpl.getDashboardData and ExpenseServiceImpl.recordExpense. 1000 requests
+ * arrive at once, one per user so that they only compete for connections, not for a user's rows;
+ * platform threads are capped at Tomcat's 200 workers, virtual threads get one thread per request.
+ * The DataSource is a 10-connection Hikari pool behind the {@link ConnectionAcquisitionGuard}, as
+ * in the virtual-threads profile.
+ * Not part of the test task: run it with ./gradlew benchmark, which uses a Java 21 toolchain so
+ * the virtual half runs. Timings are logged, not asserted; what is asserted is that every request
+ * succeeds, no expense is lost and no caller times out on the guard.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:threadingbench;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "app.datasource.guard.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({DashboardServiceImpl.class, BudgetServiceImpl.class, ExpenseServiceImpl.class, DomainEventPublisher.class,
+        SyncChangeLog.class, SingleFlightGroup.class, SimpleMeterRegistry.class, JacksonAutoConfiguration.class,
+        VirtualThreadConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ThreadingModeBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeBenchmark.class);
+    private static final int REQUESTS = 1000;
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_WORKERS = 200;
+
+    @Autowired private DashboardService dashboardService;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CashFlowRepository cashFlowRepository;
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private ConnectionAcquisitionGuard guard;
+
+    private record Fixture(Long userId, Long accountId, Long categoryId) {}
+
+    private enum Flow { DASHBOARD, EXPENSE }
+
+    private record Result(long elapsedNanos, long p50Nanos, long p99Nanos) {}
+
+    @Before
+    public void setUp() throws Exception {
+        tx = new TransactionTemplate(transactionManager);
+        guard = dataSource.unwrap(ConnectionAcquisitionGuard.class);
+    }
+
+    @Test
+    public void platformThreads() throws Exception {
+        List<Fixture> fixtures = fixtures();
+        warmUp(fixtures);
+        for (Flow flow : Flow.values()) {
+            ExecutorService workers = Executors.newFixedThreadPool(PLATFORM_WORKERS);
+            try {
+                report("platform", flow, run(workers, flow, fixtures));
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void virtualThreads() throws Exception {
+        Assume.assumeTrue("virtual threads need Java 21; run ./gradlew benchmark", Runtime.version().feature() >= 21);
+        List<Fixture> fixtures = fixtures();
+        warmUp(fixtures);
+        for (Flow flow : Flow.values()) {
+            // Called reflectively so the tests still compile on the Java 17 toolchain
+            ExecutorService workers = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            try {
+                report("virtual", flow, run(workers, flow, fixtures));
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    private List<Fixture> fixtures() {
+        List<Fixture> fixtures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            fixtures.add(tx.execute(status -> {
+                User user = userRepository.save(User.builder()
+                        .email("bench-" + System.nanoTime() + "@example.com")
+                        .hashedPassword("x")
+                        .firstName("Bench")
+                        .lastName("User")
+                        .build());
+                Account account = accountRepository.save(Account.builder()
+                        .user(user).name("Cash").accountType(AccountType.CASH).balance(new BigDecimal("10000.00")).build());
+                Category food = categoryRepository.save(Category.builder().user(user).name("Food").build());
+                categoryRepository.save(Category.builder().user(user).name("Rent").build());
+                for (int e = 0; e < 10; e++) {
+                    cashFlowRepository.save(CashFlow.builder()
+                            .type(CashFlowType.Expense)
+                            .amount(new BigDecimal("12.50"))
+                            .occurredAt(LocalDateTime.now().minusDays(e))
+                            .description("History " + e)
+                            .account(account)
+                            .category(food)
+                            .build());
+                }
+                return new Fixture(user.getUserId(), account.getAccountId(), food.getCategoryId());
+            }));
+        }
+        return fixtures;
+    }
+
+    // JIT, Hibernate's query plans and the pool, so neither mode pays for them
+    private void warmUp(List<Fixture> fixtures) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            run(workers, Flow.DASHBOARD, fixtures);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Result run(ExecutorService workers, Flow flow, List<Fixture> fixtures) throws Exception {
+        List<BigDecimal> before = fixtures.stream().map(f -> balance(f.accountId())).toList();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        long start = System.nanoTime();
+        List<Future<?>> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            Fixture f = fixtures.get(i);
+            requests.add(workers.submit(() -> {
+                if (flow == Flow.DASHBOARD) {
+                    DashboardResponse response = dashboardService.getDashboardData(f.userId());
+                    assertTrue(response.isDataAvailable());
+                } else {
+                    expenseService.recordExpense(f.userId(), expense(f));
+                }
+                latencies.add(System.nanoTime() - start);
+                return null;
+            }));
+        }
+        for (Future<?> request : requests) {
+            request.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(REQUESTS, latencies.size());
+        assertEquals(0, guard.getActive());
+        assertEquals(0.0, guard.getTimeouts(), 0.0);
+        BigDecimal spentPerUser = flow == Flow.EXPENSE ? new BigDecimal("1.00") : BigDecimal.ZERO;
+        for (int i = 0; i < fixtures.size(); i++) {
+            assertEquals(0, balance(fixtures.get(i).accountId()).compareTo(before.get(i).subtract(spentPerUser)));
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(elapsed, sorted.get(sorted.size() / 2), sorted.get(sorted.size() * 99 / 100));
+    }
+
+    private static ExpenseRequest expense(Fixture f) {
+        ExpenseRequest request = new ExpenseRequest();
+        request.setAccountId(f.accountId());
+        request.setCategoryId(f.categoryId());
+        request.setAmount(new BigDecimal("1.00"));
+        request.setOccurredAt(LocalDateTime.now());
+        request.setDescription("Coffee");
+        return request;
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return tx.execute(status -> accountRepository.findById(accountId).orElseThrow().getBalance());
+    }
+
+    private static void report(String mode, Flow flow, Result result) {
+        log.info("{} {} on Java {}, {} cores: {} requests in {}ms, p50 {}ms, p99 {}ms", mode, flow,
+                Runtime.version().feature(), Runtime.getRuntime().availableProcessors(), REQUESTS,
+                result.elapsedNanos() / 1_000_000, result.p50Nanos() / 1_000_000, result.p99Nanos() / 1_000_000);
+    }
+}
@@ -11,7 +11,9 @@ import com.example.budgettracker.model.enums.CashFlowType;
 import com.example.budgettracker.repository.AccountRepository;
 import com.example.budgettracker.repository.CashFlowRepository;
 import com.example.budgettracker.repository.CategoryRepository;
+import com.example.budgettracker.service.DomainEventPublisher;
 import com.example.budgettracker.service.ExpenseServiceImpl;
+import com.example.budgettracker.service.SyncChangeLog;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -43,6 +45,12 @@ public class AddExpenseTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private DomainEventPublisher domainEventPublisher;
+
+    @Mock
+    private SyncChangeLog syncChangeLog;
+
     @InjectMocks
     private ExpenseServiceImpl expenseService;
 